@@ -0,0 +1,712 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * An <code>ETSoapMapperProcessor</code> generates a mapper class
+ * for each type annotated with <code>@SoapObject</code>, e.g.
+ * <code>ETSubscriberMapper</code> for <code>ETSubscriber</code>.
+ * The generated mappers copy fields between the external type and
+ * its internal (CXF generated) type with plain getter and setter
+ * calls, and list the SOAP property names of the type, so
+ * <code>ETSoapObject</code> doesn't have to discover any of this
+ * reflectively at runtime.
+ *
+ * Fields the processor can't map directly (no accessors on one of
+ * the two types, or lists that don't map onto lists) are left to
+ * the reflective mapping, one field at a time.
+ */
+
+@SupportedAnnotationTypes(ETSoapMapperProcessor.SOAP_OBJECT)
+public class ETSoapMapperProcessor extends AbstractProcessor {
+    static final String PACKAGE = "com.exacttarget.fuelsdk";
+    static final String SOAP_OBJECT = PACKAGE + ".annotations.SoapObject";
+    static final String EXTERNAL_NAME = PACKAGE + ".annotations.ExternalName";
+    static final String INTERNAL_NAME = PACKAGE + ".annotations.InternalName";
+    static final String INTERNAL_PROPERTY = PACKAGE + ".annotations.InternalProperty";
+    static final String SOAP_OBJECT_TYPE = PACKAGE + ".ETSoapObject";
+    static final String API_OBJECT_TYPE = PACKAGE + ".internal.APIObject";
+    static final String XML_ELEMENT = "javax.xml.bind.annotation.XmlElement";
+    static final String XML_ELEMENT_REF = "javax.xml.bind.annotation.XmlElementRef";
+
+    //
+    // Values of these types are assigned as is: the standard
+    // converters return them unchanged when they're already
+    // of the property type.
+    //
+
+    private static final Set<String> SIMPLE_TYPES = new HashSet<String>(Arrays.asList(
+            "java.lang.String",
+            "java.lang.Boolean",
+            "java.lang.Byte",
+            "java.lang.Character",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.Double"));
+
+    private Elements elements = null;
+    private Types types = null;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+                           RoundEnvironment roundEnvironment)
+    {
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+
+        TypeElement soapObject = elements.getTypeElement(SOAP_OBJECT);
+        if (soapObject == null) {
+            return false;
+        }
+
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(soapObject)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (!isMappable(type)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "no mapper generated for " + type.getQualifiedName(),
+                        type);
+                continue;
+            }
+            try {
+                generate(type);
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "could not generate mapper for " + type.getQualifiedName()
+                        + ": " + ex.getMessage(),
+                        type);
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isMappable(TypeElement type) {
+        //
+        // Mappers extend the package-private ETSoapMapper class,
+        // so only concrete top-level types of the SDK package
+        // itself can have one:
+        //
+
+        if (type.getNestingKind().isNested()
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !type.getTypeParameters().isEmpty()) {
+            return false;
+        }
+        PackageElement pkg = elements.getPackageOf(type);
+        if (!pkg.getQualifiedName().contentEquals(PACKAGE)) {
+            return false;
+        }
+        TypeElement soapObjectType = elements.getTypeElement(SOAP_OBJECT_TYPE);
+        if (soapObjectType == null
+                || !types.isSubtype(type.asType(), soapObjectType.asType())) {
+            return false;
+        }
+        return getInternalType(type) != null
+                && hasNoArgConstructor(getInternalType(type));
+    }
+
+    private void generate(TypeElement externalType)
+        throws IOException
+    {
+        TypeElement internalType = getInternalType(externalType);
+
+        String externalName = externalType.getSimpleName().toString();
+        String internalName = internalType.getQualifiedName().toString();
+        String mapperName = externalName + "Mapper";
+
+        List<FieldInfo> fields = new ArrayList<FieldInfo>();
+        for (VariableElement field : getAllFields(externalType)) {
+            if (getAnnotation(field, EXTERNAL_NAME) != null) {
+                fields.add(new FieldInfo(externalType, internalType, field));
+            }
+        }
+
+        boolean propertiesResolved = true;
+        boolean usesDeprecated = false;
+        for (FieldInfo field : fields) {
+            if (!field.propertyResolved) {
+                propertiesResolved = false;
+            }
+            if (field.usesDeprecated()) {
+                usesDeprecated = true;
+            }
+        }
+
+        //
+        // Deprecated properties are still mapped for as long as
+        // they exist, so the mapper shouldn't warn about them:
+        //
+
+        String suppressWarnings = usesDeprecated
+                ? "    @SuppressWarnings({ \"deprecation\", \"rawtypes\", \"unchecked\" })"
+                : "    @SuppressWarnings({ \"rawtypes\", \"unchecked\" })";
+
+        JavaFileObject file = processingEnv.getFiler()
+                .createSourceFile(PACKAGE + "." + mapperName, externalType);
+        PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("import java.util.ArrayList;");
+            out.println("import java.util.Arrays;");
+            out.println("import java.util.Collections;");
+            out.println("import java.util.List;");
+            out.println();
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("/**");
+            out.println(" * Maps <code>" + externalName + "</code> objects to and from");
+            out.println(" * <code>" + internalType.getSimpleName() + "</code> objects.");
+            out.println(" */");
+            out.println();
+            out.println("@Generated(\"" + ETSoapMapperProcessor.class.getName() + "\")");
+            out.println("final class " + mapperName
+                    + " extends ETSoapMapper<" + externalName + ", " + internalName + "> {");
+            if (propertiesResolved) {
+                out.println("    private static final List<String> PROPERTIES =");
+                out.print("            Collections.unmodifiableList(Arrays.asList(");
+                for (int i = 0; i < fields.size(); i++) {
+                    if (i > 0) {
+                        out.print(",");
+                    }
+                    out.println();
+                    out.print("                    " + literal(fields.get(i).property));
+                }
+                out.println("));");
+                out.println();
+            }
+            out.println("    " + mapperName + "() {");
+            out.println("        super(" + externalName + ".class, " + internalName + ".class);");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println(suppressWarnings);
+            out.println("    " + internalName + " toInternal(" + externalName + " externalObject)");
+            out.println("        throws ETSdkException");
+            out.println("    {");
+            out.println("        " + internalName + " internalObject = new " + internalName + "();");
+            for (FieldInfo field : fields) {
+                out.println();
+                field.writeToInternal(out);
+            }
+            out.println();
+            out.println("        return internalObject;");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println(suppressWarnings);
+            out.println("    " + externalName + " fromInternal(" + internalName + " internalObject,");
+            out.println("            " + externalName + " externalObject)");
+            out.println("        throws ETSdkException");
+            out.println("    {");
+            for (FieldInfo field : fields) {
+                field.writeFromInternal(out);
+                out.println();
+            }
+            out.println("        return externalObject;");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    List<String> propertyList()");
+            out.println("        throws ETSdkException");
+            out.println("    {");
+            if (propertiesResolved) {
+                out.println("        return new ArrayList<String>(PROPERTIES);");
+            } else {
+                // let the reflective mapping report the error
+                out.println("        return super.propertyList();");
+            }
+            out.println("    }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * A <code>FieldInfo</code> describes an @ExternalName field and
+     * the accessors used to copy it in each direction.
+     */
+    private class FieldInfo {
+        private String name = null;
+        private String internalName = null;
+        private String property = null;
+        private boolean propertyResolved = true;
+        private ExecutableElement getter = null;
+        private ExecutableElement setter = null;
+        private ExecutableElement internalGetter = null;
+        private ExecutableElement internalSetter = null;
+
+        FieldInfo(TypeElement externalType, TypeElement internalType, VariableElement field) {
+            name = field.getSimpleName().toString();
+
+            AnnotationValue internalNameValue =
+                    getAnnotationValue(getAnnotation(field, INTERNAL_NAME), "value");
+            if (internalNameValue != null) {
+                internalName = (String) internalNameValue.getValue();
+            } else {
+                // internal name is the same as external name
+                internalName = name;
+            }
+
+            getter = findGetter(externalType, name);
+            setter = findSetter(externalType, name, getter);
+            internalGetter = findGetter(internalType, internalName);
+            internalSetter = findSetter(internalType, internalName, internalGetter);
+
+            AnnotationValue internalPropertyValue =
+                    getAnnotationValue(getAnnotation(field, INTERNAL_PROPERTY), "value");
+            if (internalPropertyValue != null) {
+                property = (String) internalPropertyValue.getValue();
+            } else {
+                VariableElement internalField = findField(internalType, internalName);
+                if (internalField == null) {
+                    propertyResolved = false;
+                } else {
+                    //
+                    // The internal property name can be found in the
+                    // @XmlElement (or @XmlElementRef) annotation on the
+                    // internal field of the CXF generated class:
+                    //
+
+                    AnnotationMirror element = getAnnotation(internalField, XML_ELEMENT);
+                    if (element == null) {
+                        element = getAnnotation(internalField, XML_ELEMENT_REF);
+                    }
+                    if (element != null) {
+                        property = (String) getAnnotationValue(element, "name").getValue();
+                    }
+                }
+            }
+        }
+
+        boolean usesDeprecated() {
+            return isDeprecated(getter) || isDeprecated(setter)
+                    || isDeprecated(internalGetter) || isDeprecated(internalSetter);
+        }
+
+        private boolean isDeprecated(ExecutableElement accessor) {
+            return accessor != null && elements.isDeprecated(accessor);
+        }
+
+        void writeToInternal(PrintWriter out) {
+            if (getter == null) {
+                writeFallback(out, "toInternalField", "externalObject", "internalObject");
+                return;
+            }
+            TypeMirror type = getter.getReturnType();
+            if (isList(type)) {
+                TypeMirror itemType = getItemType(type);
+                TypeMirror internalItemType = internalGetter == null
+                        ? null : getItemType(internalGetter.getReturnType());
+                if (itemType == null || internalItemType == null
+                        || !isSubtype(itemType, SOAP_OBJECT_TYPE)
+                        || !isSubtype(internalItemType, API_OBJECT_TYPE)) {
+                    writeFallback(out, "toInternalField", "externalObject", "internalObject");
+                    return;
+                }
+                out.println("        {");
+                out.println("            " + sourceName(type) + " externalList = externalObject."
+                        + getter.getSimpleName() + "();");
+                out.println("            if (externalList != null) {");
+                out.println("                " + sourceName(internalGetter.getReturnType())
+                        + " internalList = internalObject." + internalGetter.getSimpleName() + "();");
+                out.println("                for (" + sourceName(itemType) + " externalItem : externalList) {");
+                out.println("                    internalList.add((" + sourceName(internalItemType)
+                        + ") externalItem.toInternal());");
+                out.println("                }");
+                out.println("            }");
+                out.println("        }");
+                return;
+            }
+            if (internalSetter == null
+                    || isList(internalSetter.getParameters().get(0).asType())) {
+                writeFallback(out, "toInternalField", "externalObject", "internalObject");
+                return;
+            }
+            writeCopy(out, "externalObject", getter, "internalObject", internalSetter);
+        }
+
+        void writeFromInternal(PrintWriter out) {
+            if (internalGetter == null) {
+                writeFallback(out, "fromInternalField", "internalObject", "externalObject");
+                return;
+            }
+            TypeMirror internalType = internalGetter.getReturnType();
+            if (isList(internalType)) {
+                TypeMirror internalItemType = getItemType(internalType);
+                TypeMirror itemType = setter == null
+                        ? null : getItemType(setter.getParameters().get(0).asType());
+                if (itemType == null || internalItemType == null
+                        || !isSubtype(itemType, SOAP_OBJECT_TYPE)
+                        || !isSubtype(internalItemType, API_OBJECT_TYPE)
+                        || !hasNoArgConstructor((TypeElement) types.asElement(itemType))) {
+                    writeFallback(out, "fromInternalField", "internalObject", "externalObject");
+                    return;
+                }
+                String itemName = sourceName(itemType);
+                out.println("        {");
+                out.println("            " + sourceName(internalType) + " internalList = internalObject."
+                        + internalGetter.getSimpleName() + "();");
+                out.println("            if (internalList != null) {");
+                out.println("                List<" + itemName + "> externalList = new ArrayList<"
+                        + itemName + ">();");
+                out.println("                for (" + sourceName(internalItemType)
+                        + " internalItem : internalList) {");
+                out.println("                    externalList.add((" + itemName + ") new "
+                        + itemName + "().fromInternal(internalItem));");
+                out.println("                }");
+                out.println("                externalObject." + setter.getSimpleName()
+                        + "(externalList);");
+                out.println("            }");
+                out.println("        }");
+                return;
+            }
+            if (setter == null || isList(setter.getParameters().get(0).asType())) {
+                writeFallback(out, "fromInternalField", "internalObject", "externalObject");
+                return;
+            }
+            writeCopy(out, "internalObject", internalGetter, "externalObject", setter);
+        }
+
+        private void writeCopy(PrintWriter out,
+                               String source,
+                               ExecutableElement sourceGetter,
+                               String target,
+                               ExecutableElement targetSetter)
+        {
+            TypeMirror sourceType = boxed(sourceGetter.getReturnType());
+            TypeMirror targetType = targetSetter.getParameters().get(0).asType();
+            String targetName = target.equals("internalObject") ? internalName : name;
+
+            String value = null;
+            if (isSimple(sourceType) && types.isSameType(sourceType, boxed(targetType))) {
+                value = "value";
+            } else {
+                TypeMirror erasure = types.erasure(targetType);
+                value = "(" + sourceName(boxed(erasure)) + ") convert(value, "
+                        + sourceName(erasure) + ".class)";
+            }
+
+            out.println("        {");
+            out.println("            " + sourceName(sourceType) + " value = " + source + "."
+                    + sourceGetter.getSimpleName() + "();");
+            out.println("            if (value != null) {");
+            out.println("                try {");
+            out.println("                    " + target + "." + targetSetter.getSimpleName()
+                    + "(" + value + ");");
+            out.println("                } catch (RuntimeException ex) {");
+            out.println("                    throw setFailed(" + literal(targetName) + ", "
+                    + target + ", ex);");
+            out.println("                }");
+            out.println("            }");
+            out.println("        }");
+        }
+
+        private void writeFallback(PrintWriter out, String method, String source, String target) {
+            out.println("        " + method + "(" + literal(name) + ", " + source + ", " + target + ");");
+        }
+    }
+
+    private TypeElement getInternalType(TypeElement type) {
+        AnnotationValue value = getAnnotationValue(getAnnotation(type, SOAP_OBJECT), "internalType");
+        if (value == null || !(value.getValue() instanceof DeclaredType)) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) value.getValue()).asElement();
+    }
+
+    private List<VariableElement> getAllFields(TypeElement type) {
+        //
+        // Superclass fields first, as with ETObject.getAllFields:
+        //
+
+        List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+        for (TypeElement t = type; t != null; t = getSuperclass(t)) {
+            hierarchy.add(t);
+        }
+        Collections.reverse(hierarchy);
+
+        List<VariableElement> fields = new ArrayList<VariableElement>();
+        for (TypeElement t : hierarchy) {
+            fields.addAll(ElementFilter.fieldsIn(t.getEnclosedElements()));
+        }
+        return fields;
+    }
+
+    private VariableElement findField(TypeElement type, String name) {
+        for (TypeElement t = type; t != null; t = getSuperclass(t)) {
+            for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                if (field.getSimpleName().contentEquals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    //
+    // Getters and setters are matched to properties the way
+    // java.beans.Introspector (and so BeanUtils) matches them:
+    //
+
+    private ExecutableElement findGetter(TypeElement type, String property) {
+        for (ExecutableElement method : getPublicMethods(type)) {
+            String methodName = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty()) {
+                continue;
+            }
+            if (methodName.startsWith("get") && methodName.length() > 3
+                    && method.getReturnType().getKind() != TypeKind.VOID
+                    && decapitalize(methodName.substring(3)).equals(property)) {
+                return method;
+            }
+        }
+        for (ExecutableElement method : getPublicMethods(type)) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()
+                    && methodName.startsWith("is") && methodName.length() > 2
+                    && method.getReturnType().getKind() == TypeKind.BOOLEAN
+                    && decapitalize(methodName.substring(2)).equals(property)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private ExecutableElement findSetter(TypeElement type, String property, ExecutableElement getter) {
+        ExecutableElement setter = null;
+        for (ExecutableElement method : getPublicMethods(type)) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().size() != 1
+                    || method.getReturnType().getKind() != TypeKind.VOID
+                    || !methodName.startsWith("set") || methodName.length() <= 3
+                    || !decapitalize(methodName.substring(3)).equals(property)) {
+                continue;
+            }
+            TypeMirror parameterType = method.getParameters().get(0).asType();
+            if (getter != null) {
+                if (types.isSameType(types.erasure(parameterType),
+                                     types.erasure(getter.getReturnType()))) {
+                    return method;
+                }
+            } else if (setter != null) {
+                // ambiguous
+                return null;
+            } else {
+                setter = method;
+            }
+        }
+        return setter;
+    }
+
+    private List<ExecutableElement> getPublicMethods(TypeElement type) {
+        List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && isPublic((TypeElement) method.getEnclosingElement())) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private boolean isPublic(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasNoArgConstructor(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || !isPublic(type)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isList(TypeMirror type) {
+        TypeElement list = elements.getTypeElement("java.util.List");
+        return type.getKind() == TypeKind.DECLARED
+                && types.isAssignable(types.erasure(type), types.erasure(list.asType()));
+    }
+
+    private TypeMirror getItemType(TypeMirror type) {
+        if (!isList(type)) {
+            return null;
+        }
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.size() != 1 || arguments.get(0).getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return arguments.get(0);
+    }
+
+    private boolean isSubtype(TypeMirror type, String superType) {
+        TypeElement element = elements.getTypeElement(superType);
+        return element != null
+                && types.isSubtype(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private boolean isSimple(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && SIMPLE_TYPES.contains(sourceName(types.erasure(type)));
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).asType();
+        }
+        return type;
+    }
+
+    private String sourceName(TypeMirror type) {
+        // type variables don't occur in the SDK's accessors
+        return type.toString();
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String annotationType) {
+        if (element == null) {
+            return null;
+        }
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private AnnotationValue getAnnotationValue(AnnotationMirror annotation, String name) {
+        if (annotation == null) {
+            return null;
+        }
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                elements.getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String decapitalize(String name) {
+        if (name.length() > 1
+                && Character.isUpperCase(name.charAt(0))
+                && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\');
+            }
+            literal.append(c);
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,124 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures 10,000 concurrent blocking retrieves submitted to the
+ * client executor, on virtual threads and on the bounded platform
+ * thread pool, against a local stub of the SOAP endpoint. The
+ * <code>virtual</code> runs need Java 21 or later.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ETExecutorBenchmark {
+    private static final int RETRIEVES = 10000;
+
+    @Param({ "platform", "virtual" })
+    private String executor;
+
+    private ETStubServer server = null;
+    private ETClient client = null;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        if (executor.equals(ETExecutors.VIRTUAL) && !ETExecutors.isVirtualThreadSupported()) {
+            throw new IllegalStateException("virtual threads require Java 21 or later");
+        }
+        server = new ETStubServer();
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("Subscriber", 1, 1));
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("executor", executor);
+        // let the executor rather than the proxy pool limit concurrency
+        configuration.set("soapPoolSize", "256");
+        client = new ETClient(configuration);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public int retrieve()
+        throws Exception
+    {
+        ExecutorService executorService = client.getExecutor();
+        List<Future<ETResponse<ETSubscriber>>> futures =
+                new ArrayList<Future<ETResponse<ETSubscriber>>>(RETRIEVES);
+        for (int i = 0; i < RETRIEVES; i++) {
+            futures.add(executorService.submit(new Callable<ETResponse<ETSubscriber>>() {
+                @Override
+                public ETResponse<ETSubscriber> call()
+                    throws ETSdkException
+                {
+                    return client.retrieve(ETSubscriber.class);
+                }
+            }));
+        }
+        int objects = 0;
+        for (Future<ETResponse<ETSubscriber>> future : futures) {
+            objects += future.get().getObjects().size();
+        }
+        return objects;
+    }
+}
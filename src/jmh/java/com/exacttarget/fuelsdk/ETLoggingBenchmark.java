@@ -0,0 +1,185 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.WriterAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.exacttarget.fuelsdk.internal.APIObject;
+import com.exacttarget.fuelsdk.internal.Subscriber;
+import com.exacttarget.fuelsdk.internal.SubscriberStatus;
+
+/**
+ * Measures the request and response path with SDK logging at INFO,
+ * where no trace or debug messages should be built, and at TRACE
+ * (formatted into a null writer), which shows what building them
+ * costs. Compare <code>gc.alloc.rate.norm</code> (bytes allocated
+ * per operation, reported by the <code>gc</code> profiler as
+ * configured in build.gradle) between the two levels: a difference
+ * at INFO larger than the noise means a message is being built
+ * without a level check.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ETLoggingBenchmark {
+    private static final int OBJECTS = 100;
+    private static final String LOGGER = "com.exacttarget.fuelsdk";
+
+    @Param({ "INFO", "TRACE" })
+    private String level;
+
+    private LoggerContext context = null;
+    private WriterAppender appender = null;
+
+    private ETStubServer server = null;
+    private ETClient client = null;
+
+    private List<Subscriber> internalObjects = null;
+    private List<ETSubscriber> externalObjects = null;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        //
+        // The SDK logs through the log4j 1.2 bridge, so configure the
+        // SDK's loggers in log4j-core:
+        //
+
+        context = (LoggerContext) LogManager.getContext(false);
+        appender = WriterAppender.newBuilder()
+                .setName("benchmark")
+                .setTarget(Writer.nullWriter())
+                .setLayout(PatternLayout.createDefaultLayout())
+                .build();
+        appender.start();
+        LoggerConfig loggerConfig = new LoggerConfig(LOGGER, Level.toLevel(level), false);
+        loggerConfig.addAppender(appender, null, null);
+        context.getConfiguration().addLogger(LOGGER, loggerConfig);
+        context.updateLoggers();
+
+        server = new ETStubServer();
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, "{\"page\":1,\"pageSize\":50,\"count\":1,"
+                        + "\"items\":[{\"id\":\"1\",\"name\":\"campaign\"}]}");
+            }
+        });
+        client = new ETClient(server.createConfiguration());
+
+        internalObjects = new ArrayList<Subscriber>();
+        externalObjects = new ArrayList<ETSubscriber>();
+        for (int i = 0; i < OBJECTS; i++) {
+            Subscriber subscriber = new Subscriber();
+            subscriber.setId(i);
+            subscriber.setSubscriberKey("subscriber" + i);
+            subscriber.setEmailAddress("subscriber" + i + "@example.com");
+            subscriber.setStatus(SubscriberStatus.ACTIVE);
+            subscriber.setCreatedDate(new Date());
+            internalObjects.add(subscriber);
+            ETSubscriber externalObject = new ETSubscriber();
+            externalObject.fromInternal(subscriber);
+            externalObjects.add(externalObject);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop();
+        context.getConfiguration().removeLogger(LOGGER);
+        context.updateLoggers();
+        appender.stop();
+    }
+
+    @Benchmark
+    public List<ETSubscriber> fromInternal()
+        throws ETSdkException
+    {
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>(OBJECTS);
+        for (Subscriber subscriber : internalObjects) {
+            ETSubscriber externalObject = new ETSubscriber();
+            externalObject.fromInternal(subscriber);
+            subscribers.add(externalObject);
+        }
+        return subscribers;
+    }
+
+    @Benchmark
+    public List<APIObject> toInternal()
+        throws ETSdkException
+    {
+        List<APIObject> subscribers = new ArrayList<APIObject>(OBJECTS);
+        for (ETSubscriber subscriber : externalObjects) {
+            subscribers.add(subscriber.toInternal());
+        }
+        return subscribers;
+    }
+
+    @Benchmark
+    public ETResponse<ETCampaign> restRetrieve()
+        throws ETSdkException
+    {
+        return client.retrieve(ETCampaign.class, "name=campaign");
+    }
+}
@@ -0,0 +1,115 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.exacttarget.fuelsdk.internal.Subscriber;
+import com.exacttarget.fuelsdk.internal.SubscriberStatus;
+
+/**
+ * Measures converting a full retrieve page (2500 objects) of
+ * subscribers, with the converters registered once and with the
+ * converters registered again for every object constructed, as
+ * the ETSoapObject constructor used to do. Run with the
+ * <code>gc</code> profiler (as configured in build.gradle) to
+ * compare allocation per page as well as time.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ETSoapObjectBenchmark {
+    private List<Subscriber> page = null;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<Subscriber>();
+        for (int i = 0; i < ETSoapObject.PAGE_SIZE; i++) {
+            Subscriber subscriber = new Subscriber();
+            subscriber.setId(i);
+            subscriber.setSubscriberKey("subscriber" + i);
+            subscriber.setEmailAddress("subscriber" + i + "@example.com");
+            subscriber.setStatus(SubscriberStatus.ACTIVE);
+            subscriber.setCreatedDate(new Date());
+            page.add(subscriber);
+        }
+    }
+
+    @Benchmark
+    public List<ETSubscriber> convertPage()
+        throws ETSdkException
+    {
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>(page.size());
+        for (Subscriber subscriber : page) {
+            ETSubscriber externalObject = new ETSubscriber();
+            externalObject.fromInternal(subscriber);
+            subscribers.add(externalObject);
+        }
+        return subscribers;
+    }
+
+    @Benchmark
+    public List<ETSubscriber> convertPageRegisteringConverters()
+        throws ETSdkException
+    {
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>(page.size());
+        for (Subscriber subscriber : page) {
+            ETSoapConverters.register(BeanUtilsBean.getInstance().getConvertUtils());
+            ETSubscriber externalObject = new ETSubscriber();
+            externalObject.fromInternal(subscriber);
+            subscribers.add(externalObject);
+        }
+        return subscribers;
+    }
+}
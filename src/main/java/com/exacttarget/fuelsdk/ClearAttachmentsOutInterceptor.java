@@ -9,6 +9,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.attachment.AttachmentSerializer;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.interceptor.AbstractSoapInterceptor;
+import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.phase.Phase;
 
@@ -35,9 +36,14 @@ public class ClearAttachmentsOutInterceptor extends AbstractSoapInterceptor {
                .getOutMessage()
                .setContent(org.apache.cxf.attachment.AttachmentSerializer.class, null);
         
-        Map<String, List> headers = new HashMap<String, List>();
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        Map<String, List<String>> requestHeaders =
+                CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+        if (requestHeaders != null) {
+            headers.putAll(requestHeaders);
+        }
         try {
-            headers.put("User-Agent", Collections.singletonList(message.get("HTTP_HEADER_USER_AGENT")));
+            headers.put("User-Agent", Collections.singletonList((String) message.get("HTTP_HEADER_USER_AGENT")));
             
             message.put(Message.PROTOCOL_HEADERS, headers);
         } catch (Exception ce) {
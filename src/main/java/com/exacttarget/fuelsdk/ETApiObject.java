@@ -81,7 +81,9 @@ public abstract class ETApiObject extends ETObject {
     * @return               true if the property is modified, false otherwise.
     */
     public Boolean getModified(String property) {
-        logger.trace("isModified[" + property + "] = " + isModified.get(property));
+        if (logger.isTraceEnabled()) {
+            logger.trace("isModified[" + property + "] = " + isModified.get(property));
+        }
         return isModified.get(property);
     }
 
@@ -91,7 +93,9 @@ public abstract class ETApiObject extends ETObject {
     * @return               previous value associated with the property or null if there was no mapping.
     */
     public Boolean setModified(String property, Boolean value) {
-        logger.trace("isModified[" + property + "] = " + value);
+        if (logger.isTraceEnabled()) {
+            logger.trace("isModified[" + property + "] = " + value);
+        }
         return isModified.put(property, value);
     }
 
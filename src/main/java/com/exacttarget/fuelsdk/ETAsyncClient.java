@@ -0,0 +1,376 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * An <code>ETAsyncClient</code> makes the calls of an
+ * <code>ETClient</code> without waiting for their responses:
+ * every operation returns a <code>CompletableFuture</code> of the
+ * <code>ETResponse</code> the corresponding <code>ETClient</code>
+ * operation would return, failing with an
+ * <code>ETSdkException</code> where that operation would throw one.
+ *
+ * REST calls are sent with <code>HttpClient.sendAsync</code> and
+ * SOAP calls with the asynchronous bindings of the SOAP proxies,
+ * so calls in flight don't hold a thread each; they are bounded
+ * by <code>restMaxConnectionsPerRoute</code> and
+ * <code>soapPoolSize</code> and queue without blocking beyond
+ * those limits. Dependent stages run on the threads that complete
+ * the calls; use the <code>*Async</code> methods of
+ * <code>CompletableFuture</code> to move expensive work elsewhere.
+ *
+ * Obtain an <code>ETAsyncClient</code> with
+ * <code>ETClient.async()</code>.
+ */
+
+public class ETAsyncClient {
+    private ETClient client = null;
+
+    ETAsyncClient(ETClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return The ETClient the calls are made with
+     */
+    public ETClient getClient() {
+        return client;
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object to be used to retrieve objects
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> retrieve(Class<T> type,
+                                                                             ETFilter filter)
+    {
+        return retrieve(type, null, null, filter);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The filter to be used to retrieve as variable arguments of String
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> retrieve(Class<T> type,
+                                                                             String... filter)
+    {
+        return retrieve(type, null, null, filter);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The filter to be used to retrieve as variable arguments of String
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> retrieve(Class<T> type,
+                                                                             Integer page,
+                                                                             Integer pageSize,
+                                                                             String... filter)
+    {
+        try {
+            return retrieve(type, page, pageSize, ETFilter.parse(filter));
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter object to be used to retrieve objects
+     * @return              The future ETResponse of type T
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> retrieve(Class<T> type,
+                                                                             Integer page,
+                                                                             Integer pageSize,
+                                                                             ETFilter filter)
+    {
+        if (ETSoapObject.class.isAssignableFrom(type)) {
+            return (CompletableFuture) ETSoapObject.retrieveAsync(client, (Class) type, page, pageSize, filter);
+        }
+        if (ETRestObject.class.isAssignableFrom(type)) {
+            return (CompletableFuture) ETRestObject.retrieveAsync(client, (Class) type, page, pageSize, filter);
+        }
+        return CompletableFuture.failedFuture(new ETSdkException(
+                "could not find retrieve method for type " + type));
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The objects to be created as variable arguments of type T
+     * @return              The future ETResponse of type T
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> create(T... objects) {
+        return createUpdateDelete("create", Arrays.asList(objects));
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The List of objects of type T to be created
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> create(List<T> objects) {
+        return createUpdateDelete("create", objects);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The objects to be updated as variable arguments of type T
+     * @return              The future ETResponse of type T
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> update(T... objects) {
+        return createUpdateDelete("update", Arrays.asList(objects));
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The List of objects of type T to be updated
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> update(List<T> objects) {
+        return createUpdateDelete("update", objects);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The objects to be deleted as variable arguments of type T
+     * @return              The future ETResponse of type T
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> delete(T... objects) {
+        return createUpdateDelete("delete", Arrays.asList(objects));
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param objects       The List of objects of type T to be deleted
+     * @return              The future ETResponse of type T
+     */
+    public <T extends ETApiObject> CompletableFuture<ETResponse<T>> delete(List<T> objects) {
+        return createUpdateDelete("delete", objects);
+    }
+
+    /**
+     * @param email         The triggered email to send
+     * @param addresses     The addresses to where the triggered email will be send
+     * @return              The future ETResponse of type ETTriggeredEmail
+     */
+    public CompletableFuture<ETResponse<ETTriggeredEmail>> send(ETTriggeredEmail email,
+                                                                String... addresses)
+    {
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>();
+        for (String address : addresses) {
+            ETSubscriber subscriber = new ETSubscriber();
+            subscriber.setKey(address);
+            subscriber.setEmailAddress(address);
+            subscribers.add(subscriber);
+        }
+        return send(email, subscribers);
+    }
+
+    /**
+     * @param email         The triggered email to send
+     * @param subscribers   The subscribers to whom the triggered email will be send
+     * @return              The future ETResponse of type ETTriggeredEmail
+     */
+    public CompletableFuture<ETResponse<ETTriggeredEmail>> send(ETTriggeredEmail email,
+                                                                ETSubscriber... subscribers)
+    {
+        return send(email, Arrays.asList(subscribers));
+    }
+
+    /**
+     * @param email         The triggered email to send
+     * @param subscribers   The List of subscribers to whom the triggered email will be send
+     * @return              The future ETResponse of type ETTriggeredEmail
+     */
+    public CompletableFuture<ETResponse<ETTriggeredEmail>> send(ETTriggeredEmail email,
+                                                                List<ETSubscriber> subscribers)
+    {
+        email.setClient(client);
+        return email.sendAsync(subscribers);
+    }
+
+    /**
+     * @param dataExtension The data extension
+     * @param filter        The filter to be used to select rows as variable arguments of String
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> select(ETDataExtension dataExtension,
+                                                                    String... filter)
+    {
+        return select(dataExtension, null, null, filter);
+    }
+
+    /**
+     * @param dataExtension The data extension
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The filter to be used to select rows as variable arguments of String
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> select(ETDataExtension dataExtension,
+                                                                    Integer page,
+                                                                    Integer pageSize,
+                                                                    String... filter)
+    {
+        try {
+            return select(dataExtension, page, pageSize, ETFilter.parse(filter));
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * @param dataExtension The data extension
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter to be used to select rows
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> select(ETDataExtension dataExtension,
+                                                                    Integer page,
+                                                                    Integer pageSize,
+                                                                    ETFilter filter)
+    {
+        dataExtension.setClient(client);
+        return dataExtension.selectAsync(page, pageSize, filter);
+    }
+
+    /**
+     * @param dataExtension The data extension, as "key=..." or "name=..."
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter to be used to select rows
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> select(String dataExtension,
+                                                                    Integer page,
+                                                                    Integer pageSize,
+                                                                    ETFilter filter)
+    {
+        return ETDataExtension.selectAsync(client, dataExtension, page, pageSize, filter);
+    }
+
+    /**
+     * @param dataExtension The data extension
+     * @param rows          The rows to insert as variable arguments of ETDataExtensionRow
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> insert(ETDataExtension dataExtension,
+                                                                    ETDataExtensionRow... rows)
+    {
+        return insert(dataExtension, Arrays.asList(rows));
+    }
+
+    /**
+     * @param dataExtension The data extension
+     * @param rows          The List of rows to insert
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    public CompletableFuture<ETResponse<ETDataExtensionRow>> insert(ETDataExtension dataExtension,
+                                                                    List<ETDataExtensionRow> rows)
+    {
+        dataExtension.setClient(client);
+        return dataExtension.insertAsync(rows);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T extends ETApiObject> CompletableFuture<ETResponse<T>> createUpdateDelete(String method,
+                                                                                       List<T> objects)
+    {
+        if (objects == null || objects.size() == 0) {
+            ETResponse<T> response = new ETResponse<T>();
+            response.setStatus(ETResult.Status.OK);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        final Class<?> type = objects.get(0).getClass();
+        return ((CompletableFuture<ETResponse<T>>) createUpdateDelete(method, type, objects))
+                .whenComplete(new BiConsumer<ETResponse<T>, Throwable>() {
+            @Override
+            public void accept(ETResponse<T> response, Throwable failure) {
+                client.getRetrieveCache().invalidate(type);
+            }
+        });
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private CompletableFuture<?> createUpdateDelete(String method,
+                                                    Class<?> type,
+                                                    List objects)
+    {
+        if (ETSoapObject.class.isAssignableFrom(type)) {
+            List soapObjects = objects;
+            if (method.equals("create")) {
+                return (CompletableFuture) ETSoapObject.createAsync(client, soapObjects);
+            } else if (method.equals("update")) {
+                return (CompletableFuture) ETSoapObject.updateAsync(client, soapObjects);
+            } else {
+                return (CompletableFuture) ETSoapObject.deleteAsync(client, soapObjects);
+            }
+        }
+        if (ETRestObject.class.isAssignableFrom(type)) {
+            List restObjects = objects;
+            if (method.equals("create")) {
+                return (CompletableFuture) ETRestObject.createAsync(client, restObjects);
+            } else if (method.equals("update")) {
+                return (CompletableFuture) ETRestObject.updateAsync(client, restObjects);
+            } else {
+                return (CompletableFuture) ETRestObject.deleteAsync(client, restObjects);
+            }
+        }
+        return CompletableFuture.failedFuture(new ETSdkException(
+                "could not find " + method + " method for type " + type));
+    }
+}
@@ -0,0 +1,128 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An <code>ETAsyncSemaphore</code> is a fair semaphore that can
+ * also be acquired without blocking: <code>acquireAsync</code>
+ * returns a future that completes once a permit is available.
+ * Blocking and asynchronous callers wait in one queue and are
+ * handed released permits in the order they asked for them, so
+ * thousands of asynchronous callers can wait for a permit without
+ * holding a thread each, and without starving blocking callers.
+ */
+
+final class ETAsyncSemaphore {
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int permits;
+
+    private final Queue<CompletableFuture<Void>> waiters =
+            new ArrayDeque<CompletableFuture<Void>>();
+
+    ETAsyncSemaphore(int permits) {
+        this.permits = permits;
+    }
+
+    /**
+     * Acquires a permit, blocking until one is available.
+     */
+    void acquire()
+        throws InterruptedException
+    {
+        CompletableFuture<Void> waiter = acquireAsync();
+        try {
+            waiter.get();
+        } catch (InterruptedException ex) {
+            // the permit may have been handed over meanwhile
+            if (!waiter.cancel(false)) {
+                release();
+            }
+            throw ex;
+        } catch (ExecutionException ex) {
+            // waiters are only ever completed normally
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * @return  A future completed once a permit has been acquired
+     *          on behalf of the caller
+     */
+    CompletableFuture<Void> acquireAsync() {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && permits > 0) {
+                permits--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<Void>();
+            waiters.add(waiter);
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit, handing it to the first waiter if there
+     * is one.
+     */
+    void release() {
+        while (true) {
+            CompletableFuture<Void> waiter = null;
+            lock.lock();
+            try {
+                waiter = waiters.poll();
+                if (waiter == null) {
+                    permits++;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // a cancelled waiter doesn't take the permit
+            if (waiter.complete(null)) {
+                return;
+            }
+        }
+    }
+}
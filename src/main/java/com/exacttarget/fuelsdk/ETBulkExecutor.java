@@ -0,0 +1,443 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.apache.log4j.Logger;
+
+import com.exacttarget.fuelsdk.internal.APIObject;
+
+/**
+ * The <code>ETBulkExecutor</code> sends the objects of a SOAP create,
+ * update or delete in chunks, so no request exceeds the number of
+ * objects (<code>bulkChunkSize</code>, default 2500) or the estimated
+ * serialized size (<code>bulkChunkBytes</code>, default unlimited)
+ * the service accepts. Chunks are sent concurrently, at most
+ * <code>bulkConcurrency</code> (default 4) at a time, and their
+ * results are merged into one response in the order of the objects.
+ * Chunks of a request made on a worker of the client's pool of
+ * platform threads are sent one at a time, on that worker.
+ * <code>executeAsync</code> sends all chunks at once instead, leaving
+ * it to the SOAP connection pool to bound the requests in flight.
+ * A chunk that fails doesn't fail the others: its objects get
+ * <code>ERROR</code> results carrying the failure, and the overall
+ * status is <code>ERROR</code>. Only if the circuit breaker or the
+ * bulkhead refused every chunk, so nothing was sent, is the refusal
+ * thrown.
+ */
+
+final class ETBulkExecutor {
+    private static Logger logger = Logger.getLogger(ETBulkExecutor.class);
+
+    static final int DEFAULT_CHUNK_SIZE = 2500;
+    static final int DEFAULT_CONCURRENCY = 4;
+
+    private static final QName OBJECTS =
+            new QName("http://exacttarget.com/wsdl/partnerAPI", "Objects");
+
+    interface Operation<T extends ETApiObject> {
+        ETResponse<T> execute(List<APIObject> chunk)
+            throws ETSdkException;
+    }
+
+    interface AsyncOperation<T extends ETApiObject> {
+        CompletableFuture<ETResponse<T>> execute(List<APIObject> chunk);
+    }
+
+    private ETBulkExecutor() {}
+
+    /**
+     * @param client        The ETClient object
+     * @param objects       The objects to send
+     * @param operation     The operation sending one chunk of objects
+     * @return              The merged responses of all chunks
+     */
+    static <T extends ETApiObject> ETResponse<T> execute(ETClient client,
+                                                         List<APIObject> objects,
+                                                         final Operation<T> operation)
+        throws ETSdkException
+    {
+        ETConfiguration configuration = client.getConfiguration();
+        List<List<APIObject>> chunks = split(objects,
+                configuration.getInteger("bulkChunkSize", DEFAULT_CHUNK_SIZE),
+                configuration.getInteger("bulkChunkBytes", 0));
+        if (chunks.size() == 1) {
+            return operation.execute(objects);
+        }
+
+        //
+        // Already on a worker of the pool: send the chunks one at
+        // a time rather than wait on the pool for more workers:
+        //
+
+        if (ETExecutors.isWorker()) {
+            List<Outcome<T>> outcomes = new ArrayList<Outcome<T>>();
+            for (List<APIObject> chunk : chunks) {
+                Outcome<T> outcome = new Outcome<T>(chunk);
+                try {
+                    outcome.response = operation.execute(chunk);
+                } catch (Exception ex) {
+                    outcome.failure = ex;
+                }
+                outcomes.add(outcome);
+            }
+            return complete(outcomes);
+        }
+
+        int concurrency = Math.max(1,
+                configuration.getInteger("bulkConcurrency", DEFAULT_CONCURRENCY));
+        if (logger.isDebugEnabled()) {
+            logger.debug("sending " + objects.size() + " objects in "
+                    + chunks.size() + " chunks, " + concurrency + " at a time");
+        }
+
+        //
+        // Only hand a chunk to the executor once fewer than
+        // concurrency chunks are in flight:
+        //
+
+        final Semaphore inFlight = new Semaphore(concurrency);
+        List<Future<ETResponse<T>>> futures = new ArrayList<Future<ETResponse<T>>>();
+        try {
+            for (final List<APIObject> chunk : chunks) {
+                inFlight.acquire();
+                try {
+                    futures.add(client.getExecutor().submit(new Callable<ETResponse<T>>() {
+                        @Override
+                        public ETResponse<T> call()
+                            throws ETSdkException
+                        {
+                            try {
+                                return operation.execute(chunk);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }
+                    }));
+                } catch (RuntimeException ex) {
+                    inFlight.release();
+                    throw ex;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (Future<ETResponse<T>> future : futures) {
+                future.cancel(true);
+            }
+            throw new ETSdkException("interrupted sending chunks", ex);
+        }
+
+        //
+        // Wait for all chunks, so an interrupt doesn't leave requests
+        // running behind the caller's back, then merge in order:
+        //
+
+        List<Outcome<T>> outcomes = new ArrayList<Outcome<T>>();
+        ETSdkException interrupted = null;
+        for (int i = 0; i < futures.size(); i++) {
+            Outcome<T> outcome = new Outcome<T>(chunks.get(i));
+            try {
+                outcome.response = futures.get(i).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                if (interrupted == null) {
+                    interrupted = new ETSdkException("interrupted sending chunks", ex);
+                }
+            } catch (ExecutionException ex) {
+                outcome.failure = ex.getCause();
+            }
+            outcomes.add(outcome);
+        }
+        if (interrupted != null) {
+            throw interrupted;
+        }
+        return complete(outcomes);
+    }
+
+    /**
+     * @param client        The ETClient object
+     * @param objects       The objects to send
+     * @param operation     The operation sending one chunk of objects
+     * @return              The future merged responses of all chunks
+     */
+    static <T extends ETApiObject> CompletableFuture<ETResponse<T>> executeAsync(ETClient client,
+                                                                                 List<APIObject> objects,
+                                                                                 AsyncOperation<T> operation)
+    {
+        ETConfiguration configuration = client.getConfiguration();
+        List<List<APIObject>> chunks = null;
+        try {
+            chunks = split(objects,
+                    configuration.getInteger("bulkChunkSize", DEFAULT_CHUNK_SIZE),
+                    configuration.getInteger("bulkChunkBytes", 0));
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (chunks.size() == 1) {
+            return operation.execute(objects);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("sending " + objects.size() + " objects in "
+                    + chunks.size() + " chunks");
+        }
+
+        final List<Outcome<T>> outcomes = new ArrayList<Outcome<T>>();
+        List<CompletableFuture<Outcome<T>>> futures =
+                new ArrayList<CompletableFuture<Outcome<T>>>();
+        for (List<APIObject> chunk : chunks) {
+            final Outcome<T> outcome = new Outcome<T>(chunk);
+            outcomes.add(outcome);
+            CompletableFuture<ETResponse<T>> future = null;
+            try {
+                future = operation.execute(chunk);
+            } catch (RuntimeException ex) {
+                future = CompletableFuture.failedFuture(ex);
+            }
+            futures.add(future.handle(new BiFunction<ETResponse<T>, Throwable, Outcome<T>>() {
+                @Override
+                public Outcome<T> apply(ETResponse<T> response, Throwable failure) {
+                    if (failure instanceof CompletionException && failure.getCause() != null) {
+                        failure = failure.getCause();
+                    }
+                    outcome.response = response;
+                    outcome.failure = failure;
+                    return outcome;
+                }
+            }));
+        }
+
+        //
+        // Complete once all chunks have:
+        //
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenCompose(new Function<Void, CompletionStage<ETResponse<T>>>() {
+            @Override
+            public CompletionStage<ETResponse<T>> apply(Void done) {
+                try {
+                    return CompletableFuture.completedFuture(complete(outcomes));
+                } catch (ETSdkException ex) {
+                    return CompletableFuture.failedFuture(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param objects       The objects to split
+     * @param maxCount      The maximum number of objects in a chunk
+     * @param maxBytes      The maximum estimated size of a chunk, 0 for no limit
+     * @return              The chunks, in order
+     */
+    static List<List<APIObject>> split(List<APIObject> objects, int maxCount, int maxBytes)
+        throws ETSdkException
+    {
+        if (maxCount < 1) {
+            maxCount = Integer.MAX_VALUE;
+        }
+        List<List<APIObject>> chunks = new ArrayList<List<APIObject>>();
+        if (maxBytes <= 0 && objects.size() <= maxCount) {
+            chunks.add(objects);
+            return chunks;
+        }
+
+        Marshaller marshaller = maxBytes > 0 ? createMarshaller() : null;
+        int start = 0;
+        long bytes = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            long size = marshaller != null ? estimateSize(marshaller, objects.get(i)) : 0;
+            // an object larger than maxBytes gets a chunk of its own
+            if (i > start && (i - start >= maxCount
+                    || (maxBytes > 0 && bytes + size > maxBytes))) {
+                chunks.add(objects.subList(start, i));
+                start = i;
+                bytes = 0;
+            }
+            bytes += size;
+        }
+        chunks.add(objects.subList(start, objects.size()));
+        return chunks;
+    }
+
+    /**
+     * @param outcomes      The outcomes of all chunks, in order
+     * @return              The merged responses of all chunks, with
+     *                      <code>ERROR</code> results for the objects
+     *                      of the chunks that failed
+     * @throws ETSdkException   if every chunk was refused before being sent
+     */
+    private static <T extends ETApiObject> ETResponse<T> complete(List<Outcome<T>> outcomes)
+        throws ETSdkException
+    {
+        Throwable refusal = null;
+        for (Outcome<T> outcome : outcomes) {
+            if (!isRefusal(outcome.failure)) {
+                refusal = null;
+                break;
+            }
+            if (refusal == null) {
+                refusal = outcome.failure;
+            }
+        }
+        if (refusal != null) {
+            throw (ETSdkException) refusal;
+        }
+
+        List<ETResponse<T>> responses = new ArrayList<ETResponse<T>>();
+        for (Outcome<T> outcome : outcomes) {
+            if (outcome.failure == null) {
+                responses.add(outcome.response);
+                continue;
+            }
+            logger.warn("error sending chunk of " + outcome.chunk.size()
+                    + " objects: " + outcome.failure);
+            responses.add(ETBulkExecutor.<T>failed(outcome.chunk, outcome.failure));
+        }
+        return merge(responses);
+    }
+
+    private static boolean isRefusal(Throwable failure) {
+        return failure instanceof ETCircuitOpenException
+                || failure instanceof ETBulkheadFullException;
+    }
+
+    private static <T extends ETApiObject> ETResponse<T> failed(List<APIObject> chunk,
+                                                                Throwable failure)
+    {
+        String message = failure.getMessage() != null
+                ? failure.getMessage() : failure.toString();
+        ETResponse<T> response = new ETResponse<T>();
+        response.setStatus(ETResult.Status.ERROR);
+        response.setResponseMessage(message);
+        for (int i = 0; i < chunk.size(); i++) {
+            ETResult<T> result = new ETResult<T>();
+            result.setStatus(ETResult.Status.ERROR);
+            result.setResponseMessage(message);
+            result.setErrorMessage(message);
+            response.addResult(result);
+        }
+        return response;
+    }
+
+    private static <T extends ETApiObject> ETResponse<T> merge(List<ETResponse<T>> responses) {
+        ETResponse<T> response = new ETResponse<T>();
+        response.setStatus(ETResult.Status.OK);
+        boolean first = true;
+        for (ETResponse<T> r : responses) {
+            response.getResults().addAll(r.getResults());
+            if (first) {
+                response.setRequestId(r.getRequestId());
+                response.setResponseCode(r.getResponseCode());
+                response.setResponseMessage(r.getResponseMessage());
+                first = false;
+            }
+            // the first chunk that isn't OK decides the overall status
+            if (response.getStatus() == ETResult.Status.OK
+                    && r.getStatus() != ETResult.Status.OK) {
+                response.setRequestId(r.getRequestId());
+                response.setStatus(r.getStatus());
+                response.setResponseCode(r.getResponseCode());
+                response.setResponseMessage(r.getResponseMessage());
+            }
+        }
+        return response;
+    }
+
+    private static Marshaller createMarshaller()
+        throws ETSdkException
+    {
+        try {
+            Marshaller marshaller = ETSoapConnection.getJaxbContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            return marshaller;
+        } catch (JAXBException ex) {
+            throw new ETSdkException("could not create marshaller", ex);
+        }
+    }
+
+    private static long estimateSize(Marshaller marshaller, APIObject object)
+        throws ETSdkException
+    {
+        CountingOutputStream os = new CountingOutputStream();
+        try {
+            marshaller.marshal(new JAXBElement<APIObject>(OBJECTS, APIObject.class, object), os);
+        } catch (JAXBException ex) {
+            throw new ETSdkException("could not estimate size of " + object.getClass().getSimpleName(), ex);
+        }
+        return os.count;
+    }
+
+    private static class Outcome<T extends ETApiObject> {
+        private final List<APIObject> chunk;
+        private ETResponse<T> response = null;
+        private Throwable failure = null;
+
+        Outcome(List<APIObject> chunk) {
+            this.chunk = chunk;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+/**
+ * An <code>ETBulkheadFullException</code> is thrown, without calling
+ * the service, when as many calls as the bulkhead of the endpoint
+ * allows are already in flight.
+ */
+
+@SuppressWarnings("serial")
+public class ETBulkheadFullException extends ETSdkException {
+    private final String endpoint;
+    private final int size;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param endpoint  The endpoint, e.g. "rest mc.example.com"
+     * @param size      The number of calls the bulkhead allows
+     */
+    public ETBulkheadFullException(String endpoint, int size) {
+        super("bulkhead of " + endpoint + " is full (" + size
+                + " calls in flight)");
+        this.endpoint = endpoint;
+        this.size = size;
+    }
+
+    /**
+     * @return The endpoint, e.g. "rest mc.example.com"
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The number of calls the bulkhead allows
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,244 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETCircuitBreaker</code> isolates the calls a client makes
+ * to one endpoint, i.e. one family of endpoints (auth, REST or SOAP)
+ * on one host, from the calls it makes to the others:
+ *
+ * <ul>
+ * <li>After <code>circuitFailureThreshold</code> calls in a row
+ * (default 5, 0 to never open the breaker) fail without the service
+ * answering, or with a 5xx status, the breaker opens: calls fail at
+ * once with an <code>ETCircuitOpenException</code> for
+ * <code>circuitOpenTime</code> milliseconds (default 30000). Then a
+ * single probe call is let through (the breaker is half open); the
+ * breaker closes if it succeeds and opens again if it fails.</li>
+ * <li>At most <code>&lt;family&gt;BulkheadSize</code> calls (default
+ * 0, meaning unlimited) are in flight at once; more calls fail at
+ * once with an <code>ETBulkheadFullException</code> rather than
+ * tying up more of the caller's threads.</li>
+ * </ul>
+ *
+ * Every call admitted with <code>acquire</code> must be completed
+ * with exactly one of <code>succeeded</code> or <code>failed</code>.
+ */
+
+final class ETCircuitBreaker {
+    private static Logger logger = Logger.getLogger(ETCircuitBreaker.class);
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    static final int DEFAULT_OPEN_TIME = 30000;
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String endpoint;
+
+    private final int failureThreshold;
+    private final long openTime;
+    private final int bulkheadSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt = 0;
+    private int inFlight = 0;
+
+    ETCircuitBreaker(String endpoint,
+                     int failureThreshold,
+                     int openTime,
+                     int bulkheadSize)
+    {
+        this.endpoint = endpoint;
+        this.failureThreshold = Math.max(failureThreshold, 0);
+        this.openTime = TimeUnit.MILLISECONDS.toNanos(Math.max(openTime, 0));
+        this.bulkheadSize = Math.max(bulkheadSize, 0);
+    }
+
+    /**
+     * @param configuration The client configuration
+     * @param family        The family of endpoints
+     * @param uri           A URI of the endpoint
+     * @return              A new circuit breaker for the endpoint
+     */
+    static ETCircuitBreaker create(ETConfiguration configuration,
+                                   ETRateLimiter.Family family,
+                                   URI uri)
+    {
+        return new ETCircuitBreaker(getEndpoint(family, uri),
+                configuration.getInteger("circuitFailureThreshold", DEFAULT_FAILURE_THRESHOLD),
+                configuration.getInteger("circuitOpenTime", DEFAULT_OPEN_TIME),
+                configuration.getInteger(family.getPropertyPrefix() + "BulkheadSize", 0));
+    }
+
+    /**
+     * @param family        The family of endpoints
+     * @param uri           A URI of the endpoint
+     * @return              The name of the endpoint, e.g.
+     *                      "soap mc.example.com"
+     */
+    static String getEndpoint(ETRateLimiter.Family family, URI uri) {
+        String authority = uri.getAuthority();
+        if (authority == null) {
+            authority = uri.toString();
+        }
+        return family.getPropertyPrefix() + " " + authority;
+    }
+
+    /**
+     * @return  The name of the endpoint
+     */
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return  true if calls are being refused, false otherwise
+     */
+    boolean isOpen() {
+        lock.lock();
+        try {
+            return state != State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a call, or refuses it at once.
+     * @throws ETCircuitOpenException   if the breaker is open
+     * @throws ETBulkheadFullException  if the bulkhead is full
+     */
+    void acquire()
+        throws ETCircuitOpenException, ETBulkheadFullException
+    {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long remaining = openedAt + openTime - System.nanoTime();
+                if (remaining > 0) {
+                    throw new ETCircuitOpenException(endpoint,
+                            TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                }
+                checkBulkhead();
+                logger.info("circuit breaker of " + endpoint + " half open, probing");
+                state = State.HALF_OPEN;
+            } else if (state == State.HALF_OPEN) {
+                // the probe is still in flight
+                throw new ETCircuitOpenException(endpoint, 0);
+            } else {
+                checkBulkhead();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkBulkhead()
+        throws ETBulkheadFullException
+    {
+        if (bulkheadSize > 0 && inFlight >= bulkheadSize) {
+            throw new ETBulkheadFullException(endpoint, bulkheadSize);
+        }
+    }
+
+    /**
+     * Completes a call that was admitted but not made after all
+     * (because the caller was interrupted, say).
+     */
+    void cancelled() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (state == State.HALF_OPEN) {
+                // let the next call probe instead
+                state = State.OPEN;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes a call the service answered (even if only to
+     * report an error of the caller's making).
+     */
+    void succeeded() {
+        lock.lock();
+        try {
+            inFlight--;
+            failures = 0;
+            if (state == State.HALF_OPEN) {
+                logger.info("circuit breaker of " + endpoint + " closed");
+                state = State.CLOSED;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes a call that failed without an answer, or with
+     * a server error.
+     */
+    void failed() {
+        lock.lock();
+        try {
+            inFlight--;
+            failures++;
+            if (state == State.HALF_OPEN
+                    || (state == State.CLOSED && failureThreshold > 0
+                            && failures >= failureThreshold)) {
+                logger.warn("circuit breaker of " + endpoint + " opened after "
+                        + failures + " failed calls");
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+/**
+ * An <code>ETCircuitOpenException</code> is thrown, without calling
+ * the service, when the circuit breaker of the endpoint a call would
+ * go to is open because too many calls to it failed in a row.
+ */
+
+@SuppressWarnings("serial")
+public class ETCircuitOpenException extends ETSdkException {
+    private final String endpoint;
+    private final long retryAfter;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param endpoint      The endpoint, e.g. "soap mc.example.com"
+     * @param retryAfter    The time in milliseconds until the
+     *                      breaker lets a call through again
+     */
+    public ETCircuitOpenException(String endpoint, long retryAfter) {
+        super("circuit breaker of " + endpoint + " is open, retry in "
+                + retryAfter + " ms");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return The endpoint, e.g. "soap mc.example.com"
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The time in milliseconds until the breaker lets a
+     *         call through again (after which other calls may
+     *         still be refused while that call is made)
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -35,12 +35,34 @@
 package com.exacttarget.fuelsdk;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -87,25 +109,65 @@ public class ETClient {
 
     private Gson gson = null;
 
+    private ETHttpTransport httpTransport = null;
+
+    private Map<ETRateLimiter.Family, ETRateLimiter> rateLimiters =
+            new EnumMap<ETRateLimiter.Family, ETRateLimiter>(ETRateLimiter.Family.class);
+    private Map<String, ETCircuitBreaker> circuitBreakers =
+            new ConcurrentHashMap<String, ETCircuitBreaker>();
+
+    private volatile ETMetricsListener metricsListener = null;
+    private ETRetrieveCache retrieveCache = null;
+
     private ETRestConnection authConnection = null;
     private ETRestConnection restConnection = null;
     private ETSoapConnection soapConnection = null;
 
-    private String accessToken = null;
-    private int expiresIn = 0;
-    private String legacyToken = null;
+    private static final long TOKEN_REFRESH_WINDOW = 5 * 60 * 1000; // 5 minutes
+    private static final long TOKEN_REFRESH_LEAD = 60 * 1000; // 1 minute
+
+    private final AtomicReference<Token> token =
+            new AtomicReference<Token>(new Token(null, 0, null, null));
+    private final AtomicReference<CompletableFuture<Token>> tokenRefresh =
+            new AtomicReference<CompletableFuture<Token>>();
+    //
+    // Serializes requests to the authentication service. A lock
+    // rather than a monitor, so a virtual thread waiting on the
+    // service doesn't pin its carrier thread:
+    //
+
+    private final ReentrantLock tokenLock = new ReentrantLock();
+    private ScheduledExecutorService tokenRefresher = null;
+    private ScheduledFuture<?> scheduledTokenRefresh = null;
+
+    private final Object executorLock = new Object();
+    private ExecutorService executor = null;
+    private ExecutorService backgroundExecutor = null;
+    private boolean closed = false;
+
+    private final ETDataExtensionSchemaCache dataExtensionSchemaCache =
+            new ETDataExtensionSchemaCache(this);
+
+    @SuppressWarnings("serial")
+    private final Map<String, ETDataExtensionCursor> dataExtensionCursors =
+            Collections.synchronizedMap(new LinkedHashMap<String, ETDataExtensionCursor>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ETDataExtensionCursor> eldest) {
+                    return size() > ETDataExtensionCursor.MAX_CURSORS;
+                }
+            });
 
     public void setRefreshToken(String refreshToken) {
-        this.refreshToken = refreshToken;
+        Token current = null;
+        do {
+            current = token.get();
+        } while (!token.compareAndSet(current, current.withRefreshToken(refreshToken)));
     }
 
     public String getRefreshToken() {
-        return refreshToken;
+        return token.get().refreshToken;
     }
 
-    private String refreshToken = null;
-
-    private long tokenExpirationTime = 0;
     private static long soapEndpointExpiration = 0;
     private static String fetchedSoapEndpoint = null;
     private static final long cacheDurationInMillis = 1000 * 60 * 10; // 10 minutes
@@ -212,11 +274,62 @@ public class ETClient {
     }
 
     private void buildClients() throws ETSdkException {
+        metricsListener = createMetricsListener();
+        retrieveCache = ETRetrieveCache.create(configuration);
+        for (ETRateLimiter.Family family : ETRateLimiter.Family.values()) {
+            rateLimiters.put(family, ETRateLimiter.create(configuration, family));
+        }
+        httpTransport = createHttpTransport();
         authConnection = new ETRestConnection(this, authEndpoint, true);
         requestToken();
         restConnection = new ETRestConnection(this, endpoint);
         fetchSoapEndpoint();
-        soapConnection = new ETSoapConnection(this, soapEndpoint, accessToken);
+        soapConnection = new ETSoapConnection(this, soapEndpoint, token.get().accessToken);
+    }
+
+    private ETHttpTransport createHttpTransport()
+        throws ETSdkException
+    {
+        ETHttpTransport transport = createRestTransport();
+        if (configuration.isTrue("gzipEnabled")) {
+            return new ETGzipTransport(transport,
+                    configuration.getInteger("gzipRequestMinBytes", 0));
+        }
+        return transport;
+    }
+
+    private ETHttpTransport createRestTransport()
+        throws ETSdkException
+    {
+        String className = configuration.get("restTransport");
+        if (className == null || className.trim().equals("")) {
+            return new ETHttpClientTransport(configuration);
+        }
+        try {
+            Class<?> type = Class.forName(className.trim());
+            return (ETHttpTransport) type
+                    .getConstructor(ETConfiguration.class)
+                    .newInstance(configuration);
+        } catch (Exception ex) {
+            throw new ETSdkException("could not create REST transport "
+                    + className, ex);
+        }
+    }
+
+    private ETMetricsListener createMetricsListener()
+        throws ETSdkException
+    {
+        String className = configuration.get("metricsListener");
+        if (className == null || className.trim().equals("")) {
+            return null;
+        }
+        try {
+            Class<?> type = Class.forName(className.trim());
+            return (ETMetricsListener) type.getConstructor().newInstance();
+        } catch (Exception ex) {
+            throw new ETSdkException("could not create metrics listener "
+                    + className, ex);
+        }
     }
 
     public static boolean isNullOrBlankOrEmpty(String str) {
@@ -269,7 +382,7 @@ public class ETClient {
      * @return The access token
      */
     public String getAccessToken() {
-        return accessToken;
+        return token.get().accessToken;
     }
 
     /**
@@ -277,7 +390,7 @@ public class ETClient {
      * @return The LegacyToken
      */
     public String getLegacyToken() {
-        return accessToken;
+        return token.get().accessToken;
     }
 
     /**
@@ -304,6 +417,69 @@ public class ETClient {
         return gson;
     }
 
+    /**
+     *
+     * @return      The ETHttpTransport shared by the REST connections
+     */
+    public ETHttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * @return      The ETMetricsListener told about every call,
+     *              or null if there is none
+     */
+    public ETMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param metricsListener   The ETMetricsListener to tell about
+     *                          every call, or null for none
+     */
+    public void setMetricsListener(ETMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * @param operation     The operation, e.g. "soap.retrieve"
+     * @param objectType    The object type, or null
+     * @return              The metrics of a call being started
+     */
+    ETMetricsCall startCall(String operation, String objectType) {
+        ETMetricsListener listener = metricsListener;
+        if (listener == null) {
+            return ETMetricsCall.NONE;
+        }
+        return new ETMetricsCall(listener, operation, objectType);
+    }
+
+    /**
+     * @param family    The family of endpoints
+     * @return          The rate limiter of the family
+     */
+    ETRateLimiter getRateLimiter(ETRateLimiter.Family family) {
+        return rateLimiters.get(family);
+    }
+
+    /**
+     * @param family    The family of endpoints
+     * @param uri       A URI of the endpoint
+     * @return          The circuit breaker of the endpoint
+     */
+    ETCircuitBreaker getCircuitBreaker(ETRateLimiter.Family family, URI uri) {
+        String endpoint = ETCircuitBreaker.getEndpoint(family, uri);
+        ETCircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+        if (circuitBreaker == null) {
+            circuitBreaker = ETCircuitBreaker.create(configuration, family, uri);
+            ETCircuitBreaker existing = circuitBreakers.putIfAbsent(endpoint, circuitBreaker);
+            if (existing != null) {
+                circuitBreaker = existing;
+            }
+        }
+        return circuitBreaker;
+    }
+
     /**
      *
      * @return      The ETRestConnection
@@ -343,13 +519,13 @@ public class ETClient {
     /**
      * @return                      The request token
      */
-    public synchronized String requestToken()
+    public String requestToken()
             throws ETSdkException
     {
         return requestToken(null);
     }
 
-    private synchronized String requestOAuth2Token()
+    private String requestOAuth2Token()
             throws ETSdkException
     {
         JsonObject payload = createPayload(configuration);
@@ -368,17 +544,19 @@ public class ETClient {
         String responsePayload = response.getResponsePayload();
         JsonObject jsonObject = jsonParser.parse(responsePayload).getAsJsonObject();
 
-        this.accessToken = jsonObject.get("access_token").getAsString();
+        String accessToken = jsonObject.get("access_token").getAsString();
         this.endpoint = jsonObject.get("rest_instance_url").getAsString();
         this.soapEndpoint = jsonObject.get("soap_instance_url").getAsString() + "service.asmx";
 
-        this.expiresIn = jsonObject.get("expires_in").getAsInt();
-        tokenExpirationTime = System.currentTimeMillis() + (expiresIn * 1000);
+        int expiresIn = jsonObject.get("expires_in").getAsInt();
 
+        String refreshToken = token.get().refreshToken;
         if(jsonObject.has("refresh_token")){
-            this.refreshToken = jsonObject.get("refresh_token").getAsString();
+            refreshToken = jsonObject.get("refresh_token").getAsString();
         }
 
+        publishToken(new Token(accessToken, expiresIn, null, refreshToken));
+
         return accessToken;
     }
 
@@ -392,6 +570,7 @@ public class ETClient {
         if(applicationType.equals("web") || applicationType.equals("server")){
             payload.addProperty("client_secret", configuration.get("clientSecret"));
         }
+        String refreshToken = token.get().refreshToken;
         if(!isNullOrBlankOrEmpty(refreshToken)){
             payload.addProperty("grant_type", "refresh_token");
             payload.addProperty("refresh_token", refreshToken);
@@ -420,12 +599,23 @@ public class ETClient {
      * @param refreshToken          The refresh token
      * @return                      The request token
      */
-    public synchronized String requestToken(String refreshToken)
+    public String requestToken(String refreshToken)
             throws ETSdkException
     {
-        if(useOAuth2Authentication){
-            return requestOAuth2Token();
+        tokenLock.lock();
+        try {
+            if (useOAuth2Authentication) {
+                return requestOAuth2Token();
+            }
+            return requestLegacyToken(refreshToken);
+        } finally {
+            tokenLock.unlock();
         }
+    }
+
+    private String requestLegacyToken(String refreshToken)
+            throws ETSdkException
+    {
 
         if (clientId == null || clientSecret == null) {
             // no-op
@@ -472,67 +662,207 @@ public class ETClient {
 
         JsonParser jsonParser = new JsonParser();
         jsonObject = jsonParser.parse(responsePayload).getAsJsonObject();
-        logger.debug("received token:");
-        this.accessToken = jsonObject.get("accessToken").getAsString();
-        logger.debug("  accessToken: " + this.accessToken);
-        this.expiresIn = jsonObject.get("expiresIn").getAsInt();
-        logger.debug("  expiresIn: " + this.expiresIn);
+        String accessToken = jsonObject.get("accessToken").getAsString();
+        int expiresIn = jsonObject.get("expiresIn").getAsInt();
+        String legacyToken = null;
         JsonElement jsonElement = jsonObject.get("legacyToken");
         if (jsonElement != null) {
-            this.legacyToken = jsonElement.getAsString();
+            legacyToken = jsonElement.getAsString();
         }
-        logger.debug("  legacyToken: " + this.legacyToken);
         if (jsonObject.get("refreshToken") != null){
-            this.refreshToken = jsonObject.get("refreshToken").getAsString();
+            refreshToken = jsonObject.get("refreshToken").getAsString();
+        } else {
+            refreshToken = token.get().refreshToken;
         }
 
-        logger.debug("  refreshToken: " + this.refreshToken);
+        if (logger.isDebugEnabled()) {
+            logger.debug("received token:");
+            logger.debug("  accessToken: " + accessToken);
+            logger.debug("  expiresIn: " + expiresIn);
+            logger.debug("  legacyToken: " + legacyToken);
+            logger.debug("  refreshToken: " + refreshToken);
+        }
 
-        //
-        // Calculate the token expiration time. As before,
-        // System.currentTimeMills() is in milliseconds so
-        // we multiply expiresIn by 1000:
-        //
+        Token newToken = new Token(accessToken, expiresIn, legacyToken, refreshToken);
 
-        tokenExpirationTime = System.currentTimeMillis() + (expiresIn * 1000);
+        if (logger.isDebugEnabled()) {
+            logger.debug("access token expires at " + new Date(newToken.expirationTime));
+        }
 
-        logger.debug("access token expires at " + new Date(tokenExpirationTime));
+        publishToken(newToken);
 
         return accessToken;
     }
 
     /**
+     * Returns the current access token, requesting a new one
+     * if it expires within the next five minutes. The current
+     * token is read without locking; when a new one is needed,
+     * concurrent callers share a single request to the
+     * authentication service.
      *
-     * @return      The refresh token
+     * @return      The access token
      */
-    public synchronized String refreshToken()
+    public String refreshToken()
             throws ETSdkException
     {
-        if (tokenExpirationTime > 0) {
-            logger.debug("access token expires at " + new Date(tokenExpirationTime));
-
+        Token current = token.get();
+        if (current.expirationTime > 0) {
             //
             // If the current token expires more than five
-            // minutes from now, we don't need to refresh
-            // (tokenExpirationTime and System.currentTimeMills()
-            // are in milliseconds so we multiply by 1000):
+            // minutes from now, we don't need to refresh:
             //
 
-            if (tokenExpirationTime - System.currentTimeMillis() > 5*60*1000) {
-                logger.debug("not refreshing access token");
-                return accessToken;
+            if (current.expirationTime - System.currentTimeMillis() > TOKEN_REFRESH_WINDOW) {
+                return current.accessToken;
             }
 
             logger.debug("refreshing access token...");
         }
 
-        requestToken(refreshToken);
+        return refreshToken(current).accessToken;
+    }
 
-        if(soapConnection != null) {
-            soapConnection.setAccessToken(accessToken);
+    /**
+     * Replaces the stale token unless another thread already has,
+     * joining the in-flight request to the authentication service
+     * if there is one.
+     */
+    private Token refreshToken(Token stale)
+            throws ETSdkException
+    {
+        while (true) {
+            CompletableFuture<Token> inFlight = tokenRefresh.get();
+            if (inFlight != null) {
+                return awaitToken(inFlight);
+            }
+            Token current = token.get();
+            if (current != stale) {
+                return current;
+            }
+            CompletableFuture<Token> refresh = new CompletableFuture<Token>();
+            if (!tokenRefresh.compareAndSet(null, refresh)) {
+                continue;
+            }
+            ETMetricsCall call = startCall("token.refresh", null);
+            try {
+                requestToken(current.refreshToken);
+                Token refreshed = token.get();
+                refresh.complete(refreshed);
+                return refreshed;
+            } catch (ETSdkException ex) {
+                call.failed(ex);
+                refresh.completeExceptionally(ex);
+                throw ex;
+            } catch (RuntimeException ex) {
+                call.failed(ex);
+                refresh.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                call.end();
+                tokenRefresh.compareAndSet(refresh, null);
+            }
         }
+    }
 
-        return accessToken;
+    private Token awaitToken(CompletableFuture<Token> refresh)
+            throws ETSdkException
+    {
+        try {
+            return refresh.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted waiting for access token", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ETSdkException) {
+                throw (ETSdkException) ex.getCause();
+            }
+            throw new ETSdkException("error obtaining access token", ex.getCause());
+        }
+    }
+
+    /**
+     * Publishes a newly obtained token and, unless
+     * <code>proactiveTokenRefresh</code> is false, schedules its
+     * renewal shortly before it enters the refresh window so
+     * callers rarely have to wait for the authentication service.
+     */
+    private void publishToken(Token newToken)
+            throws ETSdkException
+    {
+        token.set(newToken);
+
+        if (soapConnection != null) {
+            soapConnection.setAccessToken(newToken.accessToken);
+        }
+
+        if (configuration.isFalse("proactiveTokenRefresh")) {
+            return;
+        }
+
+        long delay = newToken.expirationTime - System.currentTimeMillis()
+                - TOKEN_REFRESH_WINDOW - TOKEN_REFRESH_LEAD;
+        if (delay <= 0) {
+            // token is too short lived to renew ahead of time
+            return;
+        }
+
+        synchronized (token) {
+            if (tokenRefresher == null) {
+                tokenRefresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "fuelsdk-token-refresher");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            if (scheduledTokenRefresh != null) {
+                scheduledTokenRefresh.cancel(false);
+            }
+            final Token scheduled = newToken;
+            scheduledTokenRefresh = tokenRefresher.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        logger.debug("proactively refreshing access token...");
+                        refreshToken(scheduled);
+                    } catch (Exception ex) {
+                        // callers will refresh on demand
+                        logger.warn("error proactively refreshing access token", ex);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the background token refresher and releases the
+     * connections held by the client.
+     */
+    public void close() {
+        synchronized (token) {
+            if (tokenRefresher != null) {
+                tokenRefresher.shutdownNow();
+                tokenRefresher = null;
+                scheduledTokenRefresh = null;
+            }
+        }
+        synchronized (executorLock) {
+            closed = true;
+            if (backgroundExecutor != null && backgroundExecutor != executor) {
+                backgroundExecutor.shutdownNow();
+            }
+            backgroundExecutor = null;
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+        if (httpTransport != null) {
+            httpTransport.close();
+        }
     }
 
     /**
@@ -569,6 +899,34 @@ public class ETClient {
         return retrieve(type, null, null, filter);
     }
 
+    /**
+     * Retrieves objects one at a time: each response is decoded as
+     * it is read and every object is handed to the consumer as soon
+     * as it has been converted, rather than collected in the
+     * response, keeping memory use independent of the number of
+     * objects retrieved. Only supported for SOAP objects.
+     *
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object to be used to retrieve objects
+     * @param consumer      The consumer of the retrieved objects
+     * @return              The ETResponse of the last request, with no
+     *                      results and the total count set to the
+     *                      number of objects retrieved
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T extends ETApiObject> ETResponse<T> retrieve(Class<T> type,
+                                                          ETFilter filter,
+                                                          Consumer<? super T> consumer)
+            throws ETSdkException
+    {
+        if (!ETSoapObject.class.isAssignableFrom(type)) {
+            throw new ETSdkException("streaming retrieve not supported on "
+                    + type.getSimpleName());
+        }
+        return (ETResponse<T>) ETSoapObject.retrieve(this, null, filter, (Class) type, (Consumer) consumer);
+    }
+
     /**
      *
      * @param <T>           The type which extends from ETApiObject
@@ -592,12 +950,40 @@ public class ETClient {
      * @param filter        The ETFilter object to be used to retrieve objects
      * @return              The ETResponse of type T which extends from ETApiObject
      */
-    @SuppressWarnings("unchecked")
     public <T extends ETApiObject> ETResponse<T> retrieve(Class<T> type,
                                                           Integer page,
                                                           Integer pageSize,
                                                           ETFilter filter)
             throws ETSdkException
+    {
+        if (!retrieveCache.isCached(type)) {
+            return invokeRetrieve(type, page, pageSize, filter);
+        }
+
+        //
+        // Read through the cache:
+        //
+
+        String key = ETRetrieveCache.getKey(type, page, pageSize, filter);
+        ETResponse<T> response = retrieveCache.get(key);
+        if (response != null) {
+            // callers may modify the objects they get
+            return ETRetrieveCache.copy(this, response);
+        }
+        long generation = retrieveCache.getGeneration(type);
+        response = invokeRetrieve(type, page, pageSize, filter);
+        if (response != null && response.getStatus() == ETResult.Status.OK) {
+            retrieveCache.put(type, key, ETRetrieveCache.copy(this, response), generation);
+        }
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends ETApiObject> ETResponse<T> invokeRetrieve(Class<T> type,
+                                                                 Integer page,
+                                                                 Integer pageSize,
+                                                                 ETFilter filter)
+            throws ETSdkException
     {
         //
         // Find the retrieve method:
@@ -634,7 +1020,7 @@ public class ETClient {
                     pageSize,
                     filter);
         } catch (Exception ex) {
-            throw new ETSdkException("error invoking retrieve method for type " + type, ex);
+            throw createInvocationException("error invoking retrieve method for type " + type, ex);
         }
 
         return response;
@@ -907,6 +1293,156 @@ public class ETClient {
         return response.getObjects();
     }
 
+    /**
+     * Retrieves all objects matching the filter, lazily: pages are
+     * fetched as the stream is consumed (following SOAP continue
+     * requests, or requesting page after page from the REST API),
+     * and only the current page is held in memory. Errors raised
+     * while fetching a page are thrown as ETUncheckedSdkException.
+     *
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object to be used to retrieve objects
+     * @return              A sequential Stream of the objects
+     */
+    public <T extends ETApiObject> Stream<T> stream(Class<T> type,
+                                                    ETFilter filter)
+    {
+        return stream(type, filter,
+                configuration.getInteger("retrievePrefetchDepth", 0));
+    }
+
+    /**
+     * Retrieves all objects matching the filter, lazily, fetching up
+     * to <code>prefetchDepth</code> pages ahead on a background thread
+     * while the current page is consumed. Close the stream (or
+     * consume it fully) to stop fetching ahead.
+     *
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object to be used to retrieve objects
+     * @param prefetchDepth The number of pages to fetch ahead, 0 to fetch on demand
+     * @return              A sequential Stream of the objects
+     */
+    public <T extends ETApiObject> Stream<T> stream(Class<T> type,
+                                                    ETFilter filter,
+                                                    int prefetchDepth)
+    {
+        ETPageSource<T> source = getPageSource(type, filter);
+        if (prefetchDepth <= 0) {
+            return stream(source);
+        }
+        final ETPrefetchingPageSource<T> prefetching =
+                new ETPrefetchingPageSource<T>(source, prefetchDepth, getBackgroundExecutor());
+        return stream(prefetching).onClose(new Runnable() {
+            @Override
+            public void run() {
+                prefetching.close();
+            }
+        });
+    }
+
+    private static <T extends ETApiObject> Stream<T> stream(ETPageSource<T> source) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new ETPageIterator<T>(source),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETApiObject
+     * @param type          The class type to retrieve
+     * @param filter        The filter to be used to retrieve as variable arguments of String
+     * @return              A sequential Stream of the objects
+     */
+    public <T extends ETApiObject> Stream<T> stream(Class<T> type,
+                                                    String... filter)
+            throws ETSdkException
+    {
+        return stream(type, ETFilter.parse(filter));
+    }
+
+    /**
+     *
+     * @return      The cache of data extension columns
+     */
+    public ETDataExtensionSchemaCache getDataExtensionSchemaCache() {
+        return dataExtensionSchemaCache;
+    }
+
+    /**
+     *
+     * @return      The cache of retrieve responses
+     */
+    public ETRetrieveCache getRetrieveCache() {
+        return retrieveCache;
+    }
+
+    /**
+     * @return  An ETAsyncClient making the calls of this client
+     *          without waiting for their responses
+     */
+    public ETAsyncClient async() {
+        return new ETAsyncClient(this);
+    }
+
+    /**
+     * @return The cursors of recent data extension selects, by query
+     */
+    Map<String, ETDataExtensionCursor> getDataExtensionCursors() {
+        return dataExtensionCursors;
+    }
+
+    /**
+     * Returns the executor the client sends concurrent requests on,
+     * such as the chunks of a bulk create. It runs tasks on virtual
+     * threads on Java 21 and later and on a bounded pool of platform
+     * threads otherwise (see the <code>executor</code> and
+     * <code>executorPoolSize</code> properties). The executor is
+     * shut down when the client is closed.
+     *
+     * @return The executor of the client
+     * @throws IllegalStateException if the client has been closed
+     */
+    public ExecutorService getExecutor() {
+        synchronized (executorLock) {
+            if (closed) {
+                throw new IllegalStateException("client is closed");
+            }
+            if (executor == null) {
+                executor = ETExecutors.create(configuration);
+            }
+            return executor;
+        }
+    }
+
+    //
+    // Long running background work, such as fetching pages ahead,
+    // gets an executor of its own so it can't take up the threads
+    // of a bounded pool:
+    //
+
+    private ExecutorService getBackgroundExecutor() {
+        synchronized (executorLock) {
+            if (backgroundExecutor == null) {
+                backgroundExecutor = ETExecutors.createBackground(getExecutor());
+            }
+            return backgroundExecutor;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    <T extends ETApiObject> ETPageSource<T> getPageSource(Class<T> type,
+                                                          ETFilter filter)
+    {
+        if (ETSoapObject.class.isAssignableFrom(type)) {
+            return (ETPageSource<T>) ETSoapObject.pages(this, (Class) type, filter);
+        }
+        if (ETRestObject.class.isAssignableFrom(type)) {
+            return (ETPageSource<T>) ETRestObject.pages(this, (Class) type, filter);
+        }
+        throw new IllegalArgumentException("cannot retrieve objects of type " + type);
+    }
+
     /**
      * @param <T>                   The type which extends from ETApiObject
      * @param objects               The objects to be created as variable arguments of type T
@@ -987,7 +1523,8 @@ public class ETClient {
     {
         // XXX optimize
 
-        ETResponse<T> response = retrieve(type, filter);
+        // not from the cache: the objects are about to change
+        ETResponse<T> response = invokeRetrieve(type, null, null, ETFilter.parse(filter));
 
         List<T> objects = response.getObjects();
         for (T object : objects) {
@@ -1049,7 +1586,8 @@ public class ETClient {
             objects.add(object);
             return delete(objects);
         }
-        ETResponse<T> response = retrieve(type, filter);
+        // not from the cache, which may not have seen the latest objects
+        ETResponse<T> response = invokeRetrieve(type, null, null, filter);
         return delete(response.getObjects());
     }
 
@@ -1098,9 +1636,68 @@ public class ETClient {
             // first argument of null means method is static
             response = (ETResponse<T>) m.invoke(null, this, objects);
         } catch (Exception ex) {
-            throw new ETSdkException("error invoking " + method + " method for type " + type, ex);
+            throw createInvocationException("error invoking " + method + " method for type " + type, ex);
+        } finally {
+            retrieveCache.invalidate(type);
         }
 
         return response;
     }
+
+    //
+    // Calls refused by a circuit breaker or bulkhead are passed on
+    // as they are, so callers can tell them from failed calls:
+    //
+
+    private static ETSdkException createInvocationException(String message, Exception ex) {
+        if (ex instanceof InvocationTargetException) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof ETCircuitOpenException
+                    || cause instanceof ETBulkheadFullException) {
+                return (ETSdkException) cause;
+            }
+        }
+        return new ETSdkException(message, ex);
+    }
+
+    /**
+     * An immutable snapshot of the tokens obtained from the
+     * authentication service.
+     */
+    private static final class Token {
+        private final String accessToken;
+        private final int expiresIn;
+        private final String legacyToken;
+        private final String refreshToken;
+        private final long expirationTime;
+
+        private Token(String accessToken,
+                      int expiresIn,
+                      String legacyToken,
+                      String refreshToken)
+        {
+            this(accessToken, expiresIn, legacyToken, refreshToken,
+                 accessToken != null
+                     ? System.currentTimeMillis() + (expiresIn * 1000L)
+                     : 0);
+        }
+
+        private Token(String accessToken,
+                      int expiresIn,
+                      String legacyToken,
+                      String refreshToken,
+                      long expirationTime)
+        {
+            this.accessToken = accessToken;
+            this.expiresIn = expiresIn;
+            this.legacyToken = legacyToken;
+            this.refreshToken = refreshToken;
+            this.expirationTime = expirationTime;
+        }
+
+        private Token withRefreshToken(String refreshToken) {
+            return new Token(accessToken, expiresIn, legacyToken,
+                             refreshToken, expirationTime);
+        }
+    }
 }
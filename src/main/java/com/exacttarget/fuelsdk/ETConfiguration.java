@@ -97,7 +97,37 @@ public class ETConfiguration {
         properties.setProperty(key, value);
     }
 
-    /** 
+    /**
+    * @param key        The key of a property.
+    * @return           The value of the key as an Integer, or null if it is unspecified or not an integer.
+    */
+    public Integer getInteger(String key) {
+        String value = get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            logger.warn(key + ": not an integer: " + value);
+            return null;
+        }
+    }
+
+    /**
+    * @param key          The key of a property.
+    * @param defaultValue The value to return if the key is unspecified or not an integer.
+    * @return             The value of the key as an int.
+    */
+    public int getInteger(String key, int defaultValue) {
+        Integer value = getInteger(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
     * @param key        The key of a property.
     * @param value      The value of the key.
     * @return           true if the value of the key matches, false otherwise.
@@ -40,10 +40,22 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 import com.exacttarget.fuelsdk.ETDataExtensionColumn.Type;
+import com.exacttarget.fuelsdk.ETRestConnection.Response;
 import com.exacttarget.fuelsdk.annotations.ExternalName;
 import com.exacttarget.fuelsdk.annotations.InternalName;
 import com.exacttarget.fuelsdk.annotations.RestObject;
@@ -482,6 +494,16 @@ public class ETDataExtension extends ETSoapObject {
     {
         String name = null;
 
+        if (page == null) {
+            page = 1;
+        }
+        if (pageSize == null) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+        if (page < 1 || pageSize < 1) {
+            throw new ETSdkException("invalid page " + page + " of size " + pageSize);
+        }
+
         //
         // The data extension can be specified using key or name:
         //
@@ -490,6 +512,9 @@ public class ETDataExtension extends ETSoapObject {
         if (e.getProperty().toLowerCase().equals("key")
                 && e.getOperator() == ETExpression.Operator.EQUALS) {
             name = e.getValue();
+            if (client.getConfiguration().isTrue("dataExtensionSelectUsesRest")) {
+                return selectRowSet(client, name, page, pageSize, filter);
+            }
             // if no columns are explicitly requested
             // retrieve all columns
             if (filter.getProperties().isEmpty()) {
@@ -511,89 +536,247 @@ public class ETDataExtension extends ETSoapObject {
             throw new ETSdkException("invalid data extension filter string");
         }
 
-        ETResponse<ETDataExtensionRow> response =
-                ETSoapObject.retrieve(client,
-                                      "DataExtensionObject[" + name + "]",
-                                      filter,
-                                      ETDataExtensionRow.class);
-        
-        List<ETResult<ETDataExtensionRow>> rowSet = sortRowSet(response.getResults(), filter);
-        
-        List<ETResult<ETDataExtensionRow>> paginatedRowSet;
-           if (page == null) {
-              page = response.getPage();
-               if (page == null) {
-                 page = 1;
-             }
-         }
-         int iPage = page;
-         if (pageSize == null) {
-             pageSize = response.getPageSize();
-             if (pageSize == null) {
-                 pageSize = DEFAULT_PAGE_SIZE;
-             }
-         }
-         int iPageSize = pageSize;
-         int pageStart = (iPage - 1) * iPageSize;
-         int pageEnd = pageStart + iPageSize;
-         if (pageStart < rowSet.size()) {
-             if (pageEnd > rowSet.size()) {
-                 pageEnd = rowSet.size();
-             }
-         } else {
-             pageEnd = pageStart;
-         }
-         paginatedRowSet = rowSet.subList(pageStart, pageEnd);
-         response = createResponse(response, paginatedRowSet, page, pageSize, pageEnd, rowSet.size());
-         logger.debug("final response: " + response);
+        //
+        // Read the page by continuing the retrieve from the batch
+        // containing its first row:
+        //
+
+        ETDataExtensionCursor cursor = ETDataExtensionCursor.get(client,
+                "DataExtensionObject[" + name + "]", filter);
+
+        long start = (long) (page - 1) * pageSize;
+        int pageStart = (int) Math.min(start, Integer.MAX_VALUE);
+        int pageEnd = (int) Math.min(start + pageSize, Integer.MAX_VALUE);
+
+        ETResponse<ETDataExtensionRow> response = null;
+        if (filter.getOrderBy().isEmpty()) {
+            response = cursor.read(pageStart, pageEnd);
+        } else {
+            //
+            // The SOAP API can't order rows, so all of them
+            // have to be retrieved and sorted here:
+            //
+
+            ETResponse<ETDataExtensionRow> all = cursor.read(0, Integer.MAX_VALUE);
+            List<ETResult<ETDataExtensionRow>> rowSet = sortRowSet(all.getResults(), filter);
+            if (pageStart > rowSet.size()) {
+                pageStart = rowSet.size();
+            }
+            if (pageEnd > rowSet.size()) {
+                pageEnd = rowSet.size();
+            }
+            response = createResponse(all, rowSet.subList(pageStart, pageEnd),
+                    page, pageSize, pageEnd, rowSet.size());
+        }
+        response.setPage(page);
+        response.setPageSize(pageSize);
+        if (logger.isDebugEnabled()) {
+            logger.debug("final response: " + response);
+        }
+
+        return response;
+    }
+
+    /**
+     * Selects rows like <code>select</code>, without waiting for
+     * the responses. Rows are read by following the continue
+     * requests of a new retrieve rather than through the cursors
+     * kept by the client.
+     * @param client        The ETClient object
+     * @param dataExtension The data extension
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter to be used to select rows
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    static CompletableFuture<ETResponse<ETDataExtensionRow>> selectAsync(ETClient client,
+                                                                         String dataExtension,
+                                                                         Integer page,
+                                                                         Integer pageSize,
+                                                                         final ETFilter filter)
+    {
+        if (page == null) {
+            page = 1;
+        }
+        if (pageSize == null) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+        if (page < 1 || pageSize < 1) {
+            return CompletableFuture.failedFuture(new ETSdkException(
+                    "invalid page " + page + " of size " + pageSize));
+        }
+
+        final AsyncSelect select;
+        try {
+            ETExpression e = ETExpression.parse(dataExtension);
+            if (e.getProperty().toLowerCase().equals("key")
+                    && e.getOperator() == ETExpression.Operator.EQUALS) {
+                if (client.getConfiguration().isTrue("dataExtensionSelectUsesRest")) {
+                    return selectRowSetAsync(client, e.getValue(), page, pageSize, filter);
+                }
+                select = new AsyncSelect(client, e.getValue(), page, pageSize, filter);
+                // if no columns are explicitly requested
+                // retrieve all columns
+                if (filter.getProperties().isEmpty()) {
+                    return client.getDataExtensionSchemaCache().getColumnNamesAsync(e.getValue())
+                            .thenCompose(new Function<List<String>, CompletionStage<ETResponse<ETDataExtensionRow>>>() {
+                        @Override
+                        public CompletionStage<ETResponse<ETDataExtensionRow>> apply(List<String> columns) {
+                            filter.setProperties(new ArrayList<String>(columns));
+                            return select.start();
+                        }
+                    });
+                }
+            } else if (e.getProperty().toLowerCase().equals("name")
+                    && e.getOperator() == ETExpression.Operator.EQUALS) {
+                if (filter.getProperties().isEmpty()) {
+                    throw new ETSdkException("columns must be specified "
+                            + "when retrieving data extensions by name");
+                }
+                select = new AsyncSelect(client, e.getValue(), page, pageSize, filter);
+            } else {
+                throw new ETSdkException("invalid data extension filter string");
+            }
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return select.start();
+    }
+
+    /**
+     * Selects a page of rows using the REST API, which pages
+     * (and orders) rows on the server.
+     */
+    private static ETResponse<ETDataExtensionRow> selectRowSet(ETClient client,
+                                                               String key,
+                                                               int page,
+                                                               int pageSize,
+                                                               ETFilter filter)
+        throws ETSdkException
+    {
+        client.refreshToken();
+
+        Response r = client.getRestConnection().get(
+                getRowSetPath(key, page, pageSize, filter));
+
+        return createRowSetResponse(client, r, page, pageSize, filter);
+    }
+
+    private static CompletableFuture<ETResponse<ETDataExtensionRow>> selectRowSetAsync(final ETClient client,
+                                                                                       String key,
+                                                                                       final int page,
+                                                                                       final int pageSize,
+                                                                                       final ETFilter filter)
+    {
+        String path = null;
+        try {
+            path = getRowSetPath(key, page, pageSize, filter);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return client.getRestConnection().getAsync(path).thenApply(
+                new Function<Response, ETResponse<ETDataExtensionRow>>() {
+            @Override
+            public ETResponse<ETDataExtensionRow> apply(Response r) {
+                return createRowSetResponse(client, r, page, pageSize, filter);
+            }
+        });
+    }
+
+    private static String getRowSetPath(String key,
+                                        int page,
+                                        int pageSize,
+                                        ETFilter filter)
+        throws ETSdkException
+    {
+        StringBuilder path = new StringBuilder("/data/v1/customobjectdata/key/");
+        path.append(ETRestObject.encodePathSegment(key));
+        path.append("/rowset?$page=").append(page);
+        path.append("&$pagesize=").append(pageSize);
+        if (filter.getExpression().getOperator() != null) {
+            path.append("&").append(ETRestObject.toFilterString(filter.getExpression()));
+        }
+        if (!filter.getOrderBy().isEmpty()) {
+            path.append("&$orderBy=");
+            path.append(StringUtils.join(filter.getOrderBy(), ","));
+            path.append(filter.getOrderByAsc() ? "%20asc" : "%20desc");
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("GET " + path);
+        }
+
+        return path.toString();
+    }
+
+    private static ETResponse<ETDataExtensionRow> createRowSetResponse(ETClient client,
+                                                                       Response r,
+                                                                       int page,
+                                                                       int pageSize,
+                                                                       ETFilter filter)
+    {
+        ETResponse<ETDataExtensionRow> response = new ETResponse<ETDataExtensionRow>();
+        response.setRequestId(r.getRequestId());
+        response.setResponseCode(r.getResponseCode().toString());
+        response.setResponseMessage(r.getResponseMessage());
+        response.setPage(page);
+        response.setPageSize(pageSize);
+        if (r.getResponseCode() >= 200 && r.getResponseCode() <= 299) {
+            response.setStatus(ETResult.Status.OK);
+        } else {
+            response.setStatus(ETResult.Status.ERROR);
+            return response;
+        }
+
+        JsonObject jsonObject = JsonParser.parseString(r.getResponsePayload()).getAsJsonObject();
+
+        if (jsonObject.get("count") != null) {
+            response.setTotalCount(jsonObject.get("count").getAsInt());
+            response.setMoreResults((long) page * pageSize < response.getTotalCount());
+        }
 
         //
-        // XXX reenable support for paginated retrieves via REST API
+        // Rows are returned with all their columns, so keep
+        // only those requested (if any):
         //
 
-//        String json = restResponse.getPayload();
-//
-//        JsonParser jsonParser = new JsonParser();
-//        JsonObject jsonObject = jsonParser.parse(json).getAsJsonObject();
-//
-//        if (jsonObject.get("page") != null) {
-//            response.setPage(jsonObject.get("page").getAsInt());
-//            logger.trace("page = " + response.getPage());
-//            response.setPageSize(jsonObject.get("pageSize").getAsInt());
-//            logger.trace("pageSize = " + response.getPageSize());
-//            response.setTotalCount(jsonObject.get("count").getAsInt());
-//            logger.trace("totalCount = " + response.getTotalCount());
-//
-//            if (response.getPage() * response.getPageSize() < response.getTotalCount()) {
-//                response.setMoreResults(true);
-//            }
-//
-//            JsonElement elements = jsonObject.get("items");
-//            if (elements != null) {
-//                for (JsonElement element : elements.getAsJsonArray()) {
-//                    JsonObject object = element.getAsJsonObject();
-//                    ETDataExtensionRow row = new ETDataExtensionRow();
-//                    JsonObject keys = object.get("keys").getAsJsonObject();
-//                    for (Map.Entry<String, JsonElement> entry : keys.entrySet()) {
-//                        row.setColumn(entry.getKey(), entry.getValue().getAsString(), false);
-//                    }
-//                    JsonObject values = object.get("values").getAsJsonObject();
-//                    for (Map.Entry<String, JsonElement> entry : values.entrySet()) {
-//                        row.setColumn(entry.getKey(), entry.getValue().getAsString(), false);
-//                    }
-//                    row.setClient(client);
-//                    ETResult<ETDataExtensionRow> result = new ETResult<ETDataExtensionRow>();
-//                    result.setObject(row);
-//                    response.addResult(result);
-//                }
-//            }
-//        }
+        List<String> columns = filter.getProperties();
+        JsonElement items = jsonObject.get("items");
+        if (items != null) {
+            for (JsonElement item : items.getAsJsonArray()) {
+                ETDataExtensionRow row = new ETDataExtensionRow();
+                for (String part : new String[] { "keys", "values" }) {
+                    JsonElement element = item.getAsJsonObject().get(part);
+                    if (element == null) {
+                        continue;
+                    }
+                    for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                        if (!columns.isEmpty() && !columns.contains(entry.getKey())) {
+                            continue;
+                        }
+                        JsonElement value = entry.getValue();
+                        row.setColumn(entry.getKey(),
+                                      value.isJsonNull() ? null : value.getAsString(),
+                                      false);
+                    }
+                }
+                row.setClient(client);
+                ETResult<ETDataExtensionRow> result = new ETResult<ETDataExtensionRow>();
+                result.setObject(row);
+                response.addResult(result);
+            }
+        }
 
         return response;
     }
+
     private static List<ETResult<ETDataExtensionRow>> sortRowSet(List<ETResult<ETDataExtensionRow>> rowSet, ETFilter filter) throws ETSdkException {
-        logger.debug("rowSet: " + rowSet);
-        logger.debug("filter: " + filter);
+        if (logger.isDebugEnabled()) {
+            logger.debug("rowSet: " + rowSet);
+            logger.debug("filter: " + filter);
+        }
         if (filter.getOrderBy() != null && filter.getOrderBy().size() > 0) {
             // Sort the results
             final String orderByColumn = filter.getOrderBy().get(0);//.toLowerCase();
@@ -611,7 +794,9 @@ public class ETDataExtension extends ETSoapObject {
                     }
                 });
                 rowSet = sortedRowSet;
-                logger.debug("sortedRowSet: " + sortedRowSet);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("sortedRowSet: " + sortedRowSet);
+                }
             } else {
                 throw new ETSdkException("Can't order by '" + orderByColumn + "' as it is not in selected columns list: "
                         + list);
@@ -733,6 +918,34 @@ public class ETDataExtension extends ETSoapObject {
         return select((Integer) null, (Integer) null, fil);
     }
 
+    /**
+     * Selects all rows matching the filter, handing them to the
+     * consumer one at a time as the responses are read instead of
+     * collecting them, so any number of rows can be selected in
+     * constant memory. Rows can't be ordered.
+     *
+     * @param filter        The ETFilter to be used to select rows
+     * @param consumer      The consumer of the selected rows
+     * @return              The ETResponse of the last request, with no
+     *                      results and the total count set to the
+     *                      number of rows selected
+     * @throws ETSdkException
+     */
+    public ETResponse<ETDataExtensionRow> select(ETFilter filter,
+                                                 Consumer<? super ETDataExtensionRow> consumer)
+        throws ETSdkException
+    {
+        // if no columns are explicitly requested retrieve all columns
+        if (filter.getProperties().isEmpty()) {
+            filter.setProperties(getColumnNames());
+        }
+        return ETSoapObject.retrieve(getClient(),
+                                     "DataExtensionObject[" + getKey() + "]",
+                                     filter,
+                                     ETDataExtensionRow.class,
+                                     consumer);
+    }
+
     /**
      *
      * @param page          The page number
@@ -850,6 +1063,45 @@ public class ETDataExtension extends ETSoapObject {
         return super.create(getClient(), rows);
     }
 
+    /**
+     * Inserts rows like <code>insert</code>, without waiting
+     * for the responses.
+     * @param rows              The List of ETDataExtensionRow to insert
+     * @return                  The future ETResponse of ETDataExtensionRow
+     */
+    CompletableFuture<ETResponse<ETDataExtensionRow>> insertAsync(List<ETDataExtensionRow> rows) {
+        for (ETDataExtensionRow row : rows) {
+            if (row.getDataExtensionKey() == null) {
+                row.setDataExtensionKey(key);
+            }
+        }
+
+        return createAsync(getClient(), rows);
+    }
+
+    /**
+     * Selects rows like <code>select</code>, without waiting
+     * for the responses.
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter to be used to select rows
+     * @return              The future ETResponse of ETDataExtensionRow
+     */
+    CompletableFuture<ETResponse<ETDataExtensionRow>> selectAsync(Integer page,
+                                                                  Integer pageSize,
+                                                                  ETFilter filter)
+    {
+        // if no columns are explicitly requested retrieve all columns
+        if (filter.getProperties().isEmpty()) {
+            try {
+                filter.setProperties(getColumnNames());
+            } catch (ETSdkException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        return selectAsync(getClient(), "key=" + getKey(), page, pageSize, filter);
+    }
+
     /**
      * @param rows              The filter to be used to update rows as variable arguments of ETDataExtensionRow
      * @return                  The ETResponse of ETDataExtensionRow 
@@ -903,6 +1155,9 @@ public class ETDataExtension extends ETSoapObject {
     {
         List<APIObject> internalRows = new ArrayList<APIObject>();
 
+        List<String> primaryKeyColumnNames =
+                getClient().getDataExtensionSchemaCache().getPrimaryKeyColumnNames(key);
+
         for (ETDataExtensionRow row : rows) {
             //
             // We hand construct this one, since all we need
@@ -914,14 +1169,11 @@ public class ETDataExtension extends ETSoapObject {
 
             DataExtensionObject internalRow = new DataExtensionObject();
             DataExtensionObject.Keys keys = new DataExtensionObject.Keys();
-            hydrate(); // make sure we've retrieved all columns
-            for (ETDataExtensionColumn column : columns) {
-                if (column.getIsPrimaryKey()) {
-                    APIProperty property = new APIProperty();
-                    property.setName(column.getName());
-                    property.setValue(row.getColumn(property.getName()));
-                    keys.getKey().add(property);
-                }
+            for (String primaryKeyColumnName : primaryKeyColumnNames) {
+                APIProperty property = new APIProperty();
+                property.setName(primaryKeyColumnName);
+                property.setValue(row.getColumn(property.getName()));
+                keys.getKey().add(property);
             }
             internalRow.setName(name);
             internalRow.setKeys(keys);
@@ -941,18 +1193,57 @@ public class ETDataExtension extends ETSoapObject {
     public ETResponse<ETDataExtensionRow> update(String filter, String... values)
         throws ETSdkException
     {
-        List<ETDataExtensionRow> rows = getMatchingRows(filter);
-        for (ETDataExtensionRow row : rows) {
-            for (String value : values) {
-                ETExpression expression = ETExpression.parse(value);
-                // must be an assign operation
-                if (expression.getOperator() != ETExpression.Operator.EQUALS) {
-                    throw new ETSdkException("must be an assign operation: " + expression);
-                }
-                row.setColumn(expression.getProperty(), expression.getValue());
+        List<ETResult<ETDataExtensionRow>> results = new ArrayList<ETResult<ETDataExtensionRow>>();
+        return withResults(update(filter, collector(results), values), results);
+    }
+
+    /**
+     * Updates all rows matching the filter, handing the result of
+     * every row to the consumer as its batch completes instead of
+     * collecting them, so any number of rows can be updated in
+     * constant memory.
+     *
+     * @param filter            The filter to be used to update rows
+     * @param consumer          The consumer of the results of the updated rows
+     * @param values            The values as variable arguments of String which is used to do the update
+     * @return                  The ETResponse of the last request, with no
+     *                          results, the status of the first batch that
+     *                          failed and the total count set to the number
+     *                          of rows updated
+     * @throws ETSdkException
+     */
+    public ETResponse<ETDataExtensionRow> update(String filter,
+                                                 Consumer<? super ETResult<ETDataExtensionRow>> consumer,
+                                                 String... values)
+        throws ETSdkException
+    {
+        //
+        // Parse the assignments up front so nothing is
+        // updated if one of them is invalid:
+        //
+
+        final List<ETExpression> assignments = new ArrayList<ETExpression>();
+        for (String value : values) {
+            ETExpression expression = ETExpression.parse(value);
+            // must be an assign operation
+            if (expression.getOperator() != ETExpression.Operator.EQUALS) {
+                throw new ETSdkException("must be an assign operation: " + expression);
             }
+            assignments.add(expression);
         }
-        return update(rows);
+        return forEachMatchingBatch(filter, new RowBatchOperation() {
+            @Override
+            public ETResponse<ETDataExtensionRow> apply(List<ETDataExtensionRow> rows)
+                throws ETSdkException
+            {
+                for (ETDataExtensionRow row : rows) {
+                    for (ETExpression assignment : assignments) {
+                        row.setColumn(assignment.getProperty(), assignment.getValue());
+                    }
+                }
+                return update(rows);
+            }
+        }, consumer);
     }
 
     /**
@@ -963,18 +1254,48 @@ public class ETDataExtension extends ETSoapObject {
     public ETResponse<ETDataExtensionRow> delete(String filter)
         throws ETSdkException
     {
-        List<ETDataExtensionRow> rows = getMatchingRows(filter);
-        return delete(rows);
+        List<ETResult<ETDataExtensionRow>> results = new ArrayList<ETResult<ETDataExtensionRow>>();
+        return withResults(delete(filter, collector(results)), results);
     }
 
     /**
-     * Calls the retrieveColumns() method
+     * Deletes all rows matching the filter, handing the result of
+     * every row to the consumer as its batch completes instead of
+     * collecting them, so any number of rows can be deleted in
+     * constant memory.
+     *
+     * @param filter            The filter to be used to delete rows
+     * @param consumer          The consumer of the results of the deleted rows
+     * @return                  The ETResponse of the last request, with no
+     *                          results, the status of the first batch that
+     *                          failed and the total count set to the number
+     *                          of rows deleted
+     * @throws ETSdkException
+     */
+    public ETResponse<ETDataExtensionRow> delete(String filter,
+                                                 Consumer<? super ETResult<ETDataExtensionRow>> consumer)
+        throws ETSdkException
+    {
+        return forEachMatchingBatch(filter, new RowBatchOperation() {
+            @Override
+            public ETResponse<ETDataExtensionRow> apply(List<ETDataExtensionRow> rows)
+                throws ETSdkException
+            {
+                return delete(rows);
+            }
+        }, consumer);
+    }
+
+    /**
+     * Sets the columns of the data extension, retrieving
+     * them unless the client has them cached
      * @throws ETSdkException 
      */
     public void hydrate()
         throws ETSdkException
     {
-        retrieveColumns();
+        columns = new ArrayList<ETDataExtensionColumn>(
+                getClient().getDataExtensionSchemaCache().getColumns(getKey()));
     }
 
     /**
@@ -997,24 +1318,55 @@ public class ETDataExtension extends ETSoapObject {
         // Retrieve all column objects with the specified key:
         //
 
-        ETExpression expression = new ETExpression();
-        expression.setProperty("DataExtension.CustomerKey");
-        expression.setOperator(ETExpression.Operator.EQUALS);
-        expression.addValue(key);
-
-        ETFilter filter = new ETFilter();
-        filter.setExpression(expression);
-
         ETResponse<ETDataExtensionColumn> response =
                 ETDataExtensionColumn.retrieve(client,
                                                ETDataExtensionColumn.class,
                                                null, // page
                                                null, // pageSize
-                                               filter);
+                                               createColumnsFilter(key));
+
+        if (response.getStatus() == ETResult.Status.OK) {
+            client.getDataExtensionSchemaCache().put(key, response.getObjects());
+        }
 
         return response.getObjects();
     }
 
+    /**
+     * @param client        The ETClient object
+     * @param key           The key
+     * @return              The future List of ETDataExtensionColumn
+     */
+    static CompletableFuture<List<ETDataExtensionColumn>> retrieveColumnsAsync(final ETClient client,
+                                                                               final String key)
+    {
+        return retrieveAsync(client,
+                             null,
+                             createColumnsFilter(key),
+                             null,
+                             ETDataExtensionColumn.class).thenApply(
+                new Function<ETResponse<ETDataExtensionColumn>, List<ETDataExtensionColumn>>() {
+            @Override
+            public List<ETDataExtensionColumn> apply(ETResponse<ETDataExtensionColumn> response) {
+                if (response.getStatus() == ETResult.Status.OK) {
+                    client.getDataExtensionSchemaCache().put(key, response.getObjects());
+                }
+                return response.getObjects();
+            }
+        });
+    }
+
+    private static ETFilter createColumnsFilter(String key) {
+        ETExpression expression = new ETExpression();
+        expression.setProperty("DataExtension.CustomerKey");
+        expression.setOperator(ETExpression.Operator.EQUALS);
+        expression.addValue(key);
+
+        ETFilter filter = new ETFilter();
+        filter.setExpression(expression);
+        return filter;
+    }
+
     /**
      * @return  The List of ETDataExtensionColumn
      * @throws ETSdkException 
@@ -1037,43 +1389,109 @@ public class ETDataExtension extends ETSoapObject {
                                                     String key)
         throws ETSdkException
     {
-        return getColumnNames(retrieveColumns(client, key));
+        return new ArrayList<String>(
+                client.getDataExtensionSchemaCache().getColumnNames(key));
+    }
+
+    private interface RowBatchOperation {
+        ETResponse<ETDataExtensionRow> apply(List<ETDataExtensionRow> rows)
+            throws ETSdkException;
     }
 
     /**
+     * Retrieves the primary keys of the rows matching the filter,
+     * following continue requests, and applies the operation to
+     * each batch of rows as it arrives, so only one batch is held
+     * in memory at a time.
+     *
      * @param filter        The filter to be used to get matching rows
-     * @return              The List of ETDataExtensionRow which are matched
+     * @param operation     The operation to apply to the matching rows
+     * @param consumer      The consumer of the results of the operation
+     * @return              The response of the operation on all batches,
+     *                      with no results
      */
-    private List<ETDataExtensionRow> getMatchingRows(String filter)
+    private ETResponse<ETDataExtensionRow> forEachMatchingBatch(String filter,
+                                                                RowBatchOperation operation,
+                                                                Consumer<? super ETResult<ETDataExtensionRow>> consumer)
         throws ETSdkException
     {
-        List<ETDataExtensionRow> rows = new ArrayList<ETDataExtensionRow>();
-
-        hydrate(); // make sure we've retrieved all columns
+        ETClient client = getClient();
 
         //
         // Only retrieve primary key columns:
         //
 
-        List<String> primaryKeyColumnNames = new ArrayList<String>();
-        for (ETDataExtensionColumn column : columns) {
-            if (column.getIsPrimaryKey()) {
-                primaryKeyColumnNames.add(column.getName());
+        ETFilter parsedFilter = ETFilter.parse(filter);
+        parsedFilter.setProperties(new ArrayList<String>(
+                client.getDataExtensionSchemaCache().getPrimaryKeyColumnNames(key)));
+
+        ETResponse<ETDataExtensionRow> response = new ETResponse<ETDataExtensionRow>();
+        response.setStatus(ETResult.Status.OK);
+        int count = 0;
+
+        ETResponse<ETDataExtensionRow> batch =
+                ETSoapObject.retrieve(client,
+                                      "DataExtensionObject[" + key + "]",
+                                      parsedFilter,
+                                      ETDataExtensionRow.class);
+        while (true) {
+            if (batch.getStatus() == ETResult.Status.ERROR) {
+                throw new ETSdkException("error retrieving rows matching \""
+                        + filter + "\": " + batch.getResponseMessage());
+            }
+            List<ETDataExtensionRow> rows = batch.getObjects();
+            for (int i = 0; i < rows.size(); i += DEFAULT_PAGE_SIZE) {
+                List<ETDataExtensionRow> chunk =
+                        rows.subList(i, Math.min(i + DEFAULT_PAGE_SIZE, rows.size()));
+                ETResponse<ETDataExtensionRow> r = operation.apply(chunk);
+                for (ETResult<ETDataExtensionRow> result : r.getResults()) {
+                    consumer.accept(result);
+                }
+                count += r.getResults().size();
+                addStatus(response, r);
+            }
+            if (!batch.hasMoreResults()) {
+                break;
             }
+            batch = ETSoapObject.retrieve(client,
+                                          batch.getRequestId(),
+                                          ETDataExtensionRow.class);
         }
 
-        int page = 1;
-        int page_size = 2500;
+        response.setTotalCount(count);
+        return response;
+    }
 
-        ETResponse<ETDataExtensionRow> response = null;
-        do {
-            ETFilter parsedFilter = ETFilter.parse(filter);
-            parsedFilter.setProperties(primaryKeyColumnNames);
-            response = select(page++, page_size, parsedFilter);
-            rows.addAll(response.getObjects());
-        } while (response.hasMoreResults() == true);
+    /**
+     * Adds the outcome of one batch to the response of the whole
+     * operation, which takes the status of the first failed batch.
+     */
+    private static void addStatus(ETResponse<ETDataExtensionRow> response,
+                                  ETResponse<ETDataExtensionRow> batch)
+    {
+        response.setRequestId(batch.getRequestId());
+        if (response.getStatus() == ETResult.Status.OK) {
+            response.setStatus(batch.getStatus());
+            response.setResponseCode(batch.getResponseCode());
+            response.setResponseMessage(batch.getResponseMessage());
+        }
+    }
 
-        return rows;
+    private static Consumer<ETResult<ETDataExtensionRow>> collector(final List<ETResult<ETDataExtensionRow>> results) {
+        return new Consumer<ETResult<ETDataExtensionRow>>() {
+            @Override
+            public void accept(ETResult<ETDataExtensionRow> result) {
+                results.add(result);
+            }
+        };
+    }
+
+    private static ETResponse<ETDataExtensionRow> withResults(ETResponse<ETDataExtensionRow> response,
+                                                              List<ETResult<ETDataExtensionRow>> results)
+    {
+        response.getResults().addAll(results);
+        response.setTotalCount(null);
+        return response;
     }
 
     /**
@@ -1087,4 +1505,117 @@ public class ETDataExtension extends ETSoapObject {
         }
         return columnNames;
     }
+
+    //
+    // Reads the rows of an asynchronous select, following continue
+    // requests until the rows of the page have been read (or all
+    // rows, when they have to be sorted here):
+    //
+
+    private static class AsyncSelect {
+        private ETClient client = null;
+        private String soapObjectName = null;
+        private int page = 0;
+        private int pageSize = 0;
+        private ETFilter filter = null;
+        private int start = 0;
+        private int end = 0;
+
+        private ETResponse<ETDataExtensionRow> response =
+                new ETResponse<ETDataExtensionRow>();
+        // the index of the first row of the next batch
+        private int offset = 0;
+
+        private AsyncSelect(ETClient client,
+                            String name,
+                            int page,
+                            int pageSize,
+                            ETFilter filter)
+        {
+            this.client = client;
+            this.soapObjectName = "DataExtensionObject[" + name + "]";
+            this.page = page;
+            this.pageSize = pageSize;
+            this.filter = filter;
+            if (filter.getOrderBy().isEmpty()) {
+                long first = (long) (page - 1) * pageSize;
+                start = (int) Math.min(first, Integer.MAX_VALUE);
+                end = (int) Math.min(first + pageSize, Integer.MAX_VALUE);
+            } else {
+                start = 0;
+                end = Integer.MAX_VALUE;
+            }
+        }
+
+        private CompletableFuture<ETResponse<ETDataExtensionRow>> start() {
+            return read(null).thenApply(new Function<ETResponse<ETDataExtensionRow>, ETResponse<ETDataExtensionRow>>() {
+                @Override
+                public ETResponse<ETDataExtensionRow> apply(ETResponse<ETDataExtensionRow> response) {
+                    try {
+                        return finish(response);
+                    } catch (ETSdkException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }
+            });
+        }
+
+        private CompletableFuture<ETResponse<ETDataExtensionRow>> read(String continueRequest) {
+            return retrieveAsync(client,
+                                 soapObjectName,
+                                 filter,
+                                 continueRequest,
+                                 ETDataExtensionRow.class).thenCompose(
+                    new Function<ETResponse<ETDataExtensionRow>, CompletionStage<ETResponse<ETDataExtensionRow>>>() {
+                @Override
+                public CompletionStage<ETResponse<ETDataExtensionRow>> apply(ETResponse<ETDataExtensionRow> r) {
+                    response.setRequestId(r.getRequestId());
+                    response.setStatus(r.getStatus());
+                    response.setResponseCode(r.getResponseCode());
+                    response.setResponseMessage(r.getResponseMessage());
+                    if (r.getStatus() == ETResult.Status.ERROR) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+
+                    List<ETResult<ETDataExtensionRow>> rows = r.getResults();
+                    int from = Math.max(start - offset, 0);
+                    int to = (int) Math.min((long) end - offset, rows.size());
+                    if (from < to) {
+                        response.getResults().addAll(rows.subList(from, to));
+                    }
+                    offset += rows.size();
+
+                    if (r.hasMoreResults() && offset < end) {
+                        return read(r.getRequestId());
+                    }
+                    if (!r.hasMoreResults()) {
+                        response.setTotalCount(offset);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                }
+            });
+        }
+
+        private ETResponse<ETDataExtensionRow> finish(ETResponse<ETDataExtensionRow> all)
+            throws ETSdkException
+        {
+            ETResponse<ETDataExtensionRow> r = all;
+            if (all.getStatus() != ETResult.Status.ERROR) {
+                if (filter.getOrderBy().isEmpty()) {
+                    Integer totalCount = all.getTotalCount();
+                    all.setMoreResults(totalCount == null || end < totalCount);
+                } else {
+                    List<ETResult<ETDataExtensionRow>> rowSet = sortRowSet(all.getResults(), filter);
+                    long first = (long) (page - 1) * pageSize;
+                    int pageStart = (int) Math.min(first, rowSet.size());
+                    int pageEnd = (int) Math.min(first + pageSize, rowSet.size());
+                    r = createResponse(all, rowSet.subList(pageStart, pageEnd),
+                            page, pageSize, pageEnd, rowSet.size());
+                }
+            }
+            r.setPage(page);
+            r.setPageSize(pageSize);
+            return r;
+        }
+    }
 }
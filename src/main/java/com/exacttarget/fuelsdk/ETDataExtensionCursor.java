@@ -0,0 +1,291 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETDataExtensionCursor</code> pages through the rows
+ * selected by a data extension query, following SOAP continue
+ * requests. The SOAP API returns rows in batches (of up to 2500
+ * rows) and each batch carries the request ID that continues the
+ * retrieve with the next one; the cursor remembers the request ID
+ * and the offset of every batch it has seen, so a page can be read
+ * by continuing the retrieve from the batch that contains it rather
+ * than by retrieving all preceding rows again.
+ *
+ * Cursors are cached per client and per query (data extension,
+ * filter expression and columns), for up to
+ * <code>dataExtensionCursorTtl</code> seconds after they were last
+ * read (default 60). Reading from the first row always starts a
+ * new retrieve.
+ */
+
+class ETDataExtensionCursor {
+    private static Logger logger = Logger.getLogger(ETDataExtensionCursor.class);
+
+    static final int MAX_CURSORS = 64;
+    static final int DEFAULT_TTL = 60; // 1 minute
+
+    private ETClient client = null;
+    private String soapObjectName = null;
+    private ETFilter filter = null;
+
+    //
+    // continuations.get(i) continues the retrieve with batch i
+    // (null for the first batch, which is retrieved anew), and
+    // offsets.get(i) is the index of the first row of batch i:
+    //
+
+    private List<String> continuations = new ArrayList<String>();
+    private List<Integer> offsets = new ArrayList<Integer>();
+    // known once the last batch has been fetched
+    private Integer totalCount = null;
+
+    //
+    // The most recently fetched batch, so paging through a batch
+    // doesn't retrieve it once per page; forgotten once a page has
+    // been read up to its end:
+    //
+
+    private int lastBatch = -1;
+    private ETResponse<ETDataExtensionRow> lastResponse = null;
+
+    private volatile long expirationTime = 0;
+
+    // held while reading; a lock so readers on virtual threads don't pin
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ETDataExtensionCursor(ETClient client, String soapObjectName, ETFilter filter) {
+        this.client = client;
+        this.soapObjectName = soapObjectName;
+        this.filter = filter;
+        reset();
+        touch();
+    }
+
+    /**
+     * @param client            The ETClient object
+     * @param soapObjectName    The object name to retrieve for SOAP
+     *                          (DataExtensionObject[name])
+     * @param filter            The ETFilter to be used to select rows
+     * @return                  The cursor of the query
+     */
+    static ETDataExtensionCursor get(ETClient client,
+                                     String soapObjectName,
+                                     ETFilter filter)
+    {
+        String query = soapObjectName
+                + " " + filter.getExpression()
+                + " " + filter.getProperties();
+        Map<String, ETDataExtensionCursor> cursors = client.getDataExtensionCursors();
+        synchronized (cursors) {
+            //
+            // Drop expired cursors, along with the rows they hold:
+            //
+
+            long now = System.currentTimeMillis();
+            Iterator<ETDataExtensionCursor> i = cursors.values().iterator();
+            while (i.hasNext()) {
+                if (i.next().expirationTime <= now) {
+                    i.remove();
+                }
+            }
+
+            ETDataExtensionCursor cursor = cursors.get(query);
+            if (cursor == null) {
+                cursor = new ETDataExtensionCursor(client, soapObjectName, filter);
+                cursors.put(query, cursor);
+            }
+            return cursor;
+        }
+    }
+
+    /**
+     * @param start The index of the first row to read
+     * @param end   The index after the last row to read
+     * @return      The ETResponse holding the rows from start
+     *              (inclusive) to end (exclusive), indicating
+     *              whether there are rows after end
+     */
+    ETResponse<ETDataExtensionRow> read(int start, int end)
+        throws ETSdkException
+    {
+        lock.lock();
+        try {
+            if (start == 0) {
+                reset();
+            }
+            ETResponse<ETDataExtensionRow> response = read(start, end, true);
+            if (response == null) {
+                //
+                // The continue request failed, most likely because it
+                // expired; forget the request IDs and start over:
+                //
+
+                logger.debug("continue request failed, retrieving "
+                        + soapObjectName + " from the first row");
+                reset();
+                response = read(start, end, false);
+            }
+            touch();
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ETResponse<ETDataExtensionRow> read(int start, int end, boolean retry)
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response = new ETResponse<ETDataExtensionRow>();
+
+        //
+        // Start with the last known batch beginning at or before start:
+        //
+
+        int batch = offsets.size() - 1;
+        while (offsets.get(batch) > start) {
+            batch--;
+        }
+
+        while (true) {
+            boolean continued = continuations.get(batch) != null;
+            ETResponse<ETDataExtensionRow> r = fetch(batch);
+            if (r.getStatus() == ETResult.Status.ERROR && continued && retry) {
+                return null;
+            }
+            response.setRequestId(r.getRequestId());
+            response.setStatus(r.getStatus());
+            response.setResponseCode(r.getResponseCode());
+            response.setResponseMessage(r.getResponseMessage());
+            if (r.getStatus() == ETResult.Status.ERROR) {
+                return response;
+            }
+
+            List<ETResult<ETDataExtensionRow>> rows = r.getResults();
+            int offset = offsets.get(batch);
+            int from = Math.max(start - offset, 0);
+            int to = (int) Math.min((long) end - offset, rows.size());
+            if (from < to) {
+                response.getResults().addAll(rows.subList(from, to));
+            }
+            if (!r.hasMoreResults() || offset + rows.size() >= end) {
+                if (offset + rows.size() <= end) {
+                    // the next page starts after this batch
+                    lastBatch = -1;
+                    lastResponse = null;
+                }
+                break;
+            }
+            batch++;
+        }
+
+        response.setTotalCount(totalCount);
+        response.setMoreResults(totalCount == null || end < totalCount);
+        return response;
+    }
+
+    private ETResponse<ETDataExtensionRow> fetch(int batch)
+        throws ETSdkException
+    {
+        if (batch == lastBatch) {
+            return lastResponse;
+        }
+
+        String continuation = continuations.get(batch);
+        ETResponse<ETDataExtensionRow> response = null;
+        if (continuation == null) {
+            response = ETSoapObject.retrieve(client,
+                                             soapObjectName,
+                                             filter,
+                                             ETDataExtensionRow.class);
+        } else {
+            response = ETSoapObject.retrieve(client,
+                                             continuation,
+                                             ETDataExtensionRow.class);
+        }
+        if (response.getStatus() == ETResult.Status.ERROR) {
+            return response;
+        }
+
+        //
+        // Remember where the next batch starts and how to get it:
+        //
+
+        int next = offsets.get(batch) + response.getResults().size();
+        if (response.hasMoreResults()) {
+            if (offsets.size() > batch + 1 && offsets.get(batch + 1).intValue() != next) {
+                // the rows have changed since the batches were last seen
+                offsets.subList(batch + 1, offsets.size()).clear();
+                continuations.subList(batch + 1, continuations.size()).clear();
+            }
+            if (offsets.size() == batch + 1) {
+                offsets.add(next);
+                continuations.add(response.getRequestId());
+            } else {
+                continuations.set(batch + 1, response.getRequestId());
+            }
+            totalCount = null;
+        } else {
+            totalCount = next;
+        }
+
+        lastBatch = batch;
+        lastResponse = response;
+        return response;
+    }
+
+    private void touch() {
+        int ttl = client.getConfiguration().getInteger("dataExtensionCursorTtl", DEFAULT_TTL);
+        expirationTime = System.currentTimeMillis() + ttl * 1000L;
+    }
+
+    private void reset() {
+        continuations.clear();
+        continuations.add(null);
+        offsets.clear();
+        offsets.add(0);
+        totalCount = null;
+        lastBatch = -1;
+        lastResponse = null;
+    }
+}
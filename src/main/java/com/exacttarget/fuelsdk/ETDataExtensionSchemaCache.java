@@ -0,0 +1,205 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETDataExtensionSchemaCache</code> holds the columns of
+ * the data extensions a client works with, by data extension key,
+ * so selecting, updating and deleting rows doesn't retrieve them
+ * every time. Entries expire after the number of seconds given by
+ * the <code>dataExtensionSchemaTtl</code> configuration property
+ * (default 300, 0 disables the cache); invalidate an entry after
+ * changing the columns of its data extension.
+ */
+
+public class ETDataExtensionSchemaCache {
+    private static Logger logger = Logger.getLogger(ETDataExtensionSchemaCache.class);
+
+    static final int DEFAULT_TTL = 300; // 5 minutes
+
+    private ETClient client = null;
+
+    private Map<String, Schema> schemas = new ConcurrentHashMap<String, Schema>();
+
+    ETDataExtensionSchemaCache(ETClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param key       The data extension key
+     * @return          The columns of the data extension
+     */
+    List<ETDataExtensionColumn> getColumns(String key)
+        throws ETSdkException
+    {
+        return getSchema(key).columns;
+    }
+
+    /**
+     * @param key       The data extension key
+     * @return          The names of the columns of the data extension
+     */
+    List<String> getColumnNames(String key)
+        throws ETSdkException
+    {
+        return getSchema(key).columnNames;
+    }
+
+    /**
+     * @param key       The data extension key
+     * @return          The future names of the columns of the data
+     *                  extension, retrieved without blocking if needed
+     */
+    CompletableFuture<List<String>> getColumnNamesAsync(final String key) {
+        Schema schema = getCachedSchema(key);
+        if (schema != null) {
+            return CompletableFuture.completedFuture(schema.columnNames);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("retrieving columns of data extension " + key);
+        }
+        return ETDataExtension.retrieveColumnsAsync(client, key).thenApply(
+                new Function<List<ETDataExtensionColumn>, List<String>>() {
+            @Override
+            public List<String> apply(List<ETDataExtensionColumn> columns) {
+                // cached by the retrieve if it succeeded
+                return new Schema(columns, 0).columnNames;
+            }
+        });
+    }
+
+    /**
+     * @param key       The data extension key
+     * @return          The names of the primary key columns of the data extension
+     */
+    List<String> getPrimaryKeyColumnNames(String key)
+        throws ETSdkException
+    {
+        return getSchema(key).primaryKeyColumnNames;
+    }
+
+    /**
+     * @param key       The data extension key
+     * @param columns   The columns of the data extension, as just retrieved
+     */
+    void put(String key, List<ETDataExtensionColumn> columns) {
+        int ttl = getTtl();
+        if (ttl > 0 && key != null) {
+            schemas.put(key, new Schema(columns,
+                    System.currentTimeMillis() + ttl * 1000L));
+        }
+    }
+
+    /**
+     * Forgets the columns of a data extension, so they're
+     * retrieved again the next time they're needed.
+     * @param key       The data extension key
+     */
+    public void invalidate(String key) {
+        if (key != null) {
+            schemas.remove(key);
+        }
+    }
+
+    /**
+     * Forgets the columns of all data extensions.
+     */
+    public void invalidateAll() {
+        schemas.clear();
+    }
+
+    private Schema getSchema(String key)
+        throws ETSdkException
+    {
+        Schema schema = getCachedSchema(key);
+        if (schema != null) {
+            return schema;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("retrieving columns of data extension " + key);
+        }
+        // cached by the retrieve if it succeeded
+        return new Schema(ETDataExtension.retrieveColumns(client, key), 0);
+    }
+
+    private Schema getCachedSchema(String key) {
+        if (key == null) {
+            // nothing to cache by, retrieve as is
+            return null;
+        }
+        Schema schema = schemas.get(key);
+        if (schema != null && schema.expirationTime > System.currentTimeMillis()) {
+            return schema;
+        }
+        return null;
+    }
+
+    private int getTtl() {
+        return client.getConfiguration().getInteger("dataExtensionSchemaTtl", DEFAULT_TTL);
+    }
+
+    private static class Schema {
+        private final List<ETDataExtensionColumn> columns;
+        private final List<String> columnNames;
+        private final List<String> primaryKeyColumnNames;
+        private final long expirationTime;
+
+        private Schema(List<ETDataExtensionColumn> columns, long expirationTime) {
+            List<String> columnNames = new ArrayList<String>();
+            List<String> primaryKeyColumnNames = new ArrayList<String>();
+            for (ETDataExtensionColumn column : columns) {
+                columnNames.add(column.getName());
+                if (Boolean.TRUE.equals(column.getIsPrimaryKey())) {
+                    primaryKeyColumnNames.add(column.getName());
+                }
+            }
+            this.columns = Collections.unmodifiableList(
+                    new ArrayList<ETDataExtensionColumn>(columns));
+            this.columnNames = Collections.unmodifiableList(columnNames);
+            this.primaryKeyColumnNames = Collections.unmodifiableList(primaryKeyColumnNames);
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -28,7 +28,7 @@ import java.util.logging.Logger;
 
 public class ETDataExtract 
 {
-    private Soap soap;
+    private ETSoapConnection connection;
     
     public HashMap<String, String> extractType;
     private SimpleDateFormat dateFormat;
@@ -60,7 +60,7 @@ public class ETDataExtract
         try {
             extractType = new HashMap<String, String>();
             
-            soap = client.getSoapConnection().getSoap("Extract");  
+            connection = client.getSoapConnection();
             dateFormat = new SimpleDateFormat("yyyy-MM-dd hh:mm aa");
             
             ExtractBounces = false;
@@ -157,10 +157,16 @@ public class ETDataExtract
         request.setID(extractType.get(extractName));
         request.setParameters(eparams);
         
-        ExtractRequestMsg erm = new ExtractRequestMsg();
+        final ExtractRequestMsg erm = new ExtractRequestMsg();
         erm.getRequests().add(request);  
         
-        ExtractResponseMsg resp = soap.extract(erm);
+        ExtractResponseMsg resp = connection.call("extract", "Extract",
+                new ETSoapConnection.Call<ExtractResponseMsg>() {
+            @Override
+            public ExtractResponseMsg call(Soap soap) {
+                return soap.extract(erm);
+            }
+        });
         return resp;
     }
     
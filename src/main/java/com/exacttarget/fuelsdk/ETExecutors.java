@@ -0,0 +1,216 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * <code>ETExecutors</code> creates the executor a client runs its
+ * background and blocking work on, as chosen by the
+ * <code>executor</code> property:
+ *
+ * <ul>
+ * <li><code>virtual</code>: one virtual thread per task (Java 21
+ * and later)</li>
+ * <li><code>platform</code>: a pool of at most
+ * <code>executorPoolSize</code> (default 64) platform threads,
+ * queueing tasks once all of them are busy</li>
+ * <li><code>auto</code> (the default): virtual threads where the
+ * runtime supports them, platform threads otherwise</li>
+ * </ul>
+ *
+ * The SDK is compiled for Java 11, so virtual threads are created
+ * through reflection.
+ *
+ * Work that fans out into subtasks and waits for them (the chunks
+ * of a bulk request, say) runs its subtasks inline when it is
+ * already running on a worker of a platform pool, so nested use
+ * can't take up every thread of the pool waiting for tasks that
+ * never get one. Long running background work, such as fetching
+ * pages ahead, runs on an executor of its own for the same reason.
+ */
+
+final class ETExecutors {
+    private static Logger logger = Logger.getLogger(ETExecutors.class);
+
+    static final String AUTO = "auto";
+    static final String VIRTUAL = "virtual";
+    static final String PLATFORM = "platform";
+
+    static final int DEFAULT_POOL_SIZE = 64;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    // null unless the runtime supports virtual threads:
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR =
+            getNewVirtualThreadPerTaskExecutor();
+
+    private ETExecutors() {}
+
+    /**
+     * @return  true if the runtime supports virtual threads, false otherwise
+     */
+    static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @return  true if the current thread is a worker of a pool of
+     *          platform threads created by <code>create</code>
+     */
+    static boolean isWorker() {
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    /**
+     * Falls back to platform threads, with a warning, if virtual
+     * threads are asked for but not supported.
+     *
+     * @param configuration The client configuration
+     * @return              A new executor of the configured type
+     */
+    static ExecutorService create(ETConfiguration configuration) {
+        String type = configuration.get("executor");
+        if (type == null) {
+            type = AUTO;
+        }
+        if (type.equals(VIRTUAL) || type.equals(AUTO)) {
+            if (isVirtualThreadSupported()) {
+                ExecutorService executor = createVirtual();
+                if (executor != null) {
+                    return executor;
+                }
+            } else if (type.equals(VIRTUAL)) {
+                logger.warn("virtual threads require Java 21 or later, "
+                        + "using platform threads");
+            }
+        } else if (!type.equals(PLATFORM)) {
+            logger.warn("unknown executor " + type + ", using platform threads");
+        }
+        int poolSize = configuration.getInteger("executorPoolSize", DEFAULT_POOL_SIZE);
+        return createPlatform(Math.max(poolSize, 1));
+    }
+
+    /**
+     * @param executor  The executor of the client
+     * @return          The executor to run long running background
+     *                  work on: the client's own if it starts a
+     *                  virtual thread per task, or else a new pool
+     *                  of platform threads that grows as needed
+     */
+    static ExecutorService createBackground(ExecutorService executor) {
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return executor;
+        }
+        final AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(0,
+                Integer.MAX_VALUE,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "fuelsdk-background-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    private static ExecutorService createVirtual() {
+        logger.debug("running client tasks on virtual threads");
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (Exception ex) {
+            logger.warn("could not create virtual thread executor, "
+                    + "using platform threads", ex);
+            return null;
+        }
+    }
+
+    private static ExecutorService createPlatform(int poolSize) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("running client tasks on up to " + poolSize + " platform threads");
+        }
+        final AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize,
+                poolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Worker(runnable,
+                                "fuelsdk-worker-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        // let an idle client hold no threads:
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Worker extends Thread {
+        Worker(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    private static Method getNewVirtualThreadPerTaskExecutor() {
+        if (Runtime.version().feature() < 21) {
+            // a preview feature before Java 21
+            return null;
+        }
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
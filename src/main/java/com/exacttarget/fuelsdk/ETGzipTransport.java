@@ -0,0 +1,166 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETGzipTransport</code> wraps another
+ * <code>ETHttpTransport</code>, asking for gzip compressed responses
+ * and decompressing them as they are read, and compressing request
+ * bodies of at least <code>gzipRequestMinBytes</code> bytes (if set).
+ * <code>ETClient</code> wraps its transport in one when
+ * <code>gzipEnabled</code> is true.
+ */
+
+final class ETGzipTransport implements ETHttpTransport {
+    private static Logger logger = Logger.getLogger(ETGzipTransport.class);
+
+    private static final String GZIP = "gzip";
+
+    private ETHttpTransport transport = null;
+    // 0 to leave request bodies uncompressed
+    private int requestMinBytes = 0;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param transport         The transport to send requests with
+     * @param requestMinBytes   The size from which request bodies
+     *                          are compressed, 0 to never compress them
+     */
+    ETGzipTransport(ETHttpTransport transport, int requestMinBytes) {
+        this.transport = transport;
+        this.requestMinBytes = requestMinBytes;
+    }
+
+    @Override
+    public Response execute(Request request)
+        throws ETSdkException
+    {
+        return decompress(request, transport.execute(compress(request)));
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request) {
+        try {
+            compress(request);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return transport.executeAsync(request).thenApply(new Function<Response, Response>() {
+            @Override
+            public Response apply(Response response) {
+                try {
+                    return decompress(request, response);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    private Request compress(Request request)
+        throws ETSdkException
+    {
+        request.setHeader("Accept-Encoding", GZIP);
+
+        byte[] body = request.getBody();
+        if (requestMinBytes <= 0 || body == null || body.length < requestMinBytes) {
+            return request;
+        }
+        if (request.getHeaders().containsKey("Content-Encoding")) {
+            // already compressed when the request was first sent
+            return request;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try {
+            GZIPOutputStream os = new GZIPOutputStream(compressed);
+            os.write(body);
+            os.close();
+        } catch (IOException ex) {
+            throw new ETSdkException("could not compress request to " + request.getUri(), ex);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("compressed request body from " + body.length
+                    + " to " + compressed.size() + " bytes");
+        }
+        request.setHeader("Content-Encoding", GZIP);
+        request.setBody(compressed.toByteArray());
+        return request;
+    }
+
+    private Response decompress(Request request, Response response)
+        throws ETSdkException
+    {
+        String encoding = response.getHeader("Content-Encoding");
+        if (encoding == null || !encoding.trim().equalsIgnoreCase(GZIP)) {
+            return response;
+        }
+        try {
+            //
+            // A response without a body (to a HEAD request, say)
+            // may still claim to be compressed:
+            //
+
+            PushbackInputStream body = new PushbackInputStream(response.getBody(), 1);
+            int first = body.read();
+            if (first == -1) {
+                response.setBody(body);
+                return response;
+            }
+            body.unread(first);
+            // closing the GZIPInputStream closes the transport's stream too
+            response.setBody(new GZIPInputStream(body));
+        } catch (IOException ex) {
+            response.close();
+            throw new ETSdkException("could not decompress response from " + request.getUri(), ex);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,334 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETHttpClientTransport</code> is the default
+ * <code>ETHttpTransport</code>, built on
+ * <code>java.net.http.HttpClient</code>. Connections are kept
+ * alive and reused between calls, and HTTP/2 is negotiated
+ * with the server when it is available. Asynchronous requests
+ * are sent with <code>HttpClient.sendAsync</code>, so waiting
+ * for their responses doesn't hold a thread.
+ *
+ * The following configuration properties are recognized:
+ * <ul>
+ * <li><code>restHttpVersion</code>: <code>HTTP_2</code> (default) or <code>HTTP_1_1</code></li>
+ * <li><code>restConnectTimeout</code>: connect timeout in milliseconds</li>
+ * <li><code>restRequestTimeout</code>: per request timeout in milliseconds</li>
+ * <li><code>restMaxConnectionsPerRoute</code>: maximum number of concurrent
+ *     requests to a single scheme, host and port (default 20)</li>
+ * </ul>
+ * The size of the connection pool and the idle timeout are
+ * JVM-wide settings of the JDK HTTP client and are left to the
+ * application, e.g. <code>-Djdk.httpclient.connectionPoolSize=50</code>
+ * and <code>-Djdk.httpclient.keepalive.timeout=1200</code> (seconds).
+ */
+
+public class ETHttpClientTransport implements ETHttpTransport {
+    private static Logger logger = Logger.getLogger(ETHttpClientTransport.class);
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    private static final Map<Integer, String> REASON_PHRASES =
+            new HashMap<Integer, String>();
+
+    static {
+        REASON_PHRASES.put(200, "OK");
+        REASON_PHRASES.put(201, "Created");
+        REASON_PHRASES.put(202, "Accepted");
+        REASON_PHRASES.put(204, "No Content");
+        REASON_PHRASES.put(301, "Moved Permanently");
+        REASON_PHRASES.put(302, "Found");
+        REASON_PHRASES.put(304, "Not Modified");
+        REASON_PHRASES.put(400, "Bad Request");
+        REASON_PHRASES.put(401, "Unauthorized");
+        REASON_PHRASES.put(403, "Forbidden");
+        REASON_PHRASES.put(404, "Not Found");
+        REASON_PHRASES.put(405, "Method Not Allowed");
+        REASON_PHRASES.put(409, "Conflict");
+        REASON_PHRASES.put(413, "Payload Too Large");
+        REASON_PHRASES.put(414, "URI Too Long");
+        REASON_PHRASES.put(415, "Unsupported Media Type");
+        REASON_PHRASES.put(429, "Too Many Requests");
+        REASON_PHRASES.put(500, "Internal Server Error");
+        REASON_PHRASES.put(502, "Bad Gateway");
+        REASON_PHRASES.put(503, "Service Unavailable");
+        REASON_PHRASES.put(504, "Gateway Timeout");
+    }
+
+    private HttpClient httpClient = null;
+
+    private Duration requestTimeout = null;
+
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    private ConcurrentMap<String, ETAsyncSemaphore> routes =
+            new ConcurrentHashMap<String, ETAsyncSemaphore>();
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param configuration     The ETConfiguration object
+     */
+    public ETHttpClientTransport(ETConfiguration configuration) {
+        if (configuration.get("restMaxIdleConnections") != null
+                || configuration.get("restIdleTimeout") != null) {
+            logger.warn("restMaxIdleConnections and restIdleTimeout are "
+                    + "ignored, set the jdk.httpclient.connectionPoolSize and "
+                    + "jdk.httpclient.keepalive.timeout system properties instead");
+        }
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (configuration.equals("restHttpVersion", "HTTP_1_1")) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        } else {
+            builder.version(HttpClient.Version.HTTP_2);
+        }
+        Integer connectTimeout = configuration.getInteger("restConnectTimeout");
+        if (connectTimeout != null) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+        Integer timeout = configuration.getInteger("restRequestTimeout");
+        if (timeout != null) {
+            requestTimeout = Duration.ofMillis(timeout);
+        }
+        Integer maxConnections =
+                configuration.getInteger("restMaxConnectionsPerRoute");
+        if (maxConnections != null && maxConnections > 0) {
+            maxConnectionsPerRoute = maxConnections;
+        }
+        httpClient = builder.build();
+    }
+
+    /**
+     * @return  The underlying HttpClient object
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public Response execute(Request request)
+        throws ETSdkException
+    {
+        URI uri = request.getUri();
+
+        HttpRequest httpRequest = createHttpRequest(request);
+
+        final ETAsyncSemaphore permits = getRoute(uri);
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted waiting for connection to " + uri, ex);
+        }
+
+        HttpResponse<InputStream> httpResponse = null;
+        try {
+            httpResponse = httpClient.send(httpRequest,
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException ex) {
+            permits.release();
+            throw new ETSdkException("error sending " + request.getMethod() + " " + uri, ex);
+        } catch (InterruptedException ex) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted sending " + request.getMethod() + " " + uri, ex);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(httpResponse.version() + " " + uri);
+        }
+
+        //
+        // The route permit is held until the caller is done
+        // reading the body, so the limit applies to connections
+        // actually in use rather than to requests in flight:
+        //
+
+        InputStream body = new RouteReleasingInputStream(httpResponse.body(), permits);
+
+        return new Response(httpResponse.statusCode(),
+                getReasonPhrase(httpResponse.statusCode()),
+                httpResponse.headers().map(),
+                body);
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request) {
+        final URI uri = request.getUri();
+
+        final HttpRequest httpRequest;
+        try {
+            httpRequest = createHttpRequest(request);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        //
+        // The body is read in full before the response is handed
+        // over, so the route permit is released as soon as the
+        // exchange completes:
+        //
+
+        final ETAsyncSemaphore permits = getRoute(uri);
+        return permits.acquireAsync().thenCompose(new Function<Void, CompletionStage<HttpResponse<byte[]>>>() {
+            @Override
+            public CompletionStage<HttpResponse<byte[]>> apply(Void permit) {
+                try {
+                    return httpClient.sendAsync(httpRequest,
+                            HttpResponse.BodyHandlers.ofByteArray());
+                } catch (RuntimeException ex) {
+                    return CompletableFuture.failedFuture(ex);
+                }
+            }
+        }).handle(new BiFunction<HttpResponse<byte[]>, Throwable, Response>() {
+            @Override
+            public Response apply(HttpResponse<byte[]> httpResponse, Throwable failure) {
+                permits.release();
+                if (failure != null) {
+                    if (failure instanceof CompletionException && failure.getCause() != null) {
+                        failure = failure.getCause();
+                    }
+                    throw new CompletionException(new ETSdkException("error sending "
+                            + request.getMethod() + " " + uri, failure));
+                }
+
+                if (logger.isTraceEnabled()) {
+                    logger.trace(httpResponse.version() + " " + uri);
+                }
+
+                return new Response(httpResponse.statusCode(),
+                        getReasonPhrase(httpResponse.statusCode()),
+                        httpResponse.headers().map(),
+                        new ByteArrayInputStream(httpResponse.body()));
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        // HttpClient has no close method before Java 21; its
+        // pooled connections are released once it is unreachable
+    }
+
+    private HttpRequest createHttpRequest(Request request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri());
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        if (request.getBody() != null) {
+            builder.method(request.getMethod(),
+                    HttpRequest.BodyPublishers.ofByteArray(request.getBody()));
+        } else {
+            builder.method(request.getMethod(),
+                    HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    private ETAsyncSemaphore getRoute(URI uri) {
+        String route = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        ETAsyncSemaphore permits = routes.get(route);
+        if (permits == null) {
+            permits = new ETAsyncSemaphore(maxConnectionsPerRoute);
+            ETAsyncSemaphore existing = routes.putIfAbsent(route, permits);
+            if (existing != null) {
+                permits = existing;
+            }
+        }
+        return permits;
+    }
+
+    private static String getReasonPhrase(int statusCode) {
+        String reasonPhrase = REASON_PHRASES.get(statusCode);
+        if (reasonPhrase == null) {
+            reasonPhrase = "";
+        }
+        return reasonPhrase;
+    }
+
+    private static class RouteReleasingInputStream extends FilterInputStream {
+        private ETAsyncSemaphore permits = null;
+        private AtomicBoolean released = new AtomicBoolean(false);
+
+        RouteReleasingInputStream(InputStream in, ETAsyncSemaphore permits) {
+            super(in);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
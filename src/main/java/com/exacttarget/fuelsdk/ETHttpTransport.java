@@ -0,0 +1,263 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An <code>ETHttpTransport</code> is the engine that moves HTTP
+ * requests and responses for <code>ETRestConnection</code>.
+ * Implementations are expected to be thread safe and to reuse
+ * connections across calls; a single transport is shared by all
+ * connections of an <code>ETClient</code>.
+ *
+ * The transport is selected with the <code>restTransport</code>
+ * configuration property, which takes the fully qualified name
+ * of an implementation having a public constructor that accepts
+ * an <code>ETConfiguration</code>. The default is
+ * <code>ETHttpClientTransport</code>.
+ */
+
+public interface ETHttpTransport extends Closeable {
+    /**
+     * Sends a request and returns the response. The caller must
+     * close the returned response once the body has been read so
+     * the underlying connection can be reused.
+     * @param   request The request to send
+     * @return  The response
+     * @throws ETSdkException
+     */
+    Response execute(Request request)
+        throws ETSdkException;
+
+    /**
+     * Sends a request without waiting for the response. The
+     * default implementation sends the request on the calling
+     * thread; implementations that can send requests without
+     * blocking should override it.
+     * @param   request The request to send
+     * @return  The future response, failing with an
+     *          <code>ETSdkException</code> if the request fails
+     */
+    default CompletableFuture<Response> executeAsync(Request request) {
+        try {
+            return CompletableFuture.completedFuture(execute(request));
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Releases the connections held by the transport.
+     */
+    @Override
+    void close();
+
+    /**
+     * A <code>Request</code> represents an outgoing HTTP request.
+     */
+    public static class Request {
+        private String method = null;
+        private URI uri = null;
+        private Map<String, String> headers = new LinkedHashMap<String, String>();
+        private byte[] body = null;
+
+        /**
+         * Class constructor, Initializes a new instance of the class.
+         * @param method    The HTTP method
+         * @param uri       The request URI
+         */
+        public Request(String method, URI uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        /**
+         * @return The HTTP method of the Request object.
+         */
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return The URI of the Request object.
+         */
+        public URI getUri() {
+            return uri;
+        }
+
+        /**
+         * @return The headers of the Request object.
+         */
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * @param name      The header name
+         * @param value     The header value
+         */
+        public void setHeader(String name, String value) {
+            headers.put(name, value);
+        }
+
+        /**
+         * @return The body of the Request object, or null if there is none.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * @param body      The body of the Request object.
+         */
+        public void setBody(byte[] body) {
+            this.body = body;
+        }
+    }
+
+    /**
+     * A <code>Response</code> represents an incoming HTTP response.
+     * The body is exposed as a stream so it can be consumed without
+     * first being copied into memory.
+     */
+    public static class Response implements Closeable {
+        private int statusCode = 0;
+        private String reasonPhrase = null;
+        private Map<String, List<String>> headers =
+                new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        private InputStream body = null;
+
+        /**
+         * Class constructor, Initializes a new instance of the class.
+         * @param statusCode    The HTTP status code
+         * @param reasonPhrase  The HTTP reason phrase
+         * @param headers       The response headers
+         * @param body          The response body
+         */
+        public Response(int statusCode,
+                        String reasonPhrase,
+                        Map<String, List<String>> headers,
+                        InputStream body)
+        {
+            this.statusCode = statusCode;
+            this.reasonPhrase = reasonPhrase;
+            if (headers != null) {
+                for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                    // HttpURLConnection reports the status line under a null key
+                    if (entry.getKey() != null) {
+                        this.headers.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            if (body != null) {
+                this.body = body;
+            } else {
+                this.body = new ByteArrayInputStream(new byte[0]);
+            }
+        }
+
+        /**
+         * @return The HTTP status code of the Response object.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return The HTTP reason phrase of the Response object.
+         */
+        public String getReasonPhrase() {
+            return reasonPhrase;
+        }
+
+        /**
+         * @return The headers of the Response object.
+         */
+        public Map<String, List<String>> getHeaders() {
+            return Collections.unmodifiableMap(headers);
+        }
+
+        /**
+         * @param name      The header name (case insensitive)
+         * @return The first value of the header, or null if it is absent.
+         */
+        public String getHeader(String name) {
+            List<String> values = headers.get(name);
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            return values.get(0);
+        }
+
+        /**
+         * @return The body of the Response object.
+         */
+        public InputStream getBody() {
+            return body;
+        }
+
+        /**
+         * @param body      The body of the Response object.
+         */
+        public void setBody(InputStream body) {
+            this.body = body;
+        }
+
+        /**
+         * Closes the body, returning the connection to the pool.
+         */
+        @Override
+        public void close() {
+            try {
+                body.close();
+            } catch (IOException ex) {
+                // nothing useful can be done here
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.ws.soap.SOAPFaultException;
+
+/**
+ * An <code>ETMetricsCall</code> gathers the metrics of one call
+ * while it is being made and hands them to the client's
+ * <code>ETMetricsListener</code> when it ends. Clients without a
+ * listener hand out <code>NONE</code>, which ignores everything,
+ * so calls cost nothing extra unless metrics are wanted.
+ */
+
+final class ETMetricsCall {
+    static final ETMetricsCall NONE = new ETMetricsCall(null, null, null);
+
+    private final ETMetricsListener listener;
+    private final String operation;
+    private final String objectType;
+    private final long start;
+
+    private long payloadBytes = 0;
+    private int objectCount = 0;
+    private int retries = 0;
+    private String errorCode = null;
+    private boolean ended = false;
+
+    ETMetricsCall(ETMetricsListener listener, String operation, String objectType) {
+        this.listener = listener;
+        this.operation = operation;
+        this.objectType = objectType;
+        this.start = listener != null ? System.nanoTime() : 0;
+    }
+
+    void addPayloadBytes(long bytes) {
+        if (listener != null) {
+            payloadBytes += bytes;
+        }
+    }
+
+    void setObjectCount(int objectCount) {
+        if (listener != null) {
+            this.objectCount = objectCount;
+        }
+    }
+
+    void retried() {
+        if (listener != null) {
+            retries++;
+        }
+    }
+
+    void setErrorCode(String errorCode) {
+        if (listener != null) {
+            this.errorCode = errorCode;
+        }
+    }
+
+    /**
+     * Records a failure, the SOAP fault code or the exception
+     * class name serving as error code.
+     * @param failure   The exception the call failed with
+     */
+    void failed(Throwable failure) {
+        if (listener == null) {
+            return;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SOAPFaultException) {
+                SOAPFaultException fault = (SOAPFaultException) cause;
+                if (fault.getFault() != null && fault.getFault().getFaultCodeAsQName() != null) {
+                    errorCode = fault.getFault().getFaultCodeAsQName().getLocalPart();
+                    return;
+                }
+            }
+        }
+        errorCode = failure.getClass().getSimpleName();
+    }
+
+    /**
+     * Counts the request body and, as it is read, the response
+     * body of an HTTP call, which ends once the response is closed.
+     * @param request   The request
+     * @param response  The response
+     */
+    void track(ETHttpTransport.Request request, ETHttpTransport.Response response) {
+        if (listener == null) {
+            return;
+        }
+        if (request.getBody() != null) {
+            payloadBytes += request.getBody().length;
+        }
+        if (response.getStatusCode() >= 400) {
+            errorCode = Integer.toString(response.getStatusCode());
+        }
+        response.setBody(new FilterInputStream(response.getBody()) {
+            @Override
+            public int read()
+                throws IOException
+            {
+                int b = super.read();
+                if (b != -1) {
+                    payloadBytes++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length)
+                throws IOException
+            {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    payloadBytes += n;
+                }
+                return n;
+            }
+
+            @Override
+            public void close()
+                throws IOException
+            {
+                try {
+                    super.close();
+                } finally {
+                    end();
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands the metrics to the listener, once.
+     */
+    void end() {
+        if (listener == null || ended) {
+            return;
+        }
+        ended = true;
+        listener.recordCall(operation,
+                objectType,
+                System.nanoTime() - start,
+                payloadBytes,
+                objectCount,
+                retries,
+                errorCode);
+    }
+}
@@ -0,0 +1,88 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+/**
+ * An <code>ETMetricsListener</code> is told about every call a
+ * client completes, so its latency, size and outcome can be
+ * recorded or exported. Calls are tagged with an operation and an
+ * object type:
+ *
+ * <ul>
+ * <li><code>rest.get</code>, <code>rest.post</code>,
+ * <code>rest.patch</code> and <code>rest.delete</code>: REST
+ * requests, tagged with the resource (e.g. "campaigns");
+ * <code>auth.post</code> for requests to the auth endpoint</li>
+ * <li><code>soap.retrieve</code>, <code>soap.create</code>,
+ * etc.: SOAP requests, tagged with the SOAP object type
+ * (e.g. "Subscriber")</li>
+ * <li><code>retrieve</code>, <code>create</code>,
+ * <code>update</code> and <code>delete</code>: SOAP object
+ * operations, however many requests they took, tagged with the
+ * SOAP object type</li>
+ * <li><code>token.refresh</code>: access token refreshes</li>
+ * </ul>
+ *
+ * The listener is set with <code>ETClient.setMetricsListener</code>
+ * or the <code>metricsListener</code> property, which takes the fully
+ * qualified name of an implementation having a public no-argument
+ * constructor. <code>ETMetricsRecorder</code> keeps the metrics in
+ * memory. Listeners are called on the threads making the calls, so
+ * they must be thread safe and should return quickly.
+ */
+
+public interface ETMetricsListener {
+    /**
+     * @param operation     The operation, e.g. "soap.retrieve"
+     * @param objectType    The object type, or null
+     * @param latency       The time the call took in nanoseconds
+     * @param payloadBytes  The number of bytes sent and received,
+     *                      as far as known (0 for calls made
+     *                      through SOAP proxies)
+     * @param objectCount   The number of objects retrieved or sent,
+     *                      as far as known
+     * @param retries       The number of times the call was retried
+     * @param errorCode     The HTTP status (e.g. "404"), SOAP fault
+     *                      code, overall status or exception class
+     *                      name if the call failed, null otherwise
+     */
+    void recordCall(String operation,
+                    String objectType,
+                    long latency,
+                    long payloadBytes,
+                    int objectCount,
+                    int retries,
+                    String errorCode);
+}
@@ -0,0 +1,177 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An <code>ETMetricsRecorder</code> keeps the metrics of a client's
+ * calls in memory, by operation and object type, for
+ * <code>snapshot</code> to hand to whatever exports them. Once an
+ * operation and object type have been seen, recording a call
+ * allocates nothing.
+ */
+
+public class ETMetricsRecorder implements ETMetricsListener {
+    // object types are keyed by "" when there is none
+    private final ConcurrentMap<String, ConcurrentMap<String, Metrics>> metrics =
+            new ConcurrentHashMap<String, ConcurrentMap<String, Metrics>>();
+
+    @Override
+    public void recordCall(String operation,
+                           String objectType,
+                           long latency,
+                           long payloadBytes,
+                           int objectCount,
+                           int retries,
+                           String errorCode)
+    {
+        ConcurrentMap<String, Metrics> byObjectType = metrics.get(operation);
+        if (byObjectType == null) {
+            byObjectType = new ConcurrentHashMap<String, Metrics>();
+            ConcurrentMap<String, Metrics> existing = metrics.putIfAbsent(operation, byObjectType);
+            if (existing != null) {
+                byObjectType = existing;
+            }
+        }
+        String key = objectType != null ? objectType : "";
+        Metrics m = byObjectType.get(key);
+        if (m == null) {
+            m = new Metrics();
+            Metrics existing = byObjectType.putIfAbsent(key, m);
+            if (existing != null) {
+                m = existing;
+            }
+        }
+        m.record(latency, payloadBytes, objectCount, retries, errorCode);
+    }
+
+    /**
+     * @return  The metrics recorded so far, sorted by operation
+     *          and object type
+     */
+    public List<ETMetricsSnapshot> snapshot() {
+        List<ETMetricsSnapshot> snapshots = new ArrayList<ETMetricsSnapshot>();
+        for (Map.Entry<String, ConcurrentMap<String, Metrics>> operation
+                : new TreeMap<String, ConcurrentMap<String, Metrics>>(metrics).entrySet())
+        {
+            for (Map.Entry<String, Metrics> objectType
+                    : new TreeMap<String, Metrics>(operation.getValue()).entrySet())
+            {
+                snapshots.add(objectType.getValue().snapshot(operation.getKey(),
+                        objectType.getKey().isEmpty() ? null : objectType.getKey()));
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * @param operation     The operation, e.g. "soap.retrieve"
+     * @param objectType    The object type, or null
+     * @return              The metrics recorded so far for the
+     *                      operation and object type, or null if
+     *                      there are none
+     */
+    public ETMetricsSnapshot snapshot(String operation, String objectType) {
+        ConcurrentMap<String, Metrics> byObjectType = metrics.get(operation);
+        if (byObjectType == null) {
+            return null;
+        }
+        Metrics m = byObjectType.get(objectType != null ? objectType : "");
+        if (m == null) {
+            return null;
+        }
+        return m.snapshot(operation, objectType);
+    }
+
+    /**
+     * Forgets the metrics recorded so far.
+     */
+    public void reset() {
+        metrics.clear();
+    }
+
+    private static class Metrics {
+        private final ETLatencyHistogram latency = new ETLatencyHistogram();
+        private final LongAdder payloadBytes = new LongAdder();
+        private final LongAdder objectCount = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> errors =
+                new ConcurrentHashMap<String, LongAdder>();
+
+        void record(long latency,
+                    long payloadBytes,
+                    int objectCount,
+                    int retries,
+                    String errorCode)
+        {
+            this.latency.record(latency);
+            this.payloadBytes.add(payloadBytes);
+            this.objectCount.add(objectCount);
+            this.retries.add(retries);
+            if (errorCode != null) {
+                LongAdder count = errors.get(errorCode);
+                if (count == null) {
+                    count = new LongAdder();
+                    LongAdder existing = errors.putIfAbsent(errorCode, count);
+                    if (existing != null) {
+                        count = existing;
+                    }
+                }
+                count.increment();
+            }
+        }
+
+        ETMetricsSnapshot snapshot(String operation, String objectType) {
+            Map<String, Long> errorCounts = new TreeMap<String, Long>();
+            for (Map.Entry<String, LongAdder> error : errors.entrySet()) {
+                errorCounts.put(error.getKey(), error.getValue().sum());
+            }
+            return new ETMetricsSnapshot(operation,
+                    objectType,
+                    latency.copy(),
+                    payloadBytes.sum(),
+                    objectCount.sum(),
+                    retries.sum(),
+                    errorCounts);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An <code>ETMetricsSnapshot</code> holds the metrics an
+ * <code>ETMetricsRecorder</code> has recorded for one operation
+ * and object type, as of when the snapshot was taken.
+ */
+
+public class ETMetricsSnapshot {
+    private String operation = null;
+    private String objectType = null;
+    private ETLatencyHistogram latency = null;
+    private long payloadBytes = 0;
+    private long objectCount = 0;
+    private long retries = 0;
+    private Map<String, Long> errors = null;
+
+    ETMetricsSnapshot(String operation,
+                      String objectType,
+                      ETLatencyHistogram latency,
+                      long payloadBytes,
+                      long objectCount,
+                      long retries,
+                      Map<String, Long> errors)
+    {
+        this.operation = operation;
+        this.objectType = objectType;
+        this.latency = latency;
+        this.payloadBytes = payloadBytes;
+        this.objectCount = objectCount;
+        this.retries = retries;
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * @return The operation, e.g. "soap.retrieve"
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return The object type, or null
+     */
+    public String getObjectType() {
+        return objectType;
+    }
+
+    /**
+     * @return The number of calls
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * @return The latencies of the calls in nanoseconds
+     */
+    public ETLatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @param percentile    The percentile, from 0 to 100
+     * @return              The latency at the percentile in milliseconds
+     */
+    public long getLatencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The number of bytes sent and received
+     */
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * @return The number of objects retrieved or sent
+     */
+    public long getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * @return The number of retries
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return The number of failed calls
+     */
+    public long getErrorCount() {
+        long errorCount = 0;
+        for (Long count : errors.values()) {
+            errorCount += count;
+        }
+        return errorCount;
+    }
+
+    /**
+     * @return The number of failed calls by error code
+     */
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return operation + (objectType != null ? " " + objectType : "")
+                + ": count=" + getCount()
+                + " p50=" + getLatencyMillis(50) + "ms"
+                + " p99=" + getLatencyMillis(99) + "ms"
+                + " max=" + TimeUnit.NANOSECONDS.toMillis(latency.getMax()) + "ms"
+                + " bytes=" + payloadBytes
+                + " objects=" + objectCount
+                + " retries=" + retries
+                + " errors=" + errors;
+    }
+}
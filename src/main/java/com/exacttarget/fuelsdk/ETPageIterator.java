@@ -0,0 +1,101 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An <code>ETPageIterator</code> iterates over the objects of a
+ * retrieve, fetching pages from an <code>ETPageSource</code> as
+ * they are needed. Only the current page is held in memory.
+ */
+
+class ETPageIterator<T extends ETApiObject> implements Iterator<T> {
+    private ETPageSource<T> source = null;
+    private ETResponse<T> page = null;
+    private Iterator<ETResult<T>> results = null;
+    private boolean done = false;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param source    The source of the pages
+     */
+    ETPageIterator(ETPageSource<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (results == null || !results.hasNext()) {
+            if (done) {
+                return false;
+            }
+            fetchPage();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return results.next().getObject();
+    }
+
+    private void fetchPage() {
+        ETResponse<T> next = null;
+        try {
+            next = source.nextPage(page);
+        } catch (ETSdkException ex) {
+            done = true;
+            throw new ETUncheckedSdkException(ex);
+        }
+        if (next == null) {
+            done = true;
+            page = null;
+            results = null;
+            return;
+        }
+        if (next.getStatus() == ETResult.Status.ERROR) {
+            done = true;
+            throw new ETUncheckedSdkException(new ETSdkException("retrieve failed: "
+                    + next.getResponseMessage()));
+        }
+        page = next;
+        results = next.getResults().iterator();
+    }
+}
@@ -0,0 +1,212 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETPrefetchingPageSource</code> fetches the pages of
+ * another <code>ETPageSource</code> on a background executor, so
+ * the next page is already being requested (and converted) while
+ * the current one is consumed. Fetched pages wait in a bounded
+ * queue; once it holds <code>depth</code> pages the background
+ * fetch pauses until the consumer catches up.
+ *
+ * The background fetch stops when the source is closed, when the
+ * last page has been fetched, or when the source is no longer
+ * referenced by its consumer.
+ */
+
+class ETPrefetchingPageSource<T extends ETApiObject>
+    implements ETPageSource<T>, Closeable
+{
+    private static Logger logger = Logger.getLogger(ETPrefetchingPageSource.class);
+
+    private static final Object END = new Object();
+
+    private ETPageSource<T> source = null;
+    private Executor executor = null;
+    private BlockingQueue<Object> queue = null;
+    private volatile Fetcher<T> fetcher = null;
+    private volatile boolean finished = false;
+    // held by consumers only, never by close(); not a monitor: a
+    // virtual thread waiting for a page mustn't pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param source    The source of the pages
+     * @param depth     The maximum number of pages fetched ahead
+     * @param executor  The executor to fetch pages on
+     */
+    ETPrefetchingPageSource(ETPageSource<T> source, int depth, Executor executor) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be positive: " + depth);
+        }
+        this.source = source;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<Object>(depth);
+    }
+
+    /**
+     * @param previous  Ignored: pages are returned in the order they were fetched
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ETResponse<T> nextPage(ETResponse<T> previous)
+        throws ETSdkException
+    {
+        lock.lock();
+        try {
+            if (finished) {
+                return null;
+            }
+            if (fetcher == null) {
+                fetcher = new Fetcher<T>(source, queue, this);
+                executor.execute(fetcher);
+            }
+            Object next = null;
+            try {
+                next = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ETSdkException("interrupted waiting for next page", ex);
+            }
+            if (next == END || finished) {
+                // the last page, or closed while waiting
+                finished = true;
+                fetcher.cancel();
+                return null;
+            }
+            if (next instanceof ETSdkException) {
+                finished = true;
+                throw (ETSdkException) next;
+            }
+            if (next instanceof RuntimeException) {
+                finished = true;
+                throw (RuntimeException) next;
+            }
+            return (ETResponse<T>) next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops fetching pages ahead and discards those already fetched.
+     * Doesn't wait for a consumer blocked in <code>nextPage</code>,
+     * which is woken up and returns no page.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        Fetcher<T> fetcher = this.fetcher;
+        if (fetcher != null) {
+            fetcher.cancel();
+        }
+        queue.clear();
+        // if the queue has been refilled meanwhile no one is waiting
+        queue.offer(END);
+    }
+
+    //
+    // The fetcher only holds a weak reference to the page source,
+    // so a stream that is dropped without being closed doesn't
+    // leave the fetcher blocked on a full queue forever:
+    //
+
+    private static class Fetcher<T extends ETApiObject> implements Runnable {
+        private static final long OFFER_TIMEOUT = 1000; // 1 second
+
+        private ETPageSource<T> source = null;
+        private BlockingQueue<Object> queue = null;
+        private WeakReference<Object> owner = null;
+        private volatile boolean cancelled = false;
+
+        Fetcher(ETPageSource<T> source, BlockingQueue<Object> queue, Object owner) {
+            this.source = source;
+            this.queue = queue;
+            this.owner = new WeakReference<Object>(owner);
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            ETResponse<T> page = null;
+            try {
+                while (true) {
+                    page = source.nextPage(page);
+                    if (page == null) {
+                        put(END);
+                        return;
+                    }
+                    if (!put(page)) {
+                        return;
+                    }
+                }
+            } catch (ETSdkException ex) {
+                put(ex);
+            } catch (RuntimeException ex) {
+                put(ex);
+            }
+        }
+
+        private boolean put(Object item) {
+            try {
+                while (!queue.offer(item, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    if (cancelled || owner.get() == null) {
+                        logger.debug("stopped fetching pages ahead");
+                        return false;
+                    }
+                }
+                return !cancelled;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,452 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETRateLimiter</code> throttles the calls a client makes
+ * to one family of endpoints (auth, REST or SOAP), combining:
+ *
+ * <ul>
+ * <li>a token bucket admitting <code>&lt;family&gt;RateLimit</code>
+ * calls per second on average and up to
+ * <code>&lt;family&gt;RateBurst</code> at once (defaults 0, meaning
+ * unlimited, and the rate limit)</li>
+ * <li>an adaptive concurrency limit of at most
+ * <code>&lt;family&gt;MaxConcurrency</code> calls in flight (default
+ * 0, meaning unlimited) that is halved every time the service
+ * throttles a call and grows back by one call per limit's worth of
+ * successful calls (additive increase, multiplicative decrease)</li>
+ * <li>a pause of all calls of the family for as long as a throttled
+ * call's <code>Retry-After</code> asks</li>
+ * </ul>
+ *
+ * Throttled and failed calls of idempotent operations are retried
+ * up to <code>retryMaxAttempts</code> times (default 3), waiting
+ * the <code>Retry-After</code> time or, without one, a random time
+ * of up to <code>retryBaseDelay</code> milliseconds (default 200)
+ * doubled for every attempt, capped at <code>retryMaxDelay</code>
+ * (default 10000).
+ *
+ * Every call admitted with <code>acquire</code> must be completed
+ * with exactly one of <code>succeeded</code>, <code>throttled</code>
+ * or <code>failed</code>.
+ */
+
+final class ETRateLimiter {
+    private static Logger logger = Logger.getLogger(ETRateLimiter.class);
+
+    /**
+     * The families of endpoints calls are limited by.
+     */
+    enum Family {
+        AUTH, REST, SOAP;
+
+        String getPropertyPrefix() {
+            return name().toLowerCase();
+        }
+    }
+
+    static final int DEFAULT_RETRY_MAX_ATTEMPTS = 3;
+    static final int DEFAULT_RETRY_BASE_DELAY = 200;
+    static final int DEFAULT_RETRY_MAX_DELAY = 10000;
+
+    private final Family family;
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxConcurrency;
+
+    private final int retryMaxAttempts;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private double tokens = 0;
+    private long refilledAt = 0;
+    private double limit = 0;
+    private int inFlight = 0;
+    private long pausedUntil = 0;
+
+    private final Queue<CompletableFuture<Void>> waiters =
+            new ArrayDeque<CompletableFuture<Void>>();
+    private boolean wakeUpScheduled = false;
+
+    ETRateLimiter(Family family,
+                  int rateLimit,
+                  int rateBurst,
+                  int maxConcurrency,
+                  int retryMaxAttempts,
+                  int retryBaseDelay,
+                  int retryMaxDelay)
+    {
+        this.family = family;
+        this.permitsPerNano = Math.max(rateLimit, 0) / 1e9;
+        this.burst = Math.max(rateBurst, 1);
+        this.maxConcurrency = Math.max(maxConcurrency, 0);
+        this.retryMaxAttempts = Math.max(retryMaxAttempts, 0);
+        this.retryBaseDelay = Math.max(retryBaseDelay, 1);
+        this.retryMaxDelay = Math.max(retryMaxDelay, this.retryBaseDelay);
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        this.limit = this.maxConcurrency;
+    }
+
+    /**
+     * @param configuration The client configuration
+     * @param family        The family of endpoints
+     * @return              A new rate limiter configured for the family
+     */
+    static ETRateLimiter create(ETConfiguration configuration, Family family) {
+        String prefix = family.getPropertyPrefix();
+        int rateLimit = configuration.getInteger(prefix + "RateLimit", 0);
+        return new ETRateLimiter(family,
+                rateLimit,
+                configuration.getInteger(prefix + "RateBurst", rateLimit),
+                configuration.getInteger(prefix + "MaxConcurrency", 0),
+                configuration.getInteger("retryMaxAttempts", DEFAULT_RETRY_MAX_ATTEMPTS),
+                configuration.getInteger("retryBaseDelay", DEFAULT_RETRY_BASE_DELAY),
+                configuration.getInteger("retryMaxDelay", DEFAULT_RETRY_MAX_DELAY));
+    }
+
+    /**
+     * @return  The family of endpoints
+     */
+    Family getFamily() {
+        return family;
+    }
+
+    /**
+     * @return  The current concurrency limit, or 0 if unlimited
+     */
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a call, blocking while the family is paused, at its
+     * concurrency limit or out of tokens.
+     * @throws ETSdkException if interrupted while waiting
+     */
+    void acquire()
+        throws ETSdkException
+    {
+        lock.lock();
+        try {
+            while (true) {
+                long wait = admit();
+                if (wait == 0) {
+                    return;
+                }
+                if (wait < 0) {
+                    changed.await();
+                } else {
+                    changed.awaitNanos(wait);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted waiting to call "
+                    + family.getPropertyPrefix() + " endpoint", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a call without blocking the caller: if the call can't
+     * be admitted right away, the returned future waits in line and
+     * is completed once a call completes or the pause or token
+     * bucket lets it through, without holding a thread meanwhile.
+     * @return          A future completed once the call is admitted
+     */
+    CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<Void>();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && admit() == 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            waiters.add(future);
+        } finally {
+            lock.unlock();
+        }
+        admitWaiters();
+        return future;
+    }
+
+    //
+    // Admits waiting asynchronous calls in order for as long as
+    // they can be, and wakes up again when the family is no longer
+    // paused or out of tokens. Futures are completed without the
+    // lock held, as completing them runs the callers' calls:
+    //
+
+    private void admitWaiters() {
+        List<CompletableFuture<Void>> admitted = new ArrayList<CompletableFuture<Void>>();
+        lock.lock();
+        try {
+            while (!waiters.isEmpty()) {
+                long wait = admit();
+                if (wait != 0) {
+                    if (wait > 0 && !wakeUpScheduled) {
+                        wakeUpScheduled = true;
+                        CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS)
+                                .execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                lock.lock();
+                                try {
+                                    wakeUpScheduled = false;
+                                } finally {
+                                    lock.unlock();
+                                }
+                                admitWaiters();
+                            }
+                        });
+                    }
+                    break;
+                }
+                admitted.add(waiters.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<Void> future : admitted) {
+            if (!future.complete(null)) {
+                // cancelled while waiting
+                failed();
+            }
+        }
+    }
+
+    //
+    // Admits a call if possible, returning 0, or else the time
+    // in nanoseconds to wait, or -1 to wait for a call to complete.
+    // Called with the lock held:
+    //
+
+    private long admit() {
+        long now = System.nanoTime();
+        if (pausedUntil - now > 0) {
+            return pausedUntil - now;
+        }
+        if (maxConcurrency > 0 && inFlight >= (int) limit) {
+            return -1;
+        }
+        if (permitsPerNano > 0) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return Math.max((long) Math.ceil((1 - tokens) / permitsPerNano), 1);
+            }
+            tokens -= 1;
+        }
+        inFlight++;
+        return 0;
+    }
+
+    /**
+     * Completes a call that succeeded (or failed for reasons that
+     * have nothing to do with load), growing the concurrency limit.
+     */
+    void succeeded() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (maxConcurrency > 0) {
+                limit = Math.min(maxConcurrency, limit + 1 / limit);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        admitWaiters();
+    }
+
+    /**
+     * Completes a call the service throttled, halving the
+     * concurrency limit and pausing the family if asked to.
+     * @param retryAfter    The time in milliseconds the service asked
+     *                      to wait before calling again, or 0
+     */
+    void throttled(long retryAfter) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (maxConcurrency > 0) {
+                limit = Math.max(1, limit / 2);
+            }
+            if (retryAfter > 0) {
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfter);
+                if (until - pausedUntil > 0) {
+                    pausedUntil = until;
+                }
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        admitWaiters();
+        logger.warn(family.getPropertyPrefix() + " call throttled"
+                + (retryAfter > 0 ? ", pausing for " + retryAfter + " ms" : ""));
+    }
+
+    /**
+     * Completes a call that failed without a response.
+     */
+    void failed() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        admitWaiters();
+    }
+
+    /**
+     * @param attempt       The number of attempts made so far
+     * @return              true if a call that has been attempted
+     *                      that many times may be retried
+     */
+    boolean canRetry(int attempt) {
+        return attempt <= retryMaxAttempts;
+    }
+
+    /**
+     * @param attempt       The number of attempts made so far
+     * @param retryAfter    The time in milliseconds the service asked
+     *                      to wait, or 0
+     * @return              The time in milliseconds to wait before
+     *                      the next attempt (on top of any pause
+     *                      of the family, which <code>acquire</code>
+     *                      waits out)
+     */
+    long getRetryDelay(int attempt, long retryAfter) {
+        if (retryAfter > 0) {
+            return 0;
+        }
+        long ceiling = retryMaxDelay;
+        if (attempt <= 30) {
+            ceiling = Math.min(retryMaxDelay, retryBaseDelay << (attempt - 1));
+        }
+        // "full jitter", so throttled callers don't retry in lockstep
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Waits before retrying a call.
+     * @param attempt       The number of attempts made so far
+     * @param retryAfter    The time in milliseconds the service asked
+     *                      to wait, or 0
+     * @throws ETSdkException if interrupted while waiting
+     */
+    void awaitRetry(int attempt, long retryAfter)
+        throws ETSdkException
+    {
+        long delay = getRetryDelay(attempt, retryAfter);
+        if (logger.isDebugEnabled()) {
+            logger.debug("retrying " + family.getPropertyPrefix()
+                    + " call (attempt " + (attempt + 1) + ") in " + delay + " ms");
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted waiting to retry "
+                    + family.getPropertyPrefix() + " call", ex);
+        }
+    }
+
+    /**
+     * @param operation The SOAP operation, e.g. "retrieve"
+     * @return          true if calling the operation more than once
+     *                  has the same effect as calling it once
+     */
+    static boolean isIdempotentSoapOperation(String operation) {
+        return operation.equalsIgnoreCase("retrieve")
+                || operation.equalsIgnoreCase("describe");
+    }
+
+    /**
+     * @param value     The value of a Retry-After header (seconds
+     *                  or an HTTP date), or null
+     * @return          The time in milliseconds to wait, or 0
+     */
+    static long parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        value = value.trim();
+        try {
+            return Math.max(Long.parseLong(value), 0) * 1000;
+        } catch (NumberFormatException ex) {
+            // not seconds, so it should be a date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value,
+                    DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(Duration.between(ZonedDateTime.now(date.getZone()),
+                    date).toMillis(), 0);
+        } catch (DateTimeParseException ex) {
+            logger.warn("ignoring bad Retry-After header: " + value);
+            return 0;
+        }
+    }
+}
@@ -34,21 +34,20 @@
 
 package com.exacttarget.fuelsdk;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.ProtocolException;
-import java.net.URL;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonParser;
-import java.util.List;
-import java.util.Map;
-import java.util.logging.Level;
 import org.apache.commons.lang3.StringUtils;
 
 import org.apache.log4j.Logger;
@@ -67,6 +66,8 @@ public class ETRestConnection {
 
     private boolean isAuthConnection = false;
 
+    private ETThrottledTransport transport = null;
+
     /**
      * Class constructor, Initializes a new instance of the class.
      * @param client    The ETClient object
@@ -94,6 +95,12 @@ public class ETRestConnection {
         this.endpoint = endpoint;
 
         this.isAuthConnection = isAuthConnection;
+
+        this.transport = new ETThrottledTransport(client.getHttpTransport(),
+                client.getRateLimiter(isAuthConnection
+                        ? ETRateLimiter.Family.AUTH
+                        : ETRateLimiter.Family.REST),
+                client);
     }
 
     /**
@@ -103,23 +110,7 @@ public class ETRestConnection {
     public Response get(String path)
             throws ETSdkException
     {
-        HttpURLConnection connection = null;
-        try {
-            Response response = new Response();
-            connection = sendRequest(path, Method.GET);
-            String json = receiveResponse(connection);
-            response.setRequestId(connection.getHeaderField("X-Mashery-Message-ID"));
-            response.setResponseCode(connection.getResponseCode());
-            response.setResponseMessage(connection.getResponseMessage());
-            response.setResponsePayload(json);
-            return response;
-        } catch (IOException ex) {
-            throw new ETSdkException(ex);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return execute(path, Method.GET, null);
     }
 
     /**
@@ -129,23 +120,7 @@ public class ETRestConnection {
     public Response post(String path, String payload)
             throws ETSdkException
     {
-        HttpURLConnection connection = null;
-        try {
-            Response response = new Response();
-            connection = sendRequest(path, Method.POST, payload);
-            String json = receiveResponse(connection);
-            response.setRequestId(connection.getHeaderField("X-Mashery-Message-ID"));
-            response.setResponseCode(connection.getResponseCode());
-            response.setResponseMessage(connection.getResponseMessage());
-            response.setResponsePayload(json);
-            return response;
-        } catch (IOException ex) {
-            throw new ETSdkException(ex);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return execute(path, Method.POST, payload);
     }
 
     /**
@@ -155,23 +130,7 @@ public class ETRestConnection {
     public Response patch(String path, String payload)
             throws ETSdkException
     {
-        HttpURLConnection connection = null;
-        try {
-            Response response = new Response();
-            connection = sendRequest(path, Method.PATCH, payload);
-            String json = receiveResponse(connection);
-            response.setRequestId(connection.getHeaderField("X-Mashery-Message-ID"));
-            response.setResponseCode(connection.getResponseCode());
-            response.setResponseMessage(connection.getResponseMessage());
-            response.setResponsePayload(json);
-            return response;
-        } catch (IOException ex) {
-            throw new ETSdkException(ex);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return execute(path, Method.PATCH, payload);
     }
 
     /**
@@ -181,95 +140,221 @@ public class ETRestConnection {
     public Response delete(String path)
             throws ETSdkException
     {
-        HttpURLConnection connection = null;
+        return execute(path, Method.DELETE, null);
+    }
+
+    /**
+     * GETs a path like <code>get</code>, handing the payload to
+     * the reader as it is received instead of reading all of it
+     * into the response first (the response passed to the reader
+     * has no payload unless debug logging is enabled).
+     * @param   path    The path to GET the response
+     * @param   reader  The reader of the payload
+     * @return  The value returned by the reader
+     */
+    <R> R get(String path, PayloadReader<R> reader)
+            throws ETSdkException
+    {
+        URI uri = createUri(path, null);
+        ETHttpTransport.Response httpResponse =
+                send(createRequest(uri, Method.GET, null), startCall(uri, Method.GET));
         try {
-            Response response = new Response();
-            connection = sendRequest(path, Method.DELETE);
-            String json = receiveResponse(connection);
-            response.setRequestId(connection.getHeaderField("X-Mashery-Message-ID"));
-            response.setResponseCode(connection.getResponseCode());
-            response.setResponseMessage(connection.getResponseMessage());
-            response.setResponsePayload(json);
-            return response;
-        } catch (IOException ex) {
-            throw new ETSdkException(ex);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+            Response response = createResponse(httpResponse);
+            if (logger.isDebugEnabled()) {
+                // the payload is logged, so it has to be read first
+                String json = receiveResponse(uri, httpResponse);
+                response.setResponsePayload(json);
+                return reader.read(response, new StringReader(json));
             }
+            return reader.read(response,
+                    new InputStreamReader(httpResponse.getBody(), StandardCharsets.UTF_8));
+        } finally {
+            httpResponse.close();
         }
     }
 
+    /**
+     * @param   path    The path to GET the response
+     * @return  The future Response object
+     */
+    public CompletableFuture<Response> getAsync(String path) {
+        return executeAsync(path, Method.GET, null);
+    }
+
+    /**
+     * @param   path    The path to POST or create
+     * @return  The future Response object
+     */
+    public CompletableFuture<Response> postAsync(String path, String payload) {
+        return executeAsync(path, Method.POST, payload);
+    }
+
+    /**
+     * @param   path    The path to PATCH or update
+     * @return  The future Response object
+     */
+    public CompletableFuture<Response> patchAsync(String path, String payload) {
+        return executeAsync(path, Method.PATCH, payload);
+    }
+
+    /**
+     * @param   path    The path to DELETE
+     * @return  The future Response object
+     */
+    public CompletableFuture<Response> deleteAsync(String path) {
+        return executeAsync(path, Method.DELETE, null);
+    }
+
     private final static int URL_MAX_LENGTH = 2048;
 
-    private HttpURLConnection sendRequest(String path, Method method)
+    private Response execute(String path, Method method, String payload)
             throws ETSdkException
     {
-        if (path.length() > URL_MAX_LENGTH) {
-            throw new ETSdkException(path + ": URL too long");
+        URI uri = createUri(path, payload);
+        return createResponse(uri,
+                send(createRequest(uri, method, payload), startCall(uri, method)));
+    }
+
+    private ETHttpTransport.Response send(ETHttpTransport.Request request,
+                                          ETMetricsCall call)
+            throws ETSdkException
+    {
+        ETHttpTransport.Response httpResponse = null;
+        try {
+            httpResponse = transport.execute(request, call);
+        } catch (ETSdkException ex) {
+            call.failed(ex);
+            call.end();
+            throw ex;
+        } catch (RuntimeException ex) {
+            call.failed(ex);
+            call.end();
+            throw ex;
         }
-        return sendRequest(path, method, null);
+        // the call ends once the response has been read and closed
+        call.track(request, httpResponse);
+        return httpResponse;
     }
 
-    private HttpURLConnection sendRequest(String path, Method method, String payload)
+    private ETMetricsCall startCall(URI uri, Method method) {
+        return client.startCall((isAuthConnection ? "auth." : "rest.")
+                + method.toString().toLowerCase(), getObjectName(uri));
+    }
+
+    private CompletableFuture<Response> executeAsync(String path,
+                                                     Method method,
+                                                     String payload)
+    {
+        final URI uri;
+        ETHttpTransport.Request request = null;
+        try {
+            uri = createUri(path, payload);
+            request = createRequest(uri, method, payload);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        final ETHttpTransport.Request sent = request;
+        final ETMetricsCall call = startCall(uri, method);
+        return transport.executeAsync(request, call).whenComplete(
+                new BiConsumer<ETHttpTransport.Response, Throwable>() {
+            @Override
+            public void accept(ETHttpTransport.Response httpResponse, Throwable failure) {
+                if (failure != null) {
+                    call.failed(failure instanceof CompletionException
+                            && failure.getCause() != null ? failure.getCause() : failure);
+                    call.end();
+                }
+            }
+        }).thenApply(new Function<ETHttpTransport.Response, Response>() {
+            @Override
+            public Response apply(ETHttpTransport.Response httpResponse) {
+                call.track(sent, httpResponse);
+                try {
+                    return createResponse(uri, httpResponse);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    private URI createUri(String path, String payload)
             throws ETSdkException
     {
-        URL url = null;
+        if (payload == null && path.length() > URL_MAX_LENGTH) {
+            throw new ETSdkException(path + ": URL too long");
+        }
         try {
-            url = new URL(endpoint + path);
-        } catch (MalformedURLException ex) {
+            return new URI(endpoint + path);
+        } catch (URISyntaxException ex) {
             throw new ETSdkException(endpoint + path + ": bad URL", ex);
         }
-        return sendRequest(url, method, payload);
     }
 
-    private HttpURLConnection sendRequest(URL url, Method method, String payload)
+    private Response createResponse(URI uri, ETHttpTransport.Response httpResponse)
             throws ETSdkException
     {
-        Gson gson = client.getGson();
+        try {
+            Response response = createResponse(httpResponse);
+            response.setResponsePayload(receiveResponse(uri, httpResponse));
+            return response;
+        } finally {
+            httpResponse.close();
+        }
+    }
 
-        logger.debug(method + " " + url);
-        String[] token = url.getPath().split("/");
-        String object = "";
-        if(StringUtils.isNumeric(token[token.length-1]))
-            object = token[token.length-2];
-        else
-            object = token[token.length-1];
+    private Response createResponse(ETHttpTransport.Response httpResponse) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(httpResponse.getStatusCode() + " " + httpResponse.getReasonPhrase());
+        }
+        Response response = new Response();
+        response.setRequestId(httpResponse.getHeader("X-Mashery-Message-ID"));
+        response.setResponseCode(httpResponse.getStatusCode());
+        response.setResponseMessage(httpResponse.getReasonPhrase());
+        return response;
+    }
 
-        HttpURLConnection connection = null;
-        try {
-            connection = (HttpURLConnection) url.openConnection();
+    private ETHttpTransport.Request createRequest(URI uri, Method method, String payload)
+            throws ETSdkException
+    {
+        Gson gson = client.getGson();
 
-            connection.setRequestProperty("User-Agent", "FuelSDK-Java-v1.5.0-REST-"+method+"-"+object);
-            connection.setRequestMethod(method.toString());
-        } catch (ProtocolException ex) {
-            throw new ETSdkException("error setting request method: " + method.toString(), ex);
-        } catch (IOException ex) {
-            throw new ETSdkException("error opening " + url, ex);
+        if (logger.isDebugEnabled()) {
+            logger.debug(method + " " + uri);
         }
+        String object = getObjectName(uri);
+
+        ETHttpTransport.Request request =
+                new ETHttpTransport.Request(method.toString(), uri);
+        request.setHeader("User-Agent", "FuelSDK-Java-v1.5.0-REST-"+method+"-"+object);
 
         switch(method) {
             case GET:
-                connection.setDoInput(true);
-                connection.setRequestProperty("Accept", "application/json");
+                request.setHeader("Accept", "application/json");
                 break;
             case POST:
             case PATCH:
             case DELETE:
-                connection.setDoOutput(true);
-                connection.setRequestProperty("Content-Type", "application/json");
+                request.setHeader("Content-Type", "application/json");
                 break;
             default:
                 throw new ETSdkException("unsupported request method: " + method.toString());
         }
 
         if (!isAuthConnection) {
-            connection.setRequestProperty("Authorization", "Bearer " + client.refreshToken());
+            request.setHeader("Authorization", "Bearer " + client.refreshToken());
         }
 
         if (logger.isDebugEnabled()) {
-            for (String key : connection.getRequestProperties().keySet()) {
-                logger.debug(key + ": " + connection.getRequestProperty(key));
+            for (String key : request.getHeaders().keySet()) {
+                // credentials stay out of the logs
+                if (key.equalsIgnoreCase("Authorization")
+                        || key.equalsIgnoreCase("Proxy-Authorization")) {
+                    logger.debug(key + ": *");
+                } else {
+                    logger.debug(key + ": " + request.getHeaders().get(key));
+                }
             }
         }
 
@@ -282,63 +367,48 @@ public class ETRestConnection {
                     logger.debug(line);
                 }
             }
-            OutputStream os = null;
-            try {
-                os = connection.getOutputStream();
-                os.write(payload.getBytes());
-                os.flush();
-            } catch (IOException ex) {
-                throw new ETSdkException("error writing " + url, ex);
-            } finally {
-                if (os != null) {
-                    try {
-                        os.close();
-                    } catch (IOException ex) {
-                        throw new ETSdkException("error closing connection after writing " + url, ex);
-                    }
-                }
-            }
+            request.setBody(payload.getBytes());
         }
 
-        try {
-            logger.debug(connection.getResponseCode() + " " + connection.getResponseMessage());
-        } catch (IOException ex) {
-            throw new ETSdkException("error getting response code / message", ex);
-        }
+        return request;
+    }
 
-        return connection;
+    private static String getObjectName(URI uri) {
+        String[] token = uri.getPath().split("/");
+        if (token.length == 0) {
+            return "";
+        }
+        if (token.length > 1 && StringUtils.isNumeric(token[token.length-1]))
+            return token[token.length-2];
+        else
+            return token[token.length-1];
     }
 
-    private String receiveResponse(HttpURLConnection connection)
+    private String receiveResponse(URI uri, ETHttpTransport.Response httpResponse)
             throws ETSdkException
     {
         Gson gson = client.getGson();
 
-        InputStream is = null;
-        try {
-            if (connection.getResponseCode() < 400) {
-                is = connection.getInputStream();
-            } else {
-                is = connection.getErrorStream();
-            }
-        } catch (IOException ex) {
-            throw new ETSdkException("error opening " + connection.getURL(), ex);
-        }
+        //
+        // Read the payload unchanged (reading it line by line
+        // would drop its line breaks):
+        //
 
         StringBuilder stringBuilder = new StringBuilder();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+        Reader reader = new InputStreamReader(httpResponse.getBody(), StandardCharsets.UTF_8);
         try {
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+            char[] buffer = new char[8192];
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                stringBuilder.append(buffer, 0, n);
             }
         } catch (IOException ex) {
-            throw new ETSdkException("error reading " + connection.getURL(), ex);
+            throw new ETSdkException("error reading " + uri, ex);
         } finally {
             try {
                 reader.close();
             } catch (IOException ex) {
-                throw new ETSdkException("error closing " + connection.getURL(), ex);
+                throw new ETSdkException("error closing " + uri, ex);
             }
         }
 
@@ -362,6 +432,15 @@ public class ETRestConnection {
         GET, POST, PATCH, DELETE
     }
 
+    /**
+     * A <code>PayloadReader</code> decodes the payload of a
+     * response as it is received.
+     */
+    interface PayloadReader<R> {
+        R read(Response response, Reader payload)
+            throws ETSdkException;
+    }
+
     /**
      * A <code>Response</code> represents salesforce marketing cloud REST API response.
      */
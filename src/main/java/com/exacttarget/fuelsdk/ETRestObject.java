@@ -34,17 +34,30 @@
 
 package com.exacttarget.fuelsdk;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import org.apache.log4j.Logger;
 
@@ -73,15 +86,13 @@ public abstract class ETRestObject extends ETApiObject {
      * @param filter        The ETFilter object
      * @return              The ETResponse object of type T which extends from ETRestObject
      */
-    public static <T extends ETRestObject> ETResponse<T> retrieve(ETClient client,
-                                                                  Class<T> type,
+    public static <T extends ETRestObject> ETResponse<T> retrieve(final ETClient client,
+                                                                  final Class<T> type,
                                                                   Integer page,
                                                                   Integer pageSize,
                                                                   ETFilter filter)
         throws ETSdkException
     {
-        ETResponse<T> response = new ETResponse<T>();
-
         ETRestConnection connection = client.getRestConnection();
 
         //
@@ -90,6 +101,69 @@ public abstract class ETRestObject extends ETApiObject {
 
         client.refreshToken();
 
+        final String path = getRetrievePath(type, page, pageSize, filter);
+
+        return connection.get(path, new ETRestConnection.PayloadReader<ETResponse<T>>() {
+            @Override
+            public ETResponse<T> read(Response r, Reader payload)
+                throws ETSdkException
+            {
+                try {
+                    return createRetrieveResponse(client, type, r, payload);
+                } catch (IOException ex) {
+                    throw new ETSdkException("error reading response of GET " + path, ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Retrieves objects like <code>retrieve</code>, without
+     * waiting for the response.
+     * @param <T>           The type which extends from ETRestObject
+     * @param client        The ETClient object
+     * @param type          The class type to retrieve
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter object
+     * @return              The future ETResponse object of type T
+     */
+    static <T extends ETRestObject> CompletableFuture<ETResponse<T>> retrieveAsync(final ETClient client,
+                                                                                  final Class<T> type,
+                                                                                  Integer page,
+                                                                                  Integer pageSize,
+                                                                                  ETFilter filter)
+    {
+        final String path;
+        try {
+            path = getRetrievePath(type, page, pageSize, filter);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return client.getRestConnection().getAsync(path).thenApply(new Function<Response, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(Response r) {
+                try {
+                    return createRetrieveResponse(client, type, r,
+                            new StringReader(r.getResponsePayload()));
+                } catch (IOException ex) {
+                    throw new CompletionException(new ETSdkException(
+                            "error reading response of GET " + path, ex));
+                } catch (RuntimeException ex) {
+                    throw new CompletionException(new ETSdkException(
+                            "error parsing response of GET " + path, ex));
+                }
+            }
+        });
+    }
+
+    private static <T extends ETRestObject> String getRetrievePath(Class<T> type,
+                                                                   Integer page,
+                                                                   Integer pageSize,
+                                                                   ETFilter filter)
+        throws ETSdkException
+    {
         //
         // Read call details from the RestObject annotation:
         //
@@ -103,10 +177,12 @@ public abstract class ETRestObject extends ETApiObject {
         String collection = annotations.collection();
         String totalCount = annotations.totalCount();
 
-        logger.trace("path: " + path);
-        logger.trace("primaryKey: " + primaryKey);
-        logger.trace("collection: " + collection);
-        logger.trace("totalCount: " + totalCount);
+        if (logger.isTraceEnabled()) {
+            logger.trace("path: " + path);
+            logger.trace("primaryKey: " + primaryKey);
+            logger.trace("collection: " + collection);
+            logger.trace("totalCount: " + totalCount);
+        }
 
         //
         // Build the query parameters:
@@ -126,11 +202,15 @@ public abstract class ETRestObject extends ETApiObject {
             stringBuilder.append(pageSize);
         }
 
-        logger.trace("filter: " + filter);
+        if (logger.isTraceEnabled()) {
+            logger.trace("filter: " + filter);
+        }
 
         ETExpression expression = filter.getExpression();
         if (expression.getOperator() != null) {
-            logger.trace("expression: " + filter.getExpression());
+            if (logger.isTraceEnabled()) {
+                logger.trace("expression: " + filter.getExpression());
+            }
 
             if (expression.getOperator() == ETExpression.Operator.EQUALS
                     && expression.getProperty().equals(primaryKey)) {
@@ -138,7 +218,7 @@ public abstract class ETRestObject extends ETApiObject {
                 // Append the primary key to the the path:
                 //
 
-                String s = "/" + expression.getValue();
+                String s = "/" + encodePathSegment(expression.getValue());
                 stringBuilder.append(s);
                 if (logger.isTraceEnabled()) {
                     logger.trace("appended primary key: " + s);
@@ -233,9 +313,22 @@ public abstract class ETRestObject extends ETApiObject {
 
         path = stringBuilder.toString();
 
-        logger.trace("GET " + path);
+        if (logger.isTraceEnabled()) {
+            logger.trace("GET " + path);
+        }
+
+        return path;
+    }
+
+    private static <T extends ETRestObject> ETResponse<T> createRetrieveResponse(ETClient client,
+                                                                                 Class<T> type,
+                                                                                 Response r,
+                                                                                 Reader payload)
+        throws IOException
+    {
+        ETResponse<T> response = new ETResponse<T>();
 
-        Response r = connection.get(path);
+        RestObject annotations = type.getAnnotation(RestObject.class);
 
         response.setRequestId(r.getRequestId());
         if (r.getResponseCode() >= 200 && r.getResponseCode() <= 299) {
@@ -246,42 +339,122 @@ public abstract class ETRestObject extends ETApiObject {
         response.setResponseCode(r.getResponseCode().toString());
         response.setResponseMessage(r.getResponseMessage());
 
+        readPayload(client,
+                    payload,
+                    type,
+                    annotations.totalCount(),
+                    annotations.collection(),
+                    response);
+
+        return response;
+    }
+
+    //
+    // Reads a retrieve payload with a JsonReader, converting the
+    // elements of the collection as they are read rather than
+    // parsing the whole payload into a tree first. Only members
+    // that aren't streamed (those of a payload holding a single
+    // object, or a collection preceding the page number) are
+    // parsed into a tree, to be converted at the end:
+    //
+
+    private static <T extends ETRestObject> void readPayload(ETClient client,
+                                                             Reader payload,
+                                                             Class<T> type,
+                                                             String totalCount,
+                                                             String collection,
+                                                             ETResponse<T> response)
+        throws IOException
+    {
         Gson gson = client.getGson();
-        JsonParser jsonParser = new JsonParser();
-        JsonObject jsonObject = jsonParser.parse(r.getResponsePayload()).getAsJsonObject();
+        JsonObject members = new JsonObject();
+
+        JsonReader reader = new JsonReader(payload);
+        // as lenient as parsing the payload from a String used to be
+        reader.setLenient(true);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals(collection)
+                    && members.has("page")
+                    && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    T object = gson.fromJson(reader, type);
+                    addResult(client, object, response);
+                }
+                reader.endArray();
+            } else {
+                members.add(name, JsonParser.parseReader(reader));
+            }
+        }
+        reader.endObject();
 
-        if (jsonObject.get("page") != null) {
-            response.setPage(jsonObject.get("page").getAsInt());
-            logger.trace("page = " + response.getPage());
-            response.setPageSize(jsonObject.get("pageSize").getAsInt());
-            logger.trace("pageSize = " + response.getPageSize());
-            response.setTotalCount(jsonObject.get(totalCount).getAsInt());
-            logger.trace("totalCount = " + response.getTotalCount());
+        if (members.get("page") != null) {
+            response.setPage(members.get("page").getAsInt());
+            response.setPageSize(members.get("pageSize").getAsInt());
+            response.setTotalCount(members.get(totalCount).getAsInt());
+            if (logger.isTraceEnabled()) {
+                logger.trace("page = " + response.getPage());
+                logger.trace("pageSize = " + response.getPageSize());
+                logger.trace("totalCount = " + response.getTotalCount());
+            }
 
             if (response.getPage() * response.getPageSize() < response.getTotalCount()) {
                 response.setMoreResults(true);
             }
 
-            JsonArray elements = jsonObject.get(collection).getAsJsonArray();
-
-            for (JsonElement element : elements) {
-                // XXX duplicate code A
-                T object = gson.fromJson(element, type);
-                object.setClient(client); // XXX
-                ETResult<T> result = new ETResult<T>();
-                result.setObject(object);
-                response.addResult(result);
+            JsonElement elements = members.get(collection);
+            if (elements != null && elements.isJsonArray()) {
+                for (JsonElement element : elements.getAsJsonArray()) {
+                    addResult(client, gson.fromJson(element, type), response);
+                }
             }
         } else {
-            // XXX duplicate code A
-            T object = gson.fromJson(jsonObject, type);
-            object.setClient(client); // XXX
-            ETResult<T> result = new ETResult<T>();
-            result.setObject(object);
-            response.addResult(result);
+            addResult(client, gson.fromJson(members, type), response);
         }
+    }
 
-        return response;
+    private static <T extends ETRestObject> void addResult(ETClient client,
+                                                           T object,
+                                                           ETResponse<T> response)
+    {
+        object.setClient(client);
+        ETResult<T> result = new ETResult<T>();
+        result.setObject(object);
+        response.addResult(result);
+    }
+
+    /**
+     * @param <T>           The type which extends from ETRestObject
+     * @param client        The ETClient object
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object
+     * @return              The pages of the retrieve, requesting
+     *                      page after page while more results are available
+     */
+    static <T extends ETRestObject> ETPageSource<T> pages(final ETClient client,
+                                                          final Class<T> type,
+                                                          final ETFilter filter)
+    {
+        return new ETPageSource<T>() {
+            @Override
+            public ETResponse<T> nextPage(ETResponse<T> previous)
+                throws ETSdkException
+            {
+                if (previous == null) {
+                    return retrieve(client, type, null, null, filter);
+                }
+                if (!previous.hasMoreResults() || previous.getPage() == null) {
+                    return null;
+                }
+                return retrieve(client,
+                                type,
+                                previous.getPage() + 1,
+                                previous.getPageSize(),
+                                filter);
+            }
+        };
     }
 
     /**
@@ -324,8 +497,87 @@ public abstract class ETRestObject extends ETApiObject {
         return createUpdateDelete(client, DELETE, objects);
     }
 
-    private static <T extends ETRestObject> ETResponse<T> createUpdateDelete(ETClient client,
-                                                                             Method method,
+    /**
+     * Creates objects like <code>create</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETRestObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to create
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETRestObject> CompletableFuture<ETResponse<T>> createAsync(ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, POST, objects);
+    }
+
+    /**
+     * Updates objects like <code>update</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETRestObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to update
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETRestObject> CompletableFuture<ETResponse<T>> updateAsync(ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, PATCH, objects);
+    }
+
+    /**
+     * Deletes objects like <code>delete</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETRestObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to delete
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETRestObject> CompletableFuture<ETResponse<T>> deleteAsync(ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, DELETE, objects);
+    }
+
+    private static <T extends ETRestObject> CompletableFuture<ETResponse<T>> createUpdateDeleteAsync(ETClient client,
+                                                                                                    Method method,
+                                                                                                    List<T> objects)
+    {
+        final ETResponse<T> response = new ETResponse<T>();
+
+        if (objects == null || objects.size() == 0) {
+            response.setStatus(ETResult.Status.OK);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        String path = objects.get(0).getClass().getAnnotation(RestObject.class).path();
+
+        //
+        // Send all requests at once; the transport bounds the
+        // number of them using a connection at the same time:
+        //
+
+        final List<CompletableFuture<ETResult<T>>> futures =
+                new ArrayList<CompletableFuture<ETResult<T>>>();
+        for (T object : objects) {
+            futures.add(createUpdateDeleteAsync(client, method, path, object));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(new Function<Void, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(Void done) {
+                // results are captured per object, so only refusals fail
+                for (CompletableFuture<ETResult<T>> future : futures) {
+                    response.addResult(future.join());
+                }
+                return response;
+            }
+        });
+    }
+
+    private static <T extends ETRestObject> ETResponse<T> createUpdateDelete(final ETClient client,
+                                                                             final Method method,
                                                                              List<T> objects)
         throws ETSdkException
     {
@@ -336,8 +588,6 @@ public abstract class ETRestObject extends ETApiObject {
             return response;
         }
 
-        ETRestConnection connection = client.getRestConnection();
-
         //
         // Automatically refresh the token if necessary:
         //
@@ -352,102 +602,299 @@ public abstract class ETRestObject extends ETApiObject {
 
         assert annotations != null;
 
-        String path = annotations.path();
+        final String path = annotations.path();
         String primaryKey = annotations.primaryKey();
         String collection = annotations.collection();
         String totalCount = annotations.totalCount();
 
-        logger.trace("path: " + path);
-        logger.trace("primaryKey: " + primaryKey);
-        logger.trace("collection: " + collection);
-        logger.trace("totalCount: " + totalCount);
+        if (logger.isTraceEnabled()) {
+            logger.trace("path: " + path);
+            logger.trace("primaryKey: " + primaryKey);
+            logger.trace("collection: " + collection);
+            logger.trace("totalCount: " + totalCount);
+        }
 
         //
         // There's currently no way to do this in bulk, so
         // we walk through the list of objects and create,
-        // update, or delete them one at a time:
+        // update, or delete them one at a time, or up to
+        // restConcurrency at a time (one at a time when already
+        // on a worker of the client's pool):
         //
 
-        Gson gson = client.getGson();
+        int concurrency = client.getConfiguration().getInteger("restConcurrency", 1);
 
-        for (T object : objects) {
-            switch (method) {
-              case POST:
-                logger.trace("POST " + path);
-                break;
-              case PATCH:
-                logger.trace("PATCH " + path + "/" + object.getId());
-                break;
-              case DELETE:
-                logger.trace("DELETE " + path + "/" + object.getId());
-                break;
-              default:
-                throw new ETSdkException("invalid method: " + method);
+        if (concurrency <= 1 || objects.size() == 1 || ETExecutors.isWorker()) {
+            for (T object : objects) {
+                response.addResult(tryCreateUpdateDelete(client, method, path, object));
             }
+            return response;
+        }
 
-            String requestPayload = null;
-            if (method != DELETE) {
-                // no request payload for deletes
-                requestPayload = gson.toJson(object);
-                if (logger.isTraceEnabled()) {
-                    JsonParser jsonParser = new JsonParser();
-                    JsonObject jsonObject = jsonParser.parse(requestPayload).getAsJsonObject();
-                    String jsonPrettyPrinted = gson.toJson(jsonObject);
-                    for (String line : jsonPrettyPrinted.split("\\n")) {
-                        logger.trace(line);
-                    }
+        final Semaphore inFlight = new Semaphore(concurrency);
+        List<Future<ETResult<T>>> futures = new ArrayList<Future<ETResult<T>>>();
+        try {
+            for (final T object : objects) {
+                inFlight.acquire();
+                try {
+                    futures.add(client.getExecutor().submit(new Callable<ETResult<T>>() {
+                        @Override
+                        public ETResult<T> call()
+                            throws ETSdkException
+                        {
+                            try {
+                                return tryCreateUpdateDelete(client, method, path, object);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }
+                    }));
+                } catch (RuntimeException ex) {
+                    inFlight.release();
+                    throw ex;
                 }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (Future<ETResult<T>> future : futures) {
+                future.cancel(true);
+            }
+            throw new ETSdkException("interrupted sending " + method + " requests", ex);
+        }
+
+        //
+        // Collect the results in the order of the objects:
+        //
 
-            Response r = null;
+        for (Future<ETResult<T>> future : futures) {
+            try {
+                response.addResult(future.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ETSdkException("interrupted sending " + method + " requests", ex);
+            } catch (ExecutionException ex) {
+                // results are captured by the task, so this is a refusal
+                for (Future<ETResult<T>> f : futures) {
+                    f.cancel(true);
+                }
+                if (ex.getCause() instanceof ETSdkException) {
+                    throw (ETSdkException) ex.getCause();
+                }
+                throw new ETSdkException("error sending " + method + " request", ex.getCause());
+            }
+        }
+
+        // XXX set overall status
+
+        return response;
+    }
+
+    //
+    // Captures the failure of an object's request in its result,
+    // whether requests are sent one at a time or concurrently;
+    // only refusals by the circuit breaker or the bulkhead, which
+    // apply to every object alike, are thrown:
+    //
+
+    private static <T extends ETRestObject> ETResult<T> tryCreateUpdateDelete(ETClient client,
+                                                                              Method method,
+                                                                              String path,
+                                                                              T object)
+        throws ETSdkException
+    {
+        try {
+            return createUpdateDelete(client, method, path, object);
+        } catch (ETSdkException ex) {
+            if (isRefusal(ex)) {
+                throw ex;
+            }
+            return failed(method, object, ex);
+        } catch (RuntimeException ex) {
+            return failed(method, object, ex);
+        }
+    }
+
+    private static boolean isRefusal(Throwable ex) {
+        return ex instanceof ETCircuitOpenException || ex instanceof ETBulkheadFullException;
+    }
+
+    private static <T extends ETRestObject> ETResult<T> createUpdateDelete(ETClient client,
+                                                                           Method method,
+                                                                           String path,
+                                                                           T object)
+        throws ETSdkException
+    {
+        ETRestConnection connection = client.getRestConnection();
+
+        String requestPayload = createPayload(client, method, path, object);
+
+        Response r = null;
+        switch (method) {
+          case POST:
+            r = connection.post(path, requestPayload);
+            break;
+          case PATCH:
+            r = connection.patch(getObjectPath(path, object), requestPayload);
+            break;
+          case DELETE:
+            r = connection.delete(getObjectPath(path, object));
+            break;
+          default:
+            throw new ETSdkException("invalid method: " + method);
+        }
+
+        return createResult(client, method, object, r);
+    }
+
+    private static <T extends ETRestObject> CompletableFuture<ETResult<T>> createUpdateDeleteAsync(final ETClient client,
+                                                                                                  final Method method,
+                                                                                                  String path,
+                                                                                                  final T object)
+    {
+        ETRestConnection connection = client.getRestConnection();
+
+        CompletableFuture<Response> future = null;
+        try {
+            String requestPayload = createPayload(client, method, path, object);
             switch (method) {
               case POST:
-                r = connection.post(path, requestPayload);
+                future = connection.postAsync(path, requestPayload);
                 break;
               case PATCH:
-                r = connection.patch(path + "/" + object.getId(), requestPayload);
-                break;
-              case DELETE:
-                r = connection.delete(path + "/" + object.getId());
+                future = connection.patchAsync(getObjectPath(path, object), requestPayload);
                 break;
               default:
-                throw new ETSdkException("invalid method: " + method);
+                future = connection.deleteAsync(getObjectPath(path, object));
+                break;
+            }
+        } catch (ETSdkException ex) {
+            if (isRefusal(ex)) {
+                return CompletableFuture.failedFuture(ex);
             }
+            return CompletableFuture.completedFuture(failed(method, object, ex));
+        }
 
-            ETResult<T> result = new ETResult<T>();
-            result.setRequestId(r.getRequestId());
-            if (r.getResponseCode() >= 200 && r.getResponseCode() <= 299) {
-                result.setStatus(ETResult.Status.OK);
-            } else if (r.getResponseCode() >= 400 && r.getResponseCode() <= 599) {
-                result.setStatus(ETResult.Status.ERROR);
+        return future.thenApply(new Function<Response, ETResult<T>>() {
+            @Override
+            public ETResult<T> apply(Response r) {
+                return createResult(client, method, object, r);
             }
-            result.setResponseCode(r.getResponseCode().toString());
-            result.setResponseMessage(r.getResponseMessage());
-            if (method != DELETE) {
-                // no response payload for deletes
-                String responsePayload = r.getResponsePayload();
+        }).exceptionally(new Function<Throwable, ETResult<T>>() {
+            @Override
+            public ETResult<T> apply(Throwable failure) {
+                if (failure instanceof CompletionException && failure.getCause() != null) {
+                    failure = failure.getCause();
+                }
+                if (isRefusal(failure)) {
+                    throw new CompletionException(failure);
+                }
+                return failed(method, object, failure);
+            }
+        });
+    }
+
+    private static String getObjectPath(String path, ETRestObject object)
+        throws ETSdkException
+    {
+        return path + "/" + encodePathSegment(String.valueOf(object.getId()));
+    }
+
+    private static <T extends ETRestObject> String createPayload(ETClient client,
+                                                                 Method method,
+                                                                 String path,
+                                                                 T object)
+        throws ETSdkException
+    {
+        Gson gson = client.getGson();
+
+        switch (method) {
+          case POST:
+            if (logger.isTraceEnabled()) {
+                logger.trace("POST " + path);
+            }
+            break;
+          case PATCH:
+            if (logger.isTraceEnabled()) {
+                logger.trace("PATCH " + getObjectPath(path, object));
+            }
+            break;
+          case DELETE:
+            if (logger.isTraceEnabled()) {
+                logger.trace("DELETE " + getObjectPath(path, object));
+            }
+            break;
+          default:
+            throw new ETSdkException("invalid method: " + method);
+        }
+
+        String requestPayload = null;
+        if (method != DELETE) {
+            // no request payload for deletes
+            requestPayload = gson.toJson(object);
+            if (logger.isTraceEnabled()) {
                 JsonParser jsonParser = new JsonParser();
-                JsonObject jsonObject = jsonParser.parse(responsePayload).getAsJsonObject();
-                if (logger.isTraceEnabled()) {
-                    String jsonPrettyPrinted = gson.toJson(jsonObject);
-                    for (String line : jsonPrettyPrinted.split("\\n")) {
-                        logger.trace(line);
-                    }
+                JsonObject jsonObject = jsonParser.parse(requestPayload).getAsJsonObject();
+                String jsonPrettyPrinted = gson.toJson(jsonObject);
+                for (String line : jsonPrettyPrinted.split("\\n")) {
+                    logger.trace(line);
                 }
-                @SuppressWarnings("unchecked")
-                T responseObject = (T) gson.fromJson(responsePayload, object.getClass());
-                responseObject.setClient(client); // XXX
-                result.setObject(responseObject);
             }
+        }
 
-            response.addResult(result);
+        return requestPayload;
+    }
 
-            object.setClient(client); // XXX
+    private static <T extends ETRestObject> ETResult<T> createResult(ETClient client,
+                                                                     Method method,
+                                                                     T object,
+                                                                     Response r)
+    {
+        Gson gson = client.getGson();
+
+        ETResult<T> result = new ETResult<T>();
+        result.setRequestId(r.getRequestId());
+        if (r.getResponseCode() >= 200 && r.getResponseCode() <= 299) {
+            result.setStatus(ETResult.Status.OK);
+        } else if (r.getResponseCode() >= 400 && r.getResponseCode() <= 599) {
+            result.setStatus(ETResult.Status.ERROR);
+        }
+        result.setResponseCode(r.getResponseCode().toString());
+        result.setResponseMessage(r.getResponseMessage());
+        if (method != DELETE) {
+            // no response payload for deletes
+            String responsePayload = r.getResponsePayload();
+            JsonParser jsonParser = new JsonParser();
+            JsonObject jsonObject = jsonParser.parse(responsePayload).getAsJsonObject();
+            if (logger.isTraceEnabled()) {
+                String jsonPrettyPrinted = gson.toJson(jsonObject);
+                for (String line : jsonPrettyPrinted.split("\\n")) {
+                    logger.trace(line);
+                }
+            }
+            @SuppressWarnings("unchecked")
+            T responseObject = (T) gson.fromJson(responsePayload, object.getClass());
+            responseObject.setClient(client); // XXX
+            result.setObject(responseObject);
         }
 
-        // XXX set overall status
+        object.setClient(client); // XXX
 
-        return response;
+        return result;
+    }
+
+    /**
+     * @return  The result of an object whose request failed
+     *          without a response from the service
+     */
+    private static <T extends ETRestObject> ETResult<T> failed(Method method,
+                                                               T object,
+                                                               Throwable ex)
+    {
+        logger.warn("error sending " + method + " request for " + object.getClass().getSimpleName(), ex);
+        ETResult<T> result = new ETResult<T>();
+        result.setStatus(ETResult.Status.ERROR);
+        result.setResponseMessage(ex.getMessage());
+        return result;
     }
 
     /**
@@ -472,9 +919,7 @@ public abstract class ETRestObject extends ETApiObject {
                                                          Class<T> type)
     {
         Gson gson = client.getGson();
-        JsonParser jsonParser = new JsonParser();
-        JsonObject jsonObject = jsonParser.parse(payload).getAsJsonObject();
-        T object = gson.fromJson(jsonObject, type);
+        T object = gson.fromJson(payload, type);
         object.setClient(client);
         return object;
     }
@@ -496,35 +941,11 @@ public abstract class ETRestObject extends ETApiObject {
                                                                      String collection)
     {
         ETResponse<T> response = new ETResponse<T>();
-
-        JsonParser jsonParser = new JsonParser();
-        JsonObject jsonObject = jsonParser.parse(payload).getAsJsonObject();
-
-        if (jsonObject.get("page") != null) {
-            response.setPage(jsonObject.get("page").getAsInt());
-            logger.trace("page = " + response.getPage());
-            response.setPageSize(jsonObject.get("pageSize").getAsInt());
-            logger.trace("pageSize = " + response.getPageSize());
-            response.setTotalCount(jsonObject.get(totalCount).getAsInt());
-            logger.trace("totalCount = " + response.getTotalCount());
-
-            if (response.getPage() * response.getPageSize() < response.getTotalCount()) {
-                response.setMoreResults(true);
-            }
-
-            JsonArray elements = jsonObject.get(collection).getAsJsonArray();
-
-            for (JsonElement element : elements) {
-                ETResult<T> result = new ETResult<T>();
-                result.setObject(deserialize(client, element.toString(), type));
-                response.addResult(result);
-            }
-        } else {
-            ETResult<T> result = new ETResult<T>();
-            result.setObject(deserialize(client, jsonObject.toString(), type));
-            response.addResult(result);
+        try {
+            readPayload(client, new StringReader(payload), type, totalCount, collection, response);
+        } catch (IOException ex) {
+            throw new JsonIOException(ex);
         }
-
         return response;
     }
 
@@ -594,6 +1015,21 @@ public abstract class ETRestObject extends ETApiObject {
         }
     }
 
+    /**
+     * @param segment       A path segment, such as a key or an id
+     * @return              The segment percent-encoded for a URL path
+     */
+    static String encodePathSegment(String segment)
+        throws ETSdkException
+    {
+        try {
+            // URLEncoder encodes for forms, where a space becomes a plus
+            return URLEncoder.encode(segment, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException ex) {
+            throw new ETSdkException("error URL encoding " + segment, ex);
+        }
+    }
+
     /**
      * 
      * @param expression    The ETExpression object as filter
@@ -0,0 +1,313 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+
+/**
+ * An <code>ETRetrieveCache</code> holds the responses of recent
+ * retrieves of the object types listed in the
+ * <code>retrieveCacheTypes</code> configuration property (e.g.
+ * "ETFolder,ETList,ETEmail,ETTriggeredEmail"), so looking up the
+ * same definitions again doesn't go to the service. It is off unless
+ * types are listed. Responses are cached by type, page, filter and
+ * properties; at most <code>retrieveCacheSize</code> of them are kept
+ * (default 1000), the least recently used being evicted first, for
+ * at most <code>retrieveCacheTtl</code> seconds (default 300).
+ * Creating, updating or deleting objects of a type through the
+ * client forgets the responses cached for the type.
+ *
+ * Callers get copies of the cached responses and of the objects in
+ * them, so they may modify the objects (and update them) without
+ * affecting the cache or each other. Retrieves made to update or
+ * delete the objects matching a filter bypass the cache.
+ */
+
+public class ETRetrieveCache {
+    private static Logger logger = Logger.getLogger(ETRetrieveCache.class);
+
+    static final int DEFAULT_SIZE = 1000;
+    static final int DEFAULT_TTL = 300; // 5 minutes
+
+    private final Set<String> types;
+    private final int size;
+    private final long ttl;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<Class<?>, Long> generations = new HashMap<Class<?>, Long>();
+    private long generation = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    ETRetrieveCache(Set<String> types, int size, int ttl) {
+        this.types = types;
+        this.size = size;
+        this.ttl = ttl * 1000L;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    }
+
+    static ETRetrieveCache create(ETConfiguration configuration) {
+        Set<String> types = new HashSet<String>();
+        String value = configuration.get("retrieveCacheTypes");
+        if (value != null) {
+            for (String type : value.split(",")) {
+                if (!type.trim().equals("")) {
+                    types.add(type.trim());
+                }
+            }
+        }
+        return new ETRetrieveCache(types,
+                configuration.getInteger("retrieveCacheSize", DEFAULT_SIZE),
+                configuration.getInteger("retrieveCacheTtl", DEFAULT_TTL));
+    }
+
+    /**
+     * @param type      The object type
+     * @return          true if retrieves of the type are cached,
+     *                  false otherwise
+     */
+    public boolean isCached(Class<?> type) {
+        return !types.isEmpty() && size > 0 && ttl > 0
+                && (types.contains(type.getSimpleName()) || types.contains(type.getName()));
+    }
+
+    /**
+     * @return          The number of retrieves answered from the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return          The number of retrieves of cached types that
+     *                  had to go to the service
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return          The number of responses evicted to make room
+     *                  for others
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return          The number of responses in the cache, some of
+     *                  which may have expired
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Forgets the responses cached for a type.
+     * @param type      The object type
+     */
+    public synchronized void invalidate(Class<?> type) {
+        Long typeGeneration = generations.get(type);
+        generations.put(type, typeGeneration != null ? typeGeneration + 1 : 1L);
+        Iterator<Entry> i = entries.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().type == type) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets all cached responses.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Builds the cache key of a retrieve: the type, the page, the
+     * filter expression, the order and the properties, which are
+     * sorted since their order doesn't change the response.
+     */
+    static String getKey(Class<?> type,
+                         Integer page,
+                         Integer pageSize,
+                         ETFilter filter)
+    {
+        StringBuilder key = new StringBuilder(type.getName());
+        key.append('|').append(page).append('|').append(pageSize);
+        if (filter != null) {
+            key.append('|').append(filter.getExpression());
+            key.append('|').append(filter.getOrderBy());
+            key.append('|').append(filter.getOrderByAsc());
+            key.append('|').append(new TreeSet<String>(filter.getProperties()));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param key       The cache key
+     * @return          The cached response, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T extends ETApiObject> ETResponse<T> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expirationTime <= System.currentTimeMillis()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return (ETResponse<T>) entry.response;
+    }
+
+    /**
+     * @param type      The object type
+     * @return          The generation of the type, to be passed to
+     *                  <code>put</code> with the response of a
+     *                  retrieve started now
+     */
+    synchronized long getGeneration(Class<?> type) {
+        Long typeGeneration = generations.get(type);
+        return generation + (typeGeneration != null ? typeGeneration : 0);
+    }
+
+    /**
+     * Caches the response of a retrieve, unless it failed or
+     * objects of its type were changed while it was in flight.
+     * @param type      The object type
+     * @param key       The cache key
+     * @param response  The response
+     * @param generation The generation of the type when the
+     *                  retrieve started
+     */
+    synchronized void put(Class<?> type,
+                          String key,
+                          ETResponse<?> response,
+                          long generation)
+    {
+        if (response == null || response.getStatus() != ETResult.Status.OK
+                || getGeneration(type) != generation) {
+            return;
+        }
+        entries.put(key, new Entry(type, response, System.currentTimeMillis() + ttl));
+        if (entries.size() > size) {
+            Iterator<String> i = entries.keySet().iterator();
+            String eldest = i.next();
+            i.remove();
+            evictionCount++;
+            if (logger.isDebugEnabled()) {
+                logger.debug("evicted " + eldest);
+            }
+        }
+    }
+
+    /**
+     * @param client    The ETClient object
+     * @param response  A cached response
+     * @return          A copy of the response holding copies of its
+     *                  objects, converted as if just retrieved
+     */
+    static <T extends ETApiObject> ETResponse<T> copy(ETClient client,
+                                                      ETResponse<T> response)
+        throws ETSdkException
+    {
+        ETResponse<T> copy = new ETResponse<T>();
+        copy.setRequestId(response.getRequestId());
+        copy.setStatus(response.getStatus());
+        copy.setResponseCode(response.getResponseCode());
+        copy.setResponseMessage(response.getResponseMessage());
+        copy.setMoreResults(response.hasMoreResults());
+        copy.setPage(response.getPage());
+        copy.setPageSize(response.getPageSize());
+        copy.setTotalCount(response.getTotalCount());
+        for (ETResult<T> result : response.getResults()) {
+            ETResult<T> resultCopy = new ETResult<T>();
+            resultCopy.setStatus(result.getStatus());
+            resultCopy.setRequestId(result.getRequestId());
+            resultCopy.setResponseCode(result.getResponseCode());
+            resultCopy.setResponseMessage(result.getResponseMessage());
+            resultCopy.setErrorCode(result.getErrorCode());
+            resultCopy.setErrorMessage(result.getErrorMessage());
+            if (result.getObject() != null) {
+                resultCopy.setObject(copy(client, result.getObject()));
+            }
+            copy.addResult(resultCopy);
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends ETApiObject> T copy(ETClient client, T object)
+        throws ETSdkException
+    {
+        if (object instanceof ETSoapObject) {
+            ETSoapObject copy = client.instantiate(((ETSoapObject) object).getClass());
+            return (T) copy.fromInternal(((ETSoapObject) object).toInternal());
+        }
+        if (object instanceof ETRestObject) {
+            ETRestObject restObject = (ETRestObject) object;
+            return (T) ETRestObject.deserialize(client, restObject.serialize(),
+                    restObject.getClass());
+        }
+        throw new ETSdkException("can't copy " + object.getClass().getName());
+    }
+
+    private static class Entry {
+        private final Class<?> type;
+        private final ETResponse<?> response;
+        private final long expirationTime;
+
+        private Entry(Class<?> type, ETResponse<?> response, long expirationTime) {
+            this.type = type;
+            this.response = response;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.log4j.Logger;
+
+import com.exacttarget.fuelsdk.internal.APIObject;
+
+/**
+ * An <code>ETRetrieveResponseReader</code> decodes a SOAP
+ * RetrieveResponseMsg as it is read, unmarshalling one
+ * <code>Results</code> element at a time (as the type named by its
+ * <code>xsi:type</code> attribute), converting it to its external
+ * object and handing that to a consumer. Unlike the proxy, which
+ * builds the whole list of results before returning it, the reader
+ * only ever holds one internal and one external object.
+ */
+
+final class ETRetrieveResponseReader {
+    private static Logger logger = Logger.getLogger(ETRetrieveResponseReader.class);
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private ETRetrieveResponseReader() {}
+
+    /**
+     * @param <T>           The type which extends from ETSoapObject
+     * @param client        The ETClient object
+     * @param httpResponse  The HTTP response to soap.retrieve
+     * @param externalType  The class type of the objects
+     * @param consumer      The consumer of the objects
+     * @return              The ETResponse of the retrieve, with no
+     *                      results and the total count set to the
+     *                      number of objects consumed
+     * @throws ETSdkException
+     */
+    static <T extends ETSoapObject> ETResponse<T> read(ETClient client,
+                                                       ETHttpTransport.Response httpResponse,
+                                                       Class<T> externalType,
+                                                       Consumer<? super T> consumer)
+        throws ETSdkException
+    {
+        String requestId = null;
+        String overallStatus = null;
+        String fault = null;
+        int count = 0;
+
+        XMLStreamReader reader = null;
+        try {
+            Unmarshaller unmarshaller = ETSoapConnection.getJaxbContext().createUnmarshaller();
+            InputStream body = httpResponse.getBody();
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(body);
+            int event = reader.next();
+            while (event != XMLStreamConstants.END_DOCUMENT) {
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    event = reader.next();
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if (name.equals("Results")) {
+                    // leaves the reader after the end of the element
+                    APIObject internalObject =
+                            unmarshaller.unmarshal(reader, APIObject.class).getValue();
+                    consumer.accept(toExternal(client, internalObject, externalType));
+                    count++;
+                    event = reader.getEventType();
+                    continue;
+                }
+                if (name.equals("OverallStatus")) {
+                    overallStatus = reader.getElementText();
+                } else if (name.equals("RequestID")) {
+                    requestId = reader.getElementText();
+                } else if (name.equals("faultstring")) {
+                    fault = reader.getElementText();
+                }
+                event = reader.next();
+            }
+        } catch (XMLStreamException ex) {
+            throw new ETSdkException("could not read soap.retrieve response ("
+                    + httpResponse.getStatusCode() + " "
+                    + httpResponse.getReasonPhrase() + ")", ex);
+        } catch (JAXBException ex) {
+            throw new ETSdkException("could not read soap.retrieve response", ex);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ex) {
+                    // nothing useful can be done here
+                }
+            }
+        }
+
+        if (fault != null) {
+            throw new ETSdkException("error calling soap.retrieve: " + fault);
+        }
+        if (overallStatus == null) {
+            throw new ETSdkException("error calling soap.retrieve ("
+                    + httpResponse.getStatusCode() + " "
+                    + httpResponse.getReasonPhrase() + ")");
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("read " + count + " " + externalType.getSimpleName()
+                    + " objects (" + overallStatus + ")");
+        }
+
+        ETResponse<T> response = ETSoapObject.createRetrieveResponse(requestId, overallStatus);
+        response.setTotalCount(count);
+        return response;
+    }
+
+    private static <T extends ETSoapObject> T toExternal(ETClient client,
+                                                         APIObject internalObject,
+                                                         Class<T> externalType)
+        throws ETSdkException
+    {
+        T externalObject = null;
+        try {
+            externalObject = externalType.getDeclaredConstructor().newInstance();
+        } catch (Exception ex) {
+            throw new ETSdkException("could not instantiate "
+                    + externalType.getName(), ex);
+        }
+        externalObject.setClient(client);
+        externalObject.fromInternal(internalObject);
+        return externalObject;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+}
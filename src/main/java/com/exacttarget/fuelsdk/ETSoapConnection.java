@@ -34,39 +34,83 @@
 
 package com.exacttarget.fuelsdk;
 
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
 import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPFaultException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.endpoint.Client;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.frontend.ClientProxy;
 import org.apache.cxf.headers.Header;
-import org.apache.cxf.interceptor.LoggingInInterceptor;
-import org.apache.cxf.interceptor.LoggingOutInterceptor;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.transport.common.gzip.GZIPInInterceptor;
+import org.apache.cxf.transport.common.gzip.GZIPOutInterceptor;
 import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transport.http.HTTPException;
 import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 import org.apache.log4j.Logger;
 
+import com.exacttarget.fuelsdk.internal.APIObject;
 import com.exacttarget.fuelsdk.internal.PartnerAPI;
 import com.exacttarget.fuelsdk.internal.Soap;
-import java.util.logging.Level;
-import javax.xml.bind.JAXBException;
-import org.apache.cxf.jaxb.JAXBDataBinding;
-import org.apache.cxf.transport.http.Headers;
 
 /**
  * An <code>ETSoapConnection</code> represents an active
  * connection to the SOAP API.
+ *
+ * In addition to the proxy returned by <code>getSoap</code>,
+ * the connection maintains a bounded pool of independently
+ * configured proxies, each with its own request context,
+ * headers and HTTP conduit. Callers borrow a proxy with
+ * <code>borrowSoap</code> and give it back with
+ * <code>returnSoap</code>, so concurrent calls neither share
+ * mutable state nor serialize on a single conduit. Proxies are
+ * created on demand up to <code>soapPoolSize</code> (default 10)
+ * and reused afterwards; callers block when all of them are in use.
+ * <code>borrowSoapAsync</code> waits for a proxy without blocking,
+ * for asynchronous calls made with the async bindings of the
+ * <code>Soap</code> interface.
+ *
+ * <code>send</code> bypasses the proxies altogether, posting a
+ * request message through the client's HTTP transport and leaving
+ * the response for the caller to decode as it is read.
+ *
+ * Calls made with <code>call</code>, <code>callAsync</code> and
+ * <code>send</code> are admitted by the client's SOAP
+ * <code>ETRateLimiter</code> and the endpoint's
+ * <code>ETCircuitBreaker</code>; throttled and failed retrieves are
+ * retried.
  */
 
 public class ETSoapConnection {
@@ -74,14 +118,40 @@ public class ETSoapConnection {
 
     private static final String WSSE_NAMESPACE_URI =
             "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
+    static final String SOAP_NAMESPACE_URI =
+            "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY =
+            XMLOutputFactory.newInstance();
+
+    public static final int DEFAULT_POOL_SIZE = 10;
+
+    private ETClient client = null;
 
     private String endpoint = null;
 
+    private PartnerAPI service = null;
     private Soap soap = null;
     private Client soapClient = null;
     private SOAPFactory soapFactory = null;
     private SOAPElement accessTokenElement = null;
 
+    private String username = null;
+    private String password = null;
+    private boolean useAccessToken = false;
+    private volatile String accessToken = null;
+
+    private ETRateLimiter limiter = null;
+    private ETCircuitBreaker circuitBreaker = null;
+    private ETThrottledTransport sendTransport = null;
+    private ETWireLogging wireLogging = null;
+
+    private ETAsyncSemaphore pool = null;
+    private ConcurrentLinkedDeque<PooledSoap> idle =
+            new ConcurrentLinkedDeque<PooledSoap>();
+    private Map<Soap, PooledSoap> borrowed =
+            new IdentityHashMap<Soap, PooledSoap>();
+
     /** 
     * Class constructor, Initializes a new instance of the class.
      * @param client    The ETClient object
@@ -91,66 +161,31 @@ public class ETSoapConnection {
     public ETSoapConnection(ETClient client, String endpoint)
         throws ETSdkException
     {
+        this.client = client;
         this.endpoint = endpoint;
 
+        pool = new ETAsyncSemaphore(client.getConfiguration()
+                .getInteger("soapPoolSize", DEFAULT_POOL_SIZE));
+
+        limiter = client.getRateLimiter(ETRateLimiter.Family.SOAP);
+        circuitBreaker = client.getCircuitBreaker(ETRateLimiter.Family.SOAP,
+                URI.create(endpoint));
+        sendTransport = new ETThrottledTransport(client.getHttpTransport(),
+                limiter, client);
+        wireLogging = ETWireLogging.create(client.getConfiguration());
+
         //
         // Initialize the SOAP proxy:
         //
 
         try {
-            PartnerAPI service = new PartnerAPI();
-            soap = service.getSoap();
-            soapClient = ClientProxy.getClient(soap);
-            soapClient.getInInterceptors().add(new ClearAttachmentsOutInterceptor());
-            soapClient.getOutInterceptors().add(new ClearAttachmentsOutInterceptor());  //
-
-            Endpoint soapEndpoint = soapClient.getEndpoint();
+            service = new PartnerAPI();
             soapFactory = SOAPFactory.newInstance();
-            soapClient.getRequestContext().put(Message.ENDPOINT_ADDRESS,
-                    endpoint);
-            HTTPConduit conduit = (HTTPConduit) soapClient.getConduit();
-            Integer cxfConnectTimeout = null;
-            Integer cxfReceiveTimeout = null;
-            try {
-                cxfConnectTimeout = new Integer(
-                        client.getConfiguration().get("cxfConnectTimeout"));
-            } catch (NumberFormatException ex) {
-                // Ignore--this just means the value specified in
-                // the fuelsdk.properties file is not an integer.
-            }
-            try {
-                cxfReceiveTimeout = new Integer(
-                        client.getConfiguration().get("cxfReceiveTimeout"));
-            } catch (NumberFormatException ex) {
-                // Ignore--this just means the value specified in
-                // the fuelsdk.properties file is not an integer.
-            }
-            HTTPClientPolicy clientPolicy = new HTTPClientPolicy();
-            if (cxfConnectTimeout != null) {
-                clientPolicy.setConnectionTimeout(cxfConnectTimeout);
-            }
-            if (cxfReceiveTimeout != null) {
-                clientPolicy.setReceiveTimeout(cxfReceiveTimeout);
-            }
-            conduit.setClient(clientPolicy);
-            if (client.getConfiguration().isTrue("cxfDisableCNCheck")) {
-                TLSClientParameters tlsClientParameters = new TLSClientParameters();
-                tlsClientParameters.setDisableCNCheck(true);
-                conduit.setTlsClientParameters(tlsClientParameters);
-            }
-            soapClient.getRequestContext().put(Message.ENCODING, "UTF-8");
-            
-            LoggingInInterceptor loggingInInterceptor =
-                    new LoggingInInterceptor();
-            loggingInInterceptor.setPrettyLogging(true);
-            LoggingOutInterceptor loggingOutInterceptor =
-                    new LoggingOutInterceptor();
-            loggingOutInterceptor.setPrettyLogging(true);
-            soapEndpoint.getInInterceptors().add(loggingInInterceptor);
-            soapEndpoint.getOutInterceptors().add(loggingOutInterceptor);
         } catch (SOAPException ex) {
             throw new ETSdkException("could not initialize SOAP proxy", ex);
         }
+        soap = createSoap();
+        soapClient = ClientProxy.getClient(soap);
     }
 
     /** 
@@ -168,30 +203,12 @@ public class ETSoapConnection {
     {
         this(client, endpoint);
 
-        try {
-            List<Header> headers = new ArrayList<Header>();
-
-            SOAPElement usernameElement = soapFactory.createElement(
-                    new QName(WSSE_NAMESPACE_URI, "Username", "wsse"));
-            usernameElement.addTextNode(username);
-
-            SOAPElement passwordElement = soapFactory.createElement(
-                    new QName(WSSE_NAMESPACE_URI, "Password", "wsse"));
-            passwordElement.addTextNode(password);
-
-            SOAPElement usernameTokenElement = soapFactory.createElement(
-                    new QName(WSSE_NAMESPACE_URI, "UsernameToken", "wsse"));
-            usernameTokenElement.addChildElement(usernameElement);
-            usernameTokenElement.addChildElement(passwordElement);
-
-            SOAPElement securityElement = soapFactory.createElement(
-                    new QName(WSSE_NAMESPACE_URI, "Security", "wsse"));
-            securityElement.addChildElement(usernameTokenElement);
+        this.username = username;
+        this.password = password;
 
-            headers.add(new Header(new QName(WSSE_NAMESPACE_URI, "Security", "wsse"),
-                    securityElement));
-
-            soapClient.getRequestContext().put(Header.HEADER_LIST, headers);
+        try {
+            soapClient.getRequestContext().put(Header.HEADER_LIST,
+                    createUsernameTokenHeaders());
         } catch (SOAPException ex) {
             throw new ETSdkException("could not initialize SOAP proxy", ex);
         }
@@ -209,6 +226,8 @@ public class ETSoapConnection {
     {
         this(client, endpoint);
 
+        this.useAccessToken = true;
+
         try {
             List<Header> headers = new ArrayList<Header>();
 
@@ -233,16 +252,533 @@ public class ETSoapConnection {
         return soap;
     }
 
+    /**
+     * @deprecated  Sets the User-Agent header on the proxy shared by
+     *              all callers; borrow a proxy with
+     *              <code>borrowSoap</code> (and give it back with
+     *              <code>returnSoap</code>) instead.
+     * @param m     The method being called
+     * @return      The Soap object
+     */
+    @Deprecated
     public Soap getSoap(String m) {
         soapClient.getRequestContext().put("HTTP_HEADER_USER_AGENT", "FuelSDK-Java-v1.5.0-SOAP-"+m);
         return soap;
     }
     
+    /**
+     * @deprecated  Sets the User-Agent header on the proxy shared by
+     *              all callers; borrow a proxy with
+     *              <code>borrowSoap</code> (and give it back with
+     *              <code>returnSoap</code>) instead.
+     * @param m     The method being called
+     * @param o     The object type being operated on
+     * @return      The Soap object
+     */
+    @Deprecated
     public Soap getSoap(String m, String o) {
         soapClient.getRequestContext().put("HTTP_HEADER_USER_AGENT", "FuelSDK-Java-v1.5.0-SOAP-"+m+"-"+o);
         return soap;
     }    
-    
+
+    /**
+     * Borrows a proxy from the pool, blocking until one is
+     * available. The proxy must be given back with
+     * <code>returnSoap</code> once the call has completed.
+     * @param m         The method being called
+     * @param o         The object type being operated on
+     * @return          The Soap object
+     * @throws ETSdkException
+     */
+    public Soap borrowSoap(String m, String o)
+        throws ETSdkException
+    {
+        try {
+            pool.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ETSdkException("interrupted waiting for SOAP proxy", ex);
+        }
+        return lend(m, o);
+    }
+
+    /**
+     * Borrows a proxy from the pool without blocking. The returned
+     * future completes once a proxy is available; the proxy must be
+     * given back with <code>returnSoap</code> once the call has
+     * completed.
+     * @param m         The method being called
+     * @param o         The object type being operated on
+     * @return          The future Soap object
+     */
+    public CompletableFuture<Soap> borrowSoapAsync(final String m, final String o) {
+        return pool.acquireAsync().thenApply(new Function<Void, Soap>() {
+            @Override
+            public Soap apply(Void permit) {
+                try {
+                    return lend(m, o);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gives back a proxy obtained from <code>borrowSoap</code>
+     * or <code>borrowSoapAsync</code>.
+     * @param soap      The Soap object
+     */
+    public void returnSoap(Soap soap) {
+        PooledSoap pooledSoap = null;
+        synchronized (borrowed) {
+            pooledSoap = borrowed.remove(soap);
+        }
+        if (pooledSoap == null) {
+            logger.warn("returned SOAP proxy does not belong to the pool");
+            return;
+        }
+        release(pooledSoap);
+    }
+
+    /**
+     * Makes a call on a proxy.
+     */
+    interface Call<R> {
+        R call(Soap soap);
+    }
+
+    /**
+     * Makes a call with a borrowed proxy once the circuit breaker
+     * and the rate limiter admit it, giving the proxy back as soon
+     * as the call has completed. Throttled and failed calls are
+     * retried if the method is idempotent.
+     * @param m         The method being called
+     * @param o         The object type being operated on
+     * @param call      The call to make
+     * @return          The response of the call
+     * @throws ETSdkException
+     */
+    <R> R call(String m, String o, Call<R> call)
+        throws ETSdkException
+    {
+        ETMetricsCall metrics = client.startCall("soap." + m, o);
+        try {
+            return call(m, o, call, metrics);
+        } catch (ETSdkException ex) {
+            metrics.failed(ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            metrics.failed(ex);
+            throw ex;
+        } finally {
+            metrics.end();
+        }
+    }
+
+    private <R> R call(String m, String o, Call<R> call, ETMetricsCall metrics)
+        throws ETSdkException
+    {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            circuitBreaker.acquire();
+            try {
+                limiter.acquire();
+            } catch (ETSdkException ex) {
+                circuitBreaker.cancelled();
+                throw ex;
+            }
+            Soap soap = null;
+            try {
+                soap = borrowSoap(m, o);
+            } catch (ETSdkException ex) {
+                limiter.failed();
+                circuitBreaker.cancelled();
+                throw ex;
+            } catch (RuntimeException ex) {
+                limiter.failed();
+                circuitBreaker.cancelled();
+                throw ex;
+            }
+            WebServiceException failure = null;
+            try {
+                R response = call.call(soap);
+                limiter.succeeded();
+                circuitBreaker.succeeded();
+                return response;
+            } catch (WebServiceException ex) {
+                failure = ex;
+            } catch (RuntimeException ex) {
+                limiter.failed();
+                circuitBreaker.failed();
+                throw ex;
+            } finally {
+                returnSoap(soap);
+            }
+            if (!complete(failure) || !ETRateLimiter.isIdempotentSoapOperation(m)
+                    || !limiter.canRetry(attempt)) {
+                throw failure;
+            }
+            metrics.retried();
+            limiter.awaitRetry(attempt, 0);
+        }
+    }
+
+    /**
+     * Starts an asynchronous call on a proxy.
+     */
+    interface AsyncCall<R> {
+        Future<?> call(Soap soap, AsyncHandler<R> handler);
+    }
+
+    /**
+     * Makes an asynchronous call with a proxy borrowed without
+     * blocking, giving the proxy back as soon as the response
+     * has arrived.
+     * @param m         The method being called
+     * @param o         The object type being operated on
+     * @param call      The call to make
+     * @return          The future response of the call
+     */
+    <R> CompletableFuture<R> callAsync(String m,
+                                       String o,
+                                       AsyncCall<R> call)
+    {
+        final ETMetricsCall metrics = client.startCall("soap." + m, o);
+        return callAsync(m, o, call, metrics, 1).whenComplete(new BiConsumer<R, Throwable>() {
+            @Override
+            public void accept(R result, Throwable failure) {
+                if (failure != null) {
+                    metrics.failed(failure instanceof ETSdkException
+                            && failure.getCause() != null ? failure.getCause() : failure);
+                }
+                metrics.end();
+            }
+        });
+    }
+
+    private <R> CompletableFuture<R> callAsync(final String m,
+                                               final String o,
+                                               final AsyncCall<R> call,
+                                               final ETMetricsCall metrics,
+                                               final int attempt)
+    {
+        try {
+            circuitBreaker.acquire();
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        final Executor executor = client.getExecutor();
+        final CompletableFuture<R> future = new CompletableFuture<R>();
+        limiter.acquireAsync().whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void admitted, Throwable failure) {
+                if (failure != null) {
+                    circuitBreaker.cancelled();
+                }
+            }
+        }).thenCompose(new Function<Void, CompletableFuture<Soap>>() {
+            @Override
+            public CompletableFuture<Soap> apply(Void admitted) {
+                return borrowSoapAsync(m, o).whenComplete(new BiConsumer<Soap, Throwable>() {
+                    @Override
+                    public void accept(Soap soap, Throwable failure) {
+                        if (failure != null) {
+                            limiter.failed();
+                            circuitBreaker.cancelled();
+                        }
+                    }
+                });
+            }
+        }).whenComplete(new BiConsumer<Soap, Throwable>() {
+            @Override
+            public void accept(final Soap soap, Throwable failure) {
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                    return;
+                }
+                try {
+                    call.call(soap, new AsyncHandler<R>() {
+                        @Override
+                        public void handleResponse(Response<R> response) {
+                            returnSoap(soap);
+                            try {
+                                R result = response.get();
+                                limiter.succeeded();
+                                circuitBreaker.succeeded();
+                                future.complete(result);
+                            } catch (ExecutionException ex) {
+                                if (complete(ex.getCause())
+                                        && ETRateLimiter.isIdempotentSoapOperation(m)
+                                        && limiter.canRetry(attempt)) {
+                                    metrics.retried();
+                                    retryAsync(m, o, call, metrics, attempt, executor, future);
+                                    return;
+                                }
+                                future.completeExceptionally(new ETSdkException(
+                                        "error calling soap." + m, ex.getCause()));
+                            } catch (InterruptedException ex) {
+                                limiter.failed();
+                                circuitBreaker.cancelled();
+                                Thread.currentThread().interrupt();
+                                future.completeExceptionally(new ETSdkException(
+                                        "interrupted calling soap." + m, ex));
+                            }
+                        }
+                    });
+                } catch (RuntimeException ex) {
+                    returnSoap(soap);
+                    limiter.failed();
+                    circuitBreaker.failed();
+                    future.completeExceptionally(new ETSdkException(
+                            "error calling soap." + m, ex));
+                }
+            }
+        });
+        return future;
+    }
+
+    private <R> void retryAsync(final String m,
+                                final String o,
+                                final AsyncCall<R> call,
+                                final ETMetricsCall metrics,
+                                final int attempt,
+                                Executor executor,
+                                final CompletableFuture<R> future)
+    {
+        Executor delayed = CompletableFuture.delayedExecutor(
+                limiter.getRetryDelay(attempt, 0), TimeUnit.MILLISECONDS, executor);
+        delayed.execute(new Runnable() {
+            @Override
+            public void run() {
+                callAsync(m, o, call, metrics, attempt + 1).whenComplete(new BiConsumer<R, Throwable>() {
+                    @Override
+                    public void accept(R result, Throwable failure) {
+                        if (failure != null) {
+                            future.completeExceptionally(failure);
+                        } else {
+                            future.complete(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    //
+    // Completes an admitted call that failed, telling the circuit
+    // breaker whether the service answered and the rate limiter
+    // whether it was throttled. Returns true if the call may be
+    // worth retrying, which SOAP faults other than throttling aren't:
+    //
+
+    private boolean complete(Throwable failure) {
+        if (isServerFailure(failure)) {
+            circuitBreaker.failed();
+        } else {
+            circuitBreaker.succeeded();
+        }
+        if (isThrottled(failure)) {
+            limiter.throttled(0);
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SOAPFaultException) {
+                // the service answered, it just didn't like the call
+                limiter.succeeded();
+                return false;
+            }
+        }
+        limiter.failed();
+        return true;
+    }
+
+    private static boolean isServerFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SOAPFaultException) {
+                return false;
+            }
+            if (cause instanceof HTTPException) {
+                // a 503 throttles, which the rate limiter deals with
+                int responseCode = ((HTTPException) cause).getResponseCode();
+                return responseCode >= 500 && responseCode != 503;
+            }
+        }
+        // no answer at all (a timeout, say)
+        return true;
+    }
+
+    private static boolean isThrottled(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HTTPException) {
+                int responseCode = ((HTTPException) cause).getResponseCode();
+                if (responseCode == 429 || responseCode == 503) {
+                    return true;
+                }
+            }
+            if (cause instanceof SOAPFaultException
+                    && StringUtils.containsIgnoreCase(cause.getMessage(), "throttl")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //
+    // Hands out an idle (or new) proxy once the caller holds
+    // a permit, setting it up for the call:
+    //
+
+    private Soap lend(String m, String o)
+        throws ETSdkException
+    {
+        PooledSoap pooledSoap = null;
+        try {
+            pooledSoap = idle.pollFirst();
+            if (pooledSoap == null) {
+                pooledSoap = createPooledSoap();
+            }
+            if (useAccessToken) {
+                String currentAccessToken = accessToken;
+                if (currentAccessToken != null
+                        && !currentAccessToken.equals(pooledSoap.accessToken)) {
+                    pooledSoap.accessTokenElement.removeContents();
+                    pooledSoap.accessTokenElement.addTextNode(currentAccessToken);
+                    pooledSoap.accessToken = currentAccessToken;
+                }
+            }
+        } catch (SOAPException ex) {
+            release(pooledSoap);
+            throw new ETSdkException("could not set access token", ex);
+        } catch (ETSdkException ex) {
+            release(pooledSoap);
+            throw ex;
+        } catch (RuntimeException ex) {
+            release(pooledSoap);
+            throw ex;
+        }
+
+        String userAgent = "FuelSDK-Java-v1.5.0-SOAP-" + m;
+        if (o != null) {
+            userAgent += "-" + o;
+        }
+        pooledSoap.client.getRequestContext().put("HTTP_HEADER_USER_AGENT", userAgent);
+
+        synchronized (borrowed) {
+            borrowed.put(pooledSoap.soap, pooledSoap);
+        }
+        return pooledSoap.soap;
+    }
+
+    /**
+     * Sends a request message through the client's HTTP transport
+     * rather than a proxy and returns the response unparsed, so it
+     * can be decoded as it arrives. The caller must close the
+     * response.
+     * @param m                 The operation, e.g. "retrieve"
+     * @param o                 The object type, for the user agent
+     * @param requestMessage    The request message, e.g. a RetrieveRequestMsg
+     * @return                  The HTTP response
+     * @throws ETSdkException
+     */
+    ETHttpTransport.Response send(String m, String o, Object requestMessage)
+        throws ETSdkException
+    {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(body, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("soap", "Envelope", SOAP_NAMESPACE_URI);
+            writer.writeNamespace("soap", SOAP_NAMESPACE_URI);
+            writer.writeStartElement("soap", "Header", SOAP_NAMESPACE_URI);
+            writeHeaders(writer);
+            writer.writeEndElement();
+            writer.writeStartElement("soap", "Body", SOAP_NAMESPACE_URI);
+            Marshaller marshaller = getJaxbContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.marshal(requestMessage, writer);
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException ex) {
+            throw new ETSdkException("could not write soap." + m + " request", ex);
+        } catch (JAXBException ex) {
+            throw new ETSdkException("could not write soap." + m + " request", ex);
+        }
+
+        String userAgent = "FuelSDK-Java-v1.5.0-SOAP-" + m;
+        if (o != null) {
+            userAgent += "-" + o;
+        }
+        ETHttpTransport.Request request =
+                new ETHttpTransport.Request("POST", URI.create(endpoint));
+        request.getHeaders().put("Content-Type", "text/xml; charset=UTF-8");
+        request.getHeaders().put("SOAPAction", "\"" + StringUtils.capitalize(m) + "\"");
+        request.getHeaders().put("User-Agent", userAgent);
+        request.setBody(body.toByteArray());
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("sending soap." + m + " through the HTTP transport");
+        }
+
+        ETMetricsCall call = client.startCall("soap." + m, o);
+        ETHttpTransport.Response response = null;
+        try {
+            response = sendTransport.execute(request, call);
+        } catch (ETSdkException ex) {
+            call.failed(ex);
+            call.end();
+            throw ex;
+        } catch (RuntimeException ex) {
+            call.failed(ex);
+            call.end();
+            throw ex;
+        }
+        // the call ends when the caller closes the response
+        call.track(request, response);
+        return response;
+    }
+
+    private void writeHeaders(XMLStreamWriter writer)
+        throws XMLStreamException
+    {
+        if (useAccessToken) {
+            writer.writeStartElement("fueloauth");
+            if (accessToken != null) {
+                writer.writeCharacters(accessToken);
+            }
+            writer.writeEndElement();
+        } else if (username != null) {
+            writer.writeStartElement("wsse", "Security", WSSE_NAMESPACE_URI);
+            writer.writeNamespace("wsse", WSSE_NAMESPACE_URI);
+            writer.writeStartElement("wsse", "UsernameToken", WSSE_NAMESPACE_URI);
+            writer.writeStartElement("wsse", "Username", WSSE_NAMESPACE_URI);
+            writer.writeCharacters(username);
+            writer.writeEndElement();
+            writer.writeStartElement("wsse", "Password", WSSE_NAMESPACE_URI);
+            writer.writeCharacters(password);
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+    }
+
+    /**
+     * @return  The JAXB context of the internal (generated) classes
+     */
+    static JAXBContext getJaxbContext() {
+        return ContextHolder.CONTEXT;
+    }
+
+    private void release(PooledSoap pooledSoap) {
+        if (pooledSoap != null) {
+            idle.offerFirst(pooledSoap);
+        }
+        pool.release();
+    }
+
     /**
      * @return  The end point URL
      */
@@ -258,6 +794,7 @@ public class ETSoapConnection {
         throws ETSdkException
     {
         if (accessTokenElement != null) {
+            this.accessToken = accessToken;
             accessTokenElement.removeContents();
             try {
                 accessTokenElement.addTextNode(accessToken);
@@ -268,4 +805,171 @@ public class ETSoapConnection {
                     + accessToken);
         }
     }
+
+    private Soap createSoap() {
+        Soap soap = null;
+        synchronized (service) {
+            soap = service.getSoap();
+        }
+        Client soapClient = ClientProxy.getClient(soap);
+        soapClient.getInInterceptors().add(new ClearAttachmentsOutInterceptor());
+        soapClient.getOutInterceptors().add(new ClearAttachmentsOutInterceptor());  //
+
+        Endpoint soapEndpoint = soapClient.getEndpoint();
+        soapClient.getRequestContext().put(Message.ENDPOINT_ADDRESS,
+                endpoint);
+        HTTPConduit conduit = (HTTPConduit) soapClient.getConduit();
+        Integer cxfConnectTimeout = null;
+        Integer cxfReceiveTimeout = null;
+        try {
+            cxfConnectTimeout = new Integer(
+                    client.getConfiguration().get("cxfConnectTimeout"));
+        } catch (NumberFormatException ex) {
+            // Ignore--this just means the value specified in
+            // the fuelsdk.properties file is not an integer.
+        }
+        try {
+            cxfReceiveTimeout = new Integer(
+                    client.getConfiguration().get("cxfReceiveTimeout"));
+        } catch (NumberFormatException ex) {
+            // Ignore--this just means the value specified in
+            // the fuelsdk.properties file is not an integer.
+        }
+        HTTPClientPolicy clientPolicy = new HTTPClientPolicy();
+        if (cxfConnectTimeout != null) {
+            clientPolicy.setConnectionTimeout(cxfConnectTimeout);
+        }
+        if (cxfReceiveTimeout != null) {
+            clientPolicy.setReceiveTimeout(cxfReceiveTimeout);
+        }
+        conduit.setClient(clientPolicy);
+        if (client.getConfiguration().isTrue("cxfDisableCNCheck")) {
+            TLSClientParameters tlsClientParameters = new TLSClientParameters();
+            tlsClientParameters.setDisableCNCheck(true);
+            conduit.setTlsClientParameters(tlsClientParameters);
+        }
+        soapClient.getRequestContext().put(Message.ENCODING, "UTF-8");
+
+        if (wireLogging != null) {
+            wireLogging.install(soapEndpoint);
+        }
+
+        if (client.getConfiguration().isTrue("gzipEnabled")) {
+            addGzipInterceptors(soapClient);
+        }
+
+        return soap;
+    }
+
+    //
+    // Asks for compressed responses, decompressing them before
+    // they are logged, and compresses requests of at least
+    // gzipRequestMinBytes bytes if set:
+    //
+
+    private void addGzipInterceptors(Client soapClient) {
+        GZIPInInterceptor gzipInInterceptor = new GZIPInInterceptor();
+        gzipInInterceptor.addBefore(ETWireLogging.In.class.getName());
+        soapClient.getInInterceptors().add(gzipInInterceptor);
+
+        int requestMinBytes = client.getConfiguration().getInteger("gzipRequestMinBytes", 0);
+        if (requestMinBytes > 0) {
+            // GZIPOutInterceptor sends its own Accept-Encoding header
+            soapClient.getRequestContext().put(GZIPOutInterceptor.USE_GZIP_KEY,
+                    GZIPOutInterceptor.UseGzip.YES);
+            soapClient.getOutInterceptors().add(new GZIPOutInterceptor(requestMinBytes));
+        } else {
+            Map<String, List<String>> headers = new HashMap<String, List<String>>();
+            headers.put("Accept-Encoding", Collections.singletonList("gzip"));
+            soapClient.getRequestContext().put(Message.PROTOCOL_HEADERS, headers);
+        }
+    }
+
+    private PooledSoap createPooledSoap()
+        throws ETSdkException
+    {
+        PooledSoap pooledSoap = new PooledSoap();
+        pooledSoap.soap = createSoap();
+        pooledSoap.client = ClientProxy.getClient(pooledSoap.soap);
+
+        //
+        // Each pooled proxy carries its own copy of the
+        // authentication headers so they can be updated
+        // without affecting proxies in use by other threads:
+        //
+
+        try {
+            synchronized (soapFactory) {
+                if (useAccessToken) {
+                    List<Header> headers = new ArrayList<Header>();
+                    pooledSoap.accessTokenElement =
+                            soapFactory.createElement(new QName(null, "fueloauth"));
+                    headers.add(new Header(new QName(null, "fueloauth"),
+                            pooledSoap.accessTokenElement));
+                    pooledSoap.client.getRequestContext().put(Header.HEADER_LIST, headers);
+                } else if (username != null) {
+                    pooledSoap.client.getRequestContext().put(Header.HEADER_LIST,
+                            createUsernameTokenHeaders());
+                }
+            }
+        } catch (SOAPException ex) {
+            throw new ETSdkException("could not initialize SOAP proxy", ex);
+        }
+
+        logger.debug("created pooled SOAP proxy");
+
+        return pooledSoap;
+    }
+
+    private List<Header> createUsernameTokenHeaders()
+        throws SOAPException
+    {
+        List<Header> headers = new ArrayList<Header>();
+
+        SOAPElement usernameElement = soapFactory.createElement(
+                new QName(WSSE_NAMESPACE_URI, "Username", "wsse"));
+        usernameElement.addTextNode(username);
+
+        SOAPElement passwordElement = soapFactory.createElement(
+                new QName(WSSE_NAMESPACE_URI, "Password", "wsse"));
+        passwordElement.addTextNode(password);
+
+        SOAPElement usernameTokenElement = soapFactory.createElement(
+                new QName(WSSE_NAMESPACE_URI, "UsernameToken", "wsse"));
+        usernameTokenElement.addChildElement(usernameElement);
+        usernameTokenElement.addChildElement(passwordElement);
+
+        SOAPElement securityElement = soapFactory.createElement(
+                new QName(WSSE_NAMESPACE_URI, "Security", "wsse"));
+        securityElement.addChildElement(usernameTokenElement);
+
+        headers.add(new Header(new QName(WSSE_NAMESPACE_URI, "Security", "wsse"),
+                securityElement));
+
+        return headers;
+    }
+
+    //
+    // Creating the context is expensive, so it's only done
+    // the first time it's needed:
+    //
+
+    private static class ContextHolder {
+        private static final JAXBContext CONTEXT;
+
+        static {
+            try {
+                CONTEXT = JAXBContext.newInstance(APIObject.class.getPackage().getName());
+            } catch (JAXBException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+    }
+
+    private static class PooledSoap {
+        private Soap soap = null;
+        private Client client = null;
+        private SOAPElement accessTokenElement = null;
+        private String accessToken = null;
+    }
 }
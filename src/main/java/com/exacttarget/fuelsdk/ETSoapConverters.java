@@ -0,0 +1,219 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.Map;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.PropertyUtilsBean;
+
+import com.exacttarget.fuelsdk.internal.DataExtension;
+import com.exacttarget.fuelsdk.internal.DataExtensionField;
+import com.exacttarget.fuelsdk.internal.DataExtensionFieldType;
+import com.exacttarget.fuelsdk.internal.DataExtensionObject;
+import com.exacttarget.fuelsdk.internal.DataFolder;
+import com.exacttarget.fuelsdk.internal.Email;
+import com.exacttarget.fuelsdk.internal.EmailType;
+import com.exacttarget.fuelsdk.internal.ExtractDescription;
+import com.exacttarget.fuelsdk.internal.ListClassificationEnum;
+import com.exacttarget.fuelsdk.internal.ListTypeEnum;
+import com.exacttarget.fuelsdk.internal.ObjectExtension;
+import com.exacttarget.fuelsdk.internal.Subscriber;
+import com.exacttarget.fuelsdk.internal.SubscriberStatus;
+import com.exacttarget.fuelsdk.internal.TriggeredSendDefinition;
+import com.exacttarget.fuelsdk.internal.TriggeredSendStatusEnum;
+
+/**
+ * <code>ETSoapConverters</code> is the SDK's own registry of the
+ * BeanUtils converters used to copy values between
+ * <code>ETSoapObject</code> types and their internal types. It is
+ * populated once, when the class is initialized, and is read-only
+ * afterwards, so it can be used from any thread without locking.
+ * It is separate from the <code>BeanUtilsBean</code> singleton,
+ * which the SDK leaves untouched.
+ */
+
+final class ETSoapConverters {
+    private static final ConvertUtilsBean CONVERT_UTILS = new ConvertUtilsBean();
+
+    private static final BeanUtilsBean BEAN_UTILS =
+            new BeanUtilsBean(CONVERT_UTILS, new PropertyUtilsBean());
+
+    static {
+        register(CONVERT_UTILS);
+    }
+
+    private ETSoapConverters() {}
+
+    /**
+     * @param type      The property type
+     * @return          The converter for the type, or null if there is none
+     */
+    static Converter lookup(Class<?> type) {
+        return CONVERT_UTILS.lookup(type);
+    }
+
+    /**
+     * @return The ConvertUtilsBean holding the SDK's converters
+     */
+    static ConvertUtilsBean getConvertUtils() {
+        return CONVERT_UTILS;
+    }
+
+    /**
+     * @return A BeanUtilsBean that converts values with the SDK's converters
+     */
+    static BeanUtilsBean getBeanUtils() {
+        return BEAN_UTILS;
+    }
+
+    /**
+     * Registers the SDK's converters.
+     * @param convertUtils  The ConvertUtilsBean to register the converters with
+     */
+    static void register(ConvertUtilsBean convertUtils) {
+
+        // ETDataExtension
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETDataExtension.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                DataExtension.class);
+        
+//        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+//                ETSendableDataExtension.class);
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETProfileAttribute.class);
+        
+        // ETDataExtensionColumn
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETDataExtensionColumn.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                DataExtensionField.class);
+
+        // ETExtractDescription
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETExtractDescription.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                ExtractDescription.class);
+
+        // ETDataExtensionColumnType
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETDataExtensionColumn.Type.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                DataExtensionFieldType.class);
+
+        // ETDataExtensionRow
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETDataExtensionRow.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                DataExtensionObject.class);
+        // data extension row: internal to external
+        convertUtils.register(new ETSoapObject.DataExtensionRowConverter(),
+                Map.class);
+        // data extension row: external to internal
+        convertUtils.register(new ETSoapObject.DataExtensionRowConverter(),
+                ObjectExtension.Properties.class);
+
+        // ETEmail
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETEmail.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                Email.class);
+
+        // ETEmail.Type
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETEmail.Type.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                EmailType.class);
+
+        // ETFolder
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETFolder.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                DataFolder.class);
+
+        // ETList
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETList.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                com.exacttarget.fuelsdk.internal.List.class);
+
+        // ETList.Classification
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETList.Classification.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ListClassificationEnum.class);
+
+        // ETList.Type
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETList.Type.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ListTypeEnum.class);
+
+        // ETSubscriber
+        convertUtils.register(new ETSoapObject.ExternalObjectConverter(),
+                ETSubscriber.class);
+        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+                Subscriber.class);
+
+        // ETSubscriber.Attribute
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETSubscriber.Status.class);
+//        convertUtils.register(new ETSoapObject.EnumConverter(),
+//                Attribute.class);
+//        convertUtils.register(new ETSoapObject.InternalObjectConverter(),
+//                Attribute.class);
+
+        // ETSubscriber.Status
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETSubscriber.Status.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                SubscriberStatus.class);
+
+        // ETTriggeredSend
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETTriggeredEmail.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                TriggeredSendDefinition.class);
+
+        // ETTriggeredSend.Status
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                ETTriggeredEmail.Status.class);
+        convertUtils.register(new ETSoapObject.EnumConverter(),
+                TriggeredSendStatusEnum.class);
+    }
+}
@@ -0,0 +1,192 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.exacttarget.fuelsdk.internal.APIObject;
+
+/**
+ * An <code>ETSoapMapper</code> converts objects of one
+ * <code>ETSoapObject</code> type to and from its internal type.
+ * Mappers are generated at compile time (see
+ * <code>ETSoapMapperProcessor</code>) for each type annotated with
+ * <code>@SoapObject</code>, and are named after the type, e.g.
+ * <code>ETSubscriberMapper</code>. <code>ETSoapObject</code> uses
+ * the mapper of a type when there is one, and falls back to the
+ * reflective <code>ETSoapMapping</code> otherwise.
+ */
+
+abstract class ETSoapMapper<E extends ETSoapObject, I extends APIObject> {
+    private static Logger logger = Logger.getLogger(ETSoapMapper.class);
+
+    private static final ClassValue<ETSoapMapper<?, ?>> MAPPERS =
+            new ClassValue<ETSoapMapper<?, ?>>() {
+        @Override
+        protected ETSoapMapper<?, ?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private static final ClassValue<ETSoapMapping.ValueConverter> CONVERTERS =
+            new ClassValue<ETSoapMapping.ValueConverter>() {
+        @Override
+        protected ETSoapMapping.ValueConverter computeValue(Class<?> type) {
+            return ETSoapMapping.ValueConverter.forType(type);
+        }
+    };
+
+    private Class<E> externalType = null;
+    private Class<I> internalType = null;
+
+    protected ETSoapMapper(Class<E> externalType, Class<I> internalType) {
+        this.externalType = externalType;
+        this.internalType = internalType;
+    }
+
+    /**
+     * @param type      The ETSoapObject type
+     * @return          The generated mapper for the type, or
+     *                  null if none was generated
+     */
+    static ETSoapMapper<?, ?> of(Class<?> type) {
+        return MAPPERS.get(type);
+    }
+
+    /**
+     * @return The ETSoapObject type
+     */
+    Class<E> getExternalType() {
+        return externalType;
+    }
+
+    /**
+     * @return The internal type
+     */
+    Class<I> getInternalType() {
+        return internalType;
+    }
+
+    /**
+     * @param externalObject    The object to convert
+     * @return                  A new internal object
+     * @throws ETSdkException
+     */
+    abstract I toInternal(E externalObject)
+        throws ETSdkException;
+
+    /**
+     * @param internalObject    The object to convert
+     * @param externalObject    The object to copy the fields to
+     * @return                  externalObject
+     * @throws ETSdkException
+     */
+    abstract E fromInternal(I internalObject, E externalObject)
+        throws ETSdkException;
+
+    /**
+     * @return A new list of the SOAP property names of all
+     *         fields annotated with @ExternalName
+     * @throws ETSdkException
+     */
+    List<String> propertyList()
+        throws ETSdkException
+    {
+        return ETSoapMapping.of(externalType).getInternalProperties();
+    }
+
+    //
+    // Fields the processor couldn't map directly are converted
+    // reflectively, the same way ETSoapObject converts them:
+    //
+
+    protected void toInternalField(String name, E externalObject, I internalObject)
+        throws ETSdkException
+    {
+        externalObject.toInternal(ETSoapMapping.of(externalType).getField(name),
+                                  internalObject);
+    }
+
+    protected void fromInternalField(String name, I internalObject, E externalObject)
+        throws ETSdkException
+    {
+        externalObject.fromInternal(ETSoapMapping.of(externalType).getField(name),
+                                    internalObject);
+    }
+
+    /**
+     * @param value     The value to convert
+     * @param type      The property type
+     * @return          The value, converted the same way
+     *                  <code>BeanUtils.setProperty</code> converts it
+     */
+    protected static Object convert(Object value, Class<?> type) {
+        return CONVERTERS.get(type).convert(value);
+    }
+
+    protected static ETSdkException setFailed(String name, Object bean, Exception cause) {
+        return new ETSdkException("could not set property \""
+                + name
+                + "\" of object "
+                + bean,
+                cause);
+    }
+
+    private static ETSoapMapper<?, ?> load(Class<?> type) {
+        Class<?> mapperType = null;
+        try {
+            mapperType = Class.forName(type.getName() + "Mapper", true,
+                                       type.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+        if (!ETSoapMapper.class.isAssignableFrom(mapperType)) {
+            return null;
+        }
+        try {
+            ETSoapMapper<?, ?> mapper = (ETSoapMapper<?, ?>)
+                    mapperType.getDeclaredConstructor().newInstance();
+            if (mapper.getExternalType() != type) {
+                return null;
+            }
+            return mapper;
+        } catch (Exception ex) {
+            logger.warn("could not instantiate " + mapperType.getName(), ex);
+            return null;
+        }
+    }
+}
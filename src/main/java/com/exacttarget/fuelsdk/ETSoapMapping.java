@@ -0,0 +1,681 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.beanutils.converters.AbstractConverter;
+
+import com.exacttarget.fuelsdk.annotations.ExternalName;
+import com.exacttarget.fuelsdk.annotations.InternalName;
+import com.exacttarget.fuelsdk.annotations.InternalProperty;
+import com.exacttarget.fuelsdk.annotations.SoapObject;
+import com.exacttarget.fuelsdk.internal.APIObject;
+
+/**
+ * An <code>ETSoapMapping</code> describes how an
+ * <code>ETSoapObject</code> type maps onto its internal
+ * (CXF generated) type: the mapped fields, their internal
+ * names and SOAP property names, and the bean accessors used
+ * to copy values between the two. Mappings are built once per
+ * type and cached, so conversions don't repeat the reflective
+ * walk over fields and annotations for every object.
+ */
+
+class ETSoapMapping {
+    private static final ClassValue<ETSoapMapping> MAPPINGS =
+            new ClassValue<ETSoapMapping>() {
+        @Override
+        protected ETSoapMapping computeValue(Class<?> type) {
+            return new ETSoapMapping(type);
+        }
+    };
+
+    private static final ClassValue<Map<String, Property>> PROPERTIES =
+            new ClassValue<Map<String, Property>>() {
+        @Override
+        protected Map<String, Property> computeValue(Class<?> type) {
+            Map<String, Property> properties = new HashMap<String, Property>();
+            for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(type)) {
+                properties.put(descriptor.getName(), new Property(type, descriptor));
+            }
+            return Collections.unmodifiableMap(properties);
+        }
+    };
+
+    private Class<?> externalType = null;
+    private Class<? extends APIObject> internalType = null;
+    private List<FieldMapping> fields = new ArrayList<FieldMapping>();
+    private Map<String, FieldMapping> fieldsByName = new HashMap<String, FieldMapping>();
+    private List<String> internalProperties = new ArrayList<String>();
+    private ETSdkException internalPropertiesError = null;
+
+    /**
+     * @param type      The ETSoapObject type
+     * @return          The (cached) mapping for the type
+     */
+    static ETSoapMapping of(Class<?> type) {
+        return MAPPINGS.get(type);
+    }
+
+    /**
+     * @param type      The bean type
+     * @param name      The property name
+     * @return          The (cached) accessor for the property, or null
+     *                  if the type has no such property
+     */
+    static Property getProperty(Class<?> type, String name) {
+        return PROPERTIES.get(type).get(name);
+    }
+
+    private ETSoapMapping(Class<?> externalType) {
+        this.externalType = externalType;
+
+        //
+        // Use the @SoapObject annotation to determine internalType:
+        //
+
+        SoapObject internalTypeAnnotation =
+                externalType.getAnnotation(SoapObject.class);
+        if (internalTypeAnnotation != null) {
+            internalType = internalTypeAnnotation.internalType();
+        }
+
+        //
+        // ETObject.getAllFields lists superclass fields first, so
+        // a field redeclared in a subclass replaces the inherited
+        // one in fieldsByName, as with ETObject.getField:
+        //
+
+        for (Field field : ETObject.getAllFields(externalType)) {
+            FieldMapping fieldMapping = new FieldMapping(field);
+            fieldsByName.put(field.getName(), fieldMapping);
+            if (fieldMapping.isExternal()) {
+                fields.add(fieldMapping);
+            }
+        }
+
+        for (FieldMapping fieldMapping : fields) {
+            try {
+                internalProperties.add(getInternalProperty(fieldMapping.getName()));
+            } catch (ETSdkException ex) {
+                internalPropertiesError = ex;
+                break;
+            }
+        }
+
+        fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * @return The ETSoapObject type
+     */
+    Class<?> getExternalType() {
+        return externalType;
+    }
+
+    /**
+     * @return The internal type, or null if the type has no @SoapObject annotation
+     */
+    Class<? extends APIObject> getInternalType() {
+        return internalType;
+    }
+
+    /**
+     * @return The fields annotated with @ExternalName
+     */
+    List<FieldMapping> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param name      The name of a field of the ETSoapObject type
+     * @return          The field mapping, or null if the type has no such field
+     */
+    FieldMapping getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * @param name      The name of a field of the ETSoapObject type
+     * @return          The SOAP property name of the field, or name
+     *                  itself if the type has no such field
+     * @throws ETSdkException
+     */
+    String getInternalProperty(String name)
+        throws ETSdkException
+    {
+        FieldMapping fieldMapping = fieldsByName.get(name);
+        if (fieldMapping == null) {
+            return name; // XXX
+        }
+        return fieldMapping.getInternalProperty();
+    }
+
+    /**
+     * @return A new list of the SOAP property names of all
+     *         fields annotated with @ExternalName
+     * @throws ETSdkException
+     */
+    List<String> getInternalProperties()
+        throws ETSdkException
+    {
+        if (internalPropertiesError != null) {
+            throw internalPropertiesError;
+        }
+        return new ArrayList<String>(internalProperties);
+    }
+
+    /**
+     * A <code>FieldMapping</code> describes a single field of
+     * an <code>ETSoapObject</code> type and its internal counterpart.
+     */
+    class FieldMapping {
+        private Field field = null;
+        private String name = null;
+        private String internalName = null;
+        private boolean external = false;
+        private Class<?> itemType = null;
+        private Property property = null;
+        private Field internalField = null;
+        private Property internalProperty = null;
+        private String internalPropertyName = null;
+        private ETSdkException internalPropertyError = null;
+
+        private FieldMapping(Field field) {
+            this.field = field;
+            this.name = field.getName();
+            this.external = field.getAnnotation(ExternalName.class) != null;
+
+            InternalName internalNameAnnotation =
+                    field.getAnnotation(InternalName.class);
+            if (internalNameAnnotation != null) {
+                internalName = internalNameAnnotation.value();
+            } else {
+                // internal name is the same as external name
+                internalName = name;
+            }
+
+            Type fieldType = field.getGenericType();
+            if (fieldType instanceof ParameterizedType) {
+                Type[] arguments =
+                        ((ParameterizedType) fieldType).getActualTypeArguments();
+                if (arguments.length == 1 && arguments[0] instanceof Class) {
+                    itemType = (Class<?>) arguments[0];
+                }
+            }
+
+            property = ETSoapMapping.getProperty(externalType, name);
+
+            if (internalType != null) {
+                try {
+                    internalField = ETObject.getField(internalType, internalName);
+                } catch (ETSdkException ex) {
+                    // the internal type has no such field
+                }
+                internalProperty = ETSoapMapping.getProperty(internalType, internalName);
+            }
+
+            InternalProperty internalPropertyAnnotation =
+                    field.getAnnotation(InternalProperty.class);
+            if (internalPropertyAnnotation != null) {
+                internalPropertyName = internalPropertyAnnotation.value();
+            } else if (internalType == null) {
+                internalPropertyError = new ETSdkException(externalType.getName()
+                        + " has no @SoapObject annotation");
+            } else if (internalField == null) {
+                internalPropertyError = new ETSdkException("field \""
+                        + internalName
+                        + "\" does not exist in class "
+                        + internalType.getName());
+            } else {
+                //
+                // The internal property name can be found in the
+                // @XmlElement (or @XmlElementRef) annotation on the
+                // internal field of the CXF generated class:
+                //
+
+                XmlElement element =
+                        internalField.getAnnotation(XmlElement.class);
+                if (element != null) {
+                    internalPropertyName = element.name();
+                } else {
+                    //
+                    // Optional dateTimes are annotated with @XmlElementRef:
+                    //
+
+                    XmlElementRef elementRef =
+                            internalField.getAnnotation(XmlElementRef.class);
+                    if (elementRef != null) {
+                        internalPropertyName = elementRef.name();
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return The field of the ETSoapObject type
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * @return The name of the field
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return The name of the corresponding internal field
+         */
+        String getInternalName() {
+            return internalName;
+        }
+
+        /**
+         * @return true if the field is annotated with @ExternalName
+         */
+        boolean isExternal() {
+            return external;
+        }
+
+        /**
+         * @return The element type if the field is a parameterized
+         *         collection, null otherwise
+         */
+        Class<?> getItemType() {
+            return itemType;
+        }
+
+        /**
+         * @return The corresponding field of the internal type, or null
+         */
+        Field getInternalField() {
+            return internalField;
+        }
+
+        /**
+         * @return The SOAP property name of the field
+         * @throws ETSdkException
+         */
+        String getInternalProperty()
+            throws ETSdkException
+        {
+            if (internalPropertyError != null) {
+                throw internalPropertyError;
+            }
+            return internalPropertyName;
+        }
+
+        /**
+         * @param externalObject    An instance of the ETSoapObject type
+         * @return                  The value of the field
+         * @throws ETSdkException
+         */
+        Object getValue(Object externalObject)
+            throws ETSdkException
+        {
+            return get(property, externalObject, name);
+        }
+
+        /**
+         * @param externalObject    An instance of the ETSoapObject type
+         * @param value             The value, converted to the property type if necessary
+         * @throws ETSdkException
+         */
+        void setValue(Object externalObject, Object value)
+            throws ETSdkException
+        {
+            set(property, externalObject, name, value);
+        }
+
+        /**
+         * @param internalObject    An instance of the internal type
+         * @return                  The value of the internal field
+         * @throws ETSdkException
+         */
+        Object getInternalValue(Object internalObject)
+            throws ETSdkException
+        {
+            return get(getInternalProperty(internalObject), internalObject, internalName);
+        }
+
+        /**
+         * @param internalObject    An instance of the internal type
+         * @param value             The value, converted to the property type if necessary
+         * @throws ETSdkException
+         */
+        void setInternalValue(Object internalObject, Object value)
+            throws ETSdkException
+        {
+            set(getInternalProperty(internalObject), internalObject, internalName, value);
+        }
+
+        private Property getInternalProperty(Object internalObject) {
+            if (internalObject.getClass() == internalType) {
+                return internalProperty;
+            }
+            // e.g. a subclass of the declared internal type
+            return ETSoapMapping.getProperty(internalObject.getClass(), internalName);
+        }
+
+        private Object get(Property property, Object bean, String propertyName)
+            throws ETSdkException
+        {
+            if (property == null || property.getReadMethod() == null) {
+                throw new ETSdkException("could not get property \""
+                        + propertyName
+                        + "\" of object "
+                        + bean,
+                        new NoSuchMethodException("Unknown property '"
+                        + propertyName + "' on class '" + bean.getClass() + "'"));
+            }
+            try {
+                return property.get(bean);
+            } catch (Exception ex) {
+                throw new ETSdkException("could not get property \""
+                        + propertyName
+                        + "\" of object "
+                        + bean,
+                        ex);
+            }
+        }
+
+        private void set(Property property, Object bean, String propertyName, Object value)
+            throws ETSdkException
+        {
+            try {
+                if (property == null) {
+                    // BeanUtils silently skips unknown properties
+                    return;
+                }
+                property.set(bean, value);
+            } catch (Exception ex) {
+                throw new ETSdkException("could not set property \""
+                        + propertyName
+                        + "\" of object "
+                        + bean,
+                        ex);
+            }
+        }
+    }
+
+    /**
+     * A <code>Property</code> is a bean property with direct
+     * accessors generated ahead of time. Getters and setters are
+     * bound through <code>LambdaMetafactory</code> (falling back
+     * to method handles where a lambda can't be spun), and the
+     * converter applied to values is chosen once, the first time
+     * the property is set. Values are converted the same way
+     * <code>BeanUtils.setProperty</code> converts them.
+     */
+    static class Property {
+        private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+        private String name = null;
+        private Class<?> type = null;
+        private Method readMethod = null;
+        private Method writeMethod = null;
+        private Function<Object, Object> getter = null;
+        private BiConsumer<Object, Object> setter = null;
+        private volatile ValueConverter converter = null;
+
+        private Property(Class<?> beanType, PropertyDescriptor descriptor) {
+            this.name = descriptor.getName();
+            this.type = descriptor.getPropertyType();
+            if (descriptor.getReadMethod() != null) {
+                readMethod = MethodUtils.getAccessibleMethod(beanType,
+                        descriptor.getReadMethod());
+            }
+            if (descriptor.getWriteMethod() != null) {
+                writeMethod = MethodUtils.getAccessibleMethod(beanType,
+                        descriptor.getWriteMethod());
+            }
+            if (readMethod != null) {
+                getter = createGetter(readMethod);
+            }
+            if (writeMethod != null) {
+                setter = createSetter(writeMethod);
+            }
+        }
+
+        /**
+         * @return The property type
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * @return The getter, or null if the property is write-only
+         */
+        Method getReadMethod() {
+            return readMethod;
+        }
+
+        /**
+         * @return The setter, or null if the property is read-only
+         */
+        Method getWriteMethod() {
+            return writeMethod;
+        }
+
+        Object get(Object bean) {
+            return getter.apply(bean);
+        }
+
+        void set(Object bean, Object value)
+            throws Exception
+        {
+            if (writeMethod == null) {
+                // BeanUtils silently skips read-only properties
+                return;
+            }
+            if (type == null || type.isArray()) {
+                ETSoapConverters.getBeanUtils().setProperty(bean, name, value);
+                return;
+            }
+            ValueConverter c = converter;
+            if (c == null) {
+                c = converter = ValueConverter.forType(type);
+            }
+            setter.accept(bean, c.convert(value));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Function<Object, Object> createGetter(Method method) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP,
+                        "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(wrap(method.getReturnType()),
+                                              method.getDeclaringClass()));
+                return (Function<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable ex) {
+                // e.g. the bean class isn't visible to the SDK's class loader
+            }
+            try {
+                final MethodHandle handle = LOOKUP.unreflect(method)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                return new Function<Object, Object>() {
+                    @Override
+                    public Object apply(Object bean) {
+                        try {
+                            return handle.invokeExact(bean);
+                        } catch (RuntimeException ex) {
+                            throw ex;
+                        } catch (Throwable ex) {
+                            throw new UndeclaredThrowableException(ex);
+                        }
+                    }
+                };
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("could not access " + method, ex);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static BiConsumer<Object, Object> createSetter(Method method) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class,
+                                              method.getDeclaringClass(),
+                                              wrap(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable ex) {
+                // e.g. the bean class isn't visible to the SDK's class loader
+            }
+            try {
+                final MethodHandle handle = LOOKUP.unreflect(method)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                return new BiConsumer<Object, Object>() {
+                    @Override
+                    public void accept(Object bean, Object value) {
+                        try {
+                            handle.invokeExact(bean, value);
+                        } catch (RuntimeException ex) {
+                            throw ex;
+                        } catch (Throwable ex) {
+                            throw new UndeclaredThrowableException(ex);
+                        }
+                    }
+                };
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("could not access " + method, ex);
+            }
+        }
+
+        private static Class<?> wrap(Class<?> type) {
+            if (type.isPrimitive() && type != void.class) {
+                return MethodType.methodType(type).wrap().returnType();
+            }
+            return type;
+        }
+    }
+
+    /**
+     * A <code>ValueConverter</code> converts values assigned to
+     * a property of a given type. The implementation is picked
+     * once per property so assignments don't have to look up
+     * the converter registry.
+     */
+    abstract static class ValueConverter {
+        abstract Object convert(Object value);
+
+        /**
+         * @param type      The property type
+         * @return          A converter equivalent to the one
+         *                  <code>BeanUtils.setProperty</code> would apply
+         */
+        static ValueConverter forType(final Class<?> type) {
+            ConvertUtilsBean convertUtils = ETSoapConverters.getConvertUtils();
+            final Converter converter = convertUtils.lookup(type);
+            if (converter == null) {
+                //
+                // Values are assigned as is, except for strings,
+                // which BeanUtils hands to the String converter:
+                //
+
+                final Converter stringConverter = convertUtils.lookup(String.class);
+                return new ValueConverter() {
+                    @Override
+                    Object convert(Object value) {
+                        if (value instanceof String && stringConverter != null) {
+                            return stringConverter.convert(type, value);
+                        }
+                        return value;
+                    }
+                };
+            }
+            if (converter instanceof AbstractConverter) {
+                //
+                // The standard converters return values that are
+                // already of the target type unchanged:
+                //
+
+                final Class<?> targetType = Property.wrap(type);
+                return new ValueConverter() {
+                    @Override
+                    Object convert(Object value) {
+                        if (value != null && value.getClass() == targetType) {
+                            return value;
+                        }
+                        return converter.convert(type, value);
+                    }
+                };
+            }
+            return new ValueConverter() {
+                @Override
+                Object convert(Object value) {
+                    return converter.convert(type, value);
+                }
+            };
+        }
+    }
+}
@@ -35,31 +35,25 @@
 package com.exacttarget.fuelsdk;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-import javax.xml.bind.annotation.XmlElement;
-import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.ws.AsyncHandler;
 
-import org.apache.commons.beanutils.BeanUtils;
-import org.apache.commons.beanutils.BeanUtilsBean;
 import org.apache.commons.beanutils.ConversionException;
-import org.apache.commons.beanutils.ConvertUtilsBean;
 import org.apache.commons.beanutils.Converter;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.log4j.Logger;
 
-import com.exacttarget.fuelsdk.annotations.ExternalName;
-import com.exacttarget.fuelsdk.annotations.InternalName;
-import com.exacttarget.fuelsdk.annotations.InternalProperty;
 import com.exacttarget.fuelsdk.annotations.SoapObject;
 import com.exacttarget.fuelsdk.internal.APIObject;
 import com.exacttarget.fuelsdk.internal.APIProperty;
-import com.exacttarget.fuelsdk.internal.Attribute;
 import com.exacttarget.fuelsdk.internal.ComplexFilterPart;
 import com.exacttarget.fuelsdk.internal.CreateOptions;
 import com.exacttarget.fuelsdk.internal.CreateRequest;
@@ -67,19 +61,11 @@ import com.exacttarget.fuelsdk.internal.CreateResponse;
 import com.exacttarget.fuelsdk.internal.CreateResult;
 import com.exacttarget.fuelsdk.internal.DataExtension;
 import com.exacttarget.fuelsdk.internal.DataExtensionField;
-import com.exacttarget.fuelsdk.internal.DataExtensionFieldType;
-import com.exacttarget.fuelsdk.internal.DataExtensionObject;
-import com.exacttarget.fuelsdk.internal.DataFolder;
 import com.exacttarget.fuelsdk.internal.DeleteOptions;
 import com.exacttarget.fuelsdk.internal.DeleteRequest;
 import com.exacttarget.fuelsdk.internal.DeleteResponse;
 import com.exacttarget.fuelsdk.internal.DeleteResult;
 import com.exacttarget.fuelsdk.internal.FilterPart;
-import com.exacttarget.fuelsdk.internal.Email;
-import com.exacttarget.fuelsdk.internal.EmailType;
-import com.exacttarget.fuelsdk.internal.ExtractDescription;
-import com.exacttarget.fuelsdk.internal.ListClassificationEnum;
-import com.exacttarget.fuelsdk.internal.ListTypeEnum;
 import com.exacttarget.fuelsdk.internal.LogicalOperators;
 import com.exacttarget.fuelsdk.internal.ObjectExtension;
 import com.exacttarget.fuelsdk.internal.RetrieveRequest;
@@ -88,10 +74,6 @@ import com.exacttarget.fuelsdk.internal.RetrieveResponseMsg;
 import com.exacttarget.fuelsdk.internal.SimpleFilterPart;
 import com.exacttarget.fuelsdk.internal.SimpleOperators;
 import com.exacttarget.fuelsdk.internal.Soap;
-import com.exacttarget.fuelsdk.internal.Subscriber;
-import com.exacttarget.fuelsdk.internal.SubscriberStatus;
-import com.exacttarget.fuelsdk.internal.TriggeredSendDefinition;
-import com.exacttarget.fuelsdk.internal.TriggeredSendStatusEnum;
 import com.exacttarget.fuelsdk.internal.UpdateOptions;
 import com.exacttarget.fuelsdk.internal.UpdateRequest;
 import com.exacttarget.fuelsdk.internal.UpdateResponse;
@@ -113,9 +95,7 @@ public abstract class ETSoapObject extends ETApiObject {
     /** 
     * Class constructor, Initializes a new instance of the class.
     */
-    public ETSoapObject() {
-        registerConverters();
-    }
+    public ETSoapObject() {}
 
     /**
      * 
@@ -190,6 +170,34 @@ public abstract class ETSoapObject extends ETApiObject {
         return retrieve(client, null, new ETFilter(), continueRequest, type);
     }
 
+    /**
+     * @param <T>           The type which extends from ETSoapObject
+     * @param client        The ETClient object
+     * @param type          The class type to retrieve
+     * @param filter        The ETFilter object
+     * @return              The pages of the retrieve, following
+     *                      continue requests while more data is available
+     */
+    static <T extends ETSoapObject> ETPageSource<T> pages(final ETClient client,
+                                                          final Class<T> type,
+                                                          final ETFilter filter)
+    {
+        return new ETPageSource<T>() {
+            @Override
+            public ETResponse<T> nextPage(ETResponse<T> previous)
+                throws ETSdkException
+            {
+                if (previous == null) {
+                    return retrieve(client, type, null, null, filter);
+                }
+                if (!previous.hasMoreResults()) {
+                    return null;
+                }
+                return retrieve(client, previous.getRequestId(), type);
+            }
+        };
+    }
+
     /**
      * 
      * @param <T>           The type which extends from ETSoapObject
@@ -208,8 +216,6 @@ public abstract class ETSoapObject extends ETApiObject {
                                                                      Class<T> type)
         throws ETSdkException
     {
-        ETResponse<T> response = new ETResponse<T>();
-
         //
         // Get handle to the SOAP connection:
         //
@@ -222,6 +228,216 @@ public abstract class ETSoapObject extends ETApiObject {
 
         client.refreshToken();
 
+        String objectType = getObjectType(soapObjectName, type);
+        ETMetricsCall call = client.startCall("retrieve", objectType);
+        try {
+            final RetrieveRequestMsg retrieveRequestMsg =
+                    createRetrieveRequest(objectType, filter, continueRequest, type);
+
+            logger.trace("calling soap.retrieve...");
+
+            RetrieveResponseMsg retrieveResponseMsg = connection.call("retrieve", objectType,
+                    new ETSoapConnection.Call<RetrieveResponseMsg>() {
+                @Override
+                public RetrieveResponseMsg call(Soap soap) {
+                    return soap.retrieve(retrieveRequestMsg);
+                }
+            });
+
+            ETResponse<T> response = createRetrieveResponse(client, retrieveResponseMsg, type);
+            complete(call, response, response.getObjects().size());
+            return response;
+        } catch (ETSdkException ex) {
+            call.failed(ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            call.failed(ex);
+            throw ex;
+        } finally {
+            call.end();
+        }
+    }
+
+    /**
+     * Retrieves objects like <code>retrieve</code>, decoding each
+     * response as it is read and handing the objects to a consumer
+     * one at a time instead of collecting them, so no more than one
+     * object of a batch (of up to 2500) is held in memory at once.
+     * Continue requests are followed until all objects have been
+     * retrieved or a batch fails.
+     * @param <T>           The type which extends from ETSoapObject
+     * @param client        The ETClient object
+     * @param soapObjectName The object name to retrieve for SOAP
+     * @param filter        The ETFilter object
+     * @param type          The class type to retrieve
+     * @param consumer      The consumer of the objects
+     * @return              The ETResponse of the last batch, with no
+     *                      results and the total count set to the
+     *                      number of objects consumed
+     * @throws ETSdkException
+     */
+    static <T extends ETSoapObject> ETResponse<T> retrieve(ETClient client,
+                                                           String soapObjectName,
+                                                           ETFilter filter,
+                                                           Class<T> type,
+                                                           Consumer<? super T> consumer)
+        throws ETSdkException
+    {
+        if (filter.getOrderBy().size() != 0) {
+            throw new ETSdkException("order by argument not supported on this object type");
+        }
+
+        ETMetricsCall call = client.startCall("retrieve", getObjectType(soapObjectName, type));
+        try {
+            int count = 0;
+            String continueRequest = null;
+            while (true) {
+                ETResponse<T> response =
+                        retrieve(client, soapObjectName, filter, continueRequest, type, consumer);
+                count += response.getTotalCount();
+                if (response.getStatus() == ETResult.Status.ERROR || !response.hasMoreResults()) {
+                    response.setTotalCount(count);
+                    complete(call, response, count);
+                    return response;
+                }
+                continueRequest = response.getRequestId();
+            }
+        } catch (ETSdkException ex) {
+            call.failed(ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            call.failed(ex);
+            throw ex;
+        } finally {
+            call.end();
+        }
+    }
+
+    private static <T extends ETSoapObject> ETResponse<T> retrieve(ETClient client,
+                                                                   String soapObjectName,
+                                                                   ETFilter filter,
+                                                                   String continueRequest,
+                                                                   Class<T> type,
+                                                                   Consumer<? super T> consumer)
+        throws ETSdkException
+    {
+        ETSoapConnection connection = client.getSoapConnection();
+
+        client.refreshToken();
+
+        String objectType = getObjectType(soapObjectName, type);
+        RetrieveRequestMsg retrieveRequestMsg =
+                createRetrieveRequest(objectType, filter, continueRequest, type);
+
+        logger.trace("streaming soap.retrieve...");
+
+        ETHttpTransport.Response httpResponse =
+                connection.send("retrieve", objectType, retrieveRequestMsg);
+        try {
+            return ETRetrieveResponseReader.read(client, httpResponse, type, consumer);
+        } finally {
+            httpResponse.close();
+        }
+    }
+
+    /**
+     * Retrieves objects like <code>retrieve</code>, without
+     * waiting for the response.
+     * @param <T>           The type which extends from ETSoapObject
+     * @param client        The ETClient object
+     * @param soapObjectName The object name to retrieve for SOAP
+     * @param filter        The ETFilter object
+     * @param continueRequest The continue request
+     * @param type          The class type to retrieve
+     * @return              The future ETResponse object of type T
+     */
+    static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> retrieveAsync(final ETClient client,
+                                                                                  String soapObjectName,
+                                                                                  ETFilter filter,
+                                                                                  String continueRequest,
+                                                                                  final Class<T> type)
+    {
+        String objectType = null;
+        final RetrieveRequestMsg retrieveRequestMsg;
+        try {
+            client.refreshToken();
+            objectType = getObjectType(soapObjectName, type);
+            retrieveRequestMsg =
+                    createRetrieveRequest(objectType, filter, continueRequest, type);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        logger.trace("calling soap.retrieveAsync...");
+
+        return client.getSoapConnection().callAsync("retrieve", objectType,
+                new ETSoapConnection.AsyncCall<RetrieveResponseMsg>() {
+            @Override
+            public Future<?> call(Soap soap, AsyncHandler<RetrieveResponseMsg> handler) {
+                return soap.retrieveAsync(retrieveRequestMsg, handler);
+            }
+        }).thenApply(new Function<RetrieveResponseMsg, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(RetrieveResponseMsg retrieveResponseMsg) {
+                try {
+                    return createRetrieveResponse(client, retrieveResponseMsg, type);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param <T>           The type which extends from ETSoapObject
+     * @param client        The ETClient object
+     * @param type          The class type to retrieve
+     * @param page          The page number
+     * @param pageSize      The page size
+     * @param filter        The ETFilter object
+     * @return              The future ETResponse object of type T
+     */
+    static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> retrieveAsync(ETClient client,
+                                                                                  Class<T> type,
+                                                                                  Integer page,
+                                                                                  Integer pageSize,
+                                                                                  ETFilter filter)
+    {
+        if (page != null) {
+            return CompletableFuture.failedFuture(new ETSdkException(
+                    "page argument not supported on this object type"));
+        }
+        if (pageSize != null) {
+            return CompletableFuture.failedFuture(new ETSdkException(
+                    "pageSize argument not supported on this object type"));
+        }
+        if (filter.getOrderBy().size() != 0) {
+            return CompletableFuture.failedFuture(new ETSdkException(
+                    "order by argument not supported on this object type"));
+        }
+        return retrieveAsync(client, null, filter, null, type);
+    }
+
+    //
+    // If soapObjectName is specified, use it; otherwise, default
+    // to the name of the internal class representing the object:
+    //
+
+    private static <T extends ETSoapObject> String getObjectType(String soapObjectName,
+                                                                 Class<T> type)
+    {
+        if (soapObjectName != null) {
+            return soapObjectName;
+        }
+        return type.getAnnotation(SoapObject.class).internalType().getSimpleName();
+    }
+
+    private static <T extends ETSoapObject> RetrieveRequestMsg createRetrieveRequest(String objectType,
+                                                                                     ETFilter filter,
+                                                                                     String continueRequest,
+                                                                                     Class<T> type)
+        throws ETSdkException
+    {
         //
         // Read internal type from the SoapObject annotation:
         //
@@ -272,25 +488,10 @@ public abstract class ETSoapObject extends ETApiObject {
             }
         }
 
-        //
-        // Perform the SOAP retrieve:
-        //
-
-        //Soap soap = connection.getSoap();
-        Soap soap = null;
-
         RetrieveRequest retrieveRequest = new RetrieveRequest();
 
         if (continueRequest == null) {
-            // if soapObjectType is specified, use it; otherwise, default
-            // to the name of the internal class representing the object:
-            if (soapObjectName != null) {
-                retrieveRequest.setObjectType(soapObjectName);
-                soap = connection.getSoap("retrieve", soapObjectName);
-            } else {
-                retrieveRequest.setObjectType(internalType.getSimpleName());
-                soap = connection.getSoap("retrieve", internalType.getSimpleName());
-            }
+            retrieveRequest.setObjectType(objectType);
             retrieveRequest.getProperties().addAll(internalProperties);
 
             if (expression.getOperator() != null) {
@@ -342,13 +543,17 @@ public abstract class ETSoapObject extends ETApiObject {
             }
         }
 
-        logger.trace("calling soap.retrieve...");
-
         RetrieveRequestMsg retrieveRequestMsg = new RetrieveRequestMsg();
         retrieveRequestMsg.setRetrieveRequest(retrieveRequest);
 
-        RetrieveResponseMsg retrieveResponseMsg = soap.retrieve(retrieveRequestMsg);
+        return retrieveRequestMsg;
+    }
 
+    private static <T extends ETSoapObject> ETResponse<T> createRetrieveResponse(ETClient client,
+                                                                                 RetrieveResponseMsg retrieveResponseMsg,
+                                                                                 Class<T> externalType)
+        throws ETSdkException
+    {
         if (logger.isTraceEnabled()) {
             logger.trace("RetrieveResponseMsg:");
             logger.trace("  requestId = " + retrieveResponseMsg.getRequestID());
@@ -360,14 +565,8 @@ public abstract class ETSoapObject extends ETApiObject {
             logger.trace("  }");
         }
 
-        response.setRequestId(retrieveResponseMsg.getRequestID());
-        if (retrieveResponseMsg.getOverallStatus().equals("OK")) {
-            response.setStatus(ETResult.Status.OK);
-        } else if (retrieveResponseMsg.getOverallStatus().equals("Error")) {
-            response.setStatus(ETResult.Status.ERROR);
-        }
-        response.setResponseCode(retrieveResponseMsg.getOverallStatus());
-        response.setResponseMessage(retrieveResponseMsg.getOverallStatus());
+        ETResponse<T> response = createRetrieveResponse(retrieveResponseMsg.getRequestID(),
+                                                        retrieveResponseMsg.getOverallStatus());
         for (APIObject internalObject : retrieveResponseMsg.getResults()) {
             //
             // Allocate a new (external) object:
@@ -398,10 +597,30 @@ public abstract class ETSoapObject extends ETApiObject {
             response.addResult(result);
         }
 
-        if (retrieveResponseMsg.getOverallStatus().equals("MoreDataAvailable")) {
+        return response;
+    }
+
+    /**
+     * @param <T>           The type which extends from ETSoapObject
+     * @param requestId     The RequestID of the RetrieveResponseMsg
+     * @param overallStatus The OverallStatus of the RetrieveResponseMsg
+     * @return              The ETResponse of the retrieve, without results
+     */
+    static <T extends ETSoapObject> ETResponse<T> createRetrieveResponse(String requestId,
+                                                                         String overallStatus)
+    {
+        ETResponse<T> response = new ETResponse<T>();
+        response.setRequestId(requestId);
+        if (overallStatus.equals("OK")) {
+            response.setStatus(ETResult.Status.OK);
+        } else if (overallStatus.equals("Error")) {
+            response.setStatus(ETResult.Status.ERROR);
+        }
+        response.setResponseCode(overallStatus);
+        response.setResponseMessage(overallStatus);
+        if (overallStatus.equals("MoreDataAvailable")) {
             response.setMoreResults(true);
         }
-
         return response;
     }
 
@@ -412,17 +631,173 @@ public abstract class ETSoapObject extends ETApiObject {
      * @return                      The ETResponse object of type T which extends from ETSoapObject
      * @throws ETSdkException 
      */
-    public static <T extends ETSoapObject> ETResponse<T> create(ETClient client,
+    public static <T extends ETSoapObject> ETResponse<T> create(final ETClient client,
                                                                 List<T> objects)
         throws ETSdkException
     {
-        ETResponse<T> response = new ETResponse<T>();
+        if (objects == null || objects.size() == 0) {
+            ETResponse<T> response = new ETResponse<T>();
+            response.setStatus(ETResult.Status.OK);
+            return response;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Class<T> externalType = (Class<T>) objects.get(0).getClass();
+
+        //
+        // Convert the external objects to internal objects:
+        //
+
+        List<APIObject> internalObjects = new ArrayList<APIObject>();
+        for (T object : objects) {
+            object.setClient(client);
+            internalObjects.add(object.toInternal());
+        }
+
+        //
+        // Send them in as many requests as needed:
+        //
+
+        return execute(client, "create", internalObjects, new ETBulkExecutor.Operation<T>() {
+            @Override
+            public ETResponse<T> execute(List<APIObject> chunk)
+                throws ETSdkException
+            {
+                return createChunk(client, externalType, chunk);
+            }
+        });
+    }
+
+    /**
+     * Creates objects like <code>create</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETSoapObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to create
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> createAsync(final ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, "create", objects);
+    }
+
+    /**
+     * Updates objects like <code>update</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETSoapObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to update
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> updateAsync(final ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, "update", objects);
+    }
 
+    /**
+     * Deletes objects like <code>delete</code>, without waiting
+     * for the responses.
+     * @param <T>                   The type which extends from ETSoapObject
+     * @param client                The ETClient object
+     * @param objects               The List of objects to delete
+     * @return                      The future ETResponse object of type T
+     */
+    static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> deleteAsync(final ETClient client,
+                                                                                List<T> objects)
+    {
+        return createUpdateDeleteAsync(client, "delete", objects);
+    }
+
+    private static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> createUpdateDeleteAsync(final ETClient client,
+                                                                                                    final String method,
+                                                                                                    List<T> objects)
+    {
         if (objects == null || objects.size() == 0) {
+            ETResponse<T> response = new ETResponse<T>();
             response.setStatus(ETResult.Status.OK);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        @SuppressWarnings("unchecked")
+        final Class<T> externalType = (Class<T>) objects.get(0).getClass();
+
+        //
+        // Convert the external objects to internal objects:
+        //
+
+        List<APIObject> internalObjects = new ArrayList<APIObject>();
+        try {
+            for (T object : objects) {
+                object.setClient(client);
+                internalObjects.add(object.toInternal());
+            }
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        //
+        // Send them in as many requests as needed:
+        //
+
+        return ETBulkExecutor.executeAsync(client, internalObjects, new ETBulkExecutor.AsyncOperation<T>() {
+            @Override
+            public CompletableFuture<ETResponse<T>> execute(List<APIObject> chunk) {
+                if (method.equals("create")) {
+                    return createChunkAsync(client, externalType, chunk);
+                } else if (method.equals("update")) {
+                    return updateChunkAsync(client, externalType, chunk);
+                } else {
+                    return deleteChunkAsync(client, chunk);
+                }
+            }
+        });
+    }
+
+    //
+    // Sends objects in as many requests as needed, recording the
+    // operation as a whole with the client's metrics listener:
+    //
+
+    private static <T extends ETSoapObject> ETResponse<T> execute(ETClient client,
+                                                                  String m,
+                                                                  List<APIObject> objects,
+                                                                  ETBulkExecutor.Operation<T> operation)
+        throws ETSdkException
+    {
+        ETMetricsCall call = client.startCall(m, objects.get(0).getClass().getSimpleName());
+        try {
+            ETResponse<T> response = ETBulkExecutor.execute(client, objects, operation);
+            complete(call, response, objects.size());
             return response;
+        } catch (ETSdkException ex) {
+            call.failed(ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            call.failed(ex);
+            throw ex;
+        } finally {
+            call.end();
         }
+    }
 
+    private static void complete(ETMetricsCall call,
+                                 ETResponse<?> response,
+                                 int objectCount)
+    {
+        call.setObjectCount(objectCount);
+        if (response.getStatus() == ETResult.Status.ERROR) {
+            call.setErrorCode(response.getResponseCode() != null
+                    ? response.getResponseCode() : response.getStatus().toString());
+        }
+    }
+
+    private static <T extends ETSoapObject> ETResponse<T> createChunk(ETClient client,
+                                                                      Class<T> externalType,
+                                                                      List<APIObject> objects)
+        throws ETSdkException
+    {
         //
         // Get handle to the SOAP connection:
         //
@@ -439,18 +814,57 @@ public abstract class ETSoapObject extends ETApiObject {
         // Perform the SOAP create:
         //
 
-//        Soap soap = connection.getSoap();
-//        Soap soap = connection.getSoap("create");
-        String obj = "";
-        
+        CreateRequest createRequest = createCreateRequest(objects);
+
+        logger.trace("calling soap.create...");
+
+        CreateResponse createResponse = connection.call("create", getObjectNames(externalType, objects),
+                new ETSoapConnection.Call<CreateResponse>() {
+            @Override
+            public CreateResponse call(Soap soap) {
+                return soap.create(createRequest);
+            }
+        });
+
+        return createCreateResponse(client, externalType, createResponse);
+    }
+
+    private static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> createChunkAsync(final ETClient client,
+                                                                                             final Class<T> externalType,
+                                                                                             List<APIObject> objects)
+    {
+        try {
+            client.refreshToken();
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        final CreateRequest createRequest = createCreateRequest(objects);
+
+        logger.trace("calling soap.createAsync...");
+
+        return client.getSoapConnection().callAsync("create", getObjectNames(externalType, objects),
+                new ETSoapConnection.AsyncCall<CreateResponse>() {
+            @Override
+            public Future<?> call(Soap soap, AsyncHandler<CreateResponse> handler) {
+                return soap.createAsync(createRequest, handler);
+            }
+        }).thenApply(new Function<CreateResponse, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(CreateResponse createResponse) {
+                try {
+                    return createCreateResponse(client, externalType, createResponse);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    private static CreateRequest createCreateRequest(List<APIObject> objects) {
         CreateRequest createRequest = new CreateRequest();
         createRequest.setOptions(new CreateOptions());
-        for (T object : objects) {
-            object.setClient(client);
-            createRequest.getObjects().add(object.toInternal());
-            obj += object.getClass().getSimpleName().substring(2);
-        }
-        Soap soap = connection.getSoap("create", obj);
+        createRequest.getObjects().addAll(objects);
 
         if (logger.isTraceEnabled()) {
             logger.trace("CreateRequest:");
@@ -461,9 +875,15 @@ public abstract class ETSoapObject extends ETApiObject {
             logger.trace("  }");
         }
 
-        logger.trace("calling soap.create...");
+        return createRequest;
+    }
 
-        CreateResponse createResponse = soap.create(createRequest);
+    private static <T extends ETSoapObject> ETResponse<T> createCreateResponse(ETClient client,
+                                                                               Class<T> externalType,
+                                                                               CreateResponse createResponse)
+        throws ETSdkException
+    {
+        ETResponse<T> response = new ETResponse<T>();
 
         if (logger.isTraceEnabled()) {
             logger.trace("CreateResponse:");
@@ -489,9 +909,6 @@ public abstract class ETSoapObject extends ETApiObject {
             // Allocate a new (external) object:
             //
 
-            @SuppressWarnings("unchecked")
-            Class<T> externalType = (Class<T>) objects.get(0).getClass();
-
             T externalObject = null;
             try {
                 externalObject = externalType.newInstance();
@@ -544,17 +961,48 @@ public abstract class ETSoapObject extends ETApiObject {
      * @return                      The ETResponse object of type T which extends from ETSoapObject
      * @throws ETSdkException 
      */
-    public static <T extends ETSoapObject> ETResponse<T> update(ETClient client,
+    public static <T extends ETSoapObject> ETResponse<T> update(final ETClient client,
                                                                 List<T> objects)
         throws ETSdkException
     {
-        ETResponse<T> response = new ETResponse<T>();
-
         if (objects == null || objects.size() == 0) {
+            ETResponse<T> response = new ETResponse<T>();
             response.setStatus(ETResult.Status.OK);
             return response;
         }
 
+        @SuppressWarnings("unchecked")
+        final Class<T> externalType = (Class<T>) objects.get(0).getClass();
+
+        //
+        // Convert the external objects to internal objects:
+        //
+
+        List<APIObject> internalObjects = new ArrayList<APIObject>();
+        for (T object : objects) {
+            object.setClient(client);
+            internalObjects.add(object.toInternal());
+        }
+
+        //
+        // Send them in as many requests as needed:
+        //
+
+        return execute(client, "update", internalObjects, new ETBulkExecutor.Operation<T>() {
+            @Override
+            public ETResponse<T> execute(List<APIObject> chunk)
+                throws ETSdkException
+            {
+                return updateChunk(client, externalType, chunk);
+            }
+        });
+    }
+
+    private static <T extends ETSoapObject> ETResponse<T> updateChunk(ETClient client,
+                                                                      Class<T> externalType,
+                                                                      List<APIObject> objects)
+        throws ETSdkException
+    {
         //
         // Get handle to the SOAP connection:
         //
@@ -571,18 +1019,57 @@ public abstract class ETSoapObject extends ETApiObject {
         // Perform the SOAP update:
         //
 
-//        Soap soap = connection.getSoap();
-//        Soap soap = connection.getSoap("update");
-        String obj = "";
+        UpdateRequest updateRequest = createUpdateRequest(objects);
+
+        logger.trace("calling soap.update...");
+
+        UpdateResponse updateResponse = connection.call("update", getObjectNames(externalType, objects),
+                new ETSoapConnection.Call<UpdateResponse>() {
+            @Override
+            public UpdateResponse call(Soap soap) {
+                return soap.update(updateRequest);
+            }
+        });
 
+        return createUpdateResponse(client, externalType, updateResponse);
+    }
+
+    private static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> updateChunkAsync(final ETClient client,
+                                                                                             final Class<T> externalType,
+                                                                                             List<APIObject> objects)
+    {
+        try {
+            client.refreshToken();
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        final UpdateRequest updateRequest = createUpdateRequest(objects);
+
+        logger.trace("calling soap.updateAsync...");
+
+        return client.getSoapConnection().callAsync("update", getObjectNames(externalType, objects),
+                new ETSoapConnection.AsyncCall<UpdateResponse>() {
+            @Override
+            public Future<?> call(Soap soap, AsyncHandler<UpdateResponse> handler) {
+                return soap.updateAsync(updateRequest, handler);
+            }
+        }).thenApply(new Function<UpdateResponse, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(UpdateResponse updateResponse) {
+                try {
+                    return createUpdateResponse(client, externalType, updateResponse);
+                } catch (ETSdkException ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    private static UpdateRequest createUpdateRequest(List<APIObject> objects) {
         UpdateRequest updateRequest = new UpdateRequest();
         updateRequest.setOptions(new UpdateOptions());
-        for (T object : objects) {
-            object.setClient(client);
-            updateRequest.getObjects().add(object.toInternal());
-            obj += object.getClass().getSimpleName().substring(2);
-        }
-        Soap soap = connection.getSoap("update", obj);
+        updateRequest.getObjects().addAll(objects);
 
         if (logger.isTraceEnabled()) {
             logger.trace("UpdateRequest:");
@@ -593,9 +1080,15 @@ public abstract class ETSoapObject extends ETApiObject {
             logger.trace("  }");
         }
 
-        logger.trace("calling soap.update...");
+        return updateRequest;
+    }
 
-        UpdateResponse updateResponse = soap.update(updateRequest);
+    private static <T extends ETSoapObject> ETResponse<T> createUpdateResponse(ETClient client,
+                                                                               Class<T> externalType,
+                                                                               UpdateResponse updateResponse)
+        throws ETSdkException
+    {
+        ETResponse<T> response = new ETResponse<T>();
 
         if (logger.isTraceEnabled()) {
             logger.trace("UpdateResponse:");
@@ -621,9 +1114,6 @@ public abstract class ETSoapObject extends ETApiObject {
             // Allocate a new (external) object:
             //
 
-            @SuppressWarnings("unchecked")
-            Class<T> externalType = (Class<T>) objects.get(0).getClass();
-
             T externalObject = null;
             try {
                 externalObject = externalType.newInstance();
@@ -701,18 +1191,35 @@ public abstract class ETSoapObject extends ETApiObject {
      * @return                      The ETResponse object of type T which extends from ETSoapObject
      * @throws ETSdkException 
      */
-    protected static <T extends ETSoapObject> ETResponse<T> delete(ETClient client,
+    protected static <T extends ETSoapObject> ETResponse<T> delete(final ETClient client,
                                                                    List<APIObject> objects,
                                                                    boolean internal)
         throws ETSdkException
     {
-        ETResponse<T> response = new ETResponse<T>();
-
         if (objects == null || objects.size() == 0) {
+            ETResponse<T> response = new ETResponse<T>();
             response.setStatus(ETResult.Status.OK);
             return response;
         }
 
+        //
+        // Send them in as many requests as needed:
+        //
+
+        return execute(client, "delete", objects, new ETBulkExecutor.Operation<T>() {
+            @Override
+            public ETResponse<T> execute(List<APIObject> chunk)
+                throws ETSdkException
+            {
+                return deleteChunk(client, chunk);
+            }
+        });
+    }
+
+    private static <T extends ETSoapObject> ETResponse<T> deleteChunk(ETClient client,
+                                                                      List<APIObject> objects)
+        throws ETSdkException
+    {
         //
         // Get handle to the SOAP connection:
         //
@@ -728,13 +1235,50 @@ public abstract class ETSoapObject extends ETApiObject {
         //
         // Perform the SOAP delete:
         //
-        String obj = "";
-        for (APIObject object : objects)
-            obj += object.getClass().getSimpleName();//.substring(2);
 
-        Soap soap = connection.getSoap("delete", obj);
-        
+        DeleteRequest deleteRequest = createDeleteRequest(objects);
+
+        logger.trace("calling soap.delete...");
+
+        DeleteResponse deleteResponse = connection.call("delete", getObjectNames(objects),
+                new ETSoapConnection.Call<DeleteResponse>() {
+            @Override
+            public DeleteResponse call(Soap soap) {
+                return soap.delete(deleteRequest);
+            }
+        });
+
+        return createDeleteResponse(deleteResponse);
+    }
+
+    private static <T extends ETSoapObject> CompletableFuture<ETResponse<T>> deleteChunkAsync(ETClient client,
+                                                                                             List<APIObject> objects)
+    {
+        try {
+            client.refreshToken();
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        final DeleteRequest deleteRequest = createDeleteRequest(objects);
 
+        logger.trace("calling soap.deleteAsync...");
+
+        return client.getSoapConnection().callAsync("delete", getObjectNames(objects),
+                new ETSoapConnection.AsyncCall<DeleteResponse>() {
+            @Override
+            public Future<?> call(Soap soap, AsyncHandler<DeleteResponse> handler) {
+                return soap.deleteAsync(deleteRequest, handler);
+            }
+        }).thenApply(new Function<DeleteResponse, ETResponse<T>>() {
+            @Override
+            public ETResponse<T> apply(DeleteResponse deleteResponse) {
+                return createDeleteResponse(deleteResponse);
+            }
+        });
+    }
+
+    private static DeleteRequest createDeleteRequest(List<APIObject> objects) {
         DeleteRequest deleteRequest = new DeleteRequest();
         deleteRequest.setOptions(new DeleteOptions());
         deleteRequest.getObjects().addAll(objects);
@@ -748,9 +1292,11 @@ public abstract class ETSoapObject extends ETApiObject {
             logger.trace("  }");
         }
 
-        logger.trace("calling soap.delete...");
+        return deleteRequest;
+    }
 
-        DeleteResponse deleteResponse = soap.delete(deleteRequest);
+    private static <T extends ETSoapObject> ETResponse<T> createDeleteResponse(DeleteResponse deleteResponse) {
+        ETResponse<T> response = new ETResponse<T>();
 
         if (logger.isTraceEnabled()) {
             logger.trace("DeleteResponse:");
@@ -787,124 +1333,31 @@ public abstract class ETSoapObject extends ETApiObject {
         return response;
     }
 
-    private void registerConverters() {
-        //
-        // Register converters:
-        //
+    //
+    // The object names sent in the user agent of a create,
+    // update or delete, one per object:
+    //
+
+    private static <T extends ETSoapObject> String getObjectNames(Class<T> externalType,
+                                                                  List<APIObject> objects)
+    {
+        StringBuilder names = new StringBuilder();
+        String name = externalType.getSimpleName().substring(2);
+        for (int i = 0; i < objects.size(); i++) {
+            names.append(name);
+        }
+        return names.toString();
+    }
 
-        ConvertUtilsBean convertUtils = BeanUtilsBean.getInstance().getConvertUtils();
-
-        // ETDataExtension
-        convertUtils.register(new ExternalObjectConverter(),
-                ETDataExtension.class);
-        convertUtils.register(new InternalObjectConverter(),
-                DataExtension.class);
-        
-//        convertUtils.register(new ExternalObjectConverter(),
-//                ETSendableDataExtension.class);
-        convertUtils.register(new ExternalObjectConverter(),
-                ETProfileAttribute.class);
-        
-        // ETDataExtensionColumn
-        convertUtils.register(new ExternalObjectConverter(),
-                ETDataExtensionColumn.class);
-        convertUtils.register(new InternalObjectConverter(),
-                DataExtensionField.class);
-
-        // ETExtractDescription
-        convertUtils.register(new ExternalObjectConverter(),
-                ETExtractDescription.class);
-        convertUtils.register(new InternalObjectConverter(),
-                ExtractDescription.class);
-
-        // ETDataExtensionColumnType
-        convertUtils.register(new EnumConverter(),
-                ETDataExtensionColumn.Type.class);
-        convertUtils.register(new EnumConverter(),
-                DataExtensionFieldType.class);
-
-        // ETDataExtensionRow
-        convertUtils.register(new ExternalObjectConverter(),
-                ETDataExtensionRow.class);
-        convertUtils.register(new InternalObjectConverter(),
-                DataExtensionObject.class);
-        // data extension row: internal to external
-        convertUtils.register(new DataExtensionRowConverter(),
-                Map.class);
-        // data extension row: external to internal
-        convertUtils.register(new DataExtensionRowConverter(),
-                ObjectExtension.Properties.class);
-
-        // ETEmail
-        convertUtils.register(new ExternalObjectConverter(),
-                ETEmail.class);
-        convertUtils.register(new InternalObjectConverter(),
-                Email.class);
-
-        // ETEmail.Type
-        convertUtils.register(new EnumConverter(),
-                ETEmail.Type.class);
-        convertUtils.register(new EnumConverter(),
-                EmailType.class);
-
-        // ETFolder
-        convertUtils.register(new ExternalObjectConverter(),
-                ETFolder.class);
-        convertUtils.register(new InternalObjectConverter(),
-                DataFolder.class);
-
-        // ETList
-        convertUtils.register(new ExternalObjectConverter(),
-                ETList.class);
-        convertUtils.register(new InternalObjectConverter(),
-                com.exacttarget.fuelsdk.internal.List.class);
-
-        // ETList.Classification
-        convertUtils.register(new EnumConverter(),
-                ETList.Classification.class);
-        convertUtils.register(new EnumConverter(),
-                ListClassificationEnum.class);
-
-        // ETList.Type
-        convertUtils.register(new EnumConverter(),
-                ETList.Type.class);
-        convertUtils.register(new EnumConverter(),
-                ListTypeEnum.class);
-
-        // ETSubscriber
-        convertUtils.register(new ExternalObjectConverter(),
-                ETSubscriber.class);
-        convertUtils.register(new InternalObjectConverter(),
-                Subscriber.class);
-
-        // ETSubscriber.Attribute
-        convertUtils.register(new EnumConverter(),
-                ETSubscriber.Status.class);
-//        convertUtils.register(new EnumConverter(),
-//                Attribute.class);
-//        convertUtils.register(new InternalObjectConverter(),
-//                Attribute.class);
-
-        // ETSubscriber.Status
-        convertUtils.register(new EnumConverter(),
-                ETSubscriber.Status.class);
-        convertUtils.register(new EnumConverter(),
-                SubscriberStatus.class);
-
-        // ETTriggeredSend
-        convertUtils.register(new EnumConverter(),
-                ETTriggeredEmail.class);
-        convertUtils.register(new EnumConverter(),
-                TriggeredSendDefinition.class);
-
-        // ETTriggeredSend.Status
-        convertUtils.register(new EnumConverter(),
-                ETTriggeredEmail.Status.class);
-        convertUtils.register(new EnumConverter(),
-                TriggeredSendStatusEnum.class);
+    private static String getObjectNames(List<APIObject> objects) {
+        StringBuilder names = new StringBuilder();
+        for (APIObject object : objects) {
+            names.append(object.getClass().getSimpleName());
+        }
+        return names.toString();
     }
 
-    public class ExternalObjectConverter implements Converter {
+    public static class ExternalObjectConverter implements Converter {
         @SuppressWarnings("rawtypes")
         /**
          * @param type      The class type to convert
@@ -927,7 +1380,7 @@ public abstract class ETSoapObject extends ETApiObject {
         }
     }
 
-    public class InternalObjectConverter implements Converter {
+    public static class InternalObjectConverter implements Converter {
         @SuppressWarnings("rawtypes")
         /**
          * @param type      The class type to convert
@@ -945,7 +1398,7 @@ public abstract class ETSoapObject extends ETApiObject {
         }
     }
 
-    public class DataExtensionRowConverter implements Converter {
+    public static class DataExtensionRowConverter implements Converter {
         @SuppressWarnings({ "rawtypes", "unchecked" })
         /**
          * @param type      The class type to convert
@@ -978,7 +1431,7 @@ public abstract class ETSoapObject extends ETApiObject {
         }
     }
 
-    public class EnumConverter implements Converter {
+    public static class EnumConverter implements Converter {
         @SuppressWarnings({ "rawtypes", "unchecked" })
         /**
          * @param type      The class type to convert
@@ -1006,140 +1459,107 @@ public abstract class ETSoapObject extends ETApiObject {
         Class<? extends APIObject> internalType = internalObject.getClass();
         String internalTypeName = internalType.getSimpleName();
 
-        logger.trace("converting object from internal type "
-                + internalTypeName);
-        logger.trace("                    to external type "
-                + externalTypeName);
+        if (logger.isTraceEnabled()) {
+            logger.trace("converting object from internal type "
+                    + internalTypeName);
+            logger.trace("                    to external type "
+                    + externalTypeName);
+        }
 
-        for (Field externalField : getAllFields(externalType)) {
-            //
-            // Skip this field if it doesn't have the @ExternalName
-            // annotation (it's an internal field):
-            //
+        //
+        // Use the generated mapper if there is one:
+        //
 
-            ExternalName externalName =
-                    externalField.getAnnotation(ExternalName.class);
-            if (externalName == null) {
-                continue;
-            }
+        ETSoapMapper<ETSoapObject, APIObject> mapper = getMapper(externalType);
+        if (mapper != null && mapper.getInternalType().isInstance(internalObject)) {
+            return mapper.fromInternal(internalObject, externalObject);
+        }
 
-            String externalFieldName = externalField.getName();
-            String internalFieldName = null;
+        ETSoapMapping mapping = ETSoapMapping.of(externalType);
 
-            InternalName internalName =
-                    externalField.getAnnotation(InternalName.class);
+        for (ETSoapMapping.FieldMapping fieldMapping : mapping.getFields()) {
+            fromInternal(fieldMapping, internalObject);
+        }
 
-            if (internalName != null) {
-                internalFieldName = internalName.value();
-            } else {
-                // internal name is the same as external name
-                internalFieldName = externalFieldName;
-            }
+        return externalObject;
+    }
 
-            Object internalFieldValue = null;
-            try {
-                internalFieldValue =
-                        PropertyUtils.getProperty(internalObject,
-                                                  internalFieldName);
-            } catch (Exception ex) {
-                throw new ETSdkException("could not get property \""
-                        + internalFieldName
-                        + "\" of object "
-                        + internalObject,
-                        ex);
-            }
+    void fromInternal(ETSoapMapping.FieldMapping fieldMapping,
+                      APIObject internalObject)
+        throws ETSdkException
+    {
+        ETSoapObject externalObject = this; // for code readability
 
-            if (internalFieldValue == null) {
-                continue;
-            }
+        Object internalFieldValue =
+                fieldMapping.getInternalValue(internalObject);
 
-            if (internalFieldValue instanceof List) {
-                externalField.setAccessible(true);
-
-                List<ETSoapObject> externalList = new ArrayList<ETSoapObject>();
-                @SuppressWarnings("unchecked")
-                List<APIObject> internalList
-                    = (List<APIObject>) internalFieldValue;
-
-                Type fieldType = externalField.getGenericType();
-                assert fieldType instanceof ParameterizedType;
-                ParameterizedType parameterizedType
-                    = (ParameterizedType) fieldType;
-                assert parameterizedType.getActualTypeArguments().length == 1;
-                Class<?> externalItemType
-                    = (Class<?>) parameterizedType.getActualTypeArguments()[0];
-
-                for (APIObject internalItem : internalList) {
-                    ETSoapObject externalItem = null;
-                    try {
-                        externalItem = (ETSoapObject) externalItemType.newInstance();
-                    } catch (Exception ex) {
-                        throw new ETSdkException("could not instantiate "
-                                + externalItemType.getName(), ex);
-                    }
-                    externalList.add(externalItem.fromInternal(internalItem));
-                }
+        if (internalFieldValue == null) {
+            return;
+        }
+
+        Field externalField = fieldMapping.getField();
+        String externalFieldName = fieldMapping.getName();
+
+        if (internalFieldValue instanceof List) {
+            externalField.setAccessible(true);
+
+            List<ETSoapObject> externalList = new ArrayList<ETSoapObject>();
+            @SuppressWarnings("unchecked")
+            List<APIObject> internalList
+                = (List<APIObject>) internalFieldValue;
+
+            Class<?> externalItemType = fieldMapping.getItemType();
+            assert externalItemType != null;
 
+            for (APIObject internalItem : internalList) {
+                ETSoapObject externalItem = null;
                 try {
-                    externalField.set(externalObject, externalList);
+                    externalItem = (ETSoapObject) externalItemType.newInstance();
                 } catch (Exception ex) {
-                    throw new ETSdkException("could not set field \""
-                            + externalFieldName
-                            + "\" of object "
-                            + externalObject,
-                            ex);
+                    throw new ETSdkException("could not instantiate "
+                            + externalItemType.getName(), ex);
                 }
-
-                continue;
+                externalList.add(externalItem.fromInternal(internalItem));
             }
 
             try {
-                BeanUtils.setProperty(externalObject,
-                                      externalFieldName,
-                                      internalFieldValue);
+                externalField.set(externalObject, externalList);
             } catch (Exception ex) {
-                throw new ETSdkException("could not set property \""
+                throw new ETSdkException("could not set field \""
                         + externalFieldName
                         + "\" of object "
                         + externalObject,
                         ex);
             }
 
-            if (logger.isTraceEnabled()) {
-                Field internalField = getField(internalType,
-                                               internalFieldName);
+            return;
+        }
 
-                Object externalFieldValue = null;
-                try {
-                    externalFieldValue =
-                            PropertyUtils.getProperty(externalObject,
-                                                      externalFieldName);
-                } catch (Exception ex) {
-                    throw new ETSdkException("could not get property \""
-                            + externalFieldName
-                            + "\" of object "
-                            + externalObject,
-                            ex);
-                }
+        fieldMapping.setValue(externalObject, internalFieldValue);
 
-                logger.trace("  converted field "
-                        + internalTypeName + "." + internalFieldName
-                        + " (type="
-                        + internalField.getType().getSimpleName()
-                        + ", value="
-                        + internalFieldValue
-                        + ")");
-                logger.trace("         to field "
-                        + externalTypeName + "." + externalFieldName
-                        + " (type="
-                        + externalField.getType().getSimpleName()
-                        + ", value="
-                        + externalFieldValue
-                        + ")");
-            }
+        if (logger.isTraceEnabled()) {
+            Class<? extends APIObject> internalType = internalObject.getClass();
+
+            Field internalField = getField(internalType,
+                                           fieldMapping.getInternalName());
+
+            Object externalFieldValue = fieldMapping.getValue(externalObject);
+
+            logger.trace("  converted field "
+                    + internalType.getSimpleName() + "." + fieldMapping.getInternalName()
+                    + " (type="
+                    + internalField.getType().getSimpleName()
+                    + ", value="
+                    + internalFieldValue
+                    + ")");
+            logger.trace("         to field "
+                    + getClass().getSimpleName() + "." + externalFieldName
+                    + " (type="
+                    + externalField.getType().getSimpleName()
+                    + ", value="
+                    + externalFieldValue
+                    + ")");
         }
-
-        return externalObject;
     }
 
     /**
@@ -1158,19 +1578,28 @@ public abstract class ETSoapObject extends ETApiObject {
         // Use the @SoapObject annotation to determine internalType:
         //
 
-        SoapObject internalTypeAnnotation
-            = externalType.getAnnotation(SoapObject.class);
-        assert internalTypeAnnotation != null;
-        Class<? extends APIObject> internalType = internalTypeAnnotation.internalType();
+        ETSoapMapping mapping = ETSoapMapping.of(externalType);
+        Class<? extends APIObject> internalType = mapping.getInternalType();
         assert internalType != null;
 
         String externalTypeName = externalType.getSimpleName();
         String internalTypeName = internalType.getSimpleName();
 
-        logger.trace("converting object from external type "
-                + externalTypeName);
-        logger.trace("                    to internal type "
-                + internalTypeName);
+        if (logger.isTraceEnabled()) {
+            logger.trace("converting object from external type "
+                    + externalTypeName);
+            logger.trace("                    to internal type "
+                    + internalTypeName);
+        }
+
+        //
+        // Use the generated mapper if there is one:
+        //
+
+        ETSoapMapper<ETSoapObject, APIObject> mapper = getMapper(externalType);
+        if (mapper != null) {
+            return mapper.toInternal(externalObject);
+        }
 
         APIObject internalObject = null;
         try {
@@ -1180,264 +1609,128 @@ public abstract class ETSoapObject extends ETApiObject {
                     + internalType.getName(), ex);
         }
 
-        for (Field externalField : getAllFields(externalType)) {
-            //
-            // Skip this field if it doesn't have the @ExternalName
-            // annotation (it's an internal field):
-            //
+        for (ETSoapMapping.FieldMapping fieldMapping : mapping.getFields()) {
+            toInternal(fieldMapping, internalObject);
+        }
 
-            ExternalName externalName =
-                    externalField.getAnnotation(ExternalName.class);
-            if (externalName == null) {
-                continue;
-            }
+        return internalObject;
+    }
 
-            String externalFieldName = externalField.getName();
-            String internalFieldName = null;
+    void toInternal(ETSoapMapping.FieldMapping fieldMapping,
+                    APIObject internalObject)
+        throws ETSdkException
+    {
+        ETSoapObject externalObject = this; // for code readability
 
-            InternalName internalName =
-                    externalField.getAnnotation(InternalName.class);
+        Object externalFieldValue = fieldMapping.getValue(externalObject);
 
-            if (internalName != null) {
-                internalFieldName = internalName.value();
-            } else {
-                // internal name is the same as external name
-                internalFieldName = externalFieldName;
-            }
+        if (externalFieldValue == null) {
+            return;
+        }
 
-            Object externalFieldValue = null;
-            try {
-                externalFieldValue =
-                        PropertyUtils.getProperty(externalObject,
-                                                  externalFieldName);
-            } catch (Exception ex) {
-                throw new ETSdkException("could not get property \""
-                        + externalFieldName
-                        + "\" of object "
-                        + externalObject,
-                        ex);
-            }
+        Class<? extends APIObject> internalType = internalObject.getClass();
+        String internalFieldName = fieldMapping.getInternalName();
 
-            if (externalFieldValue == null) {
-                continue;
+        if (externalFieldValue instanceof List) {
+            Field internalField = fieldMapping.getInternalField();
+            if (internalField == null) {
+                throw new ETSdkException("field \""
+                        + internalFieldName
+                        + "\" does not exist in class "
+                        + internalType.getName());
             }
 
-            if (externalFieldValue instanceof List) {
-                Field internalField = getField(internalType,
-                                               internalFieldName);
+            internalField.setAccessible(true);
 
-                internalField.setAccessible(true);
-
-                List<APIObject> internalList = new ArrayList<APIObject>();
-                @SuppressWarnings("unchecked")
-                List<ETSoapObject> externalList
-                    = (List<ETSoapObject>) externalFieldValue;
-
-                for (ETSoapObject externalItem : externalList) {
-                    internalList.add(externalItem.toInternal());
-                }
-
-                if (internalFieldName.equals("fields")) {
-                    //
-                    // This list contains data extension columns:
-                    //
-
-                    DataExtension.Fields fields = new DataExtension.Fields();
-                    for (APIObject field : internalList) {
-                        fields.getField().add((DataExtensionField) field);
-                    }
-                    try {
-                        internalField.set(internalObject, fields);
-                    } catch (Exception ex) {
-                        throw new ETSdkException("could not set field \""
-                                + internalFieldName
-                                + "\" of object "
-                                + internalObject,
-                                ex);
-                    }
-                } else {
-                    try {
-                        internalField.set(internalObject, internalList);
-                    } catch (Exception ex) {
-                        throw new ETSdkException("could not set field \""
-                                + internalFieldName
-                                + "\" of object "
-                                + internalObject,
-                                ex);
-                    }
-                }
+            List<APIObject> internalList = new ArrayList<APIObject>();
+            @SuppressWarnings("unchecked")
+            List<ETSoapObject> externalList
+                = (List<ETSoapObject>) externalFieldValue;
 
-                continue;
+            for (ETSoapObject externalItem : externalList) {
+                internalList.add(externalItem.toInternal());
             }
 
-            try {
-                BeanUtils.setProperty(internalObject,
-                                      internalFieldName,
-                                      externalFieldValue);
-            } catch (Exception ex) {
-                //ex.printStackTrace();
-                throw new ETSdkException("could not set property \""
-                        + internalFieldName
-                        + "\" of object "
-                        + internalObject,
-                        ex);
-            }
-
-            if (logger.isTraceEnabled()) {
-                Field internalField = getField(internalType,
-                                               internalFieldName);
+            if (internalFieldName.equals("fields")) {
+                //
+                // This list contains data extension columns:
+                //
 
-                Object internalFieldValue = null;
+                DataExtension.Fields fields = new DataExtension.Fields();
+                for (APIObject field : internalList) {
+                    fields.getField().add((DataExtensionField) field);
+                }
                 try {
-                    internalFieldValue =
-                            PropertyUtils.getProperty(internalObject,
-                                                      internalFieldName);
+                    internalField.set(internalObject, fields);
                 } catch (Exception ex) {
-                    throw new ETSdkException("could not get property \""
+                    throw new ETSdkException("could not set field \""
+                            + internalFieldName
+                            + "\" of object "
+                            + internalObject,
+                            ex);
+                }
+            } else {
+                try {
+                    internalField.set(internalObject, internalList);
+                } catch (Exception ex) {
+                    throw new ETSdkException("could not set field \""
                             + internalFieldName
                             + "\" of object "
                             + internalObject,
                             ex);
                 }
-
-                logger.trace("  converted field "
-                        + externalTypeName + "." + externalFieldName
-                        + " (type="
-                        + externalField.getType().getSimpleName()
-                        + ", value="
-                        + externalFieldValue
-                        + ")");
-                logger.trace("         to field "
-                        + internalTypeName + "." + internalFieldName
-                        + " (type="
-                        + internalField.getType().getSimpleName()
-                        + ", value="
-                        + internalFieldValue
-                        + ")");
             }
+
+            return;
         }
 
-        return internalObject;
+        fieldMapping.setInternalValue(internalObject, externalFieldValue);
+
+        if (logger.isTraceEnabled()) {
+            Field internalField = getField(internalType,
+                                           internalFieldName);
+
+            Object internalFieldValue =
+                    fieldMapping.getInternalValue(internalObject);
+
+            logger.trace("  converted field "
+                    + getClass().getSimpleName() + "." + fieldMapping.getName()
+                    + " (type="
+                    + fieldMapping.getField().getType().getSimpleName()
+                    + ", value="
+                    + externalFieldValue
+                    + ")");
+            logger.trace("         to field "
+                    + internalType.getSimpleName() + "." + internalFieldName
+                    + " (type="
+                    + internalField.getType().getSimpleName()
+                    + ", value="
+                    + internalFieldValue
+                    + ")");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ETSoapMapper<ETSoapObject, APIObject> getMapper(Class<? extends ETSoapObject> type) {
+        return (ETSoapMapper<ETSoapObject, APIObject>) ETSoapMapper.of(type);
     }
 
     protected static String getInternalProperty(Class<? extends ETSoapObject> type,
                                                 String name)
         throws ETSdkException
     {
-        String internalProperty = null;
-
-        Class<? extends ETSoapObject> externalType = type; // for code readability
-
-        Field externalField = null;
-        try {
-            externalField = getField(externalType, name);
-        } catch (ETSdkException ex) {
-            return name; // XXX
-        }
-
-        InternalProperty internalPropertyAnnotation =
-                externalField.getAnnotation(InternalProperty.class);
-
-        if (internalPropertyAnnotation != null) {
-            internalProperty = internalPropertyAnnotation.value();
-        } else {
-            //
-            // The internal property name can be found in the
-            // @XmlElement (or @XmlElementRef) annotation on the
-            // NAME internal field of the CXF generated class:
-            //
-
-            //
-            // Use the @SoapObject annotation to determine internalType:
-            //
-
-            SoapObject internalTypeAnnotation
-                = externalType.getAnnotation(SoapObject.class);
-            assert internalTypeAnnotation != null;
-            Class<? extends APIObject> internalType = internalTypeAnnotation.internalType();
-            assert internalType != null;
-
-            InternalName internalNameAnnotation =
-                    externalField.getAnnotation(InternalName.class);
-
-            String internalName = null;
-            if (internalNameAnnotation != null) {
-                internalName = internalNameAnnotation.value();
-            } else {
-                // internal name is the same as external name
-                internalName = externalField.getName();
-            }
-
-            Field internalField = getField(internalType, internalName);
-
-            XmlElement element =
-                    internalField.getAnnotation(XmlElement.class);
-            if (element != null) {
-                internalProperty = element.name();
-            } else {
-                //
-                // Optional dateTimes are annotated with @XmlElementRef:
-                //
-
-                XmlElementRef elementRef =
-                        internalField.getAnnotation(XmlElementRef.class);
-                if (elementRef != null) {
-                    internalProperty = elementRef.name();
-                }
-            }
-        }
-
-        return internalProperty;
+        return ETSoapMapping.of(type).getInternalProperty(name);
     }
 
     // XXX private?
     protected static List<String> getInternalProperties(Class<? extends ETSoapObject> type)
         throws ETSdkException
     {
-        List<String> internalProperties = new ArrayList<String>();
-
-        Class<? extends ETSoapObject> externalType = type; // for code readability
-
-        //
-        // Use the @SoapObject annotation to determine internalType:
-        //
-
-        SoapObject internalTypeAnnotation
-            = externalType.getAnnotation(SoapObject.class);
-        assert internalTypeAnnotation != null;
-        Class<? extends APIObject> internalType = internalTypeAnnotation.internalType();
-        assert internalType != null;
-
-        //
-        // Build a list of fields from externalType and all superclasses:
-        //
-
-        List<Field> externalFields = getAllFields(externalType);
-
-        //
-        // Walk the list of external fields, building a list of the
-        // corresponding property names:
-        //
-
-        for (Field externalField : externalFields) {
-            //
-            // Skip this field if it doesn't have the @ExternalName
-            // annotation (it's an internal field):
-            //
-
-            ExternalName externalName =
-                    externalField.getAnnotation(ExternalName.class);
-            if (externalName == null) {
-                continue;
-            }
-
-            String internalProperty = getInternalProperty(externalType,
-                                                          externalField.getName());
-            assert internalProperty != null;
-            internalProperties.add(internalProperty);
+        ETSoapMapper<ETSoapObject, APIObject> mapper = getMapper(type);
+        if (mapper != null) {
+            return mapper.propertyList();
         }
-
-        return internalProperties;
+        return ETSoapMapping.of(type).getInternalProperties();
     }
 
     /**
@@ -0,0 +1,286 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An <code>ETThrottledTransport</code> sends the requests of one
+ * family of endpoints through another transport, admitting them
+ * with the family's <code>ETRateLimiter</code>. Responses with
+ * status 429 (Too Many Requests) or 503 (Service Unavailable)
+ * shrink the family's concurrency limit and pause it for as long as
+ * their <code>Retry-After</code> header asks; they are retried, like
+ * requests that fail without a response, if the request is
+ * idempotent, and returned to the caller otherwise.
+ *
+ * Idempotent requests are GET, HEAD, PUT, DELETE and OPTIONS
+ * requests, all requests to the auth endpoint (asking for a token
+ * again is harmless) and SOAP retrieves.
+ *
+ * Each attempt is also admitted by the <code>ETCircuitBreaker</code>
+ * of the request's endpoint, which refuses it at once while the
+ * endpoint is failing or its bulkhead is full.
+ */
+
+final class ETThrottledTransport implements ETHttpTransport {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private ETHttpTransport transport = null;
+    private ETRateLimiter limiter = null;
+    private ETClient client = null;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param transport The transport to send requests with
+     * @param limiter   The rate limiter of the family of endpoints
+     * @param client    The ETClient object, whose executor retries
+     *                  asynchronous requests
+     */
+    ETThrottledTransport(ETHttpTransport transport, ETRateLimiter limiter, ETClient client) {
+        this.transport = transport;
+        this.limiter = limiter;
+        this.client = client;
+    }
+
+    @Override
+    public Response execute(Request request)
+        throws ETSdkException
+    {
+        return execute(request, ETMetricsCall.NONE);
+    }
+
+    /**
+     * Sends a request like <code>execute</code>, counting retries.
+     * @param request   The request to send
+     * @param call      The metrics of the call
+     * @return          The response
+     * @throws ETSdkException
+     */
+    Response execute(Request request, ETMetricsCall call)
+        throws ETSdkException
+    {
+        ETCircuitBreaker circuitBreaker = getCircuitBreaker(request);
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            circuitBreaker.acquire();
+            try {
+                limiter.acquire();
+            } catch (ETSdkException ex) {
+                circuitBreaker.cancelled();
+                throw ex;
+            }
+            Response response = null;
+            try {
+                response = transport.execute(request);
+            } catch (ETSdkException ex) {
+                limiter.failed();
+                circuitBreaker.failed();
+                if (!isIdempotent(request) || !limiter.canRetry(attempt)) {
+                    throw ex;
+                }
+                limiter.awaitRetry(attempt, 0);
+                call.retried();
+                continue;
+            } catch (RuntimeException ex) {
+                limiter.failed();
+                circuitBreaker.failed();
+                throw ex;
+            }
+            complete(circuitBreaker, response);
+            if (!isThrottled(response)) {
+                limiter.succeeded();
+                return response;
+            }
+            long retryAfter = ETRateLimiter.parseRetryAfter(response.getHeader("Retry-After"));
+            limiter.throttled(retryAfter);
+            if (!isIdempotent(request) || !limiter.canRetry(attempt)) {
+                return response;
+            }
+            response.close();
+            limiter.awaitRetry(attempt, retryAfter);
+            call.retried();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        return executeAsync(request, ETMetricsCall.NONE);
+    }
+
+    /**
+     * Sends a request like <code>executeAsync</code>, counting retries.
+     * @param request   The request to send
+     * @param call      The metrics of the call
+     * @return          The future response
+     */
+    CompletableFuture<Response> executeAsync(Request request, ETMetricsCall call) {
+        return executeAsync(request, call, 1);
+    }
+
+    private CompletableFuture<Response> executeAsync(final Request request,
+                                                     final ETMetricsCall call,
+                                                     final int attempt)
+    {
+        final ETCircuitBreaker circuitBreaker = getCircuitBreaker(request);
+        try {
+            circuitBreaker.acquire();
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        final Executor executor = client.getExecutor();
+        return limiter.acquireAsync().whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void admitted, Throwable failure) {
+                if (failure != null) {
+                    circuitBreaker.cancelled();
+                }
+            }
+        }).thenCompose(new Function<Void, CompletableFuture<Response>>() {
+            @Override
+            public CompletableFuture<Response> apply(Void admitted) {
+                return transport.executeAsync(request).handle(
+                        new BiFunction<Response, Throwable, CompletableFuture<Response>>() {
+                    @Override
+                    public CompletableFuture<Response> apply(Response response, Throwable failure) {
+                        if (failure != null) {
+                            circuitBreaker.failed();
+                        } else {
+                            complete(circuitBreaker, response);
+                        }
+                        return complete(request, call, attempt, response, failure, executor);
+                    }
+                }).thenCompose(Function.<CompletableFuture<Response>>identity());
+            }
+        });
+    }
+
+    //
+    // Completes an asynchronous attempt, retrying it after a
+    // delay if it failed or was throttled and may be retried:
+    //
+
+    private CompletableFuture<Response> complete(final Request request,
+                                                 final ETMetricsCall call,
+                                                 final int attempt,
+                                                 Response response,
+                                                 Throwable failure,
+                                                 Executor executor)
+    {
+        long retryAfter = 0;
+        if (failure != null) {
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            limiter.failed();
+            if (!(failure instanceof ETSdkException)
+                    || !isIdempotent(request) || !limiter.canRetry(attempt)) {
+                return CompletableFuture.failedFuture(failure);
+            }
+        } else if (!isThrottled(response)) {
+            limiter.succeeded();
+            return CompletableFuture.completedFuture(response);
+        } else {
+            retryAfter = ETRateLimiter.parseRetryAfter(response.getHeader("Retry-After"));
+            limiter.throttled(retryAfter);
+            if (!isIdempotent(request) || !limiter.canRetry(attempt)) {
+                return CompletableFuture.completedFuture(response);
+            }
+            response.close();
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(
+                limiter.getRetryDelay(attempt, retryAfter),
+                TimeUnit.MILLISECONDS,
+                executor);
+        return CompletableFuture.<Void>completedFuture(null).thenComposeAsync(
+                new Function<Void, CompletableFuture<Response>>() {
+            @Override
+            public CompletableFuture<Response> apply(Void retry) {
+                call.retried();
+                return executeAsync(request, call, attempt + 1);
+            }
+        }, delayed);
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    private ETCircuitBreaker getCircuitBreaker(Request request) {
+        return client.getCircuitBreaker(limiter.getFamily(), request.getUri());
+    }
+
+    private void complete(ETCircuitBreaker circuitBreaker, Response response) {
+        int statusCode = response.getStatusCode();
+        if (statusCode >= 500 && !isThrottled(response) && !(statusCode == 500
+                && limiter.getFamily() == ETRateLimiter.Family.SOAP)) {
+            // (throttling is the rate limiter's business, and SOAP
+            // faults are answers, though they come with status 500)
+            circuitBreaker.failed();
+        } else {
+            circuitBreaker.succeeded();
+        }
+    }
+
+    private static boolean isThrottled(Response response) {
+        return response.getStatusCode() == TOO_MANY_REQUESTS
+                || response.getStatusCode() == SERVICE_UNAVAILABLE;
+    }
+
+    private boolean isIdempotent(Request request) {
+        if (limiter.getFamily() == ETRateLimiter.Family.AUTH) {
+            return true;
+        }
+        String soapAction = request.getHeaders().get("SOAPAction");
+        if (soapAction != null) {
+            return ETRateLimiter.isIdempotentSoapOperation(soapAction.replace("\"", ""));
+        }
+        String method = request.getMethod();
+        return method.equals("GET")
+                || method.equals("HEAD")
+                || method.equals("PUT")
+                || method.equals("DELETE")
+                || method.equals("OPTIONS");
+    }
+}
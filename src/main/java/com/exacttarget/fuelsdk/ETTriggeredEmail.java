@@ -38,6 +38,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import javax.xml.ws.AsyncHandler;
 
 import org.apache.log4j.Logger;
 
@@ -441,9 +446,8 @@ public class ETTriggeredEmail extends ETSoapObject {
     public ETResponse<ETTriggeredEmail> send(List<ETSubscriber> subscribers)
         throws ETSdkException
     {
-        ETResponse<ETTriggeredEmail> response = new ETResponse<ETTriggeredEmail>();
-
         if (subscribers == null || subscribers.size() == 0) {
+            ETResponse<ETTriggeredEmail> response = new ETResponse<ETTriggeredEmail>();
             response.setStatus(ETResult.Status.OK);
             return response;
         }
@@ -464,8 +468,61 @@ public class ETTriggeredEmail extends ETSoapObject {
         // Perform the SOAP create:
         //
 
-        Soap soap = connection.getSoap();
+        CreateRequest createRequest = createSendRequest(subscribers);
+
+        logger.trace("calling soap.create...");
+
+        CreateResponse createResponse = connection.call("create", "TriggeredSend",
+                new ETSoapConnection.Call<CreateResponse>() {
+            @Override
+            public CreateResponse call(Soap soap) {
+                return soap.create(createRequest);
+            }
+        });
+
+        return createSendResponse(createResponse);
+    }
 
+    /**
+     * Sends the triggered email like <code>send</code>, without
+     * waiting for the response.
+     * @param    subscribers   The List of subscribers to whom the triggered email will be send.
+     * @return   The future ETResponse of type ETTriggeredEmail
+     */
+    CompletableFuture<ETResponse<ETTriggeredEmail>> sendAsync(List<ETSubscriber> subscribers) {
+        if (subscribers == null || subscribers.size() == 0) {
+            ETResponse<ETTriggeredEmail> response = new ETResponse<ETTriggeredEmail>();
+            response.setStatus(ETResult.Status.OK);
+            return CompletableFuture.completedFuture(response);
+        }
+
+        final CreateRequest createRequest;
+        try {
+            getClient().refreshToken();
+            createRequest = createSendRequest(subscribers);
+        } catch (ETSdkException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        logger.trace("calling soap.createAsync...");
+
+        return getClient().getSoapConnection().callAsync("create", "TriggeredSend",
+                new ETSoapConnection.AsyncCall<CreateResponse>() {
+            @Override
+            public Future<?> call(Soap soap, AsyncHandler<CreateResponse> handler) {
+                return soap.createAsync(createRequest, handler);
+            }
+        }).thenApply(new Function<CreateResponse, ETResponse<ETTriggeredEmail>>() {
+            @Override
+            public ETResponse<ETTriggeredEmail> apply(CreateResponse createResponse) {
+                return createSendResponse(createResponse);
+            }
+        });
+    }
+
+    private CreateRequest createSendRequest(List<ETSubscriber> subscribers)
+        throws ETSdkException
+    {
         CreateRequest createRequest = new CreateRequest();
         createRequest.setOptions(new CreateOptions());
         TriggeredSend triggeredSend = new TriggeredSend();
@@ -486,9 +543,11 @@ public class ETTriggeredEmail extends ETSoapObject {
             logger.trace("  }");
         }
 
-        logger.trace("calling soap.create...");
+        return createRequest;
+    }
 
-        CreateResponse createResponse = soap.create(createRequest);
+    private static ETResponse<ETTriggeredEmail> createSendResponse(CreateResponse createResponse) {
+        ETResponse<ETTriggeredEmail> response = new ETResponse<ETTriggeredEmail>();
 
         if (logger.isTraceEnabled()) {
             logger.trace("CreateResponse:");
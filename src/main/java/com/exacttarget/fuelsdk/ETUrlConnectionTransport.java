@@ -0,0 +1,135 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * An <code>ETUrlConnectionTransport</code> is an
+ * <code>ETHttpTransport</code> built on
+ * <code>java.net.HttpURLConnection</code>. It is provided for
+ * environments where <code>java.net.http.HttpClient</code> cannot
+ * be used. Connections are not disconnected after each call, so
+ * the JDK keep-alive cache (sized by the <code>http.maxConnections</code>
+ * system property) can reuse them. <code>PATCH</code> is not supported.
+ */
+
+public class ETUrlConnectionTransport implements ETHttpTransport {
+    private Integer connectTimeout = null;
+    private Integer readTimeout = null;
+
+    /**
+     * Class constructor, Initializes a new instance of the class.
+     * @param configuration     The ETConfiguration object
+     */
+    public ETUrlConnectionTransport(ETConfiguration configuration) {
+        connectTimeout = configuration.getInteger("restConnectTimeout");
+        readTimeout = configuration.getInteger("restRequestTimeout");
+    }
+
+    @Override
+    public Response execute(Request request)
+        throws ETSdkException
+    {
+        URL url = null;
+        HttpURLConnection connection = null;
+        try {
+            url = request.getUri().toURL();
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(request.getMethod());
+        } catch (ProtocolException ex) {
+            throw new ETSdkException("error setting request method: " + request.getMethod(), ex);
+        } catch (IOException ex) {
+            throw new ETSdkException("error opening " + request.getUri(), ex);
+        }
+        if (connectTimeout != null) {
+            connection.setConnectTimeout(connectTimeout);
+        }
+        if (readTimeout != null) {
+            connection.setReadTimeout(readTimeout);
+        }
+        connection.setDoInput(true);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        if (request.getBody() != null) {
+            connection.setDoOutput(true);
+            OutputStream os = null;
+            try {
+                os = connection.getOutputStream();
+                os.write(request.getBody());
+                os.flush();
+            } catch (IOException ex) {
+                throw new ETSdkException("error writing " + url, ex);
+            } finally {
+                if (os != null) {
+                    try {
+                        os.close();
+                    } catch (IOException ex) {
+                        throw new ETSdkException("error closing connection after writing " + url, ex);
+                    }
+                }
+            }
+        }
+
+        try {
+            int statusCode = connection.getResponseCode();
+            InputStream is = null;
+            if (statusCode < 400) {
+                is = connection.getInputStream();
+            } else {
+                is = connection.getErrorStream();
+            }
+            return new Response(statusCode,
+                    connection.getResponseMessage(),
+                    connection.getHeaderFields(),
+                    is);
+        } catch (IOException ex) {
+            throw new ETSdkException("error reading " + url, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        // connections are owned by the JDK keep-alive cache
+    }
+}
@@ -0,0 +1,160 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.LoggingInInterceptor;
+import org.apache.cxf.interceptor.LoggingOutInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+/**
+ * Logs SOAP messages as they go over the wire, if the
+ * <code>soapWireLogging</code> property is set. Only one in
+ * <code>soapWireLoggingSampleRate</code> calls is logged, request
+ * and response together, and message bodies are cut off after
+ * <code>soapWireLoggingLimit</code> bytes. Calls that aren't
+ * sampled pass the interceptors without being buffered.
+ */
+
+final class ETWireLogging {
+    static final int DEFAULT_SAMPLE_RATE = 1;
+    static final int DEFAULT_LIMIT = 48 * 1024;
+
+    private static final String SAMPLED = ETWireLogging.class.getName() + ".sampled";
+
+    private final int sampleRate;
+    private final int limit;
+    private final AtomicLong calls = new AtomicLong();
+
+    ETWireLogging(int sampleRate, int limit) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.limit = limit;
+    }
+
+    /**
+     * @param configuration The client configuration
+     * @return              The wire logging configured, or null
+     *                      if it is off
+     */
+    static ETWireLogging create(ETConfiguration configuration) {
+        if (!configuration.isTrue("soapWireLogging")) {
+            return null;
+        }
+        return new ETWireLogging(
+                configuration.getInteger("soapWireLoggingSampleRate", DEFAULT_SAMPLE_RATE),
+                configuration.getInteger("soapWireLoggingLimit", DEFAULT_LIMIT));
+    }
+
+    /**
+     * Adds the logging interceptors to the endpoint of a proxy.
+     * @param endpoint      The endpoint
+     */
+    void install(Endpoint endpoint) {
+        In in = new In();
+        in.setPrettyLogging(true);
+        in.setLimit(limit);
+        Out out = new Out(this);
+        out.setPrettyLogging(true);
+        out.setLimit(limit);
+        endpoint.getInInterceptors().add(in);
+        endpoint.getOutInterceptors().add(out);
+    }
+
+    //
+    // Decides whether a call is logged when its request goes out,
+    // so its response is logged only if its request was:
+    //
+
+    boolean sample(Exchange exchange) {
+        boolean sampled = calls.getAndIncrement() % sampleRate == 0;
+        if (sampled && exchange != null) {
+            exchange.put(SAMPLED, Boolean.TRUE);
+        }
+        return sampled;
+    }
+
+    static boolean isSampled(Exchange exchange) {
+        return exchange != null && Boolean.TRUE.equals(exchange.get(SAMPLED));
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    //
+    // The logging interceptors of cxf-rt-core are deprecated in
+    // favor of cxf-rt-features-logging, which the SDK doesn't
+    // depend on; they're what the SOAP connection has always
+    // logged the wire with, and still work as such:
+    //
+
+    @SuppressWarnings("deprecation")
+    static final class Out extends LoggingOutInterceptor {
+        private final ETWireLogging wireLogging;
+
+        Out(ETWireLogging wireLogging) {
+            this.wireLogging = wireLogging;
+        }
+
+        @Override
+        public void handleMessage(Message message)
+            throws Fault
+        {
+            if (wireLogging.sample(message.getExchange())) {
+                super.handleMessage(message);
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    static final class In extends LoggingInInterceptor {
+        @Override
+        public void handleMessage(Message message)
+            throws Fault
+        {
+            if (isSampled(message.getExchange())) {
+                super.handleMessage(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETAsyncClientTest {
+    private static final Pattern NAME = Pattern.compile("\"name\":\"campaign(\\d+)\"");
+
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private AtomicInteger inFlight = new AtomicInteger();
+
+    private AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("soapPoolSize", "2");
+        client = new ETClient(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testRetrievesQueueForPooledProxies()
+        throws Exception
+    {
+        final ETStubServer.PagedRetrieve retrieve =
+                new ETStubServer.PagedRetrieve("Subscriber", 1, 1);
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                int n = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(n, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return retrieve.handle(request);
+            }
+        });
+
+        List<CompletableFuture<ETResponse<ETSubscriber>>> futures =
+                new ArrayList<CompletableFuture<ETResponse<ETSubscriber>>>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(client.async().retrieve(ETSubscriber.class, "id=" + i));
+        }
+        for (CompletableFuture<ETResponse<ETSubscriber>> future : futures) {
+            ETResponse<ETSubscriber> response = future.get();
+            assertEquals(ETResult.Status.OK, response.getStatus());
+            assertEquals("1", response.getObject().getId());
+        }
+
+        assertEquals(40, server.getRequests("/service.asmx").size());
+        // bounded by soapPoolSize:
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testRetrieveFailure()
+        throws Exception
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(500, "text/plain", "unavailable");
+            }
+        });
+
+        try {
+            client.async().retrieve(ETSubscriber.class).get();
+            fail();
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof ETSdkException);
+        }
+
+        // the proxies have been given back:
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("Subscriber", 1, 1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ETResult.Status.OK,
+                    client.async().retrieve(ETSubscriber.class).get().getStatus());
+        }
+    }
+
+    @Test
+    public void testSelectFollowsContinuations()
+        throws Exception
+    {
+        RowRetrieve retrieve = new RowRetrieve(3, 10);
+        server.handle("/service.asmx", retrieve);
+
+        ETResponse<ETDataExtensionRow> response = client.async()
+                .select("key=test", 3, 5, ETFilter.parse("Id")).get();
+        assertEquals(Arrays.asList("11", "12", "13", "14", "15"), ids(response));
+        assertTrue(response.hasMoreResults());
+        assertNull(response.getTotalCount());
+        assertEquals(Arrays.asList(1, 2), retrieve.getPagesServed());
+
+        response = client.async().select("key=test", 6, 5, ETFilter.parse("Id")).get();
+        assertEquals(Arrays.asList("26", "27", "28", "29", "30"), ids(response));
+        assertFalse(response.hasMoreResults());
+        assertEquals(Integer.valueOf(30), response.getTotalCount());
+        assertEquals(Integer.valueOf(6), response.getPage());
+    }
+
+    @Test
+    public void testSelectOrdered()
+        throws Exception
+    {
+        server.handle("/service.asmx", new RowRetrieve(3, 10));
+
+        ETResponse<ETDataExtensionRow> response = client.async()
+                .select("key=test", 1, 3, ETFilter.parse("Id", "order by Id desc")).get();
+        // ordered as strings:
+        assertEquals(Arrays.asList("9", "8", "7"), ids(response));
+        assertEquals(Integer.valueOf(30), response.getTotalCount());
+        assertTrue(response.hasMoreResults());
+    }
+
+    @Test
+    public void testInsertIsChunked()
+        throws Exception
+    {
+        client.getConfiguration().set("bulkChunkSize", "2");
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return ETStubServer.mutationReply(request.getBodyAsString());
+            }
+        });
+
+        ETDataExtension dataExtension = new ETDataExtension();
+        dataExtension.setKey("test");
+        List<ETDataExtensionRow> rows = new ArrayList<ETDataExtensionRow>();
+        for (int i = 0; i < 5; i++) {
+            ETDataExtensionRow row = new ETDataExtensionRow();
+            row.setColumn("Id", Integer.toString(i));
+            rows.add(row);
+        }
+
+        ETResponse<ETDataExtensionRow> response =
+                client.async().insert(dataExtension, rows).get();
+        assertEquals(3, server.getRequests("/service.asmx").size());
+        assertEquals(5, response.getResults().size());
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals("test", rows.get(4).getDataExtensionKey());
+    }
+
+    @Test
+    public void testSendTriggeredEmail()
+        throws Exception
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return ETStubServer.mutationReply(request.getBodyAsString());
+            }
+        });
+
+        ETTriggeredEmail email = new ETTriggeredEmail();
+        email.setKey("welcome");
+        ETResponse<ETTriggeredEmail> response = client.async()
+                .send(email, "a@example.com", "b@example.com").get();
+
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        String body = server.getRequests("/service.asmx").get(0).getBodyAsString();
+        assertTrue(body.contains("TriggeredSend"));
+        assertTrue(body.contains("<CustomerKey>welcome</CustomerKey>"));
+        assertEquals(3, body.split("<EmailAddress>").length);
+    }
+
+    @Test
+    public void testCreateRestObjects()
+        throws Exception
+    {
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                Matcher matcher = NAME.matcher(request.getBodyAsString());
+                assertTrue(matcher.find());
+                int n = Integer.parseInt(matcher.group(1));
+                int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                try {
+                    // later objects finish first
+                    Thread.sleep(100 - 5 * n);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                if (n == 3) {
+                    return new ETStubServer.Reply(400, "{\"message\":\"invalid\"}");
+                }
+                if (n == 5) {
+                    return new ETStubServer.Reply(200, "not json");
+                }
+                return new ETStubServer.Reply(200,
+                        "{\"id\":\"" + n + "\",\"name\":\"campaign" + n + "\"}");
+            }
+        });
+
+        List<ETCampaign> campaigns = new ArrayList<ETCampaign>();
+        for (int i = 0; i < 10; i++) {
+            ETCampaign campaign = new ETCampaign();
+            campaign.setName("campaign" + i);
+            campaigns.add(campaign);
+        }
+
+        ETResponse<ETCampaign> response = client.async().create(campaigns).get();
+
+        assertEquals(10, server.getRequests("/hub/v1/campaigns").size());
+        assertTrue(maxInFlight.get() > 1);
+        assertEquals(10, response.getResults().size());
+        for (int i = 0; i < 10; i++) {
+            ETResult<ETCampaign> result = response.getResults().get(i);
+            if (i == 3) {
+                assertEquals(ETResult.Status.ERROR, result.getStatus());
+                assertEquals("400", result.getResponseCode());
+            } else if (i == 5) {
+                // the response couldn't be parsed
+                assertEquals(ETResult.Status.ERROR, result.getStatus());
+                assertNull(result.getObject());
+            } else {
+                assertEquals(ETResult.Status.OK, result.getStatus());
+                assertEquals(Integer.toString(i), result.getObject().getId());
+            }
+        }
+    }
+
+    private static List<String> ids(ETResponse<ETDataExtensionRow> response) {
+        List<String> ids = new ArrayList<String>();
+        for (ETDataExtensionRow row : response.getObjects()) {
+            ids.add(row.getColumn("Id"));
+        }
+        return ids;
+    }
+
+    private static class RowRetrieve extends ETStubServer.PagedRetrieve {
+        RowRetrieve(int pages, int pageSize) {
+            super("DataExtensionObject", pages, pageSize);
+        }
+
+        @Override
+        String result(int id) {
+            return "<Results xsi:type=\"DataExtensionObject\"><Properties>"
+                    + "<Property><Name>Id</Name><Value>" + id + "</Value></Property>"
+                    + "</Properties></Results>";
+        }
+    }
+}
@@ -0,0 +1,106 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ETAsyncSemaphoreTest {
+    @Test
+    public void testBlockingAndAsyncWaitersServedInOrder()
+        throws Exception
+    {
+        final ETAsyncSemaphore semaphore = new ETAsyncSemaphore(1);
+        semaphore.acquire();
+
+        CompletableFuture<Void> first = semaphore.acquireAsync();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread blocking = new Thread(() -> {
+            try {
+                semaphore.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocking.start();
+        // let the blocking caller queue up before the next one
+        Thread.sleep(200);
+        CompletableFuture<Void> third = semaphore.acquireAsync();
+
+        semaphore.release();
+        assertTrue(first.isDone());
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+
+        semaphore.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertFalse(third.isDone());
+
+        semaphore.release();
+        assertTrue(third.isDone());
+        blocking.join();
+    }
+
+    @Test
+    public void testInterruptedWaiterDoesNotTakePermit()
+        throws Exception
+    {
+        final ETAsyncSemaphore semaphore = new ETAsyncSemaphore(1);
+        semaphore.acquire();
+
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        Thread blocking = new Thread(() -> {
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException ex) {
+                interrupted.set(true);
+            }
+        });
+        blocking.start();
+        Thread.sleep(200);
+        blocking.interrupt();
+        blocking.join(5000);
+        assertTrue(interrupted.get());
+
+        semaphore.release();
+        assertTrue(semaphore.acquireAsync().isDone());
+    }
+}
@@ -0,0 +1,260 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.exacttarget.fuelsdk.internal.APIObject;
+import com.exacttarget.fuelsdk.internal.Subscriber;
+
+public class ETBulkExecutorTest {
+    private static final Pattern SUBSCRIBER_KEY =
+            Pattern.compile("<SubscriberKey>(\\d+)</SubscriberKey>");
+
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private AtomicInteger inFlight = new AtomicInteger();
+
+    private AtomicInteger maxInFlight = new AtomicInteger();
+
+    private List<List<String>> requests = new ArrayList<List<String>>();
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                List<String> keys = new ArrayList<String>();
+                Matcher matcher = SUBSCRIBER_KEY.matcher(request.getBodyAsString());
+                while (matcher.find()) {
+                    keys.add(matcher.group(1));
+                }
+                synchronized (requests) {
+                    requests.add(keys);
+                }
+                int n = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(n, Math::max);
+                try {
+                    // earlier chunks finish last
+                    Thread.sleep(200 - 20 * Integer.parseInt(keys.get(0)) / 3);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                if (keys.contains("20")) {
+                    return new ETStubServer.Reply(400, "not a SOAP response");
+                }
+                return createReply(keys, keys.contains("4") ? "4" : null);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testCreateIsChunkedAndMergedInOrder()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("bulkChunkSize", "3");
+        client.getConfiguration().set("bulkConcurrency", "2");
+
+        ETResponse<ETSubscriber> response = client.create(subscribers(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13));
+
+        assertEquals(5, requests.size());
+        assertTrue(requests.contains(Arrays.asList("13")));
+        assertTrue(maxInFlight.get() <= 2);
+
+        assertEquals(13, response.getResults().size());
+        for (int i = 0; i < 13; i++) {
+            ETResult<ETSubscriber> result = response.getResults().get(i);
+            if (i + 1 == 4) {
+                assertEquals(ETResult.Status.ERROR, result.getStatus());
+            } else {
+                assertEquals(Integer.toString(i + 1), result.getObject().getId());
+            }
+        }
+        // the chunk with the failed object decides the overall status
+        assertEquals("Has Errors", response.getResponseCode());
+    }
+
+    @Test
+    public void testCreateOnWorkerOfFullPoolSendsChunksInline()
+        throws Exception
+    {
+        client.getConfiguration().set("executor", "platform");
+        client.getConfiguration().set("executorPoolSize", "1");
+        client.getConfiguration().set("bulkChunkSize", "3");
+
+        // the only worker would otherwise wait for chunks queued behind it
+        Future<ETResponse<ETSubscriber>> future = client.getExecutor().submit(
+                () -> client.create(subscribers(1, 2, 3, 5, 6, 7, 8)));
+        ETResponse<ETSubscriber> response = future.get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, requests.size());
+        assertEquals(1, maxInFlight.get());
+        assertEquals(7, response.getResults().size());
+        assertEquals("8", response.getResults().get(6).getObject().getId());
+    }
+
+    @Test
+    public void testFailedChunkGetsErrorResults()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("bulkChunkSize", "2");
+
+        ETResponse<ETSubscriber> response = client.create(subscribers(1, 2, 20, 21, 5, 6));
+        assertFailedChunk(response);
+        assertEquals(3, requests.size());
+
+        response = client.async().create(subscribers(1, 2, 20, 21, 5, 6)).join();
+        assertFailedChunk(response);
+        assertEquals(6, requests.size());
+    }
+
+    private static void assertFailedChunk(ETResponse<ETSubscriber> response) {
+        assertEquals(ETResult.Status.ERROR, response.getStatus());
+        assertEquals(6, response.getResults().size());
+        assertEquals("2", response.getResults().get(1).getObject().getId());
+        for (int i = 2; i < 4; i++) {
+            ETResult<ETSubscriber> result = response.getResults().get(i);
+            assertEquals(ETResult.Status.ERROR, result.getStatus());
+            assertNotNull(result.getErrorMessage());
+        }
+        assertEquals("5", response.getResults().get(4).getObject().getId());
+    }
+
+    @Test
+    public void testSmallListsAreSentAsIs()
+        throws ETSdkException
+    {
+        ETResponse<ETSubscriber> response = client.create(subscribers(1, 2, 3));
+        assertEquals(1, requests.size());
+        assertEquals(3, response.getResults().size());
+        assertEquals(ETResult.Status.OK, response.getStatus());
+    }
+
+    @Test
+    public void testSplitBySize()
+        throws ETSdkException
+    {
+        List<APIObject> objects = new ArrayList<APIObject>();
+        for (int i = 0; i < 10; i++) {
+            Subscriber subscriber = new Subscriber();
+            subscriber.setEmailAddress(i == 5 ? repeat('x', 2000) : "subscriber" + i + "@example.com");
+            objects.add(subscriber);
+        }
+        List<List<APIObject>> chunks = ETBulkExecutor.split(objects, 100, 1000);
+        int count = 0;
+        for (List<APIObject> chunk : chunks) {
+            count += chunk.size();
+            if (chunk.contains(objects.get(5))) {
+                // too large for any chunk, so it goes alone
+                assertEquals(1, chunk.size());
+            }
+        }
+        assertEquals(10, count);
+        assertTrue(chunks.size() >= 3);
+        assertEquals(objects.get(0), chunks.get(0).get(0));
+
+        // by count only:
+        assertEquals(4, ETBulkExecutor.split(objects, 3, 0).size());
+        assertEquals(1, ETBulkExecutor.split(objects, 10, 0).size());
+    }
+
+    private static List<ETSubscriber> subscribers(int... keys) {
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>();
+        for (int key : keys) {
+            ETSubscriber subscriber = new ETSubscriber();
+            subscriber.setKey(Integer.toString(key));
+            subscriber.setEmailAddress("subscriber" + key + "@example.com");
+            subscribers.add(subscriber);
+        }
+        return subscribers;
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static ETStubServer.Reply createReply(List<String> keys, String failedKey) {
+        StringBuilder results = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            boolean failed = keys.get(i).equals(failedKey);
+            results.append("<Results>")
+                   .append("<StatusCode>").append(failed ? "Error" : "OK").append("</StatusCode>")
+                   .append("<StatusMessage>").append(failed ? "Failed" : "Created").append("</StatusMessage>")
+                   .append("<OrdinalID>").append(i).append("</OrdinalID>")
+                   .append("<NewID>").append(keys.get(i)).append("</NewID>")
+                   .append("</Results>");
+        }
+        return new ETStubServer.Reply(200, "text/xml; charset=utf-8",
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                + "<soap:Body>"
+                + "<CreateResponse xmlns=\"http://exacttarget.com/wsdl/partnerAPI\">"
+                + results
+                + "<RequestID>create</RequestID>"
+                + "<OverallStatus>" + (failedKey != null ? "Has Errors" : "OK") + "</OverallStatus>"
+                + "</CreateResponse>"
+                + "</soap:Body>"
+                + "</soap:Envelope>");
+    }
+}
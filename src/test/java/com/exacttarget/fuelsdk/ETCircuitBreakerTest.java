@@ -0,0 +1,236 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETCircuitBreakerTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private ETClient createClient()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("circuitFailureThreshold", "2");
+        configuration.set("circuitOpenTime", "60000");
+        configuration.set("retryMaxAttempts", "0");
+        client = new ETClient(configuration);
+        return client;
+    }
+
+    @Test
+    public void testOpensAfterFailuresInARow()
+        throws ETSdkException
+    {
+        ETCircuitBreaker circuitBreaker = new ETCircuitBreaker("rest test", 3, 60000, 0);
+        for (int i = 0; i < 5; i++) {
+            // a success in between starts the count over
+            circuitBreaker.acquire();
+            circuitBreaker.failed();
+            circuitBreaker.acquire();
+            circuitBreaker.succeeded();
+        }
+        for (int i = 0; i < 3; i++) {
+            assertFalse(circuitBreaker.isOpen());
+            circuitBreaker.acquire();
+            circuitBreaker.failed();
+        }
+        assertTrue(circuitBreaker.isOpen());
+        try {
+            circuitBreaker.acquire();
+            fail();
+        } catch (ETCircuitOpenException ex) {
+            assertEquals("rest test", ex.getEndpoint());
+            assertTrue(ex.getRetryAfter() > 59000 && ex.getRetryAfter() <= 60001);
+        }
+    }
+
+    @Test
+    public void testHalfOpenProbe()
+        throws Exception
+    {
+        ETCircuitBreaker circuitBreaker = new ETCircuitBreaker("soap test", 1, 50, 0);
+        circuitBreaker.acquire();
+        circuitBreaker.failed();
+        Thread.sleep(100);
+
+        // the probe fails, so the breaker opens again
+        circuitBreaker.acquire();
+        try {
+            circuitBreaker.acquire();
+            fail();
+        } catch (ETCircuitOpenException ex) {
+            assertEquals(0, ex.getRetryAfter());
+        }
+        circuitBreaker.failed();
+        try {
+            circuitBreaker.acquire();
+            fail();
+        } catch (ETCircuitOpenException ex) {
+            // expected
+        }
+        Thread.sleep(100);
+
+        // the probe succeeds, so the breaker closes
+        circuitBreaker.acquire();
+        circuitBreaker.succeeded();
+        assertFalse(circuitBreaker.isOpen());
+        circuitBreaker.acquire();
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    public void testBulkhead()
+        throws ETSdkException
+    {
+        ETCircuitBreaker circuitBreaker = new ETCircuitBreaker("rest test", 0, 0, 2);
+        circuitBreaker.acquire();
+        circuitBreaker.acquire();
+        try {
+            circuitBreaker.acquire();
+            fail();
+        } catch (ETBulkheadFullException ex) {
+            assertEquals(2, ex.getSize());
+        }
+        circuitBreaker.failed();
+        circuitBreaker.acquire();
+        assertFalse(circuitBreaker.isOpen());
+    }
+
+    @Test
+    public void testRestBreakerIsolatedFromSoap()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(502, "{\"message\":\"bad gateway\"}");
+            }
+        });
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("Subscriber", 1, 1));
+        createClient();
+        ETRestConnection connection = client.getRestConnection();
+        assertEquals(502, (int) connection.get("/hub/v1/campaigns").getResponseCode());
+        assertEquals(502, (int) connection.get("/hub/v1/campaigns").getResponseCode());
+        try {
+            connection.get("/hub/v1/campaigns");
+            fail();
+        } catch (ETCircuitOpenException ex) {
+            assertTrue(ex.getEndpoint().startsWith("rest "));
+        }
+        assertEquals(2, server.getRequests("/hub/v1/campaigns").size());
+
+        ETResponse<ETSubscriber> response = client.retrieve(ETSubscriber.class);
+        assertEquals(1, response.getObjects().size());
+    }
+
+    @Test
+    public void testThrottlingDoesNotOpenBreaker()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(503, "{\"message\":\"slow down\"}");
+            }
+        });
+        createClient();
+        ETRestConnection connection = client.getRestConnection();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, (int) connection.get("/hub/v1/campaigns").getResponseCode());
+        }
+        assertEquals(3, server.getRequests("/hub/v1/campaigns").size());
+    }
+
+    @Test
+    public void testSoapBreaker()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(504, "text/html", "<html>timeout</html>");
+            }
+        });
+        createClient();
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.retrieve(ETSubscriber.class);
+                fail();
+            } catch (Exception ex) {
+                assertFalse(ex instanceof ETCircuitOpenException);
+            }
+        }
+        try {
+            client.retrieve(ETSubscriber.class);
+            fail();
+        } catch (ETCircuitOpenException ex) {
+            assertTrue(ex.getEndpoint().startsWith("soap "));
+        }
+        assertEquals(2, server.getRequests("/service.asmx").size());
+
+        // REST calls still go through
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, "{}");
+            }
+        });
+        assertEquals(200, (int) client.getRestConnection().get("/hub/v1/campaigns").getResponseCode());
+    }
+}
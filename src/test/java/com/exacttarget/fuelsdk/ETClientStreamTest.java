@@ -0,0 +1,208 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETClientStreamTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testStreamFollowsContinueRequests() {
+        ETStubServer.PagedRetrieve retrieve =
+                new ETStubServer.PagedRetrieve("Subscriber", 3, 4);
+        server.handle("/service.asmx", retrieve);
+
+        Stream<ETSubscriber> stream = client.stream(ETSubscriber.class, new ETFilter());
+        // nothing is fetched until the stream is consumed
+        assertEquals(0, retrieve.getPagesServed().size());
+
+        List<String> ids = stream.map(ETSubscriber::getId).collect(Collectors.toList());
+        assertEquals(12, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(Integer.toString(i + 1), ids.get(i));
+        }
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testStreamFetchesPagesOnDemand() {
+        ETStubServer.PagedRetrieve retrieve =
+                new ETStubServer.PagedRetrieve("Subscriber", 100, 10);
+        server.handle("/service.asmx", retrieve);
+
+        Iterator<ETSubscriber> iterator =
+                client.stream(ETSubscriber.class, new ETFilter()).iterator();
+        for (int i = 1; i <= 15; i++) {
+            assertEquals(Integer.toString(i), iterator.next().getId());
+        }
+        assertEquals(Arrays.asList(1, 2), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testStreamPrefetchesPages()
+        throws Exception
+    {
+        ETStubServer.PagedRetrieve retrieve =
+                new ETStubServer.PagedRetrieve("Subscriber", 5, 3);
+        server.handle("/service.asmx", retrieve);
+
+        Iterator<ETSubscriber> iterator =
+                client.stream(ETSubscriber.class, new ETFilter(), 1).iterator();
+        assertEquals("1", iterator.next().getId());
+        // page 2 waits in the queue while page 3 waits to be queued:
+        waitForPages(retrieve, 3);
+        Thread.sleep(200);
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+
+        for (int i = 2; i <= 15; i++) {
+            assertEquals(Integer.toString(i), iterator.next().getId());
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testClosingStreamStopsPrefetching()
+        throws Exception
+    {
+        ETStubServer.PagedRetrieve retrieve =
+                new ETStubServer.PagedRetrieve("Subscriber", 100, 10);
+        server.handle("/service.asmx", retrieve);
+
+        Stream<ETSubscriber> stream =
+                client.stream(ETSubscriber.class, new ETFilter(), 2);
+        assertEquals("1", stream.iterator().next().getId());
+        waitForPages(retrieve, 4);
+        stream.close();
+        Thread.sleep(1500);
+        assertEquals(Arrays.asList(1, 2, 3, 4), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testCloseWakesWaitingConsumer()
+        throws Exception
+    {
+        final CountDownLatch fetched = new CountDownLatch(1);
+        ETPageSource<ETSubscriber> source = previous -> {
+            // a page that takes longer than the test
+            try {
+                fetched.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        };
+        final ETPrefetchingPageSource<ETSubscriber> prefetching =
+                new ETPrefetchingPageSource<ETSubscriber>(source, 1, client.getExecutor());
+        final AtomicReference<Object> page = new AtomicReference<Object>("waiting");
+        Thread consumer = new Thread(() -> {
+            try {
+                page.set(prefetching.nextPage(null));
+            } catch (ETSdkException ex) {
+                page.set(ex);
+            }
+        });
+        consumer.start();
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        prefetching.close();
+        assertTrue((System.nanoTime() - start) / 1000000 < 1000);
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertNull(page.get());
+        fetched.countDown();
+    }
+
+    @Test
+    public void testStreamReportsErrors() {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return ETStubServer.retrieveReply("request1", "Error", "");
+            }
+        });
+
+        try {
+            client.stream(ETSubscriber.class, new ETFilter()).count();
+            fail();
+        } catch (ETUncheckedSdkException ex) {
+            assertTrue(ex.getCause().getMessage().contains("Error"));
+        }
+    }
+
+    private static void waitForPages(ETStubServer.PagedRetrieve retrieve, int pages)
+        throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (retrieve.getPagesServed().size() < pages) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
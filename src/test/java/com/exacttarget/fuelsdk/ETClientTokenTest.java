@@ -0,0 +1,163 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ETClientTokenTest {
+    private ETStubServer server = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testValidTokenIsNotRefreshed()
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        try {
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("token1", client.refreshToken());
+            }
+            assertEquals(1, server.getTokenCount());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentRefreshesShareOneRequest()
+        throws Exception
+    {
+        // expires within the refresh window, so every
+        // caller sees a token that needs refreshing:
+        server.setTokenExpiresIn(120);
+        final ETClient client = new ETClient(server.createConfiguration());
+        try {
+            assertEquals(1, server.getTokenCount());
+            server.setTokenDelay(500);
+
+            final CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call()
+                        throws Exception
+                    {
+                        start.await();
+                        return client.refreshToken();
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<String> tokens = new HashSet<String>();
+            for (Future<String> future : futures) {
+                tokens.add(future.get(30, TimeUnit.SECONDS));
+            }
+            executor.shutdown();
+
+            assertEquals(2, server.getTokenCount());
+            assertEquals(1, tokens.size());
+            assertEquals("token2", tokens.iterator().next());
+            assertEquals("token2", client.getAccessToken());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenIsRefreshedProactively()
+        throws Exception
+    {
+        // renewal is scheduled one minute before the five
+        // minute refresh window, i.e. about a second from now:
+        server.setTokenExpiresIn(361);
+        ETClient client = new ETClient(server.createConfiguration());
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (server.getTokenCount() < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(server.getTokenCount() >= 2);
+            assertEquals("token" + server.getTokenCount(), client.getAccessToken());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testProactiveRefreshCanBeDisabled()
+        throws Exception
+    {
+        server.setTokenExpiresIn(361);
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("proactiveTokenRefresh", "false");
+        ETClient client = new ETClient(configuration);
+        try {
+            Thread.sleep(2000);
+            assertEquals(1, server.getTokenCount());
+        } finally {
+            client.close();
+        }
+    }
+}
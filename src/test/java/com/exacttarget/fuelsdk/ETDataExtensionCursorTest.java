@@ -0,0 +1,253 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ETDataExtensionCursorTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private ETStubServer.PagedRetrieve retrieve = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+        // 3 batches of 10 rows:
+        retrieve = new RowRetrieve(3, 10);
+        server.handle("/service.asmx", retrieve);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testSelectPagesBeyondFirstBatch()
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response =
+                ETDataExtension.select(client, "key=test", 3, 5, "Id");
+        assertEquals(Arrays.asList("11", "12", "13", "14", "15"), ids(response));
+        assertTrue(response.hasMoreResults());
+        assertNull(response.getTotalCount());
+
+        response = ETDataExtension.select(client, "key=test", 6, 5, "Id");
+        assertEquals(Arrays.asList("26", "27", "28", "29", "30"), ids(response));
+        assertFalse(response.hasMoreResults());
+        assertEquals(Integer.valueOf(30), response.getTotalCount());
+
+        response = ETDataExtension.select(client, "key=test", 7, 5, "Id");
+        assertTrue(response.getResults().isEmpty());
+        assertFalse(response.hasMoreResults());
+    }
+
+    @Test
+    public void testSelectSpanningBatches()
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response =
+                ETDataExtension.select(client, "key=test", 2, 7, "Id");
+        assertEquals(Arrays.asList("8", "9", "10", "11", "12", "13", "14"), ids(response));
+        assertEquals(Arrays.asList(1, 2), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testSelectFollowsCachedContinuations()
+        throws ETSdkException
+    {
+        for (int page = 1; page <= 6; page++) {
+            ETDataExtension.select(client, "key=test", page, 5, "Id");
+        }
+        // each batch is retrieved once:
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+
+        // a page in the middle continues from its batch:
+        ETResponse<ETDataExtensionRow> response =
+                ETDataExtension.select(client, "key=test", 3, 5, "Id");
+        assertEquals("11", ids(response).get(0));
+        assertEquals(Arrays.asList(1, 2, 3, 2), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testRepeatedReadOfFinishedBatchRetrievesItAgain()
+        throws ETSdkException
+    {
+        ETDataExtension.select(client, "key=test", 2, 5, "Id");
+        ETDataExtension.select(client, "key=test", 2, 5, "Id");
+        // the batch was read to its end and not held on to
+        assertEquals(Arrays.asList(1, 1), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testExpiredCursorsAreDropped()
+        throws Exception
+    {
+        client.getConfiguration().set("dataExtensionCursorTtl", "1");
+        ETDataExtension.select(client, "key=test", 3, 5, "Id");
+        assertEquals(1, client.getDataExtensionCursors().size());
+        Thread.sleep(1100);
+        ETDataExtension.select(client, "key=other", 1, 5, "Id");
+        assertEquals(1, client.getDataExtensionCursors().size());
+        // the expired cursor's continuations are gone
+        ETDataExtension.select(client, "key=test", 3, 5, "Id");
+        assertEquals(Arrays.asList(1, 2, 1, 1, 2), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testSelectRestartsExpiredContinuations()
+        throws ETSdkException
+    {
+        ETDataExtension.select(client, "key=test", 5, 5, "Id");
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+
+        final ETStubServer.PagedRetrieve delegate = retrieve;
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            private boolean expired = false;
+
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                if (!expired && request.getBodyAsString().contains("<ContinueRequest>")) {
+                    expired = true;
+                    return ETStubServer.retrieveReply("expired", "Error", "");
+                }
+                return delegate.handle(request);
+            }
+        });
+        ETResponse<ETDataExtensionRow> response =
+                ETDataExtension.select(client, "key=test", 3, 5, "Id");
+        assertEquals(Arrays.asList("11", "12", "13", "14", "15"), ids(response));
+        assertEquals(Arrays.asList(1, 2, 3, 1, 2), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testSelectOrderedRetrievesAllBatches()
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response = ETDataExtension.select(client,
+                "key=test", 1, 3, "Id", "order by Id desc");
+        // ordered as strings:
+        assertEquals(Arrays.asList("9", "8", "7"), ids(response));
+        assertEquals(Integer.valueOf(30), response.getTotalCount());
+        assertTrue(response.hasMoreResults());
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+    }
+
+    @Test
+    public void testSelectUsingRest()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("dataExtensionSelectUsesRest", "true");
+        server.handle("/data/v1/customobjectdata/key/test/rowset", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, "{\"page\":2,\"pageSize\":2,\"count\":5,"
+                        + "\"items\":["
+                        + "{\"keys\":{\"id\":\"3\"},\"values\":{\"name\":\"c\",\"email\":null}},"
+                        + "{\"keys\":{\"id\":\"4\"},\"values\":{\"name\":\"d\",\"email\":null}}"
+                        + "]}");
+            }
+        });
+
+        ETResponse<ETDataExtensionRow> response = ETDataExtension.select(client,
+                "key=test", 2, 2, "id", "name", "order by name");
+        List<ETStubServer.Request> requests =
+                server.getRequests("/data/v1/customobjectdata/key/test/rowset");
+        assertEquals(1, requests.size());
+        assertEquals("$page=2&$pagesize=2&$orderBy=name%20asc", requests.get(0).getQuery());
+        assertEquals(2, response.getResults().size());
+        assertEquals("3", response.getObjects().get(0).getColumn("id"));
+        assertEquals("c", response.getObjects().get(0).getColumn("name"));
+        assertFalse(response.getObjects().get(0).getColumnNames().contains("email"));
+        assertEquals(Integer.valueOf(5), response.getTotalCount());
+        assertTrue(response.hasMoreResults());
+        assertTrue(retrieve.getPagesServed().isEmpty());
+    }
+
+    @Test
+    public void testSelectUsingRestEncodesKeyAsPathSegment()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("dataExtensionSelectUsesRest", "true");
+        server.handle("/data/v1/customobjectdata/key/my key+1/rowset", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, "{\"page\":1,\"pageSize\":2,\"count\":0,\"items\":[]}");
+            }
+        });
+
+        ETResponse<ETDataExtensionRow> response = ETDataExtension.select(client,
+                "key='my key+1'", 1, 2);
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(1, server.getRequests("/data/v1/customobjectdata/key/my key+1/rowset").size());
+    }
+
+    private static List<String> ids(ETResponse<ETDataExtensionRow> response) {
+        List<String> ids = new ArrayList<String>();
+        for (ETDataExtensionRow row : response.getObjects()) {
+            ids.add(row.getColumn("Id"));
+        }
+        return ids;
+    }
+
+    private static class RowRetrieve extends ETStubServer.PagedRetrieve {
+        RowRetrieve(int pages, int pageSize) {
+            super("DataExtensionObject", pages, pageSize);
+        }
+
+        @Override
+        String result(int id) {
+            return "<Results xsi:type=\"DataExtensionObject\"><Properties>"
+                    + "<Property><Name>Id</Name><Value>" + id + "</Value></Property>"
+                    + "</Properties></Results>";
+        }
+    }
+}
@@ -0,0 +1,174 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ETDataExtensionFilterTest {
+    private static final Pattern KEY =
+            Pattern.compile("<Key><Name>id</Name><Value>(\\d+)</Value></Key>");
+
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private ETStubServer.PagedRetrieve rows = null;
+
+    private ETDataExtension dataExtension = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+        // 3 batches of 10 matching rows:
+        rows = new ETStubServer.PagedRetrieve("DataExtensionObject", 3, 10) {
+            @Override
+            String result(int id) {
+                return "<Results xsi:type=\"DataExtensionObject\"><Properties>"
+                        + "<Property><Name>Id</Name><Value>" + id + "</Value></Property>"
+                        + "</Properties></Results>";
+            }
+        };
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                String body = request.getBodyAsString();
+                if (body.contains("<ObjectType>DataExtensionField</ObjectType>")) {
+                    return ETStubServer.retrieveReply("fields", "OK",
+                            "<Results xsi:type=\"DataExtensionField\">"
+                            + "<Name>Id</Name><IsPrimaryKey>true</IsPrimaryKey>"
+                            + "</Results>");
+                }
+                if (body.contains("DeleteRequest") || body.contains("UpdateRequest")) {
+                    return ETStubServer.mutationReply(body);
+                }
+                return rows.handle(request);
+            }
+        });
+        dataExtension = new ETDataExtension();
+        dataExtension.setClient(client);
+        dataExtension.setKey("test");
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testDeleteByFilterStreamsBatches()
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response = dataExtension.delete("Id > 0");
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(30, response.getResults().size());
+        // the rows are retrieved once, following continue requests:
+        assertEquals(3, rows.getPagesServed().size());
+
+        List<String> deletes = mutations("DeleteRequest");
+        assertEquals(3, deletes.size());
+        for (int i = 0; i < deletes.size(); i++) {
+            Matcher matcher = KEY.matcher(deletes.get(i));
+            int count = 0;
+            while (matcher.find()) {
+                assertEquals(Integer.toString(i * 10 + count + 1), matcher.group(1));
+                count++;
+            }
+            assertEquals(10, count);
+        }
+    }
+
+    @Test
+    public void testDeleteByFilterHandsResultsToConsumer()
+        throws ETSdkException
+    {
+        List<ETResult<ETDataExtensionRow>> results = new ArrayList<ETResult<ETDataExtensionRow>>();
+        ETResponse<ETDataExtensionRow> response = dataExtension.delete("Id > 0", results::add);
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertTrue(response.getResults().isEmpty());
+        assertEquals(Integer.valueOf(30), response.getTotalCount());
+        assertEquals(30, results.size());
+    }
+
+    @Test
+    public void testUpdateByFilterStreamsBatches()
+        throws ETSdkException
+    {
+        ETResponse<ETDataExtensionRow> response =
+                dataExtension.update("Id > 0", "Name=updated");
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(30, response.getResults().size());
+        assertEquals(3, rows.getPagesServed().size());
+
+        List<String> updates = mutations("UpdateRequest");
+        assertEquals(3, updates.size());
+        for (String update : updates) {
+            assertTrue(update.contains("<Value>updated</Value>"));
+        }
+    }
+
+    @Test(expected = ETSdkException.class)
+    public void testUpdateByFilterRejectsInvalidAssignments()
+        throws ETSdkException
+    {
+        try {
+            dataExtension.update("Id > 0", "Name > 1");
+        } finally {
+            assertTrue(rows.getPagesServed().isEmpty());
+        }
+    }
+
+    private List<String> mutations(String element) {
+        List<String> bodies = new ArrayList<String>();
+        for (ETStubServer.Request request : server.getRequests("/service.asmx")) {
+            if (request.getBodyAsString().contains(element)) {
+                bodies.add(request.getBodyAsString());
+            }
+        }
+        return bodies;
+    }
+}
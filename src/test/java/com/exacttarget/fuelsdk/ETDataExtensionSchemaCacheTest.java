@@ -0,0 +1,195 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class ETDataExtensionSchemaCacheTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private ETDataExtension dataExtension = null;
+
+    private volatile boolean failFieldRetrieves = false;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                String body = request.getBodyAsString();
+                if (body.contains("<ObjectType>DataExtensionField</ObjectType>")
+                        && failFieldRetrieves) {
+                    return ETStubServer.retrieveReply("fields", "Error",
+                            "<Results xsi:type=\"DataExtensionField\">"
+                            + "<Name>renamed</Name>"
+                            + "</Results>");
+                }
+                if (body.contains("<ObjectType>DataExtensionField</ObjectType>")) {
+                    return ETStubServer.retrieveReply("fields", "OK",
+                            "<Results xsi:type=\"DataExtensionField\">"
+                            + "<Name>id</Name><IsPrimaryKey>true</IsPrimaryKey>"
+                            + "</Results>"
+                            + "<Results xsi:type=\"DataExtensionField\">"
+                            + "<Name>name</Name><IsPrimaryKey>false</IsPrimaryKey>"
+                            + "</Results>");
+                }
+                if (body.contains("<ObjectType>DataExtensionObject")) {
+                    return ETStubServer.retrieveReply("rows", "OK", "");
+                }
+                return ETStubServer.mutationReply(body);
+            }
+        });
+        dataExtension = new ETDataExtension();
+        dataExtension.setClient(client);
+        dataExtension.setKey("test");
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testDeleteRetrievesColumnsOnce()
+        throws ETSdkException
+    {
+        List<ETDataExtensionRow> rows = new ArrayList<ETDataExtensionRow>();
+        for (int i = 1; i <= 5; i++) {
+            ETDataExtensionRow row = new ETDataExtensionRow();
+            row.setColumn("id", Integer.toString(i));
+            rows.add(row);
+        }
+        dataExtension.delete(rows);
+        dataExtension.delete(rows);
+        assertEquals(1, fieldRetrieves());
+        assertEquals(10, deletedKeys());
+    }
+
+    @Test
+    public void testSelectSharesCachedColumns()
+        throws ETSdkException
+    {
+        ETDataExtension.select(client, "key=test", new ETFilter());
+        ETDataExtension.select(client, "key=test", new ETFilter());
+        dataExtension.hydrate();
+        assertEquals(1, fieldRetrieves());
+        assertEquals(2, dataExtension.getColumns().size());
+        assertEquals("id", dataExtension.getColumns().get(0).getName());
+    }
+
+    @Test
+    public void testInvalidate()
+        throws ETSdkException
+    {
+        dataExtension.hydrate();
+        client.getDataExtensionSchemaCache().invalidate("test");
+        dataExtension.hydrate();
+        assertEquals(2, fieldRetrieves());
+    }
+
+    @Test
+    public void testCacheDisabled()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("dataExtensionSchemaTtl", "0");
+        dataExtension.hydrate();
+        dataExtension.hydrate();
+        assertEquals(2, fieldRetrieves());
+    }
+
+    @Test
+    public void testExpiredColumnsNotServedAfterFailedRetrieve()
+        throws Exception
+    {
+        client.getConfiguration().set("dataExtensionSchemaTtl", "1");
+        dataExtension.hydrate();
+        assertEquals(2, dataExtension.getColumns().size());
+        Thread.sleep(1100);
+        failFieldRetrieves = true;
+        dataExtension.hydrate();
+        assertEquals(1, dataExtension.getColumns().size());
+        assertEquals("renamed", dataExtension.getColumns().get(0).getName());
+        // the failed retrieve wasn't cached
+        failFieldRetrieves = false;
+        dataExtension.hydrate();
+        assertEquals(2, dataExtension.getColumns().size());
+        assertEquals(3, fieldRetrieves());
+    }
+
+    @Test
+    public void testHydrateWithoutKeyIsNotCached()
+        throws ETSdkException
+    {
+        dataExtension.setKey(null);
+        dataExtension.hydrate();
+        dataExtension.hydrate();
+        assertEquals(2, fieldRetrieves());
+    }
+
+    private int fieldRetrieves() {
+        return count("<ObjectType>DataExtensionField</ObjectType>");
+    }
+
+    private int deletedKeys() {
+        int keys = 0;
+        for (ETStubServer.Request request : server.getRequests("/service.asmx")) {
+            keys += request.getBodyAsString().split("<Key>").length - 1;
+        }
+        return keys;
+    }
+
+    private int count(String s) {
+        int count = 0;
+        for (ETStubServer.Request request : server.getRequests("/service.asmx")) {
+            if (request.getBodyAsString().contains(s)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
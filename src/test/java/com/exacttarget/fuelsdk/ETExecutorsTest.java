@@ -0,0 +1,152 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETExecutorsTest {
+    @Test
+    public void testPlatformPoolIsBounded()
+        throws Exception
+    {
+        ETConfiguration configuration = new ETConfiguration();
+        configuration.set("executor", "platform");
+        configuration.set("executorPoolSize", "3");
+        ExecutorService executor = ETExecutors.create(configuration);
+        try {
+            assertTrue(executor instanceof ThreadPoolExecutor);
+
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final CountDownLatch done = new CountDownLatch(20);
+            for (int i = 0; i < 20; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(3, maxRunning.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAutoUsesVirtualThreadsWhereSupported()
+        throws Exception
+    {
+        ExecutorService executor = ETExecutors.create(new ETConfiguration());
+        try {
+            Future<Boolean> virtual = executor.submit(() -> isVirtual(Thread.currentThread()));
+            assertEquals(ETExecutors.isVirtualThreadSupported(), virtual.get());
+            assertEquals(!ETExecutors.isVirtualThreadSupported(),
+                    executor instanceof ThreadPoolExecutor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualFallsBackToPlatform()
+        throws Exception
+    {
+        ETConfiguration configuration = new ETConfiguration();
+        configuration.set("executor", "virtual");
+        ExecutorService executor = ETExecutors.create(configuration);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> isVirtual(Thread.currentThread())));
+            }
+            for (Future<Boolean> future : futures) {
+                assertEquals(ETExecutors.isVirtualThreadSupported(), future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClientExecutorIsShutDownOnClose()
+        throws Exception
+    {
+        ETStubServer server = new ETStubServer();
+        try {
+            ETClient client = new ETClient(server.createConfiguration());
+            ExecutorService executor = client.getExecutor();
+            assertFalse(executor.isShutdown());
+            client.close();
+            assertTrue(executor.isShutdown());
+            try {
+                client.getExecutor();
+                fail();
+            } catch (IllegalStateException ex) {
+                // a closed client doesn't start new threads
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread)
+        throws Exception
+    {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
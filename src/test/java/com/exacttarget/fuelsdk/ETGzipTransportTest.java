@@ -0,0 +1,259 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ETGzipTransportTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private ETClient createClient(boolean gzipEnabled, int requestMinBytes)
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("gzipEnabled", Boolean.toString(gzipEnabled));
+        configuration.set("gzipRequestMinBytes", Integer.toString(requestMinBytes));
+        client = new ETClient(configuration);
+        return client;
+    }
+
+    //
+    // Compresses the reply only if the request asked for it,
+    // so a client that didn't ask can't read the reply:
+    //
+
+    private static ETStubServer.Reply compress(ETStubServer.Request request,
+                                               ETStubServer.Reply reply)
+    {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return reply;
+        }
+        return new ETStubServer.Reply(reply.getStatus(),
+                reply.getContentType(),
+                gzip(reply.getBody())).setHeader("Content-Encoding", "gzip");
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            GZIPOutputStream gzip = new GZIPOutputStream(os);
+            gzip.write(bytes);
+            gzip.close();
+            return os.toByteArray();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static String body(ETStubServer.Request request) {
+        if (!"gzip".equals(request.getHeader("Content-Encoding"))) {
+            return request.getBodyAsString();
+        }
+        try {
+            InputStream is = new GZIPInputStream(
+                    new ByteArrayInputStream(request.getBody()));
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                os.write(buffer, 0, n);
+            }
+            return new String(os.toByteArray(), "UTF-8");
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void handleCampaigns() {
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return compress(request, new ETStubServer.Reply(200,
+                        "{\"body\":\"" + body(request).length() + "\"}"));
+            }
+        });
+    }
+
+    private void handleSubscribers() {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                String body = body(request);
+                if (body.contains("RetrieveRequestMsg")) {
+                    return compress(request, ETStubServer.retrieveReply("retrieve", "OK",
+                            "<Results xsi:type=\"Subscriber\"><ID>1</ID></Results>"
+                            + "<Results xsi:type=\"Subscriber\"><ID>2</ID></Results>"));
+                }
+                return compress(request, ETStubServer.mutationReply(body));
+            }
+        });
+    }
+
+    @Test
+    public void testRestResponseDecompressed()
+        throws ETSdkException
+    {
+        handleCampaigns();
+        createClient(true, 0);
+        ETRestConnection.Response response =
+                client.getRestConnection().get("/hub/v1/campaigns");
+        assertEquals("{\"body\":\"0\"}", response.getResponsePayload());
+        ETStubServer.Request request = server.getRequests("/hub/v1/campaigns").get(0);
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testRestRequestCompressedAboveMinBytes()
+        throws ETSdkException
+    {
+        handleCampaigns();
+        createClient(true, 100);
+        StringBuilder large = new StringBuilder("{\"name\":\"");
+        while (large.length() < 200) {
+            large.append("x");
+        }
+        large.append("\"}");
+        ETRestConnection connection = client.getRestConnection();
+        assertEquals("{\"body\":\"" + large.length() + "\"}",
+                connection.post("/hub/v1/campaigns", large.toString()).getResponsePayload());
+        assertEquals("{\"body\":\"12\"}",
+                connection.post("/hub/v1/campaigns", "{\"name\":\"a\"}").getResponsePayload());
+        List<ETStubServer.Request> requests = server.getRequests("/hub/v1/campaigns");
+        assertEquals("gzip", requests.get(0).getHeader("Content-Encoding"));
+        assertTrue(requests.get(0).getBody().length < large.length());
+        assertNull(requests.get(1).getHeader("Content-Encoding"));
+        assertEquals("{\"name\":\"a\"}", requests.get(1).getBodyAsString());
+    }
+
+    @Test
+    public void testDisabled()
+        throws ETSdkException
+    {
+        handleCampaigns();
+        createClient(false, 100);
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 200) {
+            large.append("x");
+        }
+        client.getRestConnection().post("/hub/v1/campaigns", large.toString());
+        ETStubServer.Request request = server.getRequests("/hub/v1/campaigns").get(0);
+        assertNull(request.getHeader("Accept-Encoding"));
+        assertNull(request.getHeader("Content-Encoding"));
+        assertEquals(large.toString(), request.getBodyAsString());
+    }
+
+    @Test
+    public void testSoapResponseDecompressed()
+        throws ETSdkException
+    {
+        handleSubscribers();
+        createClient(true, 0);
+        ETResponse<ETSubscriber> response = client.retrieve(ETSubscriber.class,
+                "emailAddress like '%@example.com'");
+        assertEquals(2, response.getObjects().size());
+        assertEquals("2", response.getObjects().get(1).getId());
+        ETStubServer.Request request = server.getRequests("/service.asmx").get(0);
+        assertTrue(request.getHeader("Accept-Encoding").contains("gzip"));
+        assertTrue(request.getHeader("User-Agent").startsWith("FuelSDK-Java"));
+    }
+
+    @Test
+    public void testStreamingSoapResponseDecompressed()
+        throws ETSdkException
+    {
+        handleSubscribers();
+        createClient(true, 0);
+        final List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>();
+        client.retrieve(ETSubscriber.class,
+                ETFilter.parse("emailAddress like '%@example.com'"),
+                subscriber -> subscribers.add(subscriber));
+        assertEquals(2, subscribers.size());
+        ETStubServer.Request request = server.getRequests("/service.asmx").get(0);
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testSoapRequestCompressedAboveMinBytes()
+        throws ETSdkException
+    {
+        handleSubscribers();
+        createClient(true, 1024);
+        List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>();
+        for (int i = 0; i < 20; i++) {
+            ETSubscriber subscriber = new ETSubscriber();
+            subscriber.setKey("subscriber" + i);
+            subscriber.setEmailAddress("subscriber" + i + "@example.com");
+            subscribers.add(subscriber);
+        }
+        ETResponse<ETSubscriber> response = client.create(subscribers);
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(20, response.getResults().size());
+        ETStubServer.Request request = server.getRequests("/service.asmx").get(0);
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertTrue(body(request).contains("subscriber19@example.com"));
+    }
+}
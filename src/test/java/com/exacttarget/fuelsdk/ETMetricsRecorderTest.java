@@ -0,0 +1,249 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETMetricsRecorderTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private ETMetricsRecorder createClient()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("metricsListener", ETMetricsRecorder.class.getName());
+        configuration.set("retryBaseDelay", "1");
+        configuration.set("proactiveTokenRefresh", "false");
+        client = new ETClient(configuration);
+        return (ETMetricsRecorder) client.getMetricsListener();
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value = 0; value < 1000000; value += 7) {
+            int index = ETLatencyHistogram.getIndex(value);
+            assertTrue(value <= ETLatencyHistogram.getHighestValue(index));
+            if (index > 0) {
+                assertTrue(value > ETLatencyHistogram.getHighestValue(index - 1));
+            }
+        }
+        assertEquals(Long.MAX_VALUE, ETLatencyHistogram.getHighestValue(
+                ETLatencyHistogram.getIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        ETLatencyHistogram histogram = new ETLatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + random.nextInt(100000000);
+            histogram.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[] { 50.0, 90.0, 99.0, 99.9 }) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + actual + " vs " + expected,
+                    Math.abs(actual - expected) <= expected / 64);
+        }
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100.0));
+
+        ETLatencyHistogram copy = histogram.copy();
+        copy.add(histogram);
+        assertEquals(2 * values.length, copy.getCount());
+        assertEquals(histogram.getValueAtPercentile(50.0), copy.getValueAtPercentile(50.0));
+    }
+
+    @Test
+    public void testSnapshot() {
+        ETMetricsRecorder recorder = new ETMetricsRecorder();
+        recorder.recordCall("rest.get", "campaigns", 2000000, 100, 0, 0, null);
+        recorder.recordCall("rest.get", "campaigns", 4000000, 50, 0, 1, "404");
+        recorder.recordCall("retrieve", "Subscriber", 1000000, 0, 10, 0, null);
+        recorder.recordCall("token.refresh", null, 1000000, 80, 0, 0, null);
+
+        List<ETMetricsSnapshot> snapshots = recorder.snapshot();
+        assertEquals(3, snapshots.size());
+        assertEquals("rest.get", snapshots.get(0).getOperation());
+        assertEquals("retrieve", snapshots.get(1).getOperation());
+        assertEquals("token.refresh", snapshots.get(2).getOperation());
+        assertNull(snapshots.get(2).getObjectType());
+
+        ETMetricsSnapshot snapshot = recorder.snapshot("rest.get", "campaigns");
+        assertEquals(2, snapshot.getCount());
+        assertEquals(150, snapshot.getPayloadBytes());
+        assertEquals(1, snapshot.getRetries());
+        assertEquals(1, snapshot.getErrorCount());
+        assertEquals(Long.valueOf(1), snapshot.getErrors().get("404"));
+        assertEquals(4, snapshot.getLatencyMillis(100.0));
+
+        recorder.reset();
+        assertTrue(recorder.snapshot().isEmpty());
+        assertNull(recorder.snapshot("rest.get", "campaigns"));
+    }
+
+    @Test
+    public void testNoListener()
+        throws ETSdkException
+    {
+        client = new ETClient(server.createConfiguration());
+        assertNull(client.getMetricsListener());
+        assertSame(ETMetricsCall.NONE, client.startCall("rest.get", null));
+    }
+
+    @Test
+    public void testRestCalls()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns/42", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(404, "{\"message\":\"not found\"}");
+            }
+        });
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, "{\"items\":[]}");
+            }
+        });
+        // tokens expiring this soon are refreshed before every call
+        server.setTokenExpiresIn(1);
+        ETMetricsRecorder recorder = createClient();
+        ETRestConnection connection = client.getRestConnection();
+        connection.get("/hub/v1/campaigns");
+        connection.get("/hub/v1/campaigns/42");
+
+        long refreshes = recorder.snapshot("token.refresh", null).getCount();
+        assertTrue(refreshes >= 2);
+        assertEquals(1 + refreshes, recorder.snapshot("auth.post", "token").getCount());
+
+        ETMetricsSnapshot snapshot = recorder.snapshot("rest.get", "campaigns");
+        assertEquals(2, snapshot.getCount());
+        assertEquals("{\"items\":[]}".length() + "{\"message\":\"not found\"}".length(),
+                snapshot.getPayloadBytes());
+        assertEquals(Long.valueOf(1), snapshot.getErrors().get("404"));
+    }
+
+    @Test
+    public void testRetriesAreCounted()
+        throws ETSdkException
+    {
+        final AtomicInteger requests = new AtomicInteger();
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                if (requests.incrementAndGet() == 1) {
+                    return new ETStubServer.Reply(429, "{\"message\":\"slow down\"}");
+                }
+                return new ETStubServer.Reply(200, "{\"items\":[]}");
+            }
+        });
+        ETMetricsRecorder recorder = createClient();
+        client.getRestConnection().get("/hub/v1/campaigns");
+
+        ETMetricsSnapshot snapshot = recorder.snapshot("rest.get", "campaigns");
+        assertEquals(1, snapshot.getCount());
+        assertEquals(1, snapshot.getRetries());
+        assertEquals(0, snapshot.getErrorCount());
+    }
+
+    @Test
+    public void testSoapRetrieve()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("Subscriber", 1, 3));
+        ETMetricsRecorder recorder = createClient();
+        ETResponse<ETSubscriber> response = client.retrieve(ETSubscriber.class);
+        assertEquals(3, response.getObjects().size());
+
+        ETMetricsSnapshot snapshot = recorder.snapshot("retrieve", "Subscriber");
+        assertEquals(1, snapshot.getCount());
+        assertEquals(3, snapshot.getObjectCount());
+        assertEquals(1, recorder.snapshot("soap.retrieve", "Subscriber").getCount());
+    }
+
+    @Test
+    public void testSoapFailure()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(500, "text/html", "<html>oops</html>");
+            }
+        });
+        ETMetricsRecorder recorder = createClient();
+        try {
+            client.retrieve(ETSubscriber.class);
+            fail();
+        } catch (ETSdkException ex) {
+            // expected
+        }
+        assertEquals(1, recorder.snapshot("retrieve", "Subscriber").getErrorCount());
+        assertEquals(1, recorder.snapshot("soap.retrieve", "Subscriber").getErrorCount());
+    }
+}
@@ -0,0 +1,365 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.exacttarget.fuelsdk.internal.CreateRequest;
+import com.exacttarget.fuelsdk.internal.CreateResponse;
+import com.exacttarget.fuelsdk.internal.RetrieveRequest;
+import com.exacttarget.fuelsdk.internal.RetrieveRequestMsg;
+import com.exacttarget.fuelsdk.internal.RetrieveResponseMsg;
+import com.exacttarget.fuelsdk.internal.Soap;
+
+public class ETRateLimiterTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private ETClient createClient()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("retryBaseDelay", "10");
+        client = new ETClient(configuration);
+        return client;
+    }
+
+    //
+    // Throttles the first n requests, then answers with the reply:
+    //
+
+    private static ETStubServer.Handler throttle(final int n,
+                                                 final int status,
+                                                 final String retryAfter,
+                                                 final ETStubServer.Reply reply)
+    {
+        final AtomicInteger requests = new AtomicInteger();
+        return new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                if (requests.incrementAndGet() > n) {
+                    return reply;
+                }
+                ETStubServer.Reply throttled = new ETStubServer.Reply(status,
+                        "{\"message\":\"throttled\"}");
+                if (retryAfter != null) {
+                    throttled.setHeader("Retry-After", retryAfter);
+                }
+                return throttled;
+            }
+        };
+    }
+
+    @Test
+    public void testTokenBucket()
+        throws ETSdkException
+    {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.REST,
+                20, 5, 0, 0, 10, 10);
+        long start = System.nanoTime();
+        for (int i = 0; i < 15; i++) {
+            limiter.acquire();
+            limiter.succeeded();
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        // a burst of 5, then 10 more at 20 per second
+        assertTrue("took " + elapsed + " ms", elapsed >= 400 && elapsed < 2000);
+    }
+
+    @Test
+    public void testConcurrencyLimitIsAdaptive()
+        throws ETSdkException
+    {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.SOAP,
+                0, 0, 8, 0, 10, 10);
+        assertEquals(8, limiter.getLimit());
+        limiter.acquire();
+        limiter.throttled(0);
+        assertEquals(4, limiter.getLimit());
+        limiter.acquire();
+        limiter.throttled(0);
+        assertEquals(2, limiter.getLimit());
+        // about one more per limit's worth of successful calls
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+            limiter.succeeded();
+        }
+        assertEquals(3, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.succeeded();
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    public void testRetryAfterPausesFamily()
+        throws ETSdkException
+    {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.REST,
+                0, 0, 0, 0, 10, 10);
+        limiter.acquire();
+        limiter.throttled(300);
+        long start = System.nanoTime();
+        limiter.acquire();
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue("took " + elapsed + " ms", elapsed >= 250);
+    }
+
+    @Test
+    public void testAsyncWaiterAdmittedWhenCallCompletes()
+        throws ETSdkException
+    {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.SOAP,
+                0, 0, 1, 0, 10, 10);
+        limiter.acquire();
+        CompletableFuture<Void> first = limiter.acquireAsync();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        assertFalse(first.isDone());
+        limiter.succeeded();
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        limiter.failed();
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    public void testAsyncWaiterAdmittedAfterPause()
+        throws Exception
+    {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.REST,
+                0, 0, 0, 0, 10, 10);
+        limiter.acquire();
+        limiter.throttled(300);
+        long start = System.nanoTime();
+        CompletableFuture<Void> future = limiter.acquireAsync();
+        assertFalse(future.isDone());
+        future.get(5, TimeUnit.SECONDS);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue("took " + elapsed + " ms", elapsed >= 250);
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(0, ETRateLimiter.parseRetryAfter(null));
+        assertEquals(0, ETRateLimiter.parseRetryAfter("soon"));
+        assertEquals(120000, ETRateLimiter.parseRetryAfter(" 120 "));
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now().plusSeconds(30));
+        long retryAfter = ETRateLimiter.parseRetryAfter(date);
+        assertTrue(retryAfter > 25000 && retryAfter <= 30000);
+    }
+
+    @Test
+    public void testRetryDelayIsJittered() {
+        ETRateLimiter limiter = new ETRateLimiter(ETRateLimiter.Family.REST,
+                0, 0, 0, 3, 100, 1000);
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long delay = limiter.getRetryDelay(attempt, 0);
+            assertTrue(delay >= 0 && delay <= Math.min(100L << (attempt - 1), 1000));
+        }
+        assertEquals(0, limiter.getRetryDelay(1, 5000));
+    }
+
+    @Test
+    public void testIdempotentRestRequestRetried()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns", throttle(2, 429, "0",
+                new ETStubServer.Reply(200, "{\"ok\":true}")));
+        createClient();
+        ETRestConnection.Response response =
+                client.getRestConnection().get("/hub/v1/campaigns");
+        assertEquals(200, (int) response.getResponseCode());
+        assertEquals(3, server.getRequests("/hub/v1/campaigns").size());
+    }
+
+    @Test
+    public void testRetriesGiveUp()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns", throttle(10, 503, null,
+                new ETStubServer.Reply(200, "{\"ok\":true}")));
+        createClient();
+        ETRestConnection.Response response =
+                client.getRestConnection().get("/hub/v1/campaigns");
+        assertEquals(503, (int) response.getResponseCode());
+        // the first attempt and three retries
+        assertEquals(4, server.getRequests("/hub/v1/campaigns").size());
+    }
+
+    @Test
+    public void testNonIdempotentRestRequestNotRetried()
+        throws ETSdkException
+    {
+        server.handle("/hub/v1/campaigns", throttle(1, 429, "0",
+                new ETStubServer.Reply(200, "{\"ok\":true}")));
+        createClient();
+        ETRestConnection.Response response =
+                client.getRestConnection().post("/hub/v1/campaigns", "{\"name\":\"a\"}");
+        assertEquals(429, (int) response.getResponseCode());
+        assertEquals(1, server.getRequests("/hub/v1/campaigns").size());
+    }
+
+    @Test
+    public void testAsyncRestRequestRetried()
+        throws Exception
+    {
+        server.handle("/hub/v1/campaigns", throttle(2, 429, null,
+                new ETStubServer.Reply(200, "{\"ok\":true}")));
+        createClient();
+        ETRestConnection.Response response =
+                client.getRestConnection().getAsync("/hub/v1/campaigns").get();
+        assertEquals(200, (int) response.getResponseCode());
+        assertEquals(3, server.getRequests("/hub/v1/campaigns").size());
+    }
+
+    @Test
+    public void testSoapRetrieveRetried()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", throttle(1, 503, "0",
+                ETStubServer.retrieveReply("retrieve", "OK",
+                        "<Results xsi:type=\"Subscriber\"><ID>1</ID></Results>")));
+        createClient();
+        RetrieveRequest retrieveRequest = new RetrieveRequest();
+        retrieveRequest.setObjectType("Subscriber");
+        retrieveRequest.getProperties().add("ID");
+        final RetrieveRequestMsg retrieveRequestMsg = new RetrieveRequestMsg();
+        retrieveRequestMsg.setRetrieveRequest(retrieveRequest);
+        RetrieveResponseMsg retrieveResponseMsg = client.getSoapConnection().call(
+                "retrieve", "Subscriber", new ETSoapConnection.Call<RetrieveResponseMsg>() {
+            @Override
+            public RetrieveResponseMsg call(Soap soap) {
+                return soap.retrieve(retrieveRequestMsg);
+            }
+        });
+        assertEquals(1, retrieveResponseMsg.getResults().size());
+        assertEquals(2, server.getRequests("/service.asmx").size());
+    }
+
+    @Test
+    public void testSoapCreateNotRetried()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", throttle(1, 503, "0",
+                ETStubServer.mutationReply("")));
+        createClient();
+        try {
+            client.getSoapConnection().call("create", "Subscriber",
+                    new ETSoapConnection.Call<CreateResponse>() {
+                @Override
+                public CreateResponse call(Soap soap) {
+                    return soap.create(new CreateRequest());
+                }
+            });
+            fail();
+        } catch (RuntimeException ex) {
+            // expected
+        }
+        assertEquals(1, server.getRequests("/service.asmx").size());
+    }
+
+    @Test
+    public void testSoapRuntimeExceptionCompletesCall()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("soapMaxConcurrency", "1");
+        client = new ETClient(configuration);
+        try {
+            client.getSoapConnection().call("create", "Subscriber",
+                    new ETSoapConnection.Call<CreateResponse>() {
+                @Override
+                public CreateResponse call(Soap soap) {
+                    throw new IllegalStateException("not a web service exception");
+                }
+            });
+            fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        // the failed call gave its permit back
+        CompletableFuture<Void> next =
+                client.getRateLimiter(ETRateLimiter.Family.SOAP).acquireAsync();
+        assertTrue(next.isDone());
+    }
+
+    @Test
+    public void testStreamingSoapRetrieveRetried()
+        throws ETSdkException
+    {
+        server.handle("/service.asmx", throttle(2, 429, "0",
+                ETStubServer.retrieveReply("retrieve", "OK",
+                        "<Results xsi:type=\"Subscriber\"><ID>1</ID></Results>")));
+        createClient();
+        final AtomicInteger subscribers = new AtomicInteger();
+        client.retrieve(ETSubscriber.class,
+                ETFilter.parse("emailAddress like '%@example.com'"),
+                subscriber -> subscribers.incrementAndGet());
+        assertEquals(1, subscribers.get());
+        List<ETStubServer.Request> requests = server.getRequests("/service.asmx");
+        assertEquals(3, requests.size());
+    }
+}
@@ -0,0 +1,169 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ETRestConnectionTest {
+    private ETStubServer server = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200,
+                        "{\"method\":\"" + request.getMethod() + "\"}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private void assertConnectionsReused(ETConfiguration configuration)
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(configuration);
+        ETRestConnection connection = client.getRestConnection();
+        for (int i = 0; i < 10; i++) {
+            ETRestConnection.Response response =
+                    connection.get("/hub/v1/campaigns");
+            assertEquals(200, (int) response.getResponseCode());
+            assertEquals("{\"method\":\"GET\"}", response.getResponsePayload());
+            assertEquals("OK", response.getResponseMessage());
+        }
+        List<ETStubServer.Request> requests =
+                server.getRequests("/hub/v1/campaigns");
+        assertEquals(10, requests.size());
+        Set<Integer> ports = new HashSet<Integer>();
+        for (ETStubServer.Request request : requests) {
+            ports.add(request.getRemotePort());
+            assertEquals("Bearer token1", request.getHeader("Authorization"));
+            assertEquals("FuelSDK-Java-v1.5.0-REST-GET-campaigns",
+                    request.getHeader("User-Agent"));
+        }
+        assertEquals(1, ports.size());
+    }
+
+    @Test
+    public void testHttpClientTransportReusesConnections()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        assertConnectionsReused(configuration);
+    }
+
+    @Test
+    public void testUrlConnectionTransportReusesConnections()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("restTransport",
+                ETUrlConnectionTransport.class.getName());
+        assertConnectionsReused(configuration);
+    }
+
+    @Test
+    public void testPostPatchDelete()
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        ETRestConnection connection = client.getRestConnection();
+        assertEquals("{\"method\":\"POST\"}",
+                connection.post("/hub/v1/campaigns", "{\"name\":\"a\"}").getResponsePayload());
+        assertEquals("{\"method\":\"PATCH\"}",
+                connection.patch("/hub/v1/campaigns", "{\"name\":\"b\"}").getResponsePayload());
+        assertEquals("{\"method\":\"DELETE\"}",
+                connection.delete("/hub/v1/campaigns").getResponsePayload());
+        List<ETStubServer.Request> requests =
+                server.getRequests("/hub/v1/campaigns");
+        assertEquals("{\"name\":\"b\"}", requests.get(1).getBodyAsString());
+        assertEquals("application/json", requests.get(1).getHeader("Content-Type"));
+    }
+
+    @Test
+    public void testErrorResponse()
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        ETRestConnection.Response response =
+                client.getRestConnection().get("/hub/v1/missing");
+        assertEquals(404, (int) response.getResponseCode());
+        assertEquals("Not Found", response.getResponseMessage());
+        assertTrue(response.getRequestId().startsWith("request"));
+    }
+
+    @Test
+    public void testPayloadKeepsLineBreaks()
+        throws ETSdkException
+    {
+        final String payload = "{\n  \"name\": \"caf\u00e9\"\n}\n";
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, payload);
+            }
+        });
+        ETClient client = new ETClient(server.createConfiguration());
+        assertEquals(payload,
+                client.getRestConnection().get("/hub/v1/campaigns").getResponsePayload());
+    }
+
+    @Test(expected = ETSdkException.class)
+    public void testUrlTooLong()
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        StringBuilder path = new StringBuilder("/hub/v1/campaigns?");
+        while (path.length() <= 2048) {
+            path.append("x");
+        }
+        client.getRestConnection().get(path.toString());
+    }
+}
@@ -0,0 +1,284 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETRestObjectTest {
+    private static final Pattern NAME = Pattern.compile("\"name\":\"campaign(\\d+)\"");
+
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private AtomicInteger inFlight = new AtomicInteger();
+
+    private AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+        server.handle("/hub/v1/campaigns", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                Matcher matcher = NAME.matcher(request.getBodyAsString());
+                assertTrue(matcher.find());
+                int n = Integer.parseInt(matcher.group(1));
+                int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                try {
+                    // later objects finish first
+                    Thread.sleep(100 - 5 * n);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                if (n == 3) {
+                    return new ETStubServer.Reply(400, "{\"message\":\"invalid\"}");
+                }
+                if (n == 5) {
+                    return new ETStubServer.Reply(200, "not json");
+                }
+                return new ETStubServer.Reply(200,
+                        "{\"id\":\"" + n + "\",\"name\":\"campaign" + n + "\"}");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testConcurrentCreate()
+        throws ETSdkException
+    {
+        client.getConfiguration().set("restConcurrency", "3");
+
+        ETResponse<ETCampaign> response = client.create(campaigns(10));
+
+        assertEquals(10, server.getRequests("/hub/v1/campaigns").size());
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 3);
+
+        assertEquals(10, response.getResults().size());
+        for (int i = 0; i < 10; i++) {
+            ETResult<ETCampaign> result = response.getResults().get(i);
+            if (i == 3) {
+                assertEquals(ETResult.Status.ERROR, result.getStatus());
+                assertEquals("400", result.getResponseCode());
+            } else if (i == 5) {
+                // the response couldn't be parsed
+                assertEquals(ETResult.Status.ERROR, result.getStatus());
+                assertNull(result.getObject());
+            } else {
+                assertEquals(ETResult.Status.OK, result.getStatus());
+                assertEquals(Integer.toString(i), result.getObject().getId());
+            }
+        }
+    }
+
+    @Test
+    public void testSequentialCreate()
+        throws ETSdkException
+    {
+        ETResponse<ETCampaign> response = client.create(campaigns(3));
+        assertEquals(1, maxInFlight.get());
+        assertEquals(3, response.getResults().size());
+        assertEquals("2", response.getResults().get(2).getObject().getId());
+    }
+
+    @Test
+    public void testSequentialCreateCapturesFailures()
+        throws ETSdkException
+    {
+        ETResponse<ETCampaign> response = client.create(campaigns(6));
+        assertEquals(6, response.getResults().size());
+        assertEquals("400", response.getResults().get(3).getResponseCode());
+        // the response couldn't be parsed, as in the concurrent mode
+        assertEquals(ETResult.Status.ERROR, response.getResults().get(5).getStatus());
+        assertEquals("4", response.getResults().get(4).getObject().getId());
+    }
+
+    @Test
+    public void testOpenCircuitIsThrown()
+        throws ETSdkException
+    {
+        for (String concurrency : new String[] { "1", "3" }) {
+            client.close();
+            ETConfiguration configuration = server.createConfiguration();
+            configuration.set("circuitFailureThreshold", "1");
+            configuration.set("circuitOpenTime", "60000");
+            configuration.set("retryMaxAttempts", "0");
+            configuration.set("restConcurrency", concurrency);
+            client = new ETClient(configuration);
+            server.handle("/hub/v1/broken", new ETStubServer.Handler() {
+                @Override
+                public ETStubServer.Reply handle(ETStubServer.Request request) {
+                    return new ETStubServer.Reply(502, "{\"message\":\"bad gateway\"}");
+                }
+            });
+            client.getRestConnection().get("/hub/v1/broken");
+            try {
+                client.create(campaigns(3));
+                fail();
+            } catch (ETCircuitOpenException ex) {
+                // not a failed result per object
+            }
+        }
+        assertTrue(server.getRequests("/hub/v1/campaigns").isEmpty());
+    }
+
+    @Test
+    public void testRetrievePage()
+        throws ETSdkException
+    {
+        replyToGet("/hub/v1/campaigns", "{\"page\":2,\"pageSize\":2,\"count\":5,\"items\":["
+                + "{\"id\":\"3\",\"name\":\"campaign3\",\"description\":\"line 1\\nline 2\"},"
+                + "{\"id\":\"4\",\"name\":\"campaign4\"}]}");
+
+        ETResponse<ETCampaign> response = client.retrieve(ETCampaign.class, 2, 2);
+
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(Integer.valueOf(2), response.getPage());
+        assertEquals(Integer.valueOf(5), response.getTotalCount());
+        assertTrue(response.hasMoreResults());
+        assertEquals(2, response.getObjects().size());
+        assertEquals("campaign3", response.getObjects().get(0).getName());
+        assertEquals("line 1\nline 2", response.getObjects().get(0).getDescription());
+        assertEquals("4", response.getObjects().get(1).getId());
+        assertEquals(client, response.getObjects().get(1).getClient());
+    }
+
+    @Test
+    public void testRetrieveItemsBeforePage()
+        throws ETSdkException
+    {
+        replyToGet("/hub/v1/campaigns", "{\"items\":[{\"id\":\"5\"}],"
+                + "\"count\":5,\"page\":3,\"pageSize\":2}");
+
+        ETResponse<ETCampaign> response = client.retrieve(ETCampaign.class, 3, 2);
+
+        assertFalse(response.hasMoreResults());
+        assertEquals(1, response.getObjects().size());
+        assertEquals("5", response.getObjects().get(0).getId());
+    }
+
+    @Test
+    public void testRetrieveSingleObject()
+        throws ETSdkException
+    {
+        replyToGet("/hub/v1/campaigns/7", "{\"id\":\"7\",\"name\":\"campaign7\",\n"
+                + "\"items\":[\"not\", \"campaigns\"]}");
+
+        ETResponse<ETCampaign> response = client.retrieve(ETCampaign.class, "id=7");
+
+        assertNull(response.getPage());
+        assertEquals(1, response.getObjects().size());
+        assertEquals("campaign7", response.getObjects().get(0).getName());
+    }
+
+    @Test
+    public void testIdIsEncodedAsPathSegment()
+        throws ETSdkException
+    {
+        replyToGet("/hub/v1/campaigns/a b+c", "{\"id\":\"a b+c\",\"name\":\"campaign7\"}");
+
+        ETResponse<ETCampaign> response = client.retrieve(ETCampaign.class, "id='a b+c'");
+        assertEquals(1, response.getObjects().size());
+
+        ETResponse<ETCampaign> deleteResponse = client.delete(response.getObjects());
+        assertEquals(ETResult.Status.OK, deleteResponse.getResult().getStatus());
+        List<ETStubServer.Request> requests = server.getRequests("/hub/v1/campaigns/a b+c");
+        assertEquals(2, requests.size());
+        assertEquals("DELETE", requests.get(1).getMethod());
+    }
+
+    @Test
+    public void testDeserialize()
+        throws ETSdkException
+    {
+        ETResponse<ETCampaign> response = ETRestObject.deserialize(client,
+                "{\"page\":1,\"pageSize\":50,\"count\":2,"
+                + "\"items\":[{\"id\":\"1\"},{\"id\":\"2\"}]}",
+                ETCampaign.class, "count", "items");
+        assertEquals(2, response.getObjects().size());
+        assertEquals("2", response.getObjects().get(1).getId());
+        assertFalse(response.hasMoreResults());
+
+        ETCampaign campaign = ETRestObject.deserialize(client,
+                "{\"id\":\"3\",\"name\":\"campaign3\"}", ETCampaign.class);
+        assertEquals("campaign3", campaign.getName());
+        assertEquals(client, campaign.getClient());
+    }
+
+    private void replyToGet(String path, final String body) {
+        server.handle(path, new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(200, body);
+            }
+        });
+    }
+
+    private static List<ETCampaign> campaigns(int n) {
+        List<ETCampaign> campaigns = new ArrayList<ETCampaign>();
+        for (int i = 0; i < n; i++) {
+            ETCampaign campaign = new ETCampaign();
+            campaign.setName("campaign" + i);
+            campaigns.add(campaign);
+        }
+        return campaigns;
+    }
+}
@@ -0,0 +1,257 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ETRetrieveCacheTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        final ETStubServer.PagedRetrieve folders = new ETStubServer.PagedRetrieve("DataFolder", 1, 2);
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                String body = request.getBodyAsString();
+                if (body.contains("RetrieveRequestMsg")) {
+                    return folders.handle(request);
+                }
+                return ETStubServer.mutationReply(body);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private ETClient createClient(String types)
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        if (types != null) {
+            configuration.set("retrieveCacheTypes", types);
+        }
+        client = new ETClient(configuration);
+        return client;
+    }
+
+    private int countRetrieves() {
+        int count = 0;
+        for (ETStubServer.Request request : server.getRequests("/service.asmx")) {
+            if (request.getBodyAsString().contains("RetrieveRequestMsg")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ETRetrieveCache createCache(int size, int ttl) {
+        return new ETRetrieveCache(new HashSet<String>(Arrays.asList("ETFolder")), size, ttl);
+    }
+
+    private static ETResponse<ETFolder> createResponse(ETResult.Status status) {
+        ETResponse<ETFolder> response = new ETResponse<ETFolder>();
+        response.setStatus(status);
+        return response;
+    }
+
+    @Test
+    public void testOffByDefault()
+        throws ETSdkException
+    {
+        createClient(null);
+        assertFalse(client.getRetrieveCache().isCached(ETFolder.class));
+        client.retrieve(ETFolder.class, "name=folder");
+        client.retrieve(ETFolder.class, "name=folder");
+        assertEquals(2, countRetrieves());
+        assertEquals(0, client.getRetrieveCache().getMissCount());
+    }
+
+    @Test
+    public void testReadThrough()
+        throws ETSdkException
+    {
+        createClient("ETFolder, com.exacttarget.fuelsdk.ETList");
+        ETRetrieveCache cache = client.getRetrieveCache();
+        assertTrue(cache.isCached(ETFolder.class));
+        assertTrue(cache.isCached(ETList.class));
+        assertFalse(cache.isCached(ETEmail.class));
+
+        ETResponse<ETFolder> response = client.retrieve(ETFolder.class, "name=folder");
+        assertEquals(2, response.getObjects().size());
+        ETResponse<ETFolder> hit = client.retrieve(ETFolder.class, "name = folder");
+        assertNotSame(response, hit);
+        assertEquals(2, hit.getObjects().size());
+        assertEquals(1, countRetrieves());
+
+        client.retrieve(ETFolder.class, "name=other");
+        assertEquals(2, countRetrieves());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testHitsAreCopies()
+        throws ETSdkException
+    {
+        createClient("ETFolder");
+        ETResponse<ETFolder> response = client.retrieve(ETFolder.class, "name=folder");
+        String name = response.getObject().getName();
+        response.getObject().setName("changed");
+
+        ETResponse<ETFolder> hit = client.retrieve(ETFolder.class, "name=folder");
+        assertEquals(name, hit.getObject().getName());
+        assertNotSame(response.getObject(), hit.getObject());
+        assertSame(client, hit.getObject().getClient());
+        hit.getObject().setName("changed again");
+
+        assertEquals(name, client.retrieve(ETFolder.class, "name=folder").getObject().getName());
+        assertEquals(1, countRetrieves());
+        assertEquals(2, client.getRetrieveCache().getHitCount());
+    }
+
+    @Test
+    public void testUpdateByFilterBypassesCache()
+        throws ETSdkException
+    {
+        createClient("ETFolder");
+        client.retrieve(ETFolder.class, "name=folder");
+        client.update(ETFolder.class, "name=folder", "description=changed");
+        assertEquals(2, countRetrieves());
+        assertEquals(0, client.getRetrieveCache().getHitCount());
+    }
+
+    @Test
+    public void testInvalidatedOnUpdate()
+        throws ETSdkException
+    {
+        createClient("ETFolder");
+        ETFolder folder = client.retrieveObject(ETFolder.class, "name=folder");
+        client.update(folder);
+        client.retrieve(ETFolder.class, "name=folder");
+        assertEquals(2, countRetrieves());
+        assertEquals(0, client.getRetrieveCache().getHitCount());
+
+        client.async().delete(folder).join();
+        client.retrieve(ETFolder.class, "name=folder");
+        assertEquals(3, countRetrieves());
+    }
+
+    @Test
+    public void testKey()
+        throws ETSdkException
+    {
+        ETFilter filter = ETFilter.parse("name = folder");
+        filter.addProperty("name");
+        filter.addProperty("id");
+        ETFilter reordered = ETFilter.parse("name=folder");
+        reordered.addProperty("id");
+        reordered.addProperty("name");
+        assertEquals(ETRetrieveCache.getKey(ETFolder.class, null, null, filter),
+                ETRetrieveCache.getKey(ETFolder.class, null, null, reordered));
+        assertNotEquals(ETRetrieveCache.getKey(ETFolder.class, null, null, filter),
+                ETRetrieveCache.getKey(ETFolder.class, 2, 50, filter));
+        assertNotEquals(ETRetrieveCache.getKey(ETFolder.class, null, null, filter),
+                ETRetrieveCache.getKey(ETList.class, null, null, filter));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        ETRetrieveCache cache = createCache(2, 300);
+        cache.put(ETFolder.class, "a", createResponse(ETResult.Status.OK), 0);
+        cache.put(ETFolder.class, "b", createResponse(ETResult.Status.OK), 0);
+        assertNotNull(cache.get("a"));
+        cache.put(ETFolder.class, "c", createResponse(ETResult.Status.OK), 0);
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpired()
+        throws InterruptedException
+    {
+        ETRetrieveCache cache = createCache(10, 1);
+        cache.put(ETFolder.class, "a", createResponse(ETResult.Status.OK), 0);
+        assertNotNull(cache.get("a"));
+        Thread.sleep(1100);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testNotCached() {
+        ETRetrieveCache cache = createCache(10, 300);
+        cache.put(ETFolder.class, "a", createResponse(ETResult.Status.ERROR), 0);
+        assertNull(cache.get("a"));
+
+        // a retrieve in flight while objects of its type change
+        long generation = cache.getGeneration(ETFolder.class);
+        cache.invalidate(ETFolder.class);
+        cache.put(ETFolder.class, "a", createResponse(ETResult.Status.OK), generation);
+        assertNull(cache.get("a"));
+
+        generation = cache.getGeneration(ETFolder.class);
+        cache.invalidateAll();
+        cache.put(ETFolder.class, "a", createResponse(ETResult.Status.OK), generation);
+        assertNull(cache.get("a"));
+    }
+}
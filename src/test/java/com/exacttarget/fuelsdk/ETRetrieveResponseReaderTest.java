@@ -0,0 +1,180 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ETRetrieveResponseReaderTest {
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        client = new ETClient(server.createConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    public void testRetrieveFollowsContinueRequests()
+        throws Exception
+    {
+        ETStubServer.PagedRetrieve retrieve = new ETStubServer.PagedRetrieve("Subscriber", 3, 4) {
+            @Override
+            String result(int id) {
+                return "<Results xsi:type=\"Subscriber\"><ID>" + id + "</ID>"
+                        + "<EmailAddress>subscriber" + id + "@example.com</EmailAddress>"
+                        + "</Results>";
+            }
+        };
+        server.handle("/service.asmx", retrieve);
+
+        final List<ETSubscriber> subscribers = new ArrayList<ETSubscriber>();
+        ETResponse<ETSubscriber> response = client.retrieve(ETSubscriber.class,
+                ETFilter.parse("emailAddress like '%@example.com'"),
+                subscriber -> subscribers.add(subscriber));
+
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        assertEquals(Integer.valueOf(12), response.getTotalCount());
+        assertTrue(response.getResults().isEmpty());
+        assertEquals(Arrays.asList(1, 2, 3), retrieve.getPagesServed());
+        assertEquals(12, subscribers.size());
+        for (int i = 0; i < 12; i++) {
+            ETSubscriber subscriber = subscribers.get(i);
+            assertEquals(Integer.toString(i + 1), subscriber.getId());
+            assertEquals("subscriber" + (i + 1) + "@example.com", subscriber.getEmailAddress());
+            assertEquals(client, subscriber.getClient());
+        }
+
+        List<ETStubServer.Request> requests = server.getRequests("/service.asmx");
+        assertEquals("\"Retrieve\"", requests.get(0).getHeader("SOAPAction"));
+        String body = requests.get(0).getBodyAsString();
+        assertTrue(body.contains("<fueloauth>token1</fueloauth>"));
+        assertTrue(body.contains("<ObjectType>Subscriber</ObjectType>"));
+        assertTrue(requests.get(2).getBodyAsString()
+                .contains("<ContinueRequest>page2</ContinueRequest>"));
+    }
+
+    @Test
+    public void testSelectRows()
+        throws Exception
+    {
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("DataExtensionObject", 2, 3) {
+            @Override
+            String result(int id) {
+                return "<Results xsi:type=\"DataExtensionObject\"><Properties>"
+                        + "<Property><Name>Id</Name><Value>" + id + "</Value></Property>"
+                        + "</Properties></Results>";
+            }
+        });
+
+        ETDataExtension dataExtension = new ETDataExtension();
+        dataExtension.setClient(client);
+        dataExtension.setKey("test");
+        final List<String> ids = new ArrayList<String>();
+        ETResponse<ETDataExtensionRow> response =
+                dataExtension.select(ETFilter.parse("Id"), row -> ids.add(row.getColumn("Id")));
+
+        assertEquals(Integer.valueOf(6), response.getTotalCount());
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), ids);
+        assertTrue(server.getRequests("/service.asmx").get(0).getBodyAsString()
+                .contains("<ObjectType>DataExtensionObject[test]</ObjectType>"));
+    }
+
+    @Test
+    public void testFault()
+        throws Exception
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return new ETStubServer.Reply(500, "text/xml; charset=utf-8",
+                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                        + "<soap:Body><soap:Fault><faultcode>soap:Client</faultcode>"
+                        + "<faultstring>invalid object type</faultstring>"
+                        + "</soap:Fault></soap:Body></soap:Envelope>");
+            }
+        });
+
+        try {
+            client.retrieve(ETSubscriber.class, new ETFilter(), subscriber -> fail());
+            fail();
+        } catch (ETSdkException ex) {
+            assertTrue(ex.getMessage().contains("invalid object type"));
+        }
+    }
+
+    @Test
+    public void testError()
+        throws Exception
+    {
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                return ETStubServer.retrieveReply("failed", "Error", "");
+            }
+        });
+
+        ETResponse<ETSubscriber> response =
+                client.retrieve(ETSubscriber.class, new ETFilter(), subscriber -> fail());
+        assertEquals(ETResult.Status.ERROR, response.getStatus());
+        assertEquals("failed", response.getRequestId());
+        assertEquals(Integer.valueOf(0), response.getTotalCount());
+    }
+
+    @Test(expected = ETSdkException.class)
+    public void testRestObjectsNotSupported()
+        throws Exception
+    {
+        client.retrieve(ETCampaign.class, new ETFilter(), campaign -> fail());
+    }
+}
@@ -0,0 +1,229 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.exacttarget.fuelsdk.internal.RetrieveRequest;
+import com.exacttarget.fuelsdk.internal.RetrieveRequestMsg;
+import com.exacttarget.fuelsdk.internal.RetrieveResponseMsg;
+import com.exacttarget.fuelsdk.internal.Soap;
+
+public class ETSoapConnectionTest {
+    private static final Pattern OBJECT_TYPE =
+            Pattern.compile("<ObjectType>(.*?)</ObjectType>");
+    private static final Pattern FUELOAUTH =
+            Pattern.compile("<fueloauth[^>]*>(.*?)</fueloauth>");
+
+    private ETStubServer server = null;
+
+    private AtomicInteger crossTalk = new AtomicInteger();
+
+    private AtomicInteger inFlight = new AtomicInteger();
+
+    private AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        server.handle("/service.asmx", new ETStubServer.Handler() {
+            @Override
+            public ETStubServer.Reply handle(ETStubServer.Request request) {
+                int n = inFlight.incrementAndGet();
+                while (true) {
+                    int max = maxInFlight.get();
+                    if (n <= max || maxInFlight.compareAndSet(max, n)) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+
+                String body = request.getBodyAsString();
+                Matcher matcher = OBJECT_TYPE.matcher(body);
+                String objectType = matcher.find() ? matcher.group(1) : "";
+                String userAgent = request.getHeader("User-Agent");
+                if (!("FuelSDK-Java-v1.5.0-SOAP-retrieve-" + objectType).equals(userAgent)) {
+                    crossTalk.incrementAndGet();
+                }
+                matcher = FUELOAUTH.matcher(body);
+                String accessToken = matcher.find() ? matcher.group(1) : "";
+                return new ETStubServer.Reply(200, "text/xml; charset=utf-8",
+                        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                        + "<soap:Body>"
+                        + "<RetrieveResponseMsg xmlns=\"http://exacttarget.com/wsdl/partnerAPI\">"
+                        + "<OverallStatus>OK</OverallStatus>"
+                        + "<RequestID>" + objectType + "|" + userAgent + "|" + accessToken + "</RequestID>"
+                        + "</RetrieveResponseMsg>"
+                        + "</soap:Body>"
+                        + "</soap:Envelope>");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static RetrieveRequestMsg createRetrieveRequestMsg(String objectType) {
+        RetrieveRequest retrieveRequest = new RetrieveRequest();
+        retrieveRequest.setObjectType(objectType);
+        retrieveRequest.getProperties().add("ID");
+        RetrieveRequestMsg retrieveRequestMsg = new RetrieveRequestMsg();
+        retrieveRequestMsg.setRetrieveRequest(retrieveRequest);
+        return retrieveRequestMsg;
+    }
+
+    @Test
+    public void testNoHeaderCrossTalk()
+        throws Exception
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("soapPoolSize", "4");
+        ETClient client = new ETClient(configuration);
+        final ETSoapConnection connection = client.getSoapConnection();
+
+        final String[] objectTypes = {
+            "Email", "List", "DataFolder", "Subscriber", "Send", "TriggeredSendDefinition"
+        };
+        final Set<Soap> proxies = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<Soap, Boolean>()));
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 120; i++) {
+            final String objectType = objectTypes[i % objectTypes.length];
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call()
+                    throws Exception
+                {
+                    start.await();
+                    Soap soap = connection.borrowSoap("retrieve", objectType);
+                    try {
+                        proxies.add(soap);
+                        RetrieveResponseMsg response =
+                                soap.retrieve(createRetrieveRequestMsg(objectType));
+                        return objectType + "=" + response.getRequestID();
+                    } finally {
+                        connection.returnSoap(soap);
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> future : futures) {
+            String result = future.get(60, TimeUnit.SECONDS);
+            String objectType = result.substring(0, result.indexOf('='));
+            String[] echo = result.substring(result.indexOf('=') + 1).split("\\|");
+            assertEquals(objectType, echo[0]);
+            assertEquals("FuelSDK-Java-v1.5.0-SOAP-retrieve-" + objectType, echo[1]);
+            assertEquals("token1", echo[2]);
+        }
+        executor.shutdown();
+
+        assertEquals(0, crossTalk.get());
+        assertTrue(proxies.size() <= 4);
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testPooledProxiesPickUpNewAccessToken()
+        throws Exception
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        ETSoapConnection connection = client.getSoapConnection();
+
+        Soap soap = connection.borrowSoap("retrieve", "Email");
+        try {
+            assertTrue(soap.retrieve(createRetrieveRequestMsg("Email"))
+                    .getRequestID().endsWith("|token1"));
+        } finally {
+            connection.returnSoap(soap);
+        }
+
+        connection.setAccessToken("token2");
+
+        soap = connection.borrowSoap("retrieve", "Email");
+        try {
+            assertTrue(soap.retrieve(createRetrieveRequestMsg("Email"))
+                    .getRequestID().endsWith("|token2"));
+        } finally {
+            connection.returnSoap(soap);
+        }
+    }
+
+    @Test
+    public void testRetrieveThroughPool()
+        throws ETSdkException
+    {
+        ETClient client = new ETClient(server.createConfiguration());
+        ETResponse<ETEmail> response = client.retrieve(ETEmail.class);
+        assertEquals(ETResult.Status.OK, response.getStatus());
+        List<ETStubServer.Request> requests = server.getRequests("/service.asmx");
+        assertEquals(1, requests.size());
+        assertEquals("FuelSDK-Java-v1.5.0-SOAP-retrieve-Email",
+                requests.get(0).getHeader("User-Agent"));
+    }
+}
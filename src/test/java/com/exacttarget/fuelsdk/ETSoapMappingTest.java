@@ -0,0 +1,388 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.beanutils.PropertyUtilsBean;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.exacttarget.fuelsdk.annotations.ExternalName;
+import com.exacttarget.fuelsdk.annotations.InternalName;
+import com.exacttarget.fuelsdk.annotations.InternalProperty;
+import com.exacttarget.fuelsdk.annotations.SoapObject;
+import com.exacttarget.fuelsdk.internal.APIObject;
+import com.exacttarget.fuelsdk.internal.APIProperty;
+import com.exacttarget.fuelsdk.internal.DataExtension;
+import com.exacttarget.fuelsdk.internal.DataExtensionField;
+import com.exacttarget.fuelsdk.internal.DataExtensionObject;
+import com.exacttarget.fuelsdk.internal.ObjectExtension;
+
+/**
+ * Checks the cached SOAP object mapping against the reflective,
+ * BeanUtils based conversion it replaces.
+ */
+
+public class ETSoapMappingTest {
+    //
+    // The legacy conversion used the BeanUtilsBean singleton with
+    // the SDK's converters registered on it; use a private copy:
+    //
+
+    static final BeanUtilsBean LEGACY_BEAN_UTILS =
+            new BeanUtilsBean(new ConvertUtilsBean(), new PropertyUtilsBean());
+
+    static {
+        ETSoapConverters.register(LEGACY_BEAN_UTILS.getConvertUtils());
+    }
+
+    @SuppressWarnings("unchecked")
+    static final Class<? extends ETSoapObject>[] TYPES = new Class[] {
+        ETBounceEvent.class,
+        ETClickEvent.class,
+        ETContentArea.class,
+        ETDataExtension.class,
+        ETDataExtensionColumn.class,
+        ETDataExtensionRow.class,
+        ETEmail.class,
+        ETExtractDescription.class,
+        ETFolder.class,
+        ETList.class,
+        ETOpenEvent.class,
+        ETProfileAttribute.class,
+        ETResultMessage.class,
+        ETSentEvent.class,
+        ETSubscriber.class,
+        ETSubscriberList.class,
+        ETTriggeredEmail.class,
+        ETTriggeredSendSummary.class,
+        ETUnsubEvent.class
+    };
+
+    @Test
+    public void testInternalProperties()
+        throws Exception
+    {
+        for (Class<? extends ETSoapObject> type : TYPES) {
+            assertEquals(type.getName(),
+                    legacyInternalProperties(type),
+                    ETSoapObject.getInternalProperties(type));
+        }
+    }
+
+    @Test
+    public void testGeneratedMappers() {
+        for (Class<? extends ETSoapObject> type : TYPES) {
+            ETSoapMapper<?, ?> mapper = ETSoapMapper.of(type);
+            assertNotNull(type.getName(), mapper);
+            assertEquals(type, mapper.getExternalType());
+        }
+        // subclasses have no mapper of their own
+        assertNull(ETSoapMapper.of(new ETSubscriber() {}.getClass()));
+    }
+
+    @Test
+    public void testInternalPropertiesAreCopied()
+        throws Exception
+    {
+        List<String> properties = ETSoapObject.getInternalProperties(ETEmail.class);
+        properties.clear();
+        assertTrue(ETSoapObject.getInternalProperties(ETEmail.class).size() > 0);
+    }
+
+    @Test
+    public void testInternalProperty()
+        throws Exception
+    {
+        assertEquals("CustomerKey",
+                ETSoapObject.getInternalProperty(ETEmail.class, "key"));
+        assertEquals("noSuchField",
+                ETSoapObject.getInternalProperty(ETEmail.class, "noSuchField"));
+    }
+
+    @Test
+    public void testFromInternal()
+        throws Exception
+    {
+        for (Class<? extends ETSoapObject> type : TYPES) {
+            SoapObject annotation = type.getAnnotation(SoapObject.class);
+            APIObject internalObject = populate(annotation.internalType().getDeclaredConstructor().newInstance());
+
+            ETSoapObject expected = type.getDeclaredConstructor().newInstance();
+            Exception expectedException = null;
+            try {
+                legacyFromInternal(expected, internalObject);
+            } catch (Exception ex) {
+                expectedException = ex;
+            }
+            ETSoapObject actual = type.getDeclaredConstructor().newInstance();
+            try {
+                actual.fromInternal(internalObject);
+                assertNull(type.getName(), expectedException);
+            } catch (ETSdkException ex) {
+                assertNotNull(type.getName(), expectedException);
+                continue;
+            }
+
+            assertEquals(type.getName(), withoutIdentity(expected), withoutIdentity(actual));
+        }
+    }
+
+    @Test
+    public void testToInternal()
+        throws Exception
+    {
+        for (Class<? extends ETSoapObject> type : TYPES) {
+            SoapObject annotation = type.getAnnotation(SoapObject.class);
+            ETSoapObject externalObject = type.getDeclaredConstructor().newInstance();
+            try {
+                externalObject.fromInternal(populate(annotation.internalType().getDeclaredConstructor().newInstance()));
+            } catch (ETSdkException ex) {
+                // see testFromInternal
+                continue;
+            }
+
+            assertEquals(type.getName(),
+                    withoutIdentity(legacyToInternal(externalObject)),
+                    withoutIdentity(externalObject.toInternal()));
+        }
+    }
+
+    @Test
+    public void testDataExtensionRowColumns()
+        throws Exception
+    {
+        DataExtensionObject internalObject = new DataExtensionObject();
+        internalObject.setCustomerKey("key");
+        internalObject.setProperties(new ObjectExtension.Properties());
+        APIProperty property = new APIProperty();
+        property.setName("email");
+        property.setValue("a@b.com");
+        internalObject.getProperties().getProperty().add(property);
+
+        ETDataExtensionRow row = new ETDataExtensionRow();
+        row.fromInternal(internalObject);
+        assertEquals("a@b.com", row.getColumn("email"));
+
+        DataExtensionObject converted = (DataExtensionObject) row.toInternal();
+        assertNotNull(converted.getProperties());
+        assertEquals("email", converted.getProperties().getProperty().get(0).getName());
+        assertEquals("a@b.com", converted.getProperties().getProperty().get(0).getValue());
+    }
+
+    @Test
+    public void testConvertersAreSdkPrivate() {
+        new ETSubscriber();
+        new ETDataExtensionRow();
+        assertNotNull(ETSoapConverters.lookup(ETSubscriber.Status.class));
+        assertNotNull(ETSoapConverters.lookup(Map.class));
+        ConvertUtilsBean convertUtils = BeanUtilsBean.getInstance().getConvertUtils();
+        assertNull(convertUtils.lookup(ETSubscriber.Status.class));
+        assertNull(convertUtils.lookup(Map.class));
+    }
+
+    static String withoutIdentity(Object object) {
+        return object.toString().replaceAll("@[0-9a-f]+", "");
+    }
+
+    //
+    // Fills every simple property of an internal object with a
+    // value derived from the property name:
+    //
+
+    static <T> T populate(T bean)
+        throws Exception
+    {
+        for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(bean.getClass())) {
+            if (descriptor.getWriteMethod() == null) {
+                continue;
+            }
+            Class<?> type = descriptor.getPropertyType();
+            String name = descriptor.getName();
+            Object value = null;
+            if (type == String.class) {
+                value = name + "Value";
+            } else if (type == Integer.class || type == int.class) {
+                value = name.length();
+            } else if (type == Long.class || type == long.class) {
+                value = (long) name.length();
+            } else if (type == Double.class || type == double.class) {
+                value = name.length() + 0.5;
+            } else if (type == Boolean.class || type == boolean.class) {
+                value = name.length() % 2 == 0;
+            } else if (type == Date.class) {
+                value = new Date(1000000000000L + name.length());
+            } else if (type.isEnum()) {
+                Object[] constants = type.getEnumConstants();
+                value = constants[name.length() % constants.length];
+            }
+            if (value != null) {
+                descriptor.getWriteMethod().invoke(bean, value);
+            }
+        }
+        return bean;
+    }
+
+    //
+    // The conversions as implemented before mappings were cached:
+    //
+
+    static List<String> legacyInternalProperties(Class<? extends ETSoapObject> type)
+        throws Exception
+    {
+        List<String> internalProperties = new ArrayList<String>();
+        for (Field externalField : ETObject.getAllFields(type)) {
+            if (externalField.getAnnotation(ExternalName.class) == null) {
+                continue;
+            }
+            internalProperties.add(legacyInternalProperty(type, externalField.getName()));
+        }
+        return internalProperties;
+    }
+
+    static String legacyInternalProperty(Class<? extends ETSoapObject> type, String name)
+        throws Exception
+    {
+        Field externalField = ETObject.getField(type, name);
+        InternalProperty internalPropertyAnnotation =
+                externalField.getAnnotation(InternalProperty.class);
+        if (internalPropertyAnnotation != null) {
+            return internalPropertyAnnotation.value();
+        }
+        Class<? extends APIObject> internalType =
+                type.getAnnotation(SoapObject.class).internalType();
+        Field internalField = ETObject.getField(internalType, legacyInternalName(externalField));
+        XmlElement element = internalField.getAnnotation(XmlElement.class);
+        if (element != null) {
+            return element.name();
+        }
+        XmlElementRef elementRef = internalField.getAnnotation(XmlElementRef.class);
+        if (elementRef != null) {
+            return elementRef.name();
+        }
+        return null;
+    }
+
+    static String legacyInternalName(Field externalField) {
+        InternalName internalName = externalField.getAnnotation(InternalName.class);
+        if (internalName != null) {
+            return internalName.value();
+        }
+        return externalField.getName();
+    }
+
+    static void legacyFromInternal(ETSoapObject externalObject, APIObject internalObject)
+        throws Exception
+    {
+        for (Field externalField : ETObject.getAllFields(externalObject.getClass())) {
+            if (externalField.getAnnotation(ExternalName.class) == null) {
+                continue;
+            }
+            Object value = PropertyUtils.getProperty(internalObject,
+                    legacyInternalName(externalField));
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof List) {
+                List<ETSoapObject> externalList = new ArrayList<ETSoapObject>();
+                Class<?> itemType = (Class<?>) ((ParameterizedType) externalField
+                        .getGenericType()).getActualTypeArguments()[0];
+                for (Object internalItem : (List<?>) value) {
+                    ETSoapObject externalItem = (ETSoapObject) itemType.getDeclaredConstructor().newInstance();
+                    legacyFromInternal(externalItem, (APIObject) internalItem);
+                    externalList.add(externalItem);
+                }
+                externalField.setAccessible(true);
+                externalField.set(externalObject, externalList);
+                continue;
+            }
+            LEGACY_BEAN_UTILS.setProperty(externalObject, externalField.getName(), value);
+        }
+    }
+
+    static APIObject legacyToInternal(ETSoapObject externalObject)
+        throws Exception
+    {
+        Class<? extends APIObject> internalType =
+                externalObject.getClass().getAnnotation(SoapObject.class).internalType();
+        APIObject internalObject = internalType.getDeclaredConstructor().newInstance();
+        for (Field externalField : ETObject.getAllFields(externalObject.getClass())) {
+            if (externalField.getAnnotation(ExternalName.class) == null) {
+                continue;
+            }
+            Object value = PropertyUtils.getProperty(externalObject, externalField.getName());
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof List) {
+                String internalName = legacyInternalName(externalField);
+                List<APIObject> internalList = new ArrayList<APIObject>();
+                for (Object externalItem : (List<?>) value) {
+                    internalList.add(legacyToInternal((ETSoapObject) externalItem));
+                }
+                Field internalField = ETObject.getField(internalType, internalName);
+                internalField.setAccessible(true);
+                if (internalName.equals("fields")) {
+                    DataExtension.Fields fields = new DataExtension.Fields();
+                    for (APIObject field : internalList) {
+                        fields.getField().add((DataExtensionField) field);
+                    }
+                    internalField.set(internalObject, fields);
+                } else {
+                    internalField.set(internalObject, internalList);
+                }
+                continue;
+            }
+            LEGACY_BEAN_UTILS.setProperty(internalObject, legacyInternalName(externalField), value);
+        }
+        return internalObject;
+    }
+}
@@ -0,0 +1,415 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An <code>ETStubServer</code> is a local HTTP server standing in
+ * for the authentication, REST and SOAP endpoints so connection
+ * level behavior can be tested without Marketing Cloud credentials.
+ * Every request is recorded.
+ */
+
+class ETStubServer {
+    private HttpServer server = null;
+
+    private Map<String, Handler> handlers =
+            new ConcurrentHashMap<String, Handler>();
+
+    private List<Request> requests =
+            Collections.synchronizedList(new ArrayList<Request>());
+
+    private int tokenCount = 0;
+
+    private volatile int tokenExpiresIn = 3600;
+
+    private volatile long tokenDelay = 0;
+
+    ETStubServer()
+        throws IOException
+    {
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange)
+                throws IOException
+            {
+                dispatch(exchange);
+            }
+        });
+        handle("/v2/token", new Handler() {
+            @Override
+            public Reply handle(Request request) {
+                if (tokenDelay > 0) {
+                    try {
+                        Thread.sleep(tokenDelay);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new Reply(200, "{"
+                        + "\"access_token\":\"token" + nextTokenCount() + "\","
+                        + "\"rest_instance_url\":\"" + getUrl() + "\","
+                        + "\"soap_instance_url\":\"" + getUrl() + "/\","
+                        + "\"expires_in\":" + tokenExpiresIn
+                        + "}");
+            }
+        });
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://" + server.getAddress().getHostString()
+                + ":" + server.getAddress().getPort();
+    }
+
+    void handle(String path, Handler handler) {
+        handlers.put(path, handler);
+    }
+
+    List<Request> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<Request>(requests);
+        }
+    }
+
+    List<Request> getRequests(String path) {
+        List<Request> matching = new ArrayList<Request>();
+        for (Request request : getRequests()) {
+            if (request.getPath().equals(path)) {
+                matching.add(request);
+            }
+        }
+        return matching;
+    }
+
+    void setTokenExpiresIn(int tokenExpiresIn) {
+        this.tokenExpiresIn = tokenExpiresIn;
+    }
+
+    void setTokenDelay(long tokenDelay) {
+        this.tokenDelay = tokenDelay;
+    }
+
+    synchronized int getTokenCount() {
+        return tokenCount;
+    }
+
+    private synchronized int nextTokenCount() {
+        return ++tokenCount;
+    }
+
+    ETConfiguration createConfiguration() {
+        ETConfiguration configuration = new ETConfiguration();
+        configuration.set("clientId", "clientId");
+        configuration.set("clientSecret", "clientSecret");
+        configuration.set("useOAuth2Authentication", "true");
+        configuration.set("authEndpoint", getUrl());
+        configuration.set("endpoint", getUrl());
+        return configuration;
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void dispatch(HttpExchange exchange)
+        throws IOException
+    {
+        Request request = new Request(exchange);
+        requests.add(request);
+        Handler handler = handlers.get(request.getPath());
+        Reply reply = null;
+        if (handler == null) {
+            reply = new Reply(404, "{\"message\":\"not found\"}");
+        } else {
+            try {
+                reply = handler.handle(request);
+            } catch (RuntimeException ex) {
+                reply = new Reply(500, "{\"message\":\"" + ex + "\"}");
+            }
+        }
+        byte[] body = reply.getBody();
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", reply.getContentType());
+        headers.set("X-Mashery-Message-ID", "request" + requests.size());
+        for (Map.Entry<String, String> header : reply.getHeaders().entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+        exchange.sendResponseHeaders(reply.getStatus(), body.length == 0 ? -1 : body.length);
+        OutputStream os = exchange.getResponseBody();
+        try {
+            os.write(body);
+        } finally {
+            os.close();
+        }
+    }
+
+    interface Handler {
+        Reply handle(Request request);
+    }
+
+    /**
+     * A <code>PagedRetrieve</code> answers SOAP retrieves of the
+     * given internal type with numbered pages of objects, handing
+     * out a continue request ID ("pageN") with every page but the
+     * last. The objects on page N have IDs starting at
+     * (N - 1) * pageSize + 1.
+     */
+    static class PagedRetrieve implements Handler {
+        private static final Pattern CONTINUE_REQUEST =
+                Pattern.compile("<ContinueRequest>page(\\d+)</ContinueRequest>");
+
+        private String type = null;
+        private int pages = 0;
+        private int pageSize = 0;
+        private List<Integer> pagesServed =
+                Collections.synchronizedList(new ArrayList<Integer>());
+
+        PagedRetrieve(String type, int pages, int pageSize) {
+            this.type = type;
+            this.pages = pages;
+            this.pageSize = pageSize;
+        }
+
+        List<Integer> getPagesServed() {
+            return pagesServed;
+        }
+
+        @Override
+        public Reply handle(Request request) {
+            int page = 1;
+            Matcher matcher = CONTINUE_REQUEST.matcher(request.getBodyAsString());
+            if (matcher.find()) {
+                page = Integer.parseInt(matcher.group(1)) + 1;
+            }
+            pagesServed.add(page);
+            StringBuilder results = new StringBuilder();
+            for (int i = 1; i <= pageSize; i++) {
+                results.append(result((page - 1) * pageSize + i));
+            }
+            return retrieveReply("page" + page,
+                    page < pages ? "MoreDataAvailable" : "OK",
+                    results.toString());
+        }
+
+        /**
+         * @param id    The ID of the object
+         * @return      The Results element of the object
+         */
+        String result(int id) {
+            return "<Results xsi:type=\"" + type + "\"><ID>" + id + "</ID></Results>";
+        }
+    }
+
+    /**
+     * @param requestId     The RequestID of the response
+     * @param overallStatus The OverallStatus of the response
+     * @param results       The Results elements of the response
+     * @return              A reply carrying a RetrieveResponseMsg
+     */
+    static Reply retrieveReply(String requestId, String overallStatus, String results) {
+        return new Reply(200, "text/xml; charset=utf-8",
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">"
+                + "<soap:Body>"
+                + "<RetrieveResponseMsg xmlns=\"http://exacttarget.com/wsdl/partnerAPI\">"
+                + "<OverallStatus>" + overallStatus + "</OverallStatus>"
+                + "<RequestID>" + requestId + "</RequestID>"
+                + results
+                + "</RetrieveResponseMsg>"
+                + "</soap:Body>"
+                + "</soap:Envelope>");
+    }
+
+    /**
+     * @param body          The body of a SOAP create, update or delete request
+     * @return              A reply reporting success for every object in the request
+     */
+    static Reply mutationReply(String body) {
+        String type = body.contains("DeleteRequest") ? "Delete"
+                : body.contains("UpdateRequest") ? "Update" : "Create";
+        StringBuilder results = new StringBuilder();
+        int objects = body.split("<Objects").length - 1;
+        for (int i = 0; i < objects; i++) {
+            results.append("<Results><StatusCode>OK</StatusCode>")
+                   .append("<StatusMessage>OK</StatusMessage>")
+                   .append("<OrdinalID>").append(i).append("</OrdinalID>")
+                   .append("</Results>");
+        }
+        return new Reply(200, "text/xml; charset=utf-8",
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                + "<soap:Body>"
+                + "<" + type + "Response xmlns=\"http://exacttarget.com/wsdl/partnerAPI\">"
+                + results
+                + "<RequestID>" + type.toLowerCase() + "</RequestID>"
+                + "<OverallStatus>OK</OverallStatus>"
+                + "</" + type + "Response>"
+                + "</soap:Body>"
+                + "</soap:Envelope>");
+    }
+
+    static class Request {
+        private String method = null;
+        private String path = null;
+        private String query = null;
+        private Headers headers = null;
+        private byte[] body = null;
+        private int remotePort = 0;
+
+        Request(HttpExchange exchange)
+            throws IOException
+        {
+            method = exchange.getRequestMethod();
+            path = exchange.getRequestURI().getPath();
+            query = exchange.getRequestURI().getRawQuery();
+            headers = exchange.getRequestHeaders();
+            remotePort = exchange.getRemoteAddress().getPort();
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            InputStream is = exchange.getRequestBody();
+            try {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = is.read(buffer)) != -1) {
+                    os.write(buffer, 0, n);
+                }
+            } finally {
+                is.close();
+            }
+            body = os.toByteArray();
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getQuery() {
+            return query;
+        }
+
+        String getHeader(String name) {
+            return headers.getFirst(name);
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        String getBodyAsString() {
+            try {
+                return new String(body, "UTF-8");
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        int getRemotePort() {
+            return remotePort;
+        }
+    }
+
+    static class Reply {
+        private int status = 200;
+        private String contentType = "application/json";
+        private Map<String, String> headers = new ConcurrentHashMap<String, String>();
+        private byte[] body = null;
+
+        Reply(int status, String body) {
+            this(status, "application/json", body);
+        }
+
+        Reply(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            try {
+                this.body = body.getBytes("UTF-8");
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        Reply(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        Reply setHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+    }
+}
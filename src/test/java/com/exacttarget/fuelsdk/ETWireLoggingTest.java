@@ -0,0 +1,174 @@
+//
+// This file is part of the Fuel Java SDK.
+//
+// Copyright (c) 2013, 2014, 2015, ExactTarget, Inc.
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+//
+// * Redistributions of source code must retain the above copyright
+// notice, this list of conditions and the following disclaimer.
+//
+// * Redistributions in binary form must reproduce the above copyright
+// notice, this list of conditions and the following disclaimer in the
+// documentation and/or other materials provided with the distribution.
+//
+// * Neither the name of ExactTarget, Inc. nor the names of its
+// contributors may be used to endorse or promote products derived
+// from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+
+package com.exacttarget.fuelsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ETWireLoggingTest {
+    private static final Logger CXF_LOGGER = Logger.getLogger("org.apache.cxf.services");
+
+    private ETStubServer server = null;
+
+    private ETClient client = null;
+
+    private final List<String> messages = new ArrayList<String>();
+
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            synchronized (messages) {
+                messages.add(record.getMessage());
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        server = new ETStubServer();
+        server.handle("/service.asmx", new ETStubServer.PagedRetrieve("Subscriber", 1, 5));
+        CXF_LOGGER.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        CXF_LOGGER.removeHandler(handler);
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+    }
+
+    private void retrieve(ETConfiguration configuration, int times)
+        throws ETSdkException
+    {
+        client = new ETClient(configuration);
+        for (int i = 0; i < times; i++) {
+            assertEquals(5, client.retrieve(ETSubscriber.class).getObjects().size());
+        }
+    }
+
+    private int count(String prefix) {
+        int count = 0;
+        synchronized (messages) {
+            for (String message : messages) {
+                if (message.startsWith(prefix)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testOffByDefault()
+        throws ETSdkException
+    {
+        assertNull(ETWireLogging.create(server.createConfiguration()));
+        retrieve(server.createConfiguration(), 2);
+        assertEquals(0, count("Outbound Message"));
+        assertEquals(0, count("Inbound Message"));
+    }
+
+    @Test
+    public void testSampling() {
+        ETWireLogging wireLogging = new ETWireLogging(3, 100);
+        int sampled = 0;
+        for (int i = 0; i < 9; i++) {
+            Exchange exchange = new ExchangeImpl();
+            boolean logged = wireLogging.sample(exchange);
+            assertEquals(logged, ETWireLogging.isSampled(exchange));
+            assertEquals(i % 3 == 0, logged);
+            if (logged) {
+                sampled++;
+            }
+        }
+        assertEquals(3, sampled);
+        assertFalse(ETWireLogging.isSampled(new ExchangeImpl()));
+    }
+
+    @Test
+    public void testSampledCallsLogged()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("soapWireLogging", "true");
+        configuration.set("soapWireLoggingSampleRate", "2");
+        retrieve(configuration, 4);
+        assertEquals(2, count("Outbound Message"));
+        assertEquals(2, count("Inbound Message"));
+    }
+
+    @Test
+    public void testBodiesTruncated()
+        throws ETSdkException
+    {
+        ETConfiguration configuration = server.createConfiguration();
+        configuration.set("soapWireLogging", "true");
+        configuration.set("soapWireLoggingLimit", "100");
+        retrieve(configuration, 1);
+        assertEquals(1, count("Inbound Message"));
+        boolean truncated = false;
+        synchronized (messages) {
+            for (String message : messages) {
+                truncated |= message.contains("(message truncated to 100 bytes)");
+            }
+        }
+        assertTrue(truncated);
+    }
+}